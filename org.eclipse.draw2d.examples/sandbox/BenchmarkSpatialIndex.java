@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+import java.util.Random;
+
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.RectangleFigure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * Compares hover (hit-testing) and partial repaint latency of a
+ * {@link FreeformLayer} with and without the spatial index, for an increasing
+ * number of children.
+ */
+public class BenchmarkSpatialIndex {
+
+	static final int[] CHILD_COUNTS = { 1000, 5000, 20000, 50000 };
+	static final int HOVER_QUERIES = 20000;
+	static final int PAINTS = 200;
+	static final int CLIP_SIZE = 200;
+
+	static FreeformLayer createLayer(int children, boolean indexed) {
+		FreeformLayer layer = new FreeformLayer();
+		layer.setSpatialIndexEnabled(indexed);
+		int extent = (int) Math.sqrt(children) * 60;
+		layer.setBounds(new Rectangle(0, 0, extent, extent));
+		Random random = new Random(children);
+		for (int i = 0; i < children; i++) {
+			RectangleFigure node = new RectangleFigure();
+			node.setBackgroundColor(ColorConstants.lightGray);
+			node.setBounds(new Rectangle(random.nextInt(extent), random.nextInt(extent), 20 + random.nextInt(30),
+					15 + random.nextInt(20)));
+			layer.add(node);
+		}
+		return layer;
+	}
+
+	static double hover(FreeformLayer layer) {
+		Random random = new Random(1);
+		int extent = layer.getBounds().width;
+		long start = System.nanoTime();
+		for (int i = 0; i < HOVER_QUERIES; i++) {
+			layer.findMouseEventTargetAt(random.nextInt(extent), random.nextInt(extent));
+		}
+		return (System.nanoTime() - start) / 1000.0 / HOVER_QUERIES;
+	}
+
+	static double paint(FreeformLayer layer, Image image) {
+		Random random = new Random(2);
+		int extent = layer.getBounds().width - CLIP_SIZE;
+		long start = System.nanoTime();
+		for (int i = 0; i < PAINTS; i++) {
+			int x = random.nextInt(extent);
+			int y = random.nextInt(extent);
+			GC gc = new GC(image);
+			Graphics graphics = new SWTGraphics(gc);
+			graphics.translate(-x, -y);
+			graphics.setClip(new Rectangle(x, y, CLIP_SIZE, CLIP_SIZE));
+			layer.paint(graphics);
+			graphics.dispose();
+			gc.dispose();
+		}
+		return (System.nanoTime() - start) / 1000.0 / PAINTS;
+	}
+
+	public static void main(String[] args) {
+		Display display = Display.getDefault();
+		Image image = new Image(display, CLIP_SIZE, CLIP_SIZE);
+		System.out.println("children\thover linear (us)\thover indexed (us)\tpaint linear (us)\tpaint indexed (us)"); //$NON-NLS-1$
+		for (int count : CHILD_COUNTS) {
+			FreeformLayer linear = createLayer(count, false);
+			FreeformLayer indexed = createLayer(count, true);
+			// warm up
+			hover(linear);
+			hover(indexed);
+			paint(linear, image);
+			paint(indexed, image);
+			System.out.println(String.format("%d\t%.2f\t%.2f\t%.2f\t%.2f", Integer.valueOf(count), //$NON-NLS-1$
+					Double.valueOf(hover(linear)), Double.valueOf(hover(indexed)), Double.valueOf(paint(linear, image)),
+					Double.valueOf(paint(indexed, image))));
+		}
+		image.dispose();
+		display.dispose();
+	}
+
+}
@@ -15,15 +15,20 @@ package org.eclipse.draw2d.graph.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import org.eclipse.draw2d.graph.DirectedGraph;
 import org.eclipse.draw2d.graph.DirectedGraphLayout;
 import org.eclipse.draw2d.graph.Edge;
 import org.eclipse.draw2d.graph.EdgeList;
+import org.eclipse.draw2d.graph.LayoutMonitor;
 import org.eclipse.draw2d.graph.Node;
 import org.eclipse.draw2d.graph.NodeList;
 
@@ -92,6 +97,162 @@ public class DirectedGraphLayoutTest {
 		assertEquals(getRank(n3), 0);
 	}
 
+	@Test
+	public void test_crossingReduction() {
+		Node root = new Node("root");
+		Node t1 = new Node("t1");
+		Node t2 = new Node("t2");
+		Node b1 = new Node("b1");
+		Node b2 = new Node("b2");
+		NodeList nodes = new NodeList();
+		nodes.addAll(List.of(root, t1, t2, b1, b2));
+		EdgeList edges = new EdgeList();
+		edges.addAll(List.of(new Edge(root, t1), new Edge(root, t2), new Edge(t1, b2), new Edge(t2, b1)));
+		g = new DirectedGraph();
+		g.nodes = nodes;
+		g.edges = edges;
+
+		layout.setCrossingReductionIterations(10);
+		layout.setCrossingReductionConvergence(2);
+		assertEquals(10, layout.getCrossingReductionIterations());
+		assertEquals(2, layout.getCrossingReductionConvergence());
+		layout.visit(g);
+
+		assertTrue("Edges should not cross", Integer.signum(t1.x - t2.x) == Integer.signum(b2.x - b1.x));
+	}
+
+	@Test
+	public void test_crossingReductionSettings() {
+		assertEquals(DirectedGraphLayout.DEFAULT_CROSSING_REDUCTION_ITERATIONS,
+				layout.getCrossingReductionIterations());
+		assertEquals(0, layout.getCrossingReductionConvergence());
+		assertThrows(IllegalArgumentException.class, () -> layout.setCrossingReductionIterations(0));
+		assertThrows(IllegalArgumentException.class, () -> layout.setCrossingReductionConvergence(-1));
+	}
+
+	@Test
+	public void test_networkSimplexSearchBudget() {
+		assertEquals(0, layout.getNetworkSimplexSearchBudget());
+		layout.setNetworkSimplexSearchBudget(10);
+		assertEquals(10, layout.getNetworkSimplexSearchBudget());
+		assertThrows(IllegalArgumentException.class, () -> layout.setNetworkSimplexSearchBudget(-1));
+	}
+
+	@Test
+	public void test_largeGraph() {
+		for (int budget : new int[] { 0, 5 }) {
+			g = createGraph(1000);
+			layout = new DirectedGraphLayout();
+			layout.setNetworkSimplexSearchBudget(budget);
+			layout.visit(g);
+			for (Edge e : g.edges) {
+				assertTrue("Edges should point downwards", e.source.y < e.target.y);
+			}
+			for (int i = 1; i < g.nodes.size(); i++) {
+				Node n = g.nodes.get(i);
+				for (int j = 0; j < i; j++) {
+					Node m = g.nodes.get(j);
+					assertFalse("Nodes should not overlap", m.y == n.y && m.x < n.x + n.width && n.x < m.x + m.width);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_monitorReportsSteps() {
+		List<String> started = new ArrayList<>();
+		List<String> ended = new ArrayList<>();
+		assertTrue(layout.visit(g, new LayoutMonitor() {
+			@Override
+			public void stepStarted(String name, int step, int steps) {
+				assertEquals(started.size(), step);
+				started.add(name);
+			}
+
+			@Override
+			public void stepEnded(String name, int step, int steps, long nanos) {
+				assertEquals(started.get(step), name);
+				assertTrue(nanos >= 0);
+				ended.add(name);
+			}
+		}));
+
+		assertEquals(started, ended);
+		assertEquals(22, started.size());
+		assertEquals("TransposeMetrics", started.get(0));
+		assertTrue(started.contains("MinCross"));
+		assertEquals("TransposeMetrics#revisit", started.get(21));
+		assertTrue(e2.isFeedback());
+	}
+
+	@Test
+	public void test_cancelWithinStep() {
+		List<String> ended = new ArrayList<>();
+		boolean completed = layout.visit(g, new LayoutMonitor() {
+			private boolean canceled;
+
+			@Override
+			public void stepStarted(String name, int step, int steps) {
+				// Cancelled from within the step
+				canceled = "HorizontalPlacement".equals(name);
+			}
+
+			@Override
+			public void stepEnded(String name, int step, int steps, long nanos) {
+				ended.add(name);
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return canceled;
+			}
+		});
+
+		assertFalse(completed);
+		assertTrue(ended.contains("MinCross"));
+		assertFalse(ended.contains("HorizontalPlacement"));
+
+		// The layout can be reused for another graph
+		DirectedGraphLayout cancelled = layout;
+		setUp();
+		assertTrue(cancelled.visit(g, null));
+		assertEquals(Set.of(Integer.valueOf(0), Integer.valueOf(1), Integer.valueOf(2)),
+				Set.of(Integer.valueOf(getRank(n1)), Integer.valueOf(getRank(n2)), Integer.valueOf(getRank(n3))));
+	}
+
+	@Test
+	public void test_layoutOnWorkerThread() throws InterruptedException {
+		boolean[] completed = new boolean[1];
+		Thread thread = new Thread(() -> completed[0] = layout.visit(g, new LayoutMonitor() {
+		}));
+		thread.start();
+		thread.join();
+
+		assertTrue(completed[0]);
+		assertEquals(getRank(n2), 2);
+	}
+
+	/**
+	 * Creates a connected, acyclic graph, in which each node has edges from nodes
+	 * created shortly before it.
+	 */
+	private static DirectedGraph createGraph(int size) {
+		Random random = new Random(size);
+		DirectedGraph graph = new DirectedGraph();
+		for (int i = 0; i < size; i++) {
+			Node node = new Node(Integer.valueOf(i));
+			node.width = 20 + random.nextInt(60);
+			if (i > 0) {
+				graph.edges.add(new Edge(graph.nodes.get(Math.max(0, i - 1 - random.nextInt(20))), node));
+			}
+			if (i > 1 && random.nextInt(3) == 0) {
+				graph.edges.add(new Edge(graph.nodes.get(Math.max(0, i - 1 - random.nextInt(50))), node));
+			}
+			graph.nodes.add(node);
+		}
+		return graph;
+	}
+
 	private static final int getRank(Node n) {
 		try {
 			Field f = Node.class.getDeclaredField("rank");
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.draw2d.Animation;
+import org.eclipse.draw2d.DeferredUpdateManager;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.LayoutAnimator;
+import org.eclipse.draw2d.UpdateManager;
+import org.eclipse.draw2d.Viewport;
+import org.eclipse.draw2d.XYLayout;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnimationTest extends Assert {
+
+	private static final Rectangle START = new Rectangle(0, 0, 10, 10);
+	private static final Rectangle TARGET = new Rectangle(100, 100, 10, 10);
+
+	/**
+	 * Keeps the scheduled frame, so that the test renders the frames.
+	 */
+	private static class TestAnimation extends Animation {
+		private Runnable nextFrame;
+		private int nextDelay;
+		private boolean failScheduling;
+
+		@Override
+		protected void scheduleFrame(Runnable frame, int delay) {
+			if (failScheduling) {
+				throw new IllegalStateException("Failing to schedule"); //$NON-NLS-1$
+			}
+			nextFrame = frame;
+			nextDelay = delay;
+		}
+
+		void renderNextFrame(int delay) throws InterruptedException {
+			Runnable frame = nextFrame;
+			nextFrame = null;
+			Thread.sleep(delay);
+			frame.run();
+		}
+	}
+
+	private DeferredUpdateManager manager;
+	private IFigure root;
+	private IFigure container;
+	private IFigure child;
+	private TestAnimation animation;
+	private final List<Integer> locations = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		manager = new DeferredUpdateManager() {
+			@Override
+			protected void sendUpdateRequest() {
+				// updates are performed by the animation
+			}
+		};
+		root = new Figure() {
+			@Override
+			public UpdateManager getUpdateManager() {
+				return manager;
+			}
+		};
+		root.setBounds(new Rectangle(0, 0, 500, 500));
+		manager.setRoot(root);
+		container = new Figure();
+		container.setLayoutManager(new XYLayout());
+		container.addLayoutListener(LayoutAnimator.getDefault());
+		root.add(container, root.getBounds());
+		container.setBounds(root.getBounds());
+		child = new Figure();
+		container.add(child, START);
+		child.addFigureListener(source -> locations.add(Integer.valueOf(source.getBounds().x)));
+		manager.performUpdate();
+		animation = new TestAnimation();
+	}
+
+	@After
+	public void tearDown() {
+		animation.cancel();
+	}
+
+	private void renderFrames() throws InterruptedException {
+		while (animation.isRunning()) {
+			animation.renderNextFrame(animation.nextDelay);
+		}
+	}
+
+	@Test
+	public void testSynchronousAnimation() {
+		assertTrue(Animation.markBegin());
+		container.setConstraint(child, TARGET);
+		Animation.run(50);
+		assertEquals(TARGET, child.getBounds());
+		assertFalse(Animation.isAnimating());
+		assertTrue(locations.size() > 2);
+	}
+
+	@Test
+	public void testAsynchronousAnimation() throws InterruptedException {
+		animation.begin();
+		container.setConstraint(child, TARGET);
+		animation.start(100);
+		assertTrue(animation.isRunning());
+		assertNotNull(animation.nextFrame);
+		assertTrue("The first frame should be rendered immediately", child.getBounds().x < TARGET.x); //$NON-NLS-1$
+		locations.clear();
+
+		// A layout in between two frames keeps the intermediate state
+		container.revalidate();
+		manager.performValidation();
+		assertTrue(child.getBounds().x < TARGET.x);
+
+		renderFrames();
+		assertFalse(animation.isRunning());
+		assertEquals(TARGET, child.getBounds());
+		for (int i = 1; i < locations.size(); i++) {
+			assertTrue(locations.get(i - 1).intValue() <= locations.get(i).intValue());
+		}
+
+		// The figures are laid out normally afterwards
+		container.revalidate();
+		manager.performUpdate();
+		assertEquals(TARGET, child.getBounds());
+	}
+
+	@Test
+	public void testFailingFrame() {
+		animation.begin();
+		container.setConstraint(child, TARGET);
+		animation.start(10000);
+		assertTrue(animation.isRunning());
+
+		IFigure failing = new Figure() {
+			@Override
+			public void validate() {
+				throw new IllegalStateException("Failing to lay out"); //$NON-NLS-1$
+			}
+		};
+		root.add(failing, new Rectangle(0, 0, 10, 10));
+		assertThrows(IllegalStateException.class, () -> animation.nextFrame.run());
+		assertFalse("A failing frame should complete the animation", animation.isRunning()); //$NON-NLS-1$
+		root.remove(failing);
+		manager.performUpdate();
+		assertEquals(TARGET, child.getBounds());
+
+		// The animation can be started again
+		animation.begin();
+		container.setConstraint(child, START);
+		animation.start(10000);
+		assertTrue(animation.isRunning());
+	}
+
+	@Test
+	public void testFailingScheduling() {
+		animation.begin();
+		container.setConstraint(child, TARGET);
+		animation.failScheduling = true;
+		assertThrows(IllegalStateException.class, () -> animation.start(10000));
+		assertFalse(animation.isRunning());
+		manager.performUpdate();
+		assertEquals(TARGET, child.getBounds());
+	}
+
+	@Test
+	public void testCancel() {
+		animation.begin();
+		container.setConstraint(child, TARGET);
+		animation.start(10000);
+		assertTrue(animation.isRunning());
+		Runnable frame = animation.nextFrame;
+		animation.cancel();
+		assertFalse(animation.isRunning());
+		manager.performUpdate();
+		assertEquals(TARGET, child.getBounds());
+
+		// A frame scheduled before the cancellation does nothing
+		int count = locations.size();
+		frame.run();
+		assertEquals(count, locations.size());
+	}
+
+	@Test
+	public void testRetarget() throws InterruptedException {
+		animation.begin();
+		container.setConstraint(child, TARGET);
+		animation.start(1000);
+		animation.renderNextFrame(300);
+		int intermediate = child.getBounds().x;
+		assertTrue(intermediate > 0 && intermediate < TARGET.x);
+
+		Rectangle retarget = new Rectangle(0, 200, 10, 10);
+		animation.begin();
+		assertFalse(animation.isRunning());
+		container.setConstraint(child, retarget);
+		animation.start(100);
+		assertTrue("The animation should continue from the intermediate state", child.getBounds().x > 0); //$NON-NLS-1$
+		assertTrue(child.getBounds().x <= intermediate);
+		renderFrames();
+		assertEquals(retarget, child.getBounds());
+	}
+
+	@Test
+	public void testDroppedFrames() throws InterruptedException {
+		animation.setFrameRate(100);
+		assertEquals(100, animation.getFrameRate());
+		animation.begin();
+		container.setConstraint(child, TARGET);
+		animation.start(200);
+		// Each frame is rendered five frame intervals late
+		while (animation.isRunning()) {
+			animation.renderNextFrame(50);
+		}
+		assertTrue(animation.getDroppedFrameCount() > 0);
+		assertEquals(TARGET, child.getBounds());
+		assertThrows(IllegalArgumentException.class, () -> animation.setFrameRate(0));
+	}
+
+	@Test
+	public void testRecordingIsExclusive() {
+		animation.begin();
+		assertFalse(Animation.markBegin());
+		assertThrows(IllegalStateException.class, () -> new Animation().begin());
+		assertThrows(IllegalStateException.class, () -> new Animation().start(100));
+		animation.cancel();
+		assertTrue(Animation.markBegin());
+		Animation.run(0);
+	}
+
+	@Test
+	public void testOffscreenFiguresAreCulled() throws InterruptedException {
+		root.remove(container);
+		Viewport viewport = new Viewport();
+		IFigure contents = new Figure();
+		contents.setLayoutManager(new XYLayout());
+		contents.addLayoutListener(LayoutAnimator.getDefault());
+		viewport.setContents(contents);
+		root.add(viewport, new Rectangle(0, 0, 100, 100));
+		viewport.setBounds(new Rectangle(0, 0, 100, 100));
+		IFigure visible = new Figure();
+		IFigure offscreen = new Figure();
+		contents.add(visible, START);
+		contents.add(offscreen, new Rectangle(500, 500, 10, 10));
+		manager.performUpdate();
+		List<Integer> offscreenMoves = new ArrayList<>();
+		offscreen.addFigureListener(source -> offscreenMoves.add(Integer.valueOf(source.getBounds().x)));
+
+		Rectangle visibleTarget = new Rectangle(50, 50, 10, 10);
+		Rectangle offscreenTarget = new Rectangle(600, 600, 10, 10);
+		animation.begin();
+		contents.setConstraint(visible, visibleTarget);
+		contents.setConstraint(offscreen, offscreenTarget);
+		animation.start(100);
+		assertEquals("The off-screen figure should jump to its final bounds", offscreenTarget, offscreen.getBounds()); //$NON-NLS-1$
+		assertTrue(visible.getBounds().x < visibleTarget.x);
+		int moves = offscreenMoves.size();
+
+		renderFrames();
+		assertEquals(visibleTarget, visible.getBounds());
+		assertEquals(offscreenTarget, offscreen.getBounds());
+		assertEquals("The off-screen figure should not be moved by the frames", moves, offscreenMoves.size()); //$NON-NLS-1$
+	}
+
+}
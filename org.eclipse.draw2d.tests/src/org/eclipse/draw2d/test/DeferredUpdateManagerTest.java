@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.ChopboxAnchor;
+import org.eclipse.draw2d.DeferredUpdateManager;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.GraphicsSource;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.PolylineConnection;
+import org.eclipse.draw2d.UpdateListener;
+import org.eclipse.draw2d.UpdateManager;
+import org.eclipse.draw2d.UpdateMetrics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.parts.UpdateMetricsOverlay;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeferredUpdateManagerTest extends Assert {
+
+	private static class RecordingGraphicsSource implements GraphicsSource {
+		private final List<Rectangle> regions = new ArrayList<>();
+
+		@Override
+		public Graphics getGraphics(Rectangle region) {
+			regions.add(region.getCopy());
+			return null;
+		}
+
+		@Override
+		public void flushGraphics(Rectangle region) {
+		}
+	}
+
+	private static class TestUpdateManager extends DeferredUpdateManager {
+		TestUpdateManager(GraphicsSource gs) {
+			super(gs);
+		}
+
+		@Override
+		protected void sendUpdateRequest() {
+			// updates are performed explicitly
+		}
+	}
+
+	private RecordingGraphicsSource source;
+	private DeferredUpdateManager manager;
+	private IFigure root;
+	private int rectangleCount;
+	private long paintedArea;
+	private Rectangle paintingDamage;
+	private final List<UpdateMetrics> metrics = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		source = new RecordingGraphicsSource();
+		manager = new TestUpdateManager(source);
+		root = new Figure();
+		root.setBounds(new Rectangle(0, 0, 1000, 1000));
+		manager.setRoot(root);
+		manager.addUpdateListener(new UpdateListener.Stub() {
+			@Override
+			public void notifyPainting(Rectangle damage, Map<IFigure, Rectangle> dirtyRegions) {
+				paintingDamage = damage.getCopy();
+			}
+
+			@Override
+			public void notifyPainted(int count, long area) {
+				rectangleCount = count;
+				paintedArea = area;
+			}
+
+			@Override
+			public void notifyUpdated(UpdateMetrics cycle) {
+				metrics.add(cycle);
+			}
+		});
+	}
+
+	/**
+	 * Creates a realized root figure which is updated by the update manager, so
+	 * that its children are validated and repainted by it.
+	 */
+	private IFigure createManagedRoot() {
+		IFigure managedRoot = new Figure() {
+			@Override
+			public UpdateManager getUpdateManager() {
+				return manager;
+			}
+		};
+		managedRoot.setBounds(new Rectangle(0, 0, 1000, 1000));
+		managedRoot.addNotify();
+		manager.setRoot(managedRoot);
+		return managedRoot;
+	}
+
+	private IFigure addChild() {
+		IFigure child = new Figure();
+		child.setBounds(root.getBounds());
+		root.add(child);
+		return child;
+	}
+
+	@Test
+	public void testSingleDamageRectangle() {
+		assertFalse(manager.isRegionRepairEnabled());
+		manager.addDirtyRegion(root, 0, 0, 10, 10);
+		manager.addDirtyRegion(root, 990, 990, 10, 10);
+		manager.performUpdate();
+		assertEquals(List.of(new Rectangle(0, 0, 1000, 1000)), source.regions);
+		assertEquals(1, rectangleCount);
+		assertEquals(1000000, paintedArea);
+	}
+
+	@Test
+	public void testRegionRepair() {
+		manager.setRegionRepairEnabled(true);
+		IFigure child = new Figure();
+		child.setBounds(new Rectangle(990, 990, 10, 10));
+		root.add(child);
+		manager.addDirtyRegion(root, 0, 0, 10, 10);
+		manager.addDirtyRegion(child, 990, 990, 10, 10);
+		manager.performUpdate();
+		assertEquals(2, source.regions.size());
+		assertTrue(source.regions.contains(new Rectangle(0, 0, 10, 10)));
+		assertTrue(source.regions.contains(new Rectangle(990, 990, 10, 10)));
+		assertEquals(2, rectangleCount);
+		assertEquals(200, paintedArea);
+		assertEquals("Listeners should still be notified of the bounds of all damage", //$NON-NLS-1$
+				new Rectangle(0, 0, 1000, 1000), paintingDamage);
+	}
+
+	@Test
+	public void testRegionRepairMergesRectangles() {
+		manager.setRegionRepairEnabled(true);
+		List<IFigure> figures = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			figures.add(addChild());
+		}
+		// Overlapping and adjacent rectangles are merged, distant ones are not
+		manager.addDirtyRegion(figures.get(0), 100, 100, 50, 50);
+		manager.addDirtyRegion(figures.get(1), 120, 120, 50, 50);
+		manager.addDirtyRegion(figures.get(2), 170, 100, 20, 70);
+		manager.addDirtyRegion(figures.get(3), 800, 800, 20, 20);
+		manager.performUpdate();
+		assertEquals(2, source.regions.size());
+		assertTrue(source.regions.contains(new Rectangle(100, 100, 90, 70)));
+		assertTrue(source.regions.contains(new Rectangle(800, 800, 20, 20)));
+
+		// The number of rectangles is limited
+		source.regions.clear();
+		for (int i = 0; i < 20; i++) {
+			manager.addDirtyRegion(addChild(), i * 50, (i % 2) * 500, 10, 10);
+		}
+		manager.performUpdate();
+		assertTrue(source.regions.size() <= 8);
+		assertEquals(source.regions.size(), rectangleCount);
+		for (int i = 0; i < source.regions.size(); i++) {
+			for (int j = i + 1; j < source.regions.size(); j++) {
+				assertFalse(source.regions.get(i).intersects(source.regions.get(j)));
+			}
+		}
+	}
+
+	@Test
+	public void testMetricsDisabledByDefault() {
+		assertFalse(manager.isMetricsEnabled());
+		manager.addDirtyRegion(root, 0, 0, 10, 10);
+		manager.performUpdate();
+		assertTrue(metrics.isEmpty());
+	}
+
+	@Test
+	public void testMetrics() {
+		manager.setMetricsEnabled(true);
+		IFigure managedRoot = createManagedRoot();
+		IFigure child = new Figure();
+		managedRoot.add(child, new Rectangle(100, 100, 50, 50));
+		child.setBounds(new Rectangle(100, 100, 50, 50));
+		metrics.clear();
+		manager.addDirtyRegion(managedRoot, 0, 0, 10, 10);
+		manager.performUpdate();
+		assertEquals(1, metrics.size());
+		UpdateMetrics cycle = metrics.get(0);
+		assertEquals(1, cycle.getInvalidFigureCount());
+		assertEquals(2, cycle.getDirtyRegionCount());
+		assertEquals(rectangleCount, cycle.getPaintedRectangleCount());
+		assertEquals(paintedArea, cycle.getPaintedArea());
+		assertEquals(0, cycle.getRouteCount());
+		assertTrue(cycle.getTotalTime() >= cycle.getValidationTime() + cycle.getRepairTime());
+
+		// A validation on its own is a cycle without repair
+		metrics.clear();
+		child.revalidate();
+		manager.performValidation();
+		assertEquals(1, metrics.size());
+		assertEquals(1, metrics.get(0).getInvalidFigureCount());
+		assertEquals(0, metrics.get(0).getRepairTime());
+
+		// Nothing is reported once the recording is disabled
+		metrics.clear();
+		manager.setMetricsEnabled(false);
+		child.revalidate();
+		manager.performUpdate();
+		assertTrue(metrics.isEmpty());
+	}
+
+	@Test
+	public void testRoutingMetrics() {
+		manager.setMetricsEnabled(true);
+		IFigure managedRoot = createManagedRoot();
+		IFigure source = new Figure();
+		IFigure target = new Figure();
+		managedRoot.add(source);
+		managedRoot.add(target);
+		source.setBounds(new Rectangle(0, 0, 10, 10));
+		target.setBounds(new Rectangle(100, 100, 10, 10));
+		PolylineConnection connection = new PolylineConnection();
+		connection.setSourceAnchor(new ChopboxAnchor(source));
+		connection.setTargetAnchor(new ChopboxAnchor(target));
+		managedRoot.add(connection);
+		manager.performUpdate();
+		assertEquals(1, metrics.size());
+		assertTrue(metrics.get(0).getRouteCount() >= 1);
+		assertTrue(metrics.get(0).getRoutingTime() <= metrics.get(0).getValidationTime());
+	}
+
+	@Test
+	public void testUpdateMetricsOverlay() {
+		IFigure managedRoot = createManagedRoot();
+		UpdateMetricsOverlay overlay = new UpdateMetricsOverlay();
+		managedRoot.add(overlay, new Rectangle(0, 0, 300, 140));
+		overlay.setBounds(new Rectangle(0, 0, 300, 140));
+		assertTrue(manager.isMetricsEnabled());
+		manager.addDirtyRegion(managedRoot, 500, 500, 10, 10);
+		manager.performUpdate();
+		assertSame(metrics.get(metrics.size() - 1), overlay.getLastMetrics());
+		assertEquals(1, Arrays.stream(overlay.getHistogram()).sum());
+
+		// Repainting the overlay does not record another cycle
+		manager.performUpdate();
+		assertEquals(1, Arrays.stream(overlay.getHistogram()).sum());
+
+		managedRoot.remove(overlay);
+		assertFalse(manager.isMetricsEnabled());
+	}
+
+}
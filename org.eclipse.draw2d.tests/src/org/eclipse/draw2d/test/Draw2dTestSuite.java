@@ -27,6 +27,9 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 	FanRouterTest.class,
 	ShortestPathRoutingTest.class,
+	ShortestPathConnectionRouterTest.class,
+	LightweightSystemBufferTest.class,
+	DeferredUpdateManagerTest.class,
 	XYLayoutTest.class,
 	TextFlowWrapTest.class,
 	LocalOptimizerTest.class,
@@ -57,6 +60,10 @@ import org.junit.runners.Suite;
 	GeometryTest.class,
 	ScalablePolygonShapeTest.class,
 	LayerTest.class,
+	FigureSpatialIndexTest.class,
+	RasterCacheTest.class,
+	AnimationTest.class,
+	TiledImageExporterTest.class,
 	ShapeTest.class,
 	InsetsTest.class,
 	DirectedGraphLayoutTest.class,
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.Layer;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FigureSpatialIndexTest extends Assert {
+
+	private Layer indexed;
+	private Layer plain;
+
+	@Before
+	public void setUp() {
+		indexed = new FreeformLayer();
+		indexed.setBounds(new Rectangle(0, 0, 5000, 5000));
+		indexed.setSpatialIndexEnabled(true);
+		plain = new FreeformLayer();
+		plain.setBounds(new Rectangle(0, 0, 5000, 5000));
+
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			Rectangle r = new Rectangle(random.nextInt(4900), random.nextInt(4900), 5 + random.nextInt(100),
+					5 + random.nextInt(100));
+			indexed.add(createChild(r));
+			plain.add(createChild(r));
+		}
+		// One large child spanning many grid cells
+		indexed.add(createChild(new Rectangle(100, 100, 4000, 4000)), 0);
+		plain.add(createChild(new Rectangle(100, 100, 4000, 4000)), 0);
+	}
+
+	private static IFigure createChild(Rectangle bounds) {
+		Figure child = new Figure();
+		child.setOpaque(true);
+		child.setBounds(bounds);
+		return child;
+	}
+
+	private void assertSameHits() {
+		for (int x = 0; x < 5000; x += 73) {
+			for (int y = 0; y < 5000; y += 79) {
+				assertEquals(indexOf(plain, plain.findFigureAt(x, y)), indexOf(indexed, indexed.findFigureAt(x, y)));
+				assertEquals(indexOf(plain, plain.findMouseEventTargetAt(x, y)),
+						indexOf(indexed, indexed.findMouseEventTargetAt(x, y)));
+			}
+		}
+	}
+
+	private static int indexOf(IFigure parent, IFigure child) {
+		return parent.getChildren().indexOf(child);
+	}
+
+	@Test
+	public void testHitTestingMatchesLinearSearch() {
+		assertTrue(indexed.isSpatialIndexEnabled());
+		assertFalse(plain.isSpatialIndexEnabled());
+		assertSameHits();
+	}
+
+	@Test
+	public void testHitTestingAfterMove() {
+		for (int i = 0; i < 500; i++) {
+			Rectangle r = indexed.getChildren().get(i).getBounds().getTranslated(250, -130);
+			indexed.getChildren().get(i).setBounds(r);
+			plain.getChildren().get(i).setBounds(r);
+		}
+		assertSameHits();
+	}
+
+	@Test
+	public void testHitTestingAfterRemoveAndReorder() {
+		for (int i = 0; i < 300; i++) {
+			indexed.remove(indexed.getChildren().get(i));
+			plain.remove(plain.getChildren().get(i));
+		}
+		// Moving the large child to the front must be reflected in the z-order
+		indexed.add(indexed.getChildren().get(indexed.getChildren().size() - 1), 0);
+		plain.add(plain.getChildren().get(plain.getChildren().size() - 1), 0);
+		assertSameHits();
+	}
+
+	@Test
+	public void testHitTestingAfterReorderChildren() {
+		List<IFigure> reversed = new ArrayList<>(indexed.getChildren());
+		Collections.reverse(reversed);
+		indexed.reorderChildren(reversed);
+		reversed = new ArrayList<>(plain.getChildren());
+		Collections.reverse(reversed);
+		plain.reorderChildren(reversed);
+		assertSame(reversed.get(0), plain.getChildren().get(0));
+		assertSameHits();
+	}
+
+	@Test
+	public void testDisableIndex() {
+		IFigure child = indexed.getChildren().get(10);
+		indexed.setSpatialIndexEnabled(false);
+		assertFalse(indexed.isSpatialIndexEnabled());
+		child.setBounds(new Rectangle(4990, 4990, 5, 5));
+		plain.getChildren().get(10).setBounds(new Rectangle(4990, 4990, 5, 5));
+		indexed.setSpatialIndexEnabled(true);
+		assertSame(child, indexed.findFigureAt(4992, 4992));
+		assertSameHits();
+	}
+
+}
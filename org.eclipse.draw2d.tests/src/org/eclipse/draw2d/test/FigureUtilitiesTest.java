@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 IBM Corporation and others.
+ * Copyright (c) 2006, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -13,9 +13,15 @@
 
 package org.eclipse.draw2d.test;
 
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.widgets.Display;
+
 import org.eclipse.draw2d.Figure;
 import org.eclipse.draw2d.FigureUtilities;
 import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.TextUtilities;
+import org.eclipse.draw2d.geometry.Dimension;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -88,4 +94,86 @@ public class FigureUtilitiesTest extends Assert {
 		IFigure result = FigureUtilities.findCommonAncestor(figureChild, orphanFigure);
 		assertNull(result);
 	}
+
+	@SuppressWarnings("static-method")
+	@Test
+	public void testTextExtentCache() {
+		Font font = Display.getDefault().getSystemFont();
+		int size = TextUtilities.getExtentCacheSize();
+		try {
+			TextUtilities.setExtentCacheSize(0);
+			Dimension uncached = FigureUtilities.getTextExtents("Cached\tText", font); //$NON-NLS-1$
+
+			TextUtilities.setExtentCacheSize(16);
+			TextUtilities.clearExtentCache();
+			assertEquals(uncached, FigureUtilities.getTextExtents("Cached\tText", font)); //$NON-NLS-1$
+			assertEquals(0, TextUtilities.getExtentCacheHits());
+			assertEquals(1, TextUtilities.getExtentCacheMisses());
+			assertEquals(uncached, FigureUtilities.getTextExtents("Cached\tText", font)); //$NON-NLS-1$
+			assertEquals(1, TextUtilities.getExtentCacheHits());
+
+			// text and string extents are cached separately
+			FigureUtilities.getStringExtents("Cached\tText", font); //$NON-NLS-1$
+			assertEquals(2, TextUtilities.getExtentCacheMisses());
+
+			// the least recently used entries are evicted
+			for (int i = 0; i < 16; i++) {
+				FigureUtilities.getTextExtents(String.valueOf(i), font);
+			}
+			FigureUtilities.getTextExtents("Cached\tText", font); //$NON-NLS-1$
+			assertEquals(19, TextUtilities.getExtentCacheMisses());
+		} finally {
+			TextUtilities.setExtentCacheSize(size);
+			TextUtilities.clearExtentCache();
+		}
+	}
+
+	/**
+	 * Measurements of the ASCII fast path are neither hits nor misses of the
+	 * extent cache.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testAsciiFastPathCounters() {
+		Font font = Display.getDefault().getSystemFont();
+		boolean enabled = TextUtilities.isAsciiFastPathEnabled();
+		try {
+			TextUtilities.setAsciiFastPathEnabled(true);
+			TextUtilities.clearExtentCache();
+			FigureUtilities.getTextExtents("Text", font); //$NON-NLS-1$
+			FigureUtilities.getTextExtents("Text", font); //$NON-NLS-1$
+			assertEquals(2, TextUtilities.getAsciiFastPathMeasurements());
+			assertEquals(0, TextUtilities.getExtentCacheHits());
+			assertEquals(0, TextUtilities.getExtentCacheMisses());
+
+			// strings with other characters still use the cache
+			FigureUtilities.getTextExtents("Text\u00e9", font); //$NON-NLS-1$
+			assertEquals(2, TextUtilities.getAsciiFastPathMeasurements());
+			assertEquals(1, TextUtilities.getExtentCacheMisses());
+
+			TextUtilities.clearExtentCache();
+			assertEquals(0, TextUtilities.getAsciiFastPathMeasurements());
+		} finally {
+			TextUtilities.setAsciiFastPathEnabled(enabled);
+			TextUtilities.clearExtentCache();
+		}
+	}
+
+	@SuppressWarnings("static-method")
+	@Test
+	public void testTextExtentCacheDisposedFont() {
+		Display display = Display.getDefault();
+		String name = display.getSystemFont().getFontData()[0].getName();
+		Font small = new Font(display, name, 8, SWT.NORMAL);
+		Dimension smallExtent = FigureUtilities.getTextExtents("Text", small); //$NON-NLS-1$
+		small.dispose();
+		// the new font may get the handle of the disposed one
+		Font large = new Font(display, name, 32, SWT.NORMAL);
+		try {
+			Dimension largeExtent = FigureUtilities.getTextExtents("Text", large); //$NON-NLS-1$
+			assertTrue(largeExtent.height > smallExtent.height);
+		} finally {
+			large.dispose();
+		}
+	}
 }
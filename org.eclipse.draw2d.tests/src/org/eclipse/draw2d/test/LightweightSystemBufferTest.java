@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Canvas;
+import org.eclipse.swt.widgets.Shell;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.GraphicsSource;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.LightweightSystem;
+import org.eclipse.draw2d.RectangleFigure;
+import org.eclipse.draw2d.XYLayout;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LightweightSystemBufferTest extends BaseTestCase {
+
+	private static class CountingFigure extends RectangleFigure {
+		private int paintCount;
+		private final Rectangle lastClip = new Rectangle();
+		private int lastAlpha;
+		private boolean lastAdvanced;
+
+		@Override
+		public void paintFigure(Graphics graphics) {
+			paintCount++;
+			graphics.getClip(lastClip);
+			lastAlpha = graphics.getAlpha();
+			lastAdvanced = graphics.getAdvanced();
+			// Leaves state behind which must not leak into the next update
+			graphics.setAlpha(128);
+			graphics.setAntialias(SWT.ON);
+			super.paintFigure(graphics);
+		}
+	}
+
+	private Shell shell;
+	private LightweightSystem lws;
+	private IFigure contents;
+	private CountingFigure box;
+
+	@Before
+	public void setUp() {
+		shell = new Shell();
+		shell.setLayout(new FillLayout());
+		Canvas canvas = new Canvas(shell, SWT.NO_BACKGROUND);
+		lws = new LightweightSystem(canvas);
+		contents = new Figure();
+		contents.setOpaque(true);
+		contents.setLayoutManager(new XYLayout());
+		box = new CountingFigure();
+		box.setBackgroundColor(ColorConstants.green);
+		contents.add(box, new Rectangle(20, 20, 40, 40));
+		lws.setContents(contents);
+		shell.setSize(300, 300);
+		shell.open();
+	}
+
+	@After
+	public void tearDown() {
+		shell.dispose();
+	}
+
+	private void update(Rectangle damage) {
+		contents.repaint(damage);
+		contents.getUpdateManager().performUpdate();
+	}
+
+	/**
+	 * Records the image buffer of each update, by wrapping the graphics source of
+	 * the lightweight system.
+	 */
+	private List<Image> recordImages() {
+		List<Image> images = new ArrayList<>();
+		try {
+			Field sourceField = LightweightSystem.class.getDeclaredField("bufferedSource"); //$NON-NLS-1$
+			sourceField.setAccessible(true);
+			GraphicsSource source = (GraphicsSource) sourceField.get(lws);
+			Method getImage = source.getClass().getDeclaredMethod("getImage"); //$NON-NLS-1$
+			getImage.setAccessible(true);
+			contents.getUpdateManager().setGraphicsSource(new GraphicsSource() {
+				@Override
+				public Graphics getGraphics(Rectangle region) {
+					Graphics graphics = source.getGraphics(region);
+					try {
+						images.add((Image) getImage.invoke(source));
+					} catch (Exception e) {
+						fail(e.getMessage());
+					}
+					return graphics;
+				}
+
+				@Override
+				public void flushGraphics(Rectangle region) {
+					source.flushGraphics(region);
+				}
+			});
+		} catch (Exception e) {
+			fail(e.getMessage());
+		}
+		return images;
+	}
+
+	@Test
+	public void testBufferRetained() {
+		assertFalse(lws.isBufferRetained());
+		lws.setBufferRetained(true);
+		assertTrue(lws.isBufferRetained());
+		List<Image> images = recordImages();
+
+		box.paintCount = 0;
+		update(new Rectangle(30, 30, 10, 10));
+		assertEquals(1, box.paintCount);
+		assertEquals("Only the damaged region should be painted", new Rectangle(30, 30, 10, 10), box.lastClip); //$NON-NLS-1$
+		assertEquals(1, images.size());
+		Image buffer = images.get(0);
+		assertNotNull(buffer);
+		assertFalse("The buffer should be kept after the update", buffer.isDisposed()); //$NON-NLS-1$
+
+		// The buffer is reused and reset between updates
+		update(new Rectangle(10, 10, 30, 30));
+		assertEquals(2, box.paintCount);
+		assertEquals(new Rectangle(20, 20, 20, 20), box.lastClip);
+		assertEquals(2, images.size());
+		assertSame(buffer, images.get(1));
+		assertEquals("Alpha should not leak into the next update", 255, box.lastAlpha); //$NON-NLS-1$
+		assertFalse("Anti-aliasing should not leak into the next update", box.lastAdvanced); //$NON-NLS-1$
+
+		// and reallocated when the canvas is resized
+		shell.setSize(400, 400);
+		update(new Rectangle(0, 0, 100, 100));
+		assertEquals(new Rectangle(20, 20, 40, 40), box.lastClip);
+		assertEquals(3, images.size());
+		assertNotSame(buffer, images.get(2));
+		assertTrue("The old buffer should be disposed", buffer.isDisposed()); //$NON-NLS-1$
+		assertEquals(shell.getClientArea().width, images.get(2).getBounds().width);
+		assertEquals(255, box.lastAlpha);
+		assertFalse(box.lastAdvanced);
+
+		lws.setBufferRetained(false);
+		assertFalse(lws.isBufferRetained());
+		int count = box.paintCount;
+		update(new Rectangle(30, 30, 10, 10));
+		assertEquals(count + 1, box.paintCount);
+	}
+
+}
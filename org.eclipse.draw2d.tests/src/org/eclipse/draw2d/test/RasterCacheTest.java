@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.lang.reflect.Field;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Canvas;
+import org.eclipse.swt.widgets.Shell;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.LightweightSystem;
+import org.eclipse.draw2d.RasterCache;
+import org.eclipse.draw2d.RectangleFigure;
+import org.eclipse.draw2d.XYLayout;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RasterCacheTest extends BaseTestCase {
+
+	private static class CountingFigure extends RectangleFigure {
+		private int paintCount;
+
+		@Override
+		public void paintFigure(Graphics graphics) {
+			paintCount++;
+			super.paintFigure(graphics);
+		}
+	}
+
+	private Shell shell;
+	private LightweightSystem lws;
+	private IFigure contents;
+	private RasterCache cache;
+
+	@Before
+	public void setUp() {
+		shell = new Shell();
+		shell.setLayout(new FillLayout());
+		Canvas canvas = new Canvas(shell, SWT.NO_BACKGROUND);
+		lws = new LightweightSystem(canvas);
+		contents = new Figure();
+		contents.setOpaque(true);
+		contents.setLayoutManager(new XYLayout());
+		lws.setContents(contents);
+		cache = lws.getRasterCache();
+		shell.setSize(300, 300);
+		shell.open();
+	}
+
+	@After
+	public void tearDown() {
+		shell.dispose();
+	}
+
+	private Figure addCachedFigure(Rectangle bounds, CountingFigure child) {
+		Figure cached = new Figure();
+		cached.setOpaque(true);
+		cached.setLayoutManager(new XYLayout());
+		cached.setRasterCacheEnabled(true);
+		child.setBackgroundColor(ColorConstants.green);
+		cached.add(child, new Rectangle(5, 5, 20, 20));
+		contents.add(cached, bounds);
+		return cached;
+	}
+
+	private static Object getRasterCache(Figure figure) {
+		try {
+			Field field = Figure.class.getDeclaredField("rasterCache"); //$NON-NLS-1$
+			field.setAccessible(true);
+			return field.get(figure);
+		} catch (Exception e) {
+			fail(e.getMessage());
+			return null;
+		}
+	}
+
+	private void update() {
+		contents.repaint();
+		contents.getUpdateManager().performUpdate();
+	}
+
+	@Test
+	public void testPaintFromCache() {
+		CountingFigure child = new CountingFigure();
+		Figure cached = addCachedFigure(new Rectangle(20, 20, 40, 40), child);
+		assertTrue(cached.isRasterCacheEnabled());
+		update();
+		int count = child.paintCount;
+		assertTrue(count > 0);
+		assertEquals(1, cache.getImageCount());
+		assertEquals(40 * 40 * 4, cache.getMemoryUsage());
+
+		// The subtree is not painted again while it does not change
+		update();
+		update();
+		assertEquals(count, child.paintCount);
+
+		// until a descendant is repainted
+		child.repaint();
+		update();
+		assertEquals(count + 1, child.paintCount);
+
+		// or invalidated
+		child.revalidate();
+		update();
+		assertEquals(count + 2, child.paintCount);
+
+		cached.setRasterCacheEnabled(false);
+		assertEquals(0, cache.getImageCount());
+		update();
+		assertEquals(count + 3, child.paintCount);
+	}
+
+	@Test
+	public void testMemoryBudget() {
+		CountingFigure first = new CountingFigure();
+		CountingFigure second = new CountingFigure();
+		Figure firstCached = addCachedFigure(new Rectangle(0, 0, 40, 40), first);
+		Figure secondCached = addCachedFigure(new Rectangle(100, 100, 40, 40), second);
+		cache.setMemoryBudget(40 * 40 * 4);
+		update();
+		assertEquals("Only one image should fit into the budget", 1, cache.getImageCount()); //$NON-NLS-1$
+		assertTrue(cache.getMemoryUsage() <= cache.getMemoryBudget());
+		assertTrue("Only the figure with an image should reference the cache", //$NON-NLS-1$
+				getRasterCache(firstCached) == null ^ getRasterCache(secondCached) == null);
+
+		// Figures whose image does not fit into the budget are painted directly
+		cache.setMemoryBudget(100);
+		assertEquals(0, cache.getImageCount());
+		assertEquals(0, cache.getMemoryUsage());
+		assertNull(getRasterCache(firstCached));
+		assertNull(getRasterCache(secondCached));
+		int count = first.paintCount;
+		update();
+		update();
+		assertEquals(count + 2, first.paintCount);
+
+		assertThrows(IllegalArgumentException.class, () -> cache.setMemoryBudget(-1));
+	}
+
+	/**
+	 * A repaint discards the images of all cached ancestors, not only of the
+	 * nearest one.
+	 */
+	@Test
+	public void testNestedCachedFigures() {
+		CountingFigure child = new CountingFigure();
+		Figure inner = addCachedFigure(new Rectangle(20, 20, 40, 40), child);
+		Figure outer = new Figure();
+		outer.setOpaque(true);
+		outer.setLayoutManager(new XYLayout());
+		outer.setRasterCacheEnabled(true);
+		contents.remove(inner);
+		outer.add(inner, new Rectangle(10, 10, 40, 40));
+		contents.add(outer, new Rectangle(0, 0, 100, 100));
+		update();
+		assertEquals(2, cache.getImageCount());
+
+		int count = child.paintCount;
+		child.repaint();
+		update();
+		assertEquals(count + 1, child.paintCount);
+		assertEquals(2, cache.getImageCount());
+		assertNotNull(getRasterCache(inner));
+		assertNotNull(getRasterCache(outer));
+	}
+
+	@Test
+	public void testDisposeCanvas() {
+		addCachedFigure(new Rectangle(20, 20, 40, 40), new CountingFigure());
+		update();
+		assertEquals(1, cache.getImageCount());
+		shell.dispose();
+		assertEquals(0, cache.getImageCount());
+	}
+
+}
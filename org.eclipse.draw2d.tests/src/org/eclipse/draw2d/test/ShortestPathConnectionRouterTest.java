@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.PolylineConnection;
+import org.eclipse.draw2d.ShortestPathConnectionRouter;
+import org.eclipse.draw2d.XYAnchor;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShortestPathConnectionRouterTest extends Assert {
+
+	private IFigure container;
+	private IFigure obstacle;
+
+	@Before
+	public void setUp() {
+		container = new Figure();
+		container.setBounds(new Rectangle(0, 0, 500, 500));
+		obstacle = new Figure();
+		obstacle.setBounds(new Rectangle(200, 100, 100, 100));
+		container.add(obstacle);
+	}
+
+	private static PolylineConnection createConnection(ShortestPathConnectionRouter router) {
+		PolylineConnection connection = new PolylineConnection();
+		connection.setSourceAnchor(new XYAnchor(new Point(100, 150)));
+		connection.setTargetAnchor(new XYAnchor(new Point(400, 150)));
+		connection.setConnectionRouter(router);
+		return connection;
+	}
+
+	private static void waitForRouting(PolylineConnection connection) {
+		Display display = Display.getCurrent();
+		long timeout = System.currentTimeMillis() + 10000;
+		while (display != null && connection.getPoints().size() == 2 && System.currentTimeMillis() < timeout) {
+			if (!display.readAndDispatch()) {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	@Test
+	public void testDeferredRouting() {
+		ShortestPathConnectionRouter router = new ShortestPathConnectionRouter(container);
+		router.setDeferredRouting(true);
+		assertTrue(router.isDeferredRouting());
+		PolylineConnection connection = createConnection(router);
+
+		router.route(connection);
+		assertEquals("Connection should be straight while deferred", 2, connection.getPoints().size()); //$NON-NLS-1$
+
+		obstacle.setBounds(new Rectangle(200, 120, 100, 100));
+		router.route(connection);
+		assertEquals(2, connection.getPoints().size());
+
+		router.setDeferredRouting(false);
+		waitForRouting(connection);
+		PointList deferred = connection.getPoints().getCopy();
+
+		ShortestPathConnectionRouter reference = new ShortestPathConnectionRouter(container);
+		PolylineConnection referenceConnection = createConnection(reference);
+		reference.route(referenceConnection);
+		assertTrue(referenceConnection.getPoints().size() > 2);
+		assertArrayEquals(referenceConnection.getPoints().toIntArray(), deferred.toIntArray());
+	}
+
+	@Test
+	public void testRoutesKeptWhileDeferred() {
+		ShortestPathConnectionRouter router = new ShortestPathConnectionRouter(container);
+		PolylineConnection connection = createConnection(router);
+		router.route(connection);
+		PointList routed = connection.getPoints().getCopy();
+		assertTrue(routed.size() > 2);
+
+		router.setDeferredRouting(true);
+		router.route(connection);
+		assertArrayEquals(routed.toIntArray(), connection.getPoints().toIntArray());
+
+		// Only connections invalidated by the interaction fall back to straight lines
+		connection.setTargetAnchor(new XYAnchor(new Point(400, 160)));
+		router.route(connection);
+		assertEquals(2, connection.getPoints().size());
+
+		router.setDeferredRouting(false);
+		waitForRouting(connection);
+		assertTrue(connection.getPoints().size() > 2);
+		assertFalse(router.isDeferredRouting());
+	}
+
+	/**
+	 * A change made while a snapshot is solved in the background must be routed
+	 * once the obstacles settle, even if the routing is still deferred.
+	 */
+	@Test
+	public void testChangeDuringBackgroundSolve() {
+		// Obstacles which make solving take a while
+		for (int i = 0; i < 100; i++) {
+			Figure figure = new Figure();
+			figure.setBounds(new Rectangle(10 + (i % 10) * 48, 260 + (i / 10) * 23, 20, 10));
+			container.add(figure);
+		}
+		ShortestPathConnectionRouter router = new ShortestPathConnectionRouter(container);
+		router.setDeferredRouting(true);
+		router.setSettleDelay(0);
+		PolylineConnection connection = createConnection(router);
+		router.route(connection);
+
+		// Let the settle timer start a solve, and change an obstacle while it runs
+		Display display = Display.getCurrent();
+		long end = System.currentTimeMillis() + 20;
+		while (display != null && System.currentTimeMillis() < end) {
+			display.readAndDispatch();
+		}
+		obstacle.setBounds(new Rectangle(200, 120, 100, 100));
+		router.route(connection);
+
+		waitForRouting(connection);
+		assertTrue(router.isDeferredRouting());
+		assertTrue("Connection should be routed once the obstacles settle", connection.getPoints().size() > 2); //$NON-NLS-1$
+	}
+
+}
@@ -12,6 +12,10 @@
  *******************************************************************************/
 package org.eclipse.draw2d.test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.draw2d.geometry.Geometry;
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.PointList;
 import org.eclipse.draw2d.geometry.Rectangle;
@@ -155,6 +159,20 @@ public class ShortestPathRoutingTest extends Assert {
 				pt1.x < r.x && pt2.x < r.x);
 	}
 
+	private static void doAssertAvoids(PointList path, List<Rectangle> obstacles) {
+		for (Rectangle r : obstacles) {
+			Rectangle inner = r.getShrinked(1, 1);
+			for (int i = 0; i < path.size() - 1; i++) {
+				Point p1 = path.getPoint(i);
+				Point p2 = path.getPoint(i + 1);
+				assertFalse("Segment " + p1 + " " + p2 + " should not cross " + r, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						Geometry.linesIntersect(p1.x, p1.y, p2.x, p2.y, inner.x, inner.y, inner.right(), inner.bottom())
+								|| Geometry.linesIntersect(p1.x, p1.y, p2.x, p2.y, inner.x, inner.bottom(),
+										inner.right(), inner.y));
+			}
+		}
+	}
+
 	private static void doAssertNoPathsSolved() {
 		// assertTrue("No paths should have been solved.", routing.solve() ==
 		// 0);
@@ -510,6 +528,54 @@ public class ShortestPathRoutingTest extends Assert {
 		doAssertNoPathsSolved();
 	}
 
+	@Test
+	public void testDeltasMoveObstacleSameBounds() {
+		doSetUp(deltaRect, deltaAStart, deltaAEnd, deltaBStart, deltaBEnd);
+		PointList points = pathA.getCopy();
+
+		assertFalse(routing.updateObstacle(deltaRect.getCopy(), deltaRect.getCopy()));
+
+		routing.solve();
+		assertArrayEquals(points.toIntArray(), pathA.toIntArray());
+	}
+
+	@Test
+	public void testDeltasMoveObstacleManyObstacles() {
+		// A grid of obstacles spanning many cells of the obstacle index, and a wide
+		// one spanning too many cells to be stored in it
+		List<Rectangle> obstacles = new ArrayList<>();
+		for (int x = 0; x < 20; x++) {
+			for (int y = 0; y < 20; y++) {
+				obstacles.add(new Rectangle(x * 150 + 60, y * 150 + 60, 50, 40));
+			}
+		}
+		obstacles.add(new Rectangle(30, 1430, 2900, 20));
+		obstacles.forEach(r -> routing.addObstacle(r.getCopy()));
+		Path a = new Path(new Point(10, 10), new Point(2990, 2990));
+		Path b = new Path(new Point(2990, 10), new Point(10, 2990));
+		routing.addPath(a);
+		routing.addPath(b);
+		routing.solve();
+		doAssertAvoids(a.getPoints(), obstacles);
+		doAssertAvoids(b.getPoints(), obstacles);
+
+		// Move an obstacle onto the first bend of each path
+		for (Path path : List.of(a, b)) {
+			Point bend = path.getPoints().getPoint(1);
+			Rectangle moved = new Rectangle(bend.x - 30, bend.y - 30, 60, 60);
+			for (int i = 0; i < obstacles.size(); i++) {
+				if (!obstacles.get(i).intersects(moved)) {
+					routing.updateObstacle(obstacles.get(i).getCopy(), moved.getCopy());
+					obstacles.set(i, moved);
+					break;
+				}
+			}
+		}
+		routing.solve();
+		doAssertAvoids(a.getPoints(), obstacles);
+		doAssertAvoids(b.getPoints(), obstacles);
+	}
+
 	@Test
 	public void testDeltasRemoveObstacleIntersection() {
 		doSetUp(deltaRect, deltaAStart, deltaAEnd, deltaBStart, deltaBEnd);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 IBM Corporation and others.
+ * Copyright (c) 2005, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -12,11 +12,16 @@
  *******************************************************************************/
 package org.eclipse.draw2d.test;
 
+import java.util.Map;
+
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
 
 import org.eclipse.draw2d.Ellipse;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.RectangleFigure;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.draw2d.parts.Thumbnail;
 
@@ -32,6 +37,26 @@ public class ThumbnailTest extends Assert {
 		}
 	}
 
+	private static class CountingFigure extends RectangleFigure {
+		private int paintCount;
+
+		@Override
+		public void paintFigure(Graphics graphics) {
+			paintCount++;
+			super.paintFigure(graphics);
+		}
+	}
+
+	private static void runEventLoop(long millis) throws InterruptedException {
+		Display display = Display.getDefault();
+		long end = System.currentTimeMillis() + millis;
+		while (System.currentTimeMillis() < end) {
+			if (!display.readAndDispatch()) {
+				Thread.sleep(5);
+			}
+		}
+	}
+
 	@Test
 	public void testThumbnail() {
 		TestThumbnail thumb = new TestThumbnail();
@@ -62,4 +87,83 @@ public class ThumbnailTest extends Assert {
 		assertTrue(img == null);
 	}
 
+	@Test
+	public void testDamageRepair() throws InterruptedException {
+		// 4x4 figures, each inside its own 64x64 tile of the thumbnail image
+		IFigure source = new Figure();
+		source.setBounds(new Rectangle(0, 0, 256, 256));
+		source.setFont(Display.getDefault().getSystemFont());
+		CountingFigure[] tiles = new CountingFigure[16];
+		for (int i = 0; i < tiles.length; i++) {
+			tiles[i] = new CountingFigure();
+			tiles[i].setBounds(new Rectangle((i % 4) * 64 + 8, (i / 4) * 64 + 8, 48, 48));
+			source.add(tiles[i]);
+		}
+		TestThumbnail thumb = new TestThumbnail();
+		thumb.setSource(source);
+		thumb.setBounds(new Rectangle(0, 0, 256, 256));
+		thumb.setUpdateInterval(0);
+		assertNotNull(thumb.getThumbnailImage());
+		runEventLoop(500);
+		for (CountingFigure tile : tiles) {
+			assertTrue("The complete update should paint every figure", tile.paintCount > 0); //$NON-NLS-1$
+			tile.paintCount = 0;
+		}
+
+		// Only the tile containing the damaged figure is re-rendered
+		thumb.notifyPainting(tiles[5].getBounds(), Map.of(tiles[5], tiles[5].getBounds().getCopy()));
+		runEventLoop(200);
+		for (int i = 0; i < tiles.length; i++) {
+			assertEquals(i == 5 ? 1 : 0, tiles[i].paintCount);
+			tiles[i].paintCount = 0;
+		}
+
+		// Damage within the update interval is coalesced into a single repair
+		thumb.setUpdateInterval(1000);
+		assertEquals(1000, thumb.getUpdateInterval());
+		thumb.notifyPainting(tiles[0].getBounds(), Map.of(tiles[0], tiles[0].getBounds().getCopy()));
+		thumb.notifyPainting(tiles[15].getBounds(), Map.of(tiles[15], tiles[15].getBounds().getCopy()));
+		runEventLoop(200);
+		assertEquals("The repair should wait for the update interval", 0, tiles[0].paintCount); //$NON-NLS-1$
+		runEventLoop(1200);
+		for (int i = 0; i < tiles.length; i++) {
+			assertEquals(i == 0 || i == 15 ? 1 : 0, tiles[i].paintCount);
+		}
+		thumb.deactivate();
+	}
+
+	@Test
+	public void testDamageRepairOfPartlyVisibleFigure() throws InterruptedException {
+		// The source is clipped by its parent, like the contents of a scrolled viewport
+		IFigure clip = new Figure();
+		clip.setBounds(new Rectangle(0, 0, 56, 256));
+		IFigure source = new Figure();
+		source.setBounds(new Rectangle(0, 0, 256, 256));
+		source.setFont(Display.getDefault().getSystemFont());
+		clip.add(source);
+		// The figure spans the first two columns of tiles, but only the part in the
+		// first column is visible
+		CountingFigure figure = new CountingFigure();
+		figure.setBounds(new Rectangle(40, 8, 48, 48));
+		source.add(figure);
+		CountingFigure witness = new CountingFigure();
+		witness.setBounds(new Rectangle(96, 8, 24, 24));
+		source.add(witness);
+
+		TestThumbnail thumb = new TestThumbnail();
+		thumb.setSource(source);
+		thumb.setBounds(new Rectangle(0, 0, 256, 256));
+		thumb.setUpdateInterval(0);
+		assertNotNull(thumb.getThumbnailImage());
+		runEventLoop(500);
+		witness.paintCount = 0;
+
+		// The update manager reports the damage clipped to the visible part
+		Rectangle visible = new Rectangle(40, 8, 16, 48);
+		thumb.notifyPainting(visible, Map.of(figure, visible.getCopy()));
+		runEventLoop(200);
+		assertEquals("The invisible part of the figure should be repaired as well", 1, witness.paintCount); //$NON-NLS-1$
+		thumb.deactivate();
+	}
+
 }
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.RectangleFigure;
+import org.eclipse.draw2d.TiledImageExporter;
+import org.eclipse.draw2d.XYLayout;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TiledImageExporterTest extends BaseTestCase {
+
+	private static final RGB WHITE = new RGB(255, 255, 255);
+	private static final RGB RED = new RGB(255, 0, 0);
+
+	private IFigure figure;
+	private TiledImageExporter exporter;
+
+	@Before
+	public void setUp() {
+		Display.getDefault();
+		figure = new Figure();
+		figure.setOpaque(true);
+		figure.setBackgroundColor(ColorConstants.white);
+		figure.setLayoutManager(new XYLayout());
+		figure.setBounds(new Rectangle(20, 10, 300, 200));
+		RectangleFigure child = new RectangleFigure();
+		child.setBackgroundColor(ColorConstants.red);
+		child.setForegroundColor(ColorConstants.red);
+		figure.add(child, new Rectangle(120, 60, 50, 50));
+		figure.validate();
+		exporter = new TiledImageExporter(figure);
+		// a figure with several rows and columns of tiles
+		exporter.setTileSize(64);
+	}
+
+	private ImageData export() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.export(out);
+		ImageData[] images = new ImageLoader().load(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(1, images.length);
+		return images[0];
+	}
+
+	private static RGB getRGB(ImageData image, int x, int y) {
+		return image.palette.getRGB(image.getPixel(x, y));
+	}
+
+	@Test
+	public void testExport() throws IOException {
+		ImageData image = export();
+		assertEquals(300, image.width);
+		assertEquals(200, image.height);
+		assertEquals(WHITE, getRGB(image, 10, 10));
+		assertEquals(RED, getRGB(image, 125, 75));
+		// the child spans the boundary of two tiles
+		assertEquals(RED, getRGB(image, 127, 63));
+		assertEquals(RED, getRGB(image, 128, 64));
+		assertEquals(WHITE, getRGB(image, 299, 199));
+	}
+
+	@Test
+	public void testScaledExport() throws IOException {
+		exporter.setScale(2);
+		assertEquals(600, 400, exporter.getImageSize());
+		ImageData image = export();
+		assertEquals(600, image.width);
+		assertEquals(400, image.height);
+		assertEquals(WHITE, getRGB(image, 150, 75));
+		assertEquals(RED, getRGB(image, 250, 150));
+	}
+
+	@Test
+	public void testBackgroundEncoding() throws IOException {
+		ImageData image = export();
+		exporter.setBackgroundEncoding(true);
+		assertTrue(exporter.isBackgroundEncoding());
+		ImageData encodedInBackground = export();
+		assertEquals(image.width, encodedInBackground.width);
+		assertEquals(image.height, encodedInBackground.height);
+		for (int y = 0; y < image.height; y++) {
+			for (int x = 0; x < image.width; x++) {
+				assertEquals(getRGB(image, x, y), getRGB(encodedInBackground, x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> exporter.setScale(0));
+		assertThrows(IllegalArgumentException.class, () -> exporter.setTileSize(0));
+		figure.setBounds(new Rectangle(0, 0, 0, 0));
+		assertThrows(IllegalStateException.class, () -> exporter.export(new ByteArrayOutputStream()));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2023 IBM Corporation and others.
+ * Copyright (c) 2005, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -13,12 +13,18 @@
 
 package org.eclipse.draw2d;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+
 /**
  * A utility for coordinating figure animations. During animation, multiple
  * <i>animators</i> are employed to capture the <em>initial</em> and
@@ -39,6 +45,16 @@ import java.util.Set;
  * The run method will force a validation pass to capture the final states, and
  * then commence the animation. The animation is synchronous and the method does
  * not return until the animation has completed.
+ * <P>
+ * Alternatively, an instance of this class plays back the animation without
+ * blocking the UI thread. Clients call {@link #begin()} instead of
+ * {@link #markBegin()}, and {@link #start(int)} instead of {@link #run(int)}.
+ * The frames are then rendered from {@link Display#timerExec(int, Runnable)}
+ * at the {@link #setFrameRate(int) frame rate}, and input is processed in
+ * between. The progress depends on the elapsed time, so frames are dropped if
+ * rendering a frame takes longer than the frame interval. An instance is
+ * typically kept per viewer, and can be {@link #cancel() cancelled} or
+ * retargeted while it is running.
  *
  * @see LayoutAnimator
  * @since 3.2
@@ -49,21 +65,50 @@ public class Animation {
 	}
 
 	private static final int DEFAULT_DELAY = 250;
-	private static Set<AnimPair> figureAnimators;
-	private static Map<AnimPair, Object> finalStates;
-	private static Map<AnimPair, Object> initialStates;
+	private static final int DEFAULT_FRAME_RATE = 60;
 
 	private static final int PLAYBACK = 3;
-	private static float progress;
 	private static final int RECORD_FINAL = 2;
-
 	private static final int RECORD_INITIAL = 1;
-	private static int state;
-	private static Set<AnimPair> toCapture;
 
-	private static UpdateManager updateManager;
+	/**
+	 * The animation whose states are being recorded or played back by the
+	 * animators. Only accessed from the UI thread.
+	 */
+	private static Animation current;
+
+	/**
+	 * The animations which are played back asynchronously.
+	 */
+	private static final List<Animation> playing = new ArrayList<>();
+
+	private Set<AnimPair> figureAnimators;
+	private Map<AnimPair, Object> finalStates;
+	private Map<AnimPair, Object> initialStates;
+	private float progress;
+	private int state;
+	private Set<AnimPair> toCapture;
+	private UpdateManager updateManager;
+
+	private int frameRate = DEFAULT_FRAME_RATE;
+	private Runnable frame;
+	private long startTime;
+	private int duration;
+	private long frameInterval;
+	private long lastFrameIndex;
+	private int droppedFrames;
+
+	/**
+	 * Creates an animation which is played back asynchronously.
+	 *
+	 * @see #begin()
+	 * @see #start(int)
+	 * @since 3.17
+	 */
+	public Animation() {
+	}
 
-	private static void capture() {
+	private void capture() {
 		Iterator<AnimPair> keys = figureAnimators.iterator();
 		while (keys.hasNext()) {
 			AnimPair pair = keys.next();
@@ -75,7 +120,7 @@ public class Animation {
 		}
 	}
 
-	static void cleanup() {
+	private void cleanup() {
 		if (figureAnimators != null) {
 			for (AnimPair pair : figureAnimators) {
 				pair.animator.tearDown(pair.figure);
@@ -83,7 +128,9 @@ public class Animation {
 		}
 
 		state = 0;
-		step();
+		if (initialStates != null) {
+			step();
+		}
 		// Allow layout to occur normally
 		// updateManager.performUpdate();
 
@@ -92,10 +139,11 @@ public class Animation {
 		figureAnimators = null;
 		updateManager = null;
 		toCapture = null;
+		frame = null;
 		state = 0;
 	}
 
-	private static void doRun(int duration) {
+	private void doRun(int duration) {
 		state = RECORD_FINAL;
 		findUpdateManager();
 		updateManager.performValidation();
@@ -122,7 +170,7 @@ public class Animation {
 		}
 	}
 
-	private static void findUpdateManager() {
+	private void findUpdateManager() {
 		AnimPair pair = figureAnimators.iterator().next();
 		updateManager = pair.figure.getUpdateManager();
 	}
@@ -136,7 +184,7 @@ public class Animation {
 	 * @since 3.2
 	 */
 	public static Object getFinalState(Animator animator, IFigure figure) {
-		return finalStates.get(new AnimPair(animator, figure));
+		return current.finalStates.get(new AnimPair(animator, figure));
 	}
 
 	/**
@@ -149,7 +197,7 @@ public class Animation {
 	 * @since 3.2
 	 */
 	public static Object getInitialState(Animator animator, IFigure figure) {
-		return initialStates.get(new AnimPair(animator, figure));
+		return current.initialStates.get(new AnimPair(animator, figure));
 	}
 
 	/**
@@ -159,28 +207,59 @@ public class Animation {
 	 * @since 3.2
 	 */
 	public static float getProgress() {
-		return progress;
+		return current != null ? current.progress : 0;
 	}
 
 	static void hookAnimator(IFigure figure, Animator animator) {
 		AnimPair pair = new AnimPair(animator, figure);
-		if (figureAnimators.add(pair)) {
+		if (current.figureAnimators.add(pair)) {
 			animator.init(figure);
 		}
 	}
 
+	/**
+	 * Excludes the given figure from the playback. The figure keeps its final
+	 * state and is neither revalidated nor played back by the following frames.
+	 */
+	static void cull(Animator animator, IFigure figure) {
+		AnimPair pair = new AnimPair(animator, figure);
+		current.toCapture.remove(pair);
+		current.initialStates.remove(pair);
+	}
+
 	static void hookNeedsCapture(IFigure figure, Animator animator) {
 		AnimPair pair = new AnimPair(animator, figure);
-		if (figureAnimators.contains(pair)) {
-			toCapture.add(pair);
+		if (current.figureAnimators.contains(pair)) {
+			current.toCapture.add(pair);
 		}
 	}
 
+	/**
+	 * Plays back the given figure if it is animated by the current animation or by
+	 * a running asynchronous animation, so that a layout in between two frames of
+	 * the latter does not make the figure jump to its final state.
+	 */
 	static boolean hookPlayback(IFigure figure, Animator animator) {
-		if (toCapture.contains(new AnimPair(animator, figure))) {
+		AnimPair pair = new AnimPair(animator, figure);
+		if (current != null && current.state != PLAYBACK) {
+			// the final states are being recorded
+			return false;
+		}
+		Animation animation = current;
+		if (animation == null || !animation.toCapture.contains(pair)) {
+			animation = playing.stream().filter(candidate -> candidate.toCapture.contains(pair)).findFirst()
+					.orElse(null);
+		}
+		if (animation == null) {
+			return false;
+		}
+		Animation previous = current;
+		current = animation;
+		try {
 			return animator.playback(figure);
+		} finally {
+			current = previous;
 		}
-		return false;
 	}
 
 	/**
@@ -190,15 +269,24 @@ public class Animation {
 	 * @since 3.2
 	 */
 	public static boolean isAnimating() {
-		return state == PLAYBACK;
+		return current != null && current.state == PLAYBACK;
+	}
+
+	/**
+	 * Returns <code>true</code> if layouts may have to be played back, either
+	 * because an animation is rendering a frame or because asynchronous
+	 * animations are running.
+	 */
+	static boolean isPlayingBack() {
+		return current == null ? !playing.isEmpty() : current.state == PLAYBACK;
 	}
 
 	static boolean isFinalRecording() {
-		return state == RECORD_FINAL;
+		return current != null && current.state == RECORD_FINAL;
 	}
 
 	static boolean isInitialRecording() {
-		return state == RECORD_INITIAL;
+		return current != null && current.state == RECORD_INITIAL;
 	}
 
 	/**
@@ -209,29 +297,34 @@ public class Animation {
 	 * @since 3.2
 	 */
 	public static boolean markBegin() {
-		if (state == 0) {
-			state = RECORD_INITIAL;
-			initialStates = new HashMap<>();
-			finalStates = new HashMap<>();
-			figureAnimators = new HashSet<>();
-			toCapture = new HashSet<>();
+		if (current == null) {
+			current = new Animation();
+			current.startRecording();
 			return true;
 		}
 		return false;
 	}
 
-	private static void notifyPlaybackStarting() {
+	private void startRecording() {
+		state = RECORD_INITIAL;
+		initialStates = new HashMap<>();
+		finalStates = new HashMap<>();
+		figureAnimators = new HashSet<>();
+		toCapture = new HashSet<>();
+	}
+
+	private void notifyPlaybackStarting() {
 		for (AnimPair pair : figureAnimators) {
 			pair.animator.playbackStarting(pair.figure);
 		}
 	}
 
 	static void putFinalState(Animator animator, IFigure key, Object state) {
-		finalStates.put(new AnimPair(animator, key), state);
+		current.finalStates.put(new AnimPair(animator, key), state);
 	}
 
 	static void putInitialState(Animator animator, IFigure key, Object state) {
-		initialStates.put(new AnimPair(animator, key), state);
+		current.initialStates.put(new AnimPair(animator, key), state);
 	}
 
 	/**
@@ -251,22 +344,252 @@ public class Animation {
 	 * @since 3.2
 	 */
 	public static void run(int duration) {
-		if (state == 0) {
+		Animation animation = current;
+		if (animation == null) {
 			return;
 		}
 		try {
-			if (!figureAnimators.isEmpty()) {
-				doRun(duration);
+			if (!animation.figureAnimators.isEmpty()) {
+				animation.doRun(duration);
 			}
 		} finally {
-			cleanup();
+			animation.cleanup();
+			current = null;
 		}
 	}
 
-	private static void step() {
+	private void step() {
 		for (AnimPair element : initialStates.keySet()) {
 			element.figure.revalidate();
 		}
 	}
 
+	/**
+	 * Marks the beginning of this animation. The figures invalidated after this
+	 * call, until {@link #start(int)} is called, are animated.
+	 * <P>
+	 * If this animation is running, it is retargeted: the playback is stopped,
+	 * the figures it animates keep their intermediate states as their initial
+	 * states, and are animated again towards the final states captured by the
+	 * next {@link #start(int)}, together with the newly invalidated figures.
+	 *
+	 * @throws IllegalStateException if another animation is being recorded
+	 * @since 3.17
+	 */
+	public void begin() {
+		if (current != null && current != this) {
+			throw new IllegalStateException("Another animation is being recorded"); //$NON-NLS-1$
+		}
+		if (state == RECORD_INITIAL) {
+			return;
+		}
+		current = this;
+		if (state != PLAYBACK) {
+			startRecording();
+			return;
+		}
+		playing.remove(this);
+		frame = null;
+		Set<AnimPair> animated = figureAnimators;
+		for (AnimPair pair : animated) {
+			pair.animator.tearDown(pair.figure);
+		}
+		startRecording();
+		for (AnimPair pair : animated) {
+			hookAnimator(pair.figure, pair.animator);
+			pair.figure.revalidate();
+		}
+	}
+
+	/**
+	 * Captures the final states and starts to play back this animation. Returns
+	 * immediately after rendering the first frame, the following frames are
+	 * rendered asynchronously on the UI thread.
+	 *
+	 * @param duration the length of animation in milliseconds
+	 * @throws IllegalStateException if the beginning of this animation has not
+	 *                               been marked
+	 * @see #begin()
+	 * @since 3.17
+	 */
+	public void start(int duration) {
+		if (current != this || state != RECORD_INITIAL) {
+			throw new IllegalStateException("The beginning of the animation has not been marked"); //$NON-NLS-1$
+		}
+		if (figureAnimators.isEmpty()) {
+			cleanup();
+			current = null;
+			return;
+		}
+		try {
+			state = RECORD_FINAL;
+			findUpdateManager();
+			updateManager.performValidation();
+			capture();
+			state = PLAYBACK;
+			progress = 0.1f;
+			notifyPlaybackStarting();
+		} catch (RuntimeException | Error e) {
+			cleanup();
+			throw e;
+		} finally {
+			current = null;
+		}
+		this.duration = duration;
+		frameInterval = 1_000_000_000L / frameRate;
+		lastFrameIndex = -1;
+		droppedFrames = 0;
+		startTime = System.nanoTime();
+		playing.add(this);
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				if (frame == this) {
+					renderFrame(this);
+				}
+			}
+		};
+		frame = task;
+		// The first frame is rendered before any pending update paints the final state
+		renderFrame(task);
+	}
+
+	private void renderFrame(Runnable task) {
+		long frameStart = System.nanoTime();
+		// The frames are due at multiples of the frame interval since the start
+		long frameIndex = (frameStart - startTime) / frameInterval;
+		if (frameIndex > lastFrameIndex + 1) {
+			droppedFrames += (int) (frameIndex - lastFrameIndex - 1);
+		}
+		lastFrameIndex = frameIndex;
+		long elapsed = (frameStart - startTime) / 1_000_000;
+		if (elapsed >= duration) {
+			progress = 1f;
+		} else if (elapsed > 0) {
+			progress = 0.1f + 0.9f * elapsed / duration;
+		}
+		Animation previous = current;
+		current = this;
+		boolean rendered = false;
+		try {
+			step();
+			updateManager.performUpdate();
+			rendered = true;
+		} finally {
+			current = previous;
+			if (!rendered) {
+				// A failing frame would fail again, the figures are laid out normally
+				finish();
+			}
+		}
+		if (progress == 1f) {
+			finish();
+			return;
+		}
+
+		// Frames which became due while rendering this one are dropped
+		long now = System.nanoTime();
+		long nextIndex = (now - startTime) / frameInterval + 1;
+		long delay = startTime + nextIndex * frameInterval - now;
+		try {
+			scheduleFrame(task, (int) ((delay + 999_999) / 1_000_000));
+		} catch (RuntimeException | Error e) {
+			finish();
+			throw e;
+		}
+	}
+
+	private void finish() {
+		playing.remove(this);
+		cleanup();
+	}
+
+	/**
+	 * Schedules the rendering of the next frame after the given delay. Uses
+	 * {@link Display#timerExec(int, Runnable)} of the current display by default.
+	 * If the display has been disposed, the animation is completed immediately.
+	 * If this method throws an exception, the animation is completed as well.
+	 *
+	 * @param frame the runnable rendering the frame
+	 * @param delay the delay in milliseconds
+	 * @since 3.17
+	 */
+	protected void scheduleFrame(Runnable frame, int delay) {
+		Display display = Display.getCurrent();
+		if (display == null) {
+			throw new SWTException(SWT.ERROR_THREAD_INVALID_ACCESS);
+		}
+		if (display.isDisposed()) {
+			finish();
+			return;
+		}
+		display.timerExec(delay, frame);
+	}
+
+	/**
+	 * Stops this animation. A running animation is completed immediately, i.e.
+	 * the figures are laid out in their final state by the next update. If the
+	 * animation is being recorded, the recording is discarded.
+	 *
+	 * @since 3.17
+	 */
+	public void cancel() {
+		if (state == 0) {
+			return;
+		}
+		if (current == this) {
+			current = null;
+		}
+		finish();
+	}
+
+	/**
+	 * Returns <code>true</code> if this animation has been started and has not
+	 * completed yet.
+	 *
+	 * @return <code>true</code> while this animation is played back
+	 * @since 3.17
+	 */
+	public boolean isRunning() {
+		return state == PLAYBACK;
+	}
+
+	/**
+	 * Sets the number of frames per second which are rendered while this animation
+	 * is running. The default is 60. Takes effect when the animation is started.
+	 *
+	 * @param frameRate the target frame rate
+	 * @throws IllegalArgumentException if the frame rate is not positive
+	 * @since 3.17
+	 */
+	public void setFrameRate(int frameRate) {
+		if (frameRate <= 0) {
+			throw new IllegalArgumentException("Frame rate must be positive"); //$NON-NLS-1$
+		}
+		this.frameRate = frameRate;
+	}
+
+	/**
+	 * Returns the number of frames per second which are rendered while this
+	 * animation is running.
+	 *
+	 * @return the target frame rate
+	 * @since 3.17
+	 */
+	public int getFrameRate() {
+		return frameRate;
+	}
+
+	/**
+	 * Returns the number of frames which have been dropped since this animation
+	 * was last started, because rendering a frame took longer than the frame
+	 * interval or the UI thread was busy otherwise.
+	 *
+	 * @return the number of dropped frames
+	 * @since 3.17
+	 */
+	public int getDroppedFrameCount() {
+		return droppedFrames;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 IBM Corporation and others.
+ * Copyright (c) 2005, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -13,6 +13,8 @@
 
 package org.eclipse.draw2d;
 
+import org.eclipse.draw2d.geometry.Rectangle;
+
 /**
  * Animates some aspect of a figure. Each animator will capture some of the
  * effects of validation of the figures.
@@ -29,6 +31,34 @@ public abstract class Animator {
 	Animator() {
 	}
 
+	/**
+	 * Returns the area of the nearest viewport enclosing the given figure which is
+	 * visible, in the coordinates of the children of the figure. Figures outside
+	 * of this area at the start and at the end of an animation need not be played
+	 * back.
+	 *
+	 * @return the visible area or <code>null</code> if the figure is not inside a
+	 *         viewport
+	 */
+	static Rectangle getVisibleArea(IFigure figure) {
+		IFigure viewport = figure;
+		while (viewport != null && !(viewport instanceof Viewport)) {
+			viewport = viewport.getParent();
+		}
+		if (viewport == null) {
+			return null;
+		}
+		Rectangle area = viewport.getClientArea();
+		if (viewport != figure) {
+			viewport.translateToParent(area);
+			viewport.translateToAbsolute(area);
+			figure.translateToRelative(area);
+			figure.translateFromParent(area);
+		}
+		// tolerate rounding errors of scaled coordinates
+		return area.expand(1, 1);
+	}
+
 	/**
 	 * Captures the final state of the given figure. This method is called once
 	 * after the update manager has completed validation of all invalid figures.
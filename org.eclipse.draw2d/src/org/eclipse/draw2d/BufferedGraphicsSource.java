@@ -14,6 +14,7 @@ package org.eclipse.draw2d;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTError;
+import org.eclipse.swt.events.DisposeListener;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Canvas;
@@ -29,6 +30,10 @@ class BufferedGraphicsSource implements GraphicsSource {
 	private GC controlGC;
 	private Control control;
 	private Rectangle inUse;
+	private Image retainedBuffer;
+	private GC retainedGC;
+	private boolean retainedInUse;
+	private DisposeListener disposeListener;
 
 	/**
 	 * Constructs a new buffered graphics source using the given control.
@@ -37,7 +42,75 @@ class BufferedGraphicsSource implements GraphicsSource {
 	 * @param c the control
 	 */
 	public BufferedGraphicsSource(Control c) {
+		this(c, false);
+	}
+
+	/**
+	 * Constructs a new buffered graphics source using the given control. If the
+	 * buffer is retained, a single image the size of the control is kept between
+	 * updates instead of allocating an image for each update. The image is
+	 * reallocated by the first update after the size of the control has changed,
+	 * and disposed together with the control or via {@link #dispose()}. Controls
+	 * with a right-to-left orientation always use an image per update.
+	 *
+	 * @param c      the control
+	 * @param retain whether to retain the buffer between updates
+	 */
+	BufferedGraphicsSource(Control c, boolean retain) {
 		control = c;
+		if (retain) {
+			disposeListener = e -> disposeRetainedBuffer();
+			control.addDisposeListener(disposeListener);
+		}
+	}
+
+	/**
+	 * Disposes the retained buffer, if any. The source must not be used
+	 * afterwards.
+	 */
+	void dispose() {
+		if (disposeListener != null) {
+			if (!control.isDisposed()) {
+				control.removeDisposeListener(disposeListener);
+			}
+			disposeListener = null;
+		}
+		disposeRetainedBuffer();
+	}
+
+	private void disposeRetainedBuffer() {
+		if (retainedGC != null) {
+			retainedGC.dispose();
+			retainedGC = null;
+		}
+		if (retainedBuffer != null) {
+			retainedBuffer.dispose();
+			retainedBuffer = null;
+		}
+	}
+
+	/**
+	 * Returns whether the retained buffer has the given size, reallocating it if
+	 * necessary.
+	 */
+	private boolean prepareRetainedBuffer(int width, int height) {
+		if (retainedBuffer != null) {
+			org.eclipse.swt.graphics.Rectangle bounds = retainedBuffer.getBounds();
+			if (bounds.width == width && bounds.height == height) {
+				return true;
+			}
+			disposeRetainedBuffer();
+		}
+		// Bugzilla 53632, see getGraphics(Rectangle)
+		try {
+			retainedBuffer = new Image(null, width, height);
+		} catch (SWTError noMoreHandles) {
+			return false;
+		} catch (IllegalArgumentException tooBig) {
+			return false;
+		}
+		retainedGC = new GC(retainedBuffer);
+		return true;
 	}
 
 	/**
@@ -64,7 +137,14 @@ class BufferedGraphicsSource implements GraphicsSource {
 		/*
 		 * The imageBuffer may be null if double-buffering was not successful.
 		 */
-		if (imageBuffer != null) {
+		if (retainedInUse) {
+			// Only the damaged region has been painted
+			controlGC.drawImage(getImage(), inUse.x, inUse.y, inUse.width, inUse.height, inUse.x, inUse.y,
+					inUse.width, inUse.height);
+			imageBuffer = null;
+			imageGC = null;
+			retainedInUse = false;
+		} else if (imageBuffer != null) {
 			imageGC.dispose();
 			controlGC.drawImage(getImage(), 0, 0, inUse.width, inUse.height, inUse.x, inUse.y, inUse.width,
 					inUse.height);
@@ -96,6 +176,19 @@ class BufferedGraphicsSource implements GraphicsSource {
 			return null;
 		}
 
+		int orientation = control.getStyle() & (SWT.RIGHT_TO_LEFT | SWT.LEFT_TO_RIGHT);
+		if (disposeListener != null && (orientation & SWT.RIGHT_TO_LEFT) == 0
+				&& prepareRetainedBuffer(ptSWT.x, ptSWT.y)) {
+			controlGC = new GC(control, orientation);
+			imageBuffer = retainedBuffer;
+			imageGC = retainedGC;
+			retainedInUse = true;
+			resetImageGC();
+			Graphics graphics = new SWTGraphics(imageGC);
+			graphics.setClip(inUse);
+			return graphics;
+		}
+
 		/*
 		 * Bugzilla 53632 - Attempts to create large images on some platforms will fail.
 		 * When this happens, do not use double-buffering for painting.
@@ -108,16 +201,11 @@ class BufferedGraphicsSource implements GraphicsSource {
 			imageBuffer = null;
 		}
 
-		controlGC = new GC(control, control.getStyle() & (SWT.RIGHT_TO_LEFT | SWT.LEFT_TO_RIGHT));
+		controlGC = new GC(control, orientation);
 		Graphics graphics;
 		if (imageBuffer != null) {
-			imageGC = new GC(imageBuffer, control.getStyle() & (SWT.RIGHT_TO_LEFT | SWT.LEFT_TO_RIGHT));
-			imageGC.setBackground(controlGC.getBackground());
-			imageGC.setForeground(controlGC.getForeground());
-			imageGC.setFont(controlGC.getFont());
-			imageGC.setLineStyle(controlGC.getLineStyle());
-			imageGC.setLineWidth(controlGC.getLineWidth());
-			imageGC.setXORMode(controlGC.getXORMode());
+			imageGC = new GC(imageBuffer, orientation);
+			copyControlGCState();
 			graphics = new SWTGraphics(imageGC);
 			graphics.translate(inUse.getLocation().negate());
 		} else {
@@ -128,6 +216,28 @@ class BufferedGraphicsSource implements GraphicsSource {
 		return graphics;
 	}
 
+	private void copyControlGCState() {
+		imageGC.setBackground(controlGC.getBackground());
+		imageGC.setForeground(controlGC.getForeground());
+		imageGC.setFont(controlGC.getFont());
+		imageGC.setLineStyle(controlGC.getLineStyle());
+		imageGC.setLineWidth(controlGC.getLineWidth());
+		imageGC.setXORMode(controlGC.getXORMode());
+	}
+
+	/**
+	 * Resets the state the previous update has left in the GC of the retained
+	 * buffer, which SWTGraphics does not fully restore when it is disposed.
+	 */
+	private void resetImageGC() {
+		// Also resets the transform, alpha, anti-aliasing, interpolation and patterns
+		imageGC.setAdvanced(false);
+		imageGC.setClipping((org.eclipse.swt.graphics.Rectangle) null);
+		imageGC.setLineAttributes(controlGC.getLineAttributes());
+		imageGC.setFillRule(controlGC.getFillRule());
+		copyControlGCState();
+	}
+
 	/**
 	 * Returns the current image buffer or <code>null</code>.
 	 *
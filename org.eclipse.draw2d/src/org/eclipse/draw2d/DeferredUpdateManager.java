@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2023 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -47,8 +47,20 @@ public class DeferredUpdateManager extends UpdateManager {
 		}
 	}
 
+	/**
+	 * The maximum number of rectangles repaired separately in region repair mode.
+	 */
+	private static final int MAX_DAMAGE_RECTANGLES = 8;
+
+	/**
+	 * Two disjoint damage rectangles are merged if the area of their union is at
+	 * most this factor times the sum of their areas.
+	 */
+	private static final double MERGE_FACTOR = 1.5;
+
 	private Rectangle damage;
 	private Map<IFigure, Rectangle> dirtyRegions = new HashMap<>();
+	private boolean regionRepairEnabled;
 
 	private GraphicsSource graphicsSource;
 	private final List<IFigure> invalidFigures = new ArrayList<>();
@@ -58,6 +70,7 @@ public class DeferredUpdateManager extends UpdateManager {
 	private boolean updating;
 	private boolean validating;
 	private RunnableChain afterUpdate;
+	private UpdateMetrics metrics;
 
 	private static class RunnableChain {
 		RunnableChain next;
@@ -190,10 +203,19 @@ public class DeferredUpdateManager extends UpdateManager {
 			return;
 		}
 		updating = true;
+		UpdateMetrics cycle = isMetricsEnabled() ? new UpdateMetrics() : null;
+		metrics = cycle;
 		try {
 			performValidation();
 			updateQueued = false;
-			repairDamage();
+			if (cycle == null) {
+				repairDamage();
+			} else {
+				cycle.dirtyRegionCount = dirtyRegions.size();
+				long start = System.nanoTime();
+				repairDamage();
+				cycle.repairTime = System.nanoTime() - start;
+			}
 			if (afterUpdate != null) {
 				RunnableChain chain = afterUpdate;
 				afterUpdate = null;
@@ -204,6 +226,11 @@ public class DeferredUpdateManager extends UpdateManager {
 			}
 		} finally {
 			updating = false;
+			metrics = null;
+		}
+		if (cycle != null) {
+			cycle.totalTime = System.nanoTime() - cycle.start;
+			fireUpdated(cycle);
 		}
 	}
 
@@ -215,6 +242,13 @@ public class DeferredUpdateManager extends UpdateManager {
 		if (invalidFigures.isEmpty() || validating) {
 			return;
 		}
+		// A validation outside of an update is a cycle of its own
+		UpdateMetrics cycle = metrics;
+		boolean ownCycle = cycle == null && isMetricsEnabled();
+		if (ownCycle) {
+			cycle = metrics = new UpdateMetrics();
+		}
+		long start = cycle != null ? System.nanoTime() : 0;
 		try {
 			IFigure fig;
 			validating = true;
@@ -225,8 +259,27 @@ public class DeferredUpdateManager extends UpdateManager {
 				fig.validate();
 			}
 		} finally {
+			if (cycle != null) {
+				cycle.validationTime += System.nanoTime() - start;
+				cycle.invalidFigureCount += invalidFigures.size();
+			}
 			invalidFigures.clear();
 			validating = false;
+			if (ownCycle) {
+				metrics = null;
+			}
+		}
+		if (ownCycle) {
+			cycle.totalTime = System.nanoTime() - cycle.start;
+			fireUpdated(cycle);
+		}
+	}
+
+	@Override
+	void recordRouting(long time) {
+		if (metrics != null) {
+			metrics.routingTime += time;
+			metrics.routeCount++;
 		}
 	}
 
@@ -276,12 +329,43 @@ public class DeferredUpdateManager extends UpdateManager {
 		graphicsSource.flushGraphics(damage);
 	}
 
+	/**
+	 * Enables or disables the region repair mode. By default, the dirty regions are
+	 * united into a single damage rectangle, which is repainted in one go. Two
+	 * small changes in opposite corners of the canvas thus repaint the whole area
+	 * between them. In region repair mode, the dirty regions are kept in a small
+	 * set of disjoint rectangles instead, and each rectangle is painted with its own
+	 * clip. Rectangles are only merged if they overlap, or if their union is not
+	 * much larger than the rectangles themselves.
+	 * <P>
+	 * Listeners are notified of the bounds of all damage in either mode.
+	 *
+	 * @param enabled <code>true</code> to repair the damage rectangle by rectangle
+	 * @see UpdateListener#notifyPainted(int, long)
+	 * @since 3.17
+	 */
+	public void setRegionRepairEnabled(boolean enabled) {
+		regionRepairEnabled = enabled;
+	}
+
+	/**
+	 * Returns whether the dirty regions are repaired rectangle by rectangle.
+	 *
+	 * @return <code>true</code> if region repair is enabled
+	 * @see #setRegionRepairEnabled(boolean)
+	 * @since 3.17
+	 */
+	public boolean isRegionRepairEnabled() {
+		return regionRepairEnabled;
+	}
+
 	/**
 	 * Repaints the dirty regions on the update queue and calls
 	 * {@link UpdateManager#firePainting(Rectangle, Map)}, unless there are no dirty
 	 * regions.
 	 */
 	protected void repairDamage() {
+		List<Rectangle> rectangles = regionRepairEnabled ? new ArrayList<>() : null;
 		dirtyRegions.forEach((figure, contribution) -> {
 			IFigure walker = figure.getParent();
 			// A figure can't paint beyond its own bounds
@@ -296,6 +380,9 @@ public class DeferredUpdateManager extends UpdateManager {
 			} else {
 				damage.union(contribution);
 			}
+			if (rectangles != null && !contribution.isEmpty()) {
+				addDamageRectangle(rectangles, new Rectangle(contribution));
+			}
 		});
 
 		if (!dirtyRegions.isEmpty()) {
@@ -305,15 +392,96 @@ public class DeferredUpdateManager extends UpdateManager {
 		}
 
 		if (damage != null && !damage.isEmpty()) {
-			Graphics graphics = getGraphics(damage);
-			if (graphics != null) {
-				root.paint(graphics);
-				releaseGraphics(graphics);
+			if (rectangles == null) {
+				paintDamage();
+				painted(1, area(damage));
+			} else {
+				limitDamageRectangles(rectangles);
+				long paintedArea = 0;
+				for (Rectangle rectangle : rectangles) {
+					// releaseGraphics(Graphics) flushes the current damage
+					damage = rectangle;
+					paintDamage();
+					paintedArea += area(rectangle);
+				}
+				painted(rectangles.size(), paintedArea);
 			}
 		}
 		damage = null;
 	}
 
+	private void painted(int rectangleCount, long paintedArea) {
+		if (metrics != null) {
+			metrics.paintedRectangleCount += rectangleCount;
+			metrics.paintedArea += paintedArea;
+		}
+		firePainted(rectangleCount, paintedArea);
+	}
+
+	private void paintDamage() {
+		Graphics graphics = getGraphics(damage);
+		if (graphics != null) {
+			root.paint(graphics);
+			releaseGraphics(graphics);
+		}
+	}
+
+	private static long area(Rectangle rect) {
+		return (long) rect.width * rect.height;
+	}
+
+	/**
+	 * Adds the given rectangle to the given disjoint rectangles, merging it with
+	 * the rectangles it overlaps or whose union with it is not much larger than
+	 * both.
+	 */
+	private static void addDamageRectangle(List<Rectangle> rectangles, Rectangle rect) {
+		boolean merged;
+		do {
+			merged = false;
+			for (int i = 0; i < rectangles.size(); i++) {
+				Rectangle other = rectangles.get(i);
+				Rectangle union = other.getUnion(rect);
+				if (other.intersects(rect) || area(union) <= MERGE_FACTOR * (area(other) + area(rect))) {
+					rectangles.remove(i);
+					rect = union;
+					merged = true;
+					break;
+				}
+			}
+		} while (merged);
+		rectangles.add(rect);
+	}
+
+	/**
+	 * Merges the pairs of rectangles whose union adds the least area, until there
+	 * are at most {@link #MAX_DAMAGE_RECTANGLES} left.
+	 */
+	private static void limitDamageRectangles(List<Rectangle> rectangles) {
+		while (rectangles.size() > MAX_DAMAGE_RECTANGLES) {
+			int first = 0;
+			int second = 1;
+			long leastWaste = Long.MAX_VALUE;
+			for (int i = 0; i < rectangles.size(); i++) {
+				for (int j = i + 1; j < rectangles.size(); j++) {
+					Rectangle a = rectangles.get(i);
+					Rectangle b = rectangles.get(j);
+					long waste = area(a.getUnion(b)) - area(a) - area(b);
+					if (waste < leastWaste) {
+						leastWaste = waste;
+						first = i;
+						second = j;
+					}
+				}
+			}
+			Rectangle union = rectangles.get(first).getUnion(rectangles.get(second));
+			rectangles.remove(second);
+			rectangles.remove(first);
+			// The union may overlap other rectangles
+			addDamageRectangle(rectangles, union);
+		}
+	}
+
 	/**
 	 * Adds the given runnable and queues an update if an update is not under
 	 * progress.
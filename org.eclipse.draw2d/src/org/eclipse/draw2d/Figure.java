@@ -16,10 +16,13 @@ package org.eclipse.draw2d;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.eclipse.swt.SWT;
@@ -130,6 +133,15 @@ public class Figure implements IFigure {
 
 	private AncestorHelper ancestorHelper;
 
+	private FigureSpatialIndex spatialIndex;
+
+	private boolean rasterCacheEnabled;
+
+	/**
+	 * The cache which may hold images of this figure, set by the cache.
+	 */
+	RasterCache rasterCache;
+
 	/**
 	 * Calls {@link #add(IFigure, Object, int)} with -1 as the index.
 	 *
@@ -170,6 +182,9 @@ public class Figure implements IFigure {
 			children.add(index, figure);
 		}
 		figure.setParent(this);
+		if (spatialIndex != null) {
+			spatialIndex.hookChild(figure);
+		}
 
 		if (layoutManager != null) {
 			layoutManager.setConstraint(figure, constraint);
@@ -380,7 +395,7 @@ public class Figure implements IFigure {
 		x = PRIVATE_POINT.x;
 		y = PRIVATE_POINT.y;
 
-		for (IFigure fig : getChildrenRevIterable()) {
+		for (IFigure fig : getChildrenRevIterable(x, y)) {
 			if (fig.isVisible()) {
 				fig = fig.findFigureAt(x, y, search);
 				if (fig != null) {
@@ -483,7 +498,7 @@ public class Figure implements IFigure {
 			return null;
 		}
 
-		for (IFigure fig : getChildrenRevIterable()) {
+		for (IFigure fig : getChildrenRevIterable(PRIVATE_POINT.x, PRIVATE_POINT.y)) {
 			if (fig.isVisible() && fig.isEnabled() && fig.containsPoint(PRIVATE_POINT.x, PRIVATE_POINT.y)) {
 				fig = fig.findMouseEventTargetAt(PRIVATE_POINT.x, PRIVATE_POINT.y);
 				if (fig != null) {
@@ -640,6 +655,24 @@ public class Figure implements IFigure {
 		return () -> new ReverseFigureChildrenIterator(Figure.this);
 	}
 
+	/**
+	 * Provide an iterable that will iterate in reverse over the children of this
+	 * figure which may contain the given point. If the spatial index is disabled,
+	 * these are all children.
+	 *
+	 * @param x the x coordinate, relative to the client area
+	 * @param y the y coordinate, relative to the client area
+	 * @see #setSpatialIndexEnabled(boolean)
+	 */
+	Iterable<IFigure> getChildrenRevIterable(int x, int y) {
+		if (spatialIndex == null) {
+			return getChildrenRevIterable();
+		}
+		List<IFigure> candidates = spatialIndex.getChildrenAt(x, y);
+		Collections.reverse(candidates);
+		return candidates;
+	}
+
 	/**
 	 * @see IFigure#getClientArea(Rectangle)
 	 */
@@ -1077,6 +1110,7 @@ public class Figure implements IFigure {
 			layoutManager.invalidate();
 		}
 		setValid(false);
+		discardRasterCache();
 	}
 
 	/**
@@ -1144,6 +1178,18 @@ public class Figure implements IFigure {
 		return (flags & FLAG_OPAQUE) != 0;
 	}
 
+	/**
+	 * Returns <code>true</code> if the client area of this figure is painted from
+	 * a raster cache.
+	 *
+	 * @return <code>true</code> if the raster cache is enabled
+	 * @see #setRasterCacheEnabled(boolean)
+	 * @since 3.17
+	 */
+	public boolean isRasterCacheEnabled() {
+		return rasterCacheEnabled;
+	}
+
 	/**
 	 * @see IFigure#isRequestFocusEnabled()
 	 */
@@ -1183,6 +1229,18 @@ public class Figure implements IFigure {
 		return false;
 	}
 
+	/**
+	 * Returns <code>true</code> if this figure maintains a spatial index over the
+	 * bounds of its children.
+	 *
+	 * @return <code>true</code> if the spatial index is enabled
+	 * @see #setSpatialIndexEnabled(boolean)
+	 * @since 3.17
+	 */
+	public boolean isSpatialIndexEnabled() {
+		return spatialIndex != null;
+	}
+
 	/**
 	 * @see IFigure#isVisible()
 	 */
@@ -1258,7 +1316,11 @@ public class Figure implements IFigure {
 	 * @since 2.0
 	 */
 	protected void paintChildren(Graphics graphics) {
-		for (IFigure child : children) {
+		List<? extends IFigure> paintedChildren = children;
+		if (spatialIndex != null && clippingStrategy == null) {
+			paintedChildren = spatialIndex.getChildrenIntersecting(graphics.getClip(new Rectangle()));
+		}
+		for (IFigure child : paintedChildren) {
 			if (child.isVisible()) {
 				// determine clipping areas for child
 				Rectangle[] clipping = null;
@@ -1293,7 +1355,19 @@ public class Figure implements IFigure {
 		if (children.isEmpty()) {
 			return;
 		}
+		if (rasterCacheEnabled) {
+			RasterCache cache = getSystemRasterCache();
+			if (cache != null && cache.paint(this, graphics)) {
+				return;
+			}
+		}
+		paintClientAreaContents(graphics);
+	}
 
+	/**
+	 * Paints the children in the client area, bypassing the raster cache.
+	 */
+	void paintClientAreaContents(Graphics graphics) {
 		if (useLocalCoordinates()) {
 			graphics.translate(getBounds().x + getInsets().left, getBounds().y + getInsets().top);
 			if (!optimizeClip()) {
@@ -1385,6 +1459,9 @@ public class Figure implements IFigure {
 		figure.erase();
 		figure.setParent(null);
 		children.remove(figure);
+		if (spatialIndex != null) {
+			spatialIndex.unhookChild(figure);
+		}
 		revalidate();
 	}
 
@@ -1494,6 +1571,7 @@ public class Figure implements IFigure {
 	 */
 	@Override
 	public void removeNotify() {
+		discardRasterCache();
 		children.forEach(IFigure::removeNotify);
 		if (internalGetEventDispatcher() != null) {
 			internalGetEventDispatcher().requestRemoveFocus(this);
@@ -1523,6 +1601,47 @@ public class Figure implements IFigure {
 		propertyListeners.removePropertyChangeListener(property, listener);
 	}
 
+	/**
+	 * Rearranges the given children of this Figure into the given order. The
+	 * children take over the positions which they occupied in the children list
+	 * before, so that the positions of all other children remain unchanged. Unlike
+	 * removing and re-adding the children, this neither notifies the children nor
+	 * touches their layout constraints, and this Figure is revalidated only once.
+	 *
+	 * @param figures the children in their new order
+	 * @throws IllegalArgumentException if a figure is not a child of this Figure or
+	 *                                  is given twice
+	 * @since 3.17
+	 */
+	public void reorderChildren(List<? extends IFigure> figures) {
+		if (figures.isEmpty()) {
+			return;
+		}
+		Map<IFigure, Integer> indices = new IdentityHashMap<>(children.size());
+		for (int i = 0; i < children.size(); i++) {
+			indices.put(children.get(i), Integer.valueOf(i));
+		}
+		int[] positions = new int[figures.size()];
+		for (int i = 0; i < positions.length; i++) {
+			Integer index = indices.remove(figures.get(i));
+			if (index == null) {
+				throw new IllegalArgumentException("Figure is not a child or given twice"); //$NON-NLS-1$
+			}
+			positions[i] = index.intValue();
+		}
+		Arrays.sort(positions);
+		for (int i = 0; i < positions.length; i++) {
+			IFigure figure = figures.get(i);
+			if (children.set(positions[i], figure) != figure) {
+				figure.repaint();
+			}
+		}
+		if (spatialIndex != null) {
+			spatialIndex.childrenReordered();
+		}
+		revalidate();
+	}
+
 	/**
 	 * @see IFigure#repaint(Rectangle)
 	 */
@@ -1537,10 +1656,40 @@ public class Figure implements IFigure {
 	@Override
 	public void repaint(int x, int y, int w, int h) {
 		if (isVisible()) {
+			// The images of this figure and its ancestors show the repainted area. The
+			// walk ends once all figures holding images have been seen, which are few.
+			int remaining = RasterCache.getFiguresWithImages();
+			for (IFigure figure = this; figure != null && remaining > 0; figure = figure.getParent()) {
+				if (figure instanceof Figure f && f.rasterCache != null) {
+					f.discardRasterCache();
+					remaining--;
+				}
+			}
 			getUpdateManager().addDirtyRegion(this, x, y, w, h);
 		}
 	}
 
+	private void discardRasterCache() {
+		if (rasterCache != null) {
+			rasterCache.discard(this);
+		}
+	}
+
+	/**
+	 * Returns the raster cache of the {@link LightweightSystem} this figure is
+	 * displayed by, or <code>null</code> if it is not displayed by one.
+	 */
+	private RasterCache getSystemRasterCache() {
+		IFigure root = this;
+		while (root.getParent() != null) {
+			root = root.getParent();
+		}
+		if (root instanceof LightweightSystem.RootFigure rootFigure) {
+			return rootFigure.getRasterCache();
+		}
+		return null;
+	}
+
 	/**
 	 * @see IFigure#repaint()
 	 */
@@ -1911,6 +2060,33 @@ public class Figure implements IFigure {
 		setPreferredSize(new Dimension(w, h));
 	}
 
+	/**
+	 * Enables or disables painting the client area of this figure from a raster
+	 * cache. While enabled, the children are rendered once to an image at the
+	 * current scale, which is painted in {@link #paintClientArea(Graphics)} until
+	 * this figure or one of its descendants is invalidated or repainted, or the
+	 * scale changes. This saves painting static subtrees with many primitives
+	 * primitive by primitive.
+	 * <P>
+	 * The image is filled with the background color of this figure before the
+	 * children are rendered, so the cache is meant for figures whose client area
+	 * has a uniform background, such as opaque figures. The images of all figures
+	 * of a {@link LightweightSystem} share a memory budget, see
+	 * {@link LightweightSystem#getRasterCache()}. Figures which are not displayed
+	 * by a lightweight system are painted directly.
+	 *
+	 * @param enabled <code>true</code> to enable the raster cache
+	 * @since 3.17
+	 */
+	public void setRasterCacheEnabled(boolean enabled) {
+		if (enabled == rasterCacheEnabled) {
+			return;
+		}
+		rasterCacheEnabled = enabled;
+		discardRasterCache();
+		repaint();
+	}
+
 	/**
 	 * @see IFigure#setRequestFocusEnabled(boolean)
 	 */
@@ -1944,6 +2120,34 @@ public class Figure implements IFigure {
 		setBounds(r);
 	}
 
+	/**
+	 * Enables or disables a spatial index over the bounds of this figure's
+	 * children. While enabled, {@link #paintChildren(Graphics)} only visits the
+	 * children intersecting the clip, and hit-testing only visits the children
+	 * whose bounds contain the point. The z-order of the children is preserved.
+	 * <P>
+	 * The index is kept up to date from the {@link FigureListener figure moves} of
+	 * the children. It is not used for painting if a
+	 * {@link #setClippingStrategy(IClippingStrategy) clipping strategy} is set,
+	 * because the clip of a child may then exceed its bounds. Enabling the index
+	 * is only worthwhile for figures with a large number of children, such as the
+	 * primary layer of a big diagram.
+	 *
+	 * @param enabled <code>true</code> to enable the spatial index
+	 * @since 3.17
+	 */
+	public void setSpatialIndexEnabled(boolean enabled) {
+		if (enabled == isSpatialIndexEnabled()) {
+			return;
+		}
+		if (enabled) {
+			spatialIndex = new FigureSpatialIndex(this);
+		} else {
+			spatialIndex.dispose();
+			spatialIndex = null;
+		}
+	}
+
 	/**
 	 * @see IFigure#setToolTip(IFigure)
 	 */
@@ -2259,6 +2463,11 @@ public class Figure implements IFigure {
 		public void setGraphicsSource(GraphicsSource gs) {
 			// do nothing
 		}
+
+		@Override
+		public void setMetricsEnabled(boolean enabled) {
+			// do nothing
+		}
 	};
 
 }
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.internal.SpatialGrid;
+
+/**
+ * A {@link SpatialGrid} over the bounds of the children of a single
+ * {@link Figure}. The grid is kept up to date by listening to the children's
+ * {@link FigureListener#figureMoved(IFigure) moves}. Queries return the children
+ * whose bounds may contain a point or intersect a rectangle, sorted by their
+ * index in the host's children list, so that callers can preserve the z-order
+ * semantics of painting and hit-testing.
+ * <P>
+ * The bounds of each child are expanded by a small tolerance before being
+ * indexed, so that figures such as {@link Polyline Polylines} which accept
+ * points slightly outside of their bounds are still found.
+ */
+class FigureSpatialIndex implements FigureListener, PropertyChangeListener {
+
+	/**
+	 * The default width and height of a grid cell.
+	 */
+	static final int DEFAULT_CELL_SIZE = 256;
+
+	private static final int TOLERANCE = 8;
+
+	private final Figure host;
+	private final SpatialGrid<IFigure> grid;
+	private final Map<IFigure, Rectangle> indexedBounds = new IdentityHashMap<>();
+	private Map<IFigure, Integer> zOrder;
+
+	FigureSpatialIndex(Figure host) {
+		this(host, DEFAULT_CELL_SIZE);
+	}
+
+	FigureSpatialIndex(Figure host, int cellSize) {
+		this.host = host;
+		this.grid = new SpatialGrid<>(cellSize);
+		host.getChildren().forEach(this::hookChild);
+	}
+
+	/**
+	 * Starts tracking the given child. Must be called after the child has been
+	 * added to the host's children list.
+	 *
+	 * @param child the new child
+	 */
+	void hookChild(IFigure child) {
+		child.addFigureListener(this);
+		if (child instanceof Polyline) {
+			child.addPropertyChangeListener(Connection.PROPERTY_POINTS, this);
+		}
+		insert(child);
+		zOrder = null;
+	}
+
+	/**
+	 * Stops tracking the given child.
+	 *
+	 * @param child the removed child
+	 */
+	void unhookChild(IFigure child) {
+		child.removeFigureListener(this);
+		if (child instanceof Polyline) {
+			child.removePropertyChangeListener(Connection.PROPERTY_POINTS, this);
+		}
+		delete(child);
+		zOrder = null;
+	}
+
+	/**
+	 * Must be called after the order of the host's children list has changed.
+	 */
+	void childrenReordered() {
+		zOrder = null;
+	}
+
+	/**
+	 * Removes all listeners from the children of the host and empties the index.
+	 */
+	void dispose() {
+		new ArrayList<>(indexedBounds.keySet()).forEach(this::unhookChild);
+		grid.clear();
+	}
+
+	@Override
+	public void figureMoved(IFigure source) {
+		update(source);
+	}
+
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+		update((IFigure) evt.getSource());
+	}
+
+	/**
+	 * Returns the children which may contain the given point, in ascending
+	 * z-order (the order of the host's children list). The point is relative to
+	 * the host's client area, i.e. in the same coordinate system as the bounds of
+	 * the children.
+	 *
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the candidate children
+	 */
+	List<IFigure> getChildrenAt(int x, int y) {
+		List<IFigure> result = new ArrayList<>();
+		grid.visit(x, y, x, y, child -> {
+			if (indexedBounds.get(child).contains(x, y)) {
+				result.add(child);
+			}
+		});
+		return result.isEmpty() ? Collections.emptyList() : sort(result);
+	}
+
+	/**
+	 * Returns the children whose bounds may intersect the given rectangle, in
+	 * ascending z-order (the order of the host's children list).
+	 *
+	 * @param rect the area to query, relative to the host's client area
+	 * @return the candidate children
+	 */
+	List<IFigure> getChildrenIntersecting(Rectangle rect) {
+		Map<IFigure, Boolean> found = new IdentityHashMap<>();
+		grid.visit(rect.x, rect.y, rect.right(), rect.bottom(), child -> {
+			if (!found.containsKey(child) && indexedBounds.get(child).intersects(rect)) {
+				found.put(child, Boolean.TRUE);
+			}
+		});
+		return sort(new ArrayList<>(found.keySet()));
+	}
+
+	private void update(IFigure child) {
+		if (indexedBounds.containsKey(child)) {
+			delete(child);
+			insert(child);
+		}
+	}
+
+	private void insert(IFigure child) {
+		Rectangle r = child.getBounds().getExpanded(TOLERANCE, TOLERANCE);
+		indexedBounds.put(child, r);
+		grid.add(child, r.x, r.y, r.right(), r.bottom());
+	}
+
+	private void delete(IFigure child) {
+		Rectangle r = indexedBounds.remove(child);
+		if (r != null) {
+			grid.remove(child, r.x, r.y, r.right(), r.bottom());
+		}
+	}
+
+	private List<IFigure> sort(List<IFigure> list) {
+		if (list.size() > 1) {
+			Map<IFigure, Integer> order = getZOrder();
+			list.sort((a, b) -> Integer.compare(order.get(a).intValue(), order.get(b).intValue()));
+		}
+		return list;
+	}
+
+	private Map<IFigure, Integer> getZOrder() {
+		if (zOrder == null) {
+			List<? extends IFigure> children = host.getChildren();
+			zOrder = new IdentityHashMap<>(children.size());
+			for (int i = 0; i < children.size(); i++) {
+				zOrder.put(children.get(i), Integer.valueOf(i));
+			}
+		}
+		return zOrder;
+	}
+
+}
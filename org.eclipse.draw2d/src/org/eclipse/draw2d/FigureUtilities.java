@@ -81,7 +81,8 @@ public class FigureUtilities {
 
 	/**
 	 * Returns the dimensions of the String <i>s</i> using the font <i>f</i>. Tab
-	 * expansion and carriage return processing are performed.
+	 * expansion and carriage return processing are performed. The result may be
+	 * served from the extent cache configured in {@link TextUtilities}.
 	 *
 	 * @param s the string
 	 * @param f the font
@@ -89,8 +90,7 @@ public class FigureUtilities {
 	 * @see GC#textExtent(String)
 	 */
 	protected static org.eclipse.swt.graphics.Point getTextDimension(String s, Font f) {
-		setFont(f);
-		return getGC().textExtent(s);
+		return TextExtentCache.getExtent(s, f, true);
 	}
 
 	/**
@@ -109,7 +109,8 @@ public class FigureUtilities {
 
 	/**
 	 * Returns the dimensions of the String <i>s</i> using the font <i>f</i>. No tab
-	 * expansion or carriage return processing will be performed.
+	 * expansion or carriage return processing will be performed. The result may
+	 * be served from the extent cache configured in {@link TextUtilities}.
 	 *
 	 * @param s the string
 	 * @param f the font
@@ -117,8 +118,22 @@ public class FigureUtilities {
 	 * @see GC#stringExtent(java.lang.String)
 	 */
 	protected static org.eclipse.swt.graphics.Point getStringDimension(String s, Font f) {
+		return TextExtentCache.getExtent(s, f, false);
+	}
+
+	/**
+	 * Measures the String <i>s</i> using the font <i>f</i> on the shared GC,
+	 * bypassing the extent cache.
+	 *
+	 * @param s          the string
+	 * @param f          the font
+	 * @param expandTabs whether tab expansion and carriage return processing are
+	 *                   performed
+	 * @return the string's dimensions
+	 */
+	static org.eclipse.swt.graphics.Point measure(String s, Font f, boolean expandTabs) {
 		setFont(f);
-		return getGC().stringExtent(s);
+		return expandTabs ? getGC().textExtent(s) : getGC().stringExtent(s);
 	}
 
 	/**
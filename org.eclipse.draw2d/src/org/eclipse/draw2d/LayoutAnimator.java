@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 IBM Corporation and others.
+ * Copyright (c) 2005, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -34,6 +34,11 @@ import org.eclipse.draw2d.geometry.Rectangle;
  * Animator must be used in conjunction with layouts. If figures are placed
  * manually using <code>setBounds()</code>, the animator may not be able to
  * track and playback the changes that occur.
+ * <P>
+ * Children which are outside of the visible area of the enclosing
+ * {@link Viewport} both before and after the layout are placed at their final
+ * bounds right away, so that each step of the animation only moves and
+ * repaints the visible children.
  *
  * @since 3.2
  */
@@ -75,6 +80,30 @@ public class LayoutAnimator extends Animator implements LayoutListener {
 		return INSTANCE;
 	}
 
+	/**
+	 * Excludes the children which are not visible before and after the layout from
+	 * the playback. If no child remains, the container is not played back at all.
+	 *
+	 * @see Animator#playbackStarting(IFigure)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void playbackStarting(IFigure container) {
+		Map<IFigure, Rectangle> initial = (Map<IFigure, Rectangle>) Animation.getInitialState(this, container);
+		Map<IFigure, Rectangle> ending = (Map<IFigure, Rectangle>) Animation.getFinalState(this, container);
+		Rectangle visible = getVisibleArea(container);
+		if (initial == null || ending == null || visible == null) {
+			return;
+		}
+		initial.entrySet().removeIf(entry -> {
+			Rectangle end = ending.get(entry.getKey());
+			return end != null && !visible.intersects(entry.getValue()) && !visible.intersects(end);
+		});
+		if (initial.isEmpty()) {
+			Animation.cull(this, container);
+		}
+	}
+
 	/**
 	 * Hooks invalidation in case animation is in progress.
 	 *
@@ -94,7 +123,7 @@ public class LayoutAnimator extends Animator implements LayoutListener {
 	 */
 	@Override
 	public final boolean layout(IFigure container) {
-		if (Animation.isAnimating()) {
+		if (Animation.isPlayingBack()) {
 			return Animation.hookPlayback(container, this);
 		}
 		return false;
@@ -117,12 +146,14 @@ public class LayoutAnimator extends Animator implements LayoutListener {
 		float progress = Animation.getProgress();
 		float ssergorp = 1 - progress;
 
-		for (IFigure child : container.getChildren()) {
-			Rectangle rect1 = initial.get(child);
+		// Only the children which have not been culled are played back
+		for (Map.Entry<IFigure, Rectangle> entry : initial.entrySet()) {
+			IFigure child = entry.getKey();
+			Rectangle rect1 = entry.getValue();
 			Rectangle rect2 = ending.get(child);
 
 			// TODO need to change this to hide the figure until the end.
-			if (rect1 == null) {
+			if (rect2 == null || child.getParent() != container) {
 				continue;
 			}
 			child.setBounds(new Rectangle(Math.round(progress * rect2.x + ssergorp * rect1.x),
@@ -61,6 +61,9 @@ public class LightweightSystem {
 	private EventDispatcher dispatcher;
 	private UpdateManager manager = new DeferredUpdateManager();
 	private int ignoreResize;
+	private boolean bufferRetained;
+	private BufferedGraphicsSource bufferedSource;
+	private RasterCache rasterCache;
 
 	/**
 	 * Constructs a LightweightSystem on Canvas <i>c</i>.
@@ -137,6 +140,22 @@ public class LightweightSystem {
 		return dispatcher;
 	}
 
+	/**
+	 * Returns the cache of the images of the figures which are painted from a
+	 * raster cache, which allows to configure its memory budget. The images are
+	 * disposed when the canvas is disposed.
+	 *
+	 * @return the raster cache
+	 * @see Figure#setRasterCacheEnabled(boolean)
+	 * @since 3.17
+	 */
+	public RasterCache getRasterCache() {
+		if (rasterCache == null) {
+			rasterCache = new RasterCache();
+		}
+		return rasterCache;
+	}
+
 	/**
 	 * Returns this LightweightSystem's root figure.
 	 *
@@ -229,9 +248,10 @@ public class LightweightSystem {
 		}
 		canvas = c;
 		if ((c.getStyle() & SWT.DOUBLE_BUFFERED) != 0) {
+			disposeBufferedSource();
 			getUpdateManager().setGraphicsSource(new NativeGraphicsSource(canvas));
 		} else {
-			getUpdateManager().setGraphicsSource(new BufferedGraphicsSource(canvas));
+			setBufferedSource();
 		}
 		getEventDispatcher().setControl(c);
 		addListeners();
@@ -243,6 +263,56 @@ public class LightweightSystem {
 		root.revalidate();
 	}
 
+	/**
+	 * Sets whether the image used to double buffer the painting of the canvas is
+	 * retained between updates. By default, an image the size of the damaged
+	 * region is allocated and disposed for every update. A retained buffer is an
+	 * image the size of the canvas, which is only reallocated when the size of the
+	 * canvas changes. Only the damaged region of it is painted and copied to the
+	 * canvas. This saves the native allocations of each update, e.g. of hover
+	 * feedback, at the expense of keeping the image in memory.
+	 * <P>
+	 * Has no effect on canvases with the {@link SWT#DOUBLE_BUFFERED} style, which
+	 * are double buffered by SWT.
+	 *
+	 * @param retained <code>true</code> to retain the buffer
+	 * @since 3.17
+	 */
+	public void setBufferRetained(boolean retained) {
+		if (bufferRetained == retained) {
+			return;
+		}
+		bufferRetained = retained;
+		if (bufferedSource != null) {
+			setBufferedSource();
+		}
+	}
+
+	/**
+	 * Returns whether the image used to double buffer the painting of the canvas
+	 * is retained between updates.
+	 *
+	 * @return <code>true</code> if the buffer is retained
+	 * @see #setBufferRetained(boolean)
+	 * @since 3.17
+	 */
+	public boolean isBufferRetained() {
+		return bufferRetained;
+	}
+
+	private void setBufferedSource() {
+		disposeBufferedSource();
+		bufferedSource = new BufferedGraphicsSource(canvas, bufferRetained);
+		getUpdateManager().setGraphicsSource(bufferedSource);
+	}
+
+	private void disposeBufferedSource() {
+		if (bufferedSource != null) {
+			bufferedSource.dispose();
+			bufferedSource = null;
+		}
+	}
+
 	/**
 	 * Sets this LightweightSystem's EventDispatcher.
 	 *
@@ -332,6 +402,10 @@ public class LightweightSystem {
 			return LightweightSystem.this.getUpdateManager();
 		}
 
+		RasterCache getRasterCache() {
+			return LightweightSystem.this.getRasterCache();
+		}
+
 		/** @see IFigure#internalGetEventDispatcher() */
 		@Override
 		public EventDispatcher internalGetEventDispatcher() {
@@ -602,6 +676,9 @@ public class LightweightSystem {
 		@Override
 		public void widgetDisposed(DisposeEvent e) {
 			getUpdateManager().dispose();
+			if (rasterCache != null) {
+				rasterCache.clear();
+			}
 		}
 	}
 
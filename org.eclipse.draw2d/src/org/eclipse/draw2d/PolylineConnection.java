@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2023 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -179,7 +179,14 @@ public class PolylineConnection extends Polyline implements Connection, AnchorLi
 	@Override
 	public void layout() {
 		if (getSourceAnchor() != null && getTargetAnchor() != null) {
-			connectionRouter.route(this);
+			UpdateManager manager = getUpdateManager();
+			if (manager.isMetricsEnabled()) {
+				long start = System.nanoTime();
+				connectionRouter.route(this);
+				manager.recordRouting(System.nanoTime() - start);
+			} else {
+				connectionRouter.route(this);
+			}
 		}
 
 		Rectangle oldBounds = bounds;
@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * The images of the figures of a {@link LightweightSystem} which are painted
+ * from a raster cache, see {@link Figure#setRasterCacheEnabled(boolean)}. The
+ * client area of such a figure is rendered once per scale to an image, which is
+ * painted instead of the children of the figure until one of its descendants is
+ * invalidated or repainted.
+ * <P>
+ * The images of all figures share a memory budget. When the budget is exceeded,
+ * the least recently painted images are disposed. Figures whose image would not
+ * fit into the budget are painted directly.
+ *
+ * @since 3.17
+ */
+public final class RasterCache {
+
+	/**
+	 * The default memory budget of 32 MB.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 32L << 20;
+
+	/**
+	 * The memory used by one pixel of an image, as a rough estimate.
+	 */
+	private static final int BYTES_PER_PIXEL = 4;
+
+	/**
+	 * The maximum number of scales an image is kept for per figure, e.g. for the
+	 * canvas and a thumbnail.
+	 */
+	private static final int MAX_SCALES_PER_FIGURE = 2;
+
+	private record Key(Figure figure, double scale) {
+	}
+
+	private record Entry(Image image, int width, int height, long size) {
+	}
+
+	/**
+	 * The number of figures holding images of any cache, so that repaints can stop
+	 * looking for such figures among their ancestors once all have been found.
+	 */
+	private static int figuresWithImages;
+
+	/** The entries in the order of their last use */
+	private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	/** The keys of the images of each figure, least recently used first */
+	private final Map<Figure, List<Key>> figureKeys = new IdentityHashMap<>();
+	private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+	private long memoryUsage;
+
+	RasterCache() {
+	}
+
+	/**
+	 * Sets the memory which may be used by all images of the cache, and disposes
+	 * of the least recently used images until they fit into it.
+	 *
+	 * @param budget the memory budget in bytes
+	 * @throws IllegalArgumentException if the budget is negative
+	 */
+	public void setMemoryBudget(long budget) {
+		if (budget < 0) {
+			throw new IllegalArgumentException("Memory budget must not be negative"); //$NON-NLS-1$
+		}
+		memoryBudget = budget;
+		evict();
+	}
+
+	/**
+	 * Returns the memory which may be used by all images of the cache.
+	 *
+	 * @return the memory budget in bytes
+	 */
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * Returns an estimate of the memory used by the images of the cache.
+	 *
+	 * @return the used memory in bytes
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	/**
+	 * Returns the number of images in the cache.
+	 *
+	 * @return the number of images
+	 */
+	public int getImageCount() {
+		return entries.size();
+	}
+
+	/**
+	 * Disposes of all images of the cache.
+	 */
+	public void clear() {
+		entries.values().forEach(entry -> entry.image.dispose());
+		figureKeys.keySet().forEach(figure -> figure.rasterCache = null);
+		figuresWithImages -= figureKeys.size();
+		entries.clear();
+		figureKeys.clear();
+		memoryUsage = 0;
+	}
+
+	/**
+	 * Returns the number of figures holding images of any cache.
+	 */
+	static int getFiguresWithImages() {
+		return figuresWithImages;
+	}
+
+	/**
+	 * Paints the client area of the given figure from its image, rendering the
+	 * image if there is none for the current scale of the graphics.
+	 *
+	 * @return <code>false</code> if the figure has to be painted directly
+	 */
+	boolean paint(Figure figure, Graphics graphics) {
+		double scale = graphics.getAbsoluteScale();
+		Rectangle area = figure.getBounds().getShrinked(figure.getInsets());
+		int width = (int) Math.ceil(area.width * scale);
+		int height = (int) Math.ceil(area.height * scale);
+		long size = (long) width * height * BYTES_PER_PIXEL;
+		if (width <= 0 || height <= 0 || size > memoryBudget) {
+			return false;
+		}
+
+		Key key = new Key(figure, scale);
+		Entry entry = entries.get(key);
+		if (entry != null && (entry.width != width || entry.height != height)) {
+			remove(key);
+			entry = null;
+		}
+		if (entry != null) {
+			// the other scales of the figure are now used less recently
+			List<Key> keys = figureKeys.get(figure);
+			keys.remove(key);
+			keys.add(key);
+		}
+		if (entry == null) {
+			Display display = Display.getCurrent();
+			if (display == null) {
+				return false;
+			}
+			removeOtherScales(figure);
+			entry = new Entry(render(display, figure, area, scale, width, height), width, height, size);
+			entries.put(key, entry);
+			memoryUsage += size;
+			List<Key> keys = figureKeys.get(figure);
+			if (keys == null) {
+				keys = new ArrayList<>(MAX_SCALES_PER_FIGURE);
+				figureKeys.put(figure, keys);
+				// the figure discards its images when its subtree changes
+				figure.rasterCache = this;
+				figuresWithImages++;
+			}
+			keys.add(key);
+			evict();
+		}
+		graphics.drawImage(entry.image, 0, 0, width, height, area.x, area.y, area.width, area.height);
+		return true;
+	}
+
+	private static Image render(Display display, Figure figure, Rectangle area, double scale, int width,
+			int height) {
+		Image image = new Image(display, width, height);
+		GC gc = new GC(image);
+		SWTGraphics swtGraphics = new SWTGraphics(gc);
+		ScaledGraphics scaledGraphics = null;
+		try {
+			Color background = figure.getBackgroundColor();
+			if (background != null) {
+				swtGraphics.setBackgroundColor(background);
+				swtGraphics.fillRectangle(0, 0, width, height);
+			}
+			Graphics graphics = swtGraphics;
+			if (scale != 1.0) {
+				scaledGraphics = new ScaledGraphics(swtGraphics);
+				scaledGraphics.scale(scale);
+				graphics = scaledGraphics;
+			}
+			graphics.setFont(figure.getFont());
+			graphics.setForegroundColor(figure.getForegroundColor());
+			if (background != null) {
+				graphics.setBackgroundColor(background);
+			}
+			graphics.translate(-area.x, -area.y);
+			graphics.pushState();
+			figure.paintClientAreaContents(graphics);
+			graphics.popState();
+		} catch (RuntimeException | Error e) {
+			image.dispose();
+			throw e;
+		} finally {
+			if (scaledGraphics != null) {
+				scaledGraphics.dispose();
+			}
+			swtGraphics.dispose();
+			gc.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Disposes of all images of the given figure.
+	 */
+	void discard(Figure figure) {
+		List<Key> keys = figureKeys.get(figure);
+		while (keys != null && !keys.isEmpty()) {
+			remove(keys.get(keys.size() - 1));
+		}
+	}
+
+	/**
+	 * Makes room for an image of the given figure at another scale by disposing of
+	 * its least recently used image, if the figure has too many images.
+	 */
+	private void removeOtherScales(Figure figure) {
+		List<Key> keys = figureKeys.get(figure);
+		if (keys != null && keys.size() >= MAX_SCALES_PER_FIGURE) {
+			remove(keys.get(0));
+		}
+	}
+
+	private void remove(Key key) {
+		disposeEntry(key, entries.remove(key));
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Key, Entry>> iter = entries.entrySet().iterator();
+		while (memoryUsage > memoryBudget && iter.hasNext()) {
+			Map.Entry<Key, Entry> next = iter.next();
+			iter.remove();
+			disposeEntry(next.getKey(), next.getValue());
+		}
+	}
+
+	/**
+	 * Disposes of the image of an entry which has been removed, and releases the
+	 * figure once its last image is gone.
+	 */
+	private void disposeEntry(Key key, Entry entry) {
+		memoryUsage -= entry.size;
+		entry.image.dispose();
+		List<Key> keys = figureKeys.get(key.figure);
+		keys.remove(key);
+		if (keys.isEmpty()) {
+			figureKeys.remove(key.figure);
+			key.figure.rasterCache = null;
+			figuresWithImages--;
+		}
+	}
+
+}
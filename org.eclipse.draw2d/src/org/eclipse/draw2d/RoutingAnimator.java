@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 IBM Corporation and others.
+ * Copyright (c) 2005, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -15,6 +15,7 @@ package org.eclipse.draw2d;
 
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
 
 /**
  * Animates the routing of a connection. The animator will capture the effects
@@ -43,15 +44,30 @@ public class RoutingAnimator extends Animator implements RoutingListener {
 	}
 
 	/**
-	 * Overridden to sync initial and final states.
+	 * Overridden to sync initial and final states. Connections which are not
+	 * visible before and after routing are not played back.
 	 *
 	 * @see Animator#playbackStarting(IFigure)
 	 */
 	@Override
 	public void playbackStarting(IFigure connection) {
+		if (isCulled((Connection) connection)) {
+			Animation.cull(this, connection);
+			return;
+		}
 		reconcileStates((Connection) connection);
 	}
 
+	private boolean isCulled(Connection conn) {
+		PointList initial = (PointList) Animation.getInitialState(this, conn);
+		PointList ending = (PointList) Animation.getFinalState(this, conn);
+		if (initial == null || ending == null || conn.getParent() == null) {
+			return false;
+		}
+		Rectangle visible = getVisibleArea(conn.getParent());
+		return visible != null && !visible.intersects(initial.getBounds()) && !visible.intersects(ending.getBounds());
+	}
+
 	/**
 	 * Returns the current state of the connection. Currently, this is a copy of the
 	 * list of points. However this Object could change in future releases and
@@ -210,7 +226,7 @@ public class RoutingAnimator extends Animator implements RoutingListener {
 	 */
 	@Override
 	public final boolean route(Connection conn) {
-		return Animation.isAnimating() && Animation.hookPlayback(conn, this);
+		return Animation.isPlayingBack() && Animation.hookPlayback(conn, this);
 	}
 
 	/**
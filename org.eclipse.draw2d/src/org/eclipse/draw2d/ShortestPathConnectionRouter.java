@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -16,10 +16,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.swt.widgets.Display;
+
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.PointList;
 import org.eclipse.draw2d.geometry.PrecisionPoint;
@@ -29,6 +32,13 @@ import org.eclipse.draw2d.graph.ShortestPathRouter;
 
 /**
  * Routes multiple connections around the children of a given container figure.
+ * <P>
+ * While the user interacts with the diagram, for example while dragging
+ * figures, clients may {@link #setDeferredRouting(boolean) defer} the routing.
+ * Connections are then routed along straight lines through their bendpoints,
+ * and the shortest paths are computed on a background thread once the
+ * obstacles have not moved for the {@link #setSettleDelay(int) settle delay},
+ * or once the routing is no longer deferred.
  *
  * @author Whitney Sorenson
  * @author Randy Hudson
@@ -64,7 +74,11 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 
 	private final FigureListener figureListener = source -> {
 		Rectangle newBounds = source.getBounds().getCopy();
-		if (algorithm.updateObstacle(figuresToBounds.get(source), newBounds)) {
+		if (isDeferring()) {
+			if (!newBounds.equals(figuresToBounds.get(source))) {
+				markChanged();
+			}
+		} else if (algorithm.updateObstacle(figuresToBounds.get(source), newBounds)) {
 			queueSomeRouting();
 			isDirty = true;
 		}
@@ -73,6 +87,32 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 	};
 	private boolean ignoreInvalidate;
 
+	/**
+	 * The default settle delay in milliseconds.
+	 *
+	 * @since 3.17
+	 */
+	public static final int DEFAULT_SETTLE_DELAY = 200;
+
+	private boolean deferred;
+	private int settleDelay = DEFAULT_SETTLE_DELAY;
+	private final Runnable settleRunnable = this::startBackgroundSolve;
+	/**
+	 * Whether a snapshot of the obstacles and paths is being solved on a
+	 * background thread.
+	 */
+	private boolean solving;
+	/**
+	 * Whether changes have been made since the last background solve started.
+	 */
+	private boolean needsSolve;
+	/**
+	 * Incremented with every change made while the routing is deferred. The result
+	 * of a background solve is only applied if no change was made since its
+	 * snapshot was taken.
+	 */
+	private int generation;
+
 	/**
 	 * Creates a new shortest path router with the given container. The container
 	 * contains all the figure's which will be treated as obstacles for the
@@ -96,7 +136,11 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 			return;
 		}
 		Rectangle bounds = child.getBounds().getCopy();
-		algorithm.addObstacle(bounds);
+		if (isDeferring()) {
+			markChanged();
+		} else {
+			algorithm.addObstacle(bounds);
+		}
 		figuresToBounds.put(child, bounds);
 		child.addFigureListener(figureListener);
 		isDirty = true;
@@ -156,6 +200,9 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 		}
 		staleConnections.add(connection);
 		isDirty = true;
+		if (isDeferring()) {
+			markChanged();
+		}
 	}
 
 	private void processLayout() {
@@ -182,31 +229,39 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 				algorithm.addPath(path);
 			}
 
-			List<Bendpoint> constraint = getConstraint(conn);
-			if (constraint == null) {
-				constraint = Collections.emptyList();
-			}
+			updatePath(conn, path);
 
-			Point start = conn.getSourceAnchor().getReferencePoint().getCopy();
-			Point end = conn.getTargetAnchor().getReferencePoint().getCopy();
+			isDirty |= path.isDirty;
+		}
+		staleConnections.clear();
+	}
 
-			container.translateToRelative(start);
-			container.translateToRelative(end);
+	/**
+	 * Updates the start, end and bend points of the given path from the anchors and
+	 * the constraint of the given connection.
+	 */
+	private void updatePath(Connection conn, Path path) {
+		List<Bendpoint> constraint = getConstraint(conn);
+		if (constraint == null) {
+			constraint = Collections.emptyList();
+		}
 
-			path.setStartPoint(start);
-			path.setEndPoint(end);
+		Point start = conn.getSourceAnchor().getReferencePoint().getCopy();
+		Point end = conn.getTargetAnchor().getReferencePoint().getCopy();
 
-			if (!constraint.isEmpty()) {
-				PointList bends = new PointList(constraint.size());
-				constraint.forEach(bp -> bends.addPoint(bp.getLocation()));
-				path.setBendPoints(bends);
-			} else {
-				path.setBendPoints(null);
-			}
+		container.translateToRelative(start);
+		container.translateToRelative(end);
 
-			isDirty |= path.isDirty;
+		path.setStartPoint(start);
+		path.setEndPoint(end);
+
+		if (!constraint.isEmpty()) {
+			PointList bends = new PointList(constraint.size());
+			constraint.forEach(bp -> bends.addPoint(bp.getLocation()));
+			path.setBendPoints(bends);
+		} else {
+			path.setBendPoints(null);
 		}
-		staleConnections.clear();
 	}
 
 	void queueSomeRouting() {
@@ -232,8 +287,13 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 			return;
 		}
 		Path path = connectionToPaths.remove(connection);
-		algorithm.removePath(path);
+		if (path != null) {
+			algorithm.removePath(path);
+		}
 		isDirty = true;
+		if (isDeferring()) {
+			markChanged();
+		}
 		if (connectionToPaths.isEmpty()) {
 			unhookAll();
 			connectionToPaths = null;
@@ -249,7 +309,13 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 			return;
 		}
 		Rectangle bounds = child.getBounds().getCopy();
-		boolean change = algorithm.removeObstacle(bounds);
+		boolean change;
+		if (isDeferring()) {
+			markChanged();
+			change = false;
+		} else {
+			change = algorithm.removeObstacle(bounds);
+		}
 		figuresToBounds.remove(child);
 		child.removeFigureListener(figureListener);
 		if (change) {
@@ -263,30 +329,279 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 	 */
 	@Override
 	public void route(Connection conn) {
+		if (isDeferring()) {
+			if (connectionToPaths == null) {
+				connectionToPaths = new HashMap<>();
+				hookAll();
+			}
+			// Connections routed by the last solve keep their route
+			if (!connectionToPaths.containsKey(conn) && staleConnections.add(conn)) {
+				markChanged();
+			}
+			if (staleConnections.contains(conn)) {
+				routeStraight(conn);
+			}
+			return;
+		}
 		if (isDirty) {
 			ignoreInvalidate = true;
 			processStaleConnections();
 			isDirty = false;
-			for (Path path : algorithm.solve()) {
-				Connection current = (Connection) path.data;
-				current.revalidate();
+			algorithm.solve().forEach(ShortestPathConnectionRouter::applyPath);
+			ignoreInvalidate = false;
+		}
+	}
+
+	/**
+	 * Sets the points of the connection of the given path to the solution of the
+	 * path.
+	 */
+	private static void applyPath(Path path) {
+		Connection current = (Connection) path.data;
+		current.revalidate();
+
+		PointList points = path.getPoints().getCopy();
+		Point ref1 = new PrecisionPoint(points.getPoint(1));
+		Point ref2 = new PrecisionPoint(points.getPoint(points.size() - 2));
+		current.translateToAbsolute(ref1);
+		current.translateToAbsolute(ref2);
+
+		Point start = current.getSourceAnchor().getLocation(ref1).getCopy();
+		Point end = current.getTargetAnchor().getLocation(ref2).getCopy();
+
+		current.translateToRelative(start);
+		current.translateToRelative(end);
+		points.setPoint(start, 0);
+		points.setPoint(end, points.size() - 1);
+
+		current.setPoints(points);
+	}
+
+	/**
+	 * Routes the given connection along straight lines through its bendpoints,
+	 * while the shortest path routing is deferred.
+	 */
+	private void routeStraight(Connection conn) {
+		List<Bendpoint> bendpoints = getConstraint(conn);
+		if (bendpoints == null) {
+			bendpoints = Collections.emptyList();
+		}
+
+		Point ref1;
+		Point ref2;
+		if (bendpoints.isEmpty()) {
+			ref1 = conn.getTargetAnchor().getReferencePoint();
+			ref2 = conn.getSourceAnchor().getReferencePoint();
+		} else {
+			ref1 = new Point(bendpoints.get(0).getLocation());
+			conn.translateToAbsolute(ref1);
+			ref2 = new Point(bendpoints.get(bendpoints.size() - 1).getLocation());
+			conn.translateToAbsolute(ref2);
+		}
+
+		PointList points = new PointList(bendpoints.size() + 2);
+		Point start = new PrecisionPoint(conn.getSourceAnchor().getLocation(ref1));
+		conn.translateToRelative(start);
+		points.addPoint(start);
+		bendpoints.forEach(bp -> points.addPoint(bp.getLocation()));
+		Point end = new PrecisionPoint(conn.getTargetAnchor().getLocation(ref2));
+		conn.translateToRelative(end);
+		points.addPoint(end);
+		conn.setPoints(points);
+	}
+
+	/**
+	 * Sets whether the shortest path routing is deferred. While the routing is
+	 * deferred, connections which need to be routed are drawn along straight lines
+	 * through their bendpoints, and the obstacles are tracked without updating any
+	 * routes. Once the obstacles have not changed for the
+	 * {@link #setSettleDelay(int) settle delay}, or once the routing is no longer
+	 * deferred, the shortest paths are computed on a background thread for a
+	 * snapshot of the obstacles and connections. The result is applied on the UI
+	 * thread, unless obstacles or connections have changed in the meantime, in
+	 * which case another snapshot is solved.
+	 * <P>
+	 * Clients typically defer the routing for the duration of an interaction,
+	 * such as dragging figures, so that the time spent on each frame doesn't
+	 * depend on the number of connections. Without a {@link Display} on the
+	 * current thread, the shortest paths are computed synchronously when the
+	 * routing is no longer deferred.
+	 *
+	 * @param deferred <code>true</code> to defer the routing
+	 * @since 3.17
+	 */
+	public void setDeferredRouting(boolean deferred) {
+		if (this.deferred == deferred) {
+			return;
+		}
+		this.deferred = deferred;
+		if (!deferred) {
+			startBackgroundSolve();
+		}
+	}
+
+	/**
+	 * Returns whether the shortest path routing is deferred.
+	 *
+	 * @return <code>true</code> if the routing is deferred
+	 * @see #setDeferredRouting(boolean)
+	 * @since 3.17
+	 */
+	public boolean isDeferredRouting() {
+		return deferred;
+	}
+
+	/**
+	 * Sets the time in milliseconds during which the obstacles must not change
+	 * while the routing is deferred, before the shortest paths are computed in the
+	 * background. The default value is {@value #DEFAULT_SETTLE_DELAY}.
+	 *
+	 * @param delay the delay in milliseconds
+	 * @see #setDeferredRouting(boolean)
+	 * @since 3.17
+	 */
+	public void setSettleDelay(int delay) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Settle delay must not be negative"); //$NON-NLS-1$
+		}
+		settleDelay = delay;
+	}
+
+	/**
+	 * Returns the time in milliseconds during which the obstacles must not change
+	 * while the routing is deferred, before the shortest paths are computed in the
+	 * background.
+	 *
+	 * @return the delay in milliseconds
+	 * @since 3.17
+	 */
+	public int getSettleDelay() {
+		return settleDelay;
+	}
+
+	/**
+	 * Returns whether the routing is deferred, or a snapshot is being solved in
+	 * the background. Changes are then only tracked, and connections are routed
+	 * along straight lines.
+	 */
+	private boolean isDeferring() {
+		return deferred || solving;
+	}
+
+	private void markChanged() {
+		generation++;
+		needsSolve = true;
+		if (deferred) {
+			Display display = Display.getCurrent();
+			if (display != null) {
+				display.timerExec(-1, settleRunnable);
+				display.timerExec(settleDelay, settleRunnable);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new router for the current obstacles and the given connections.
+	 */
+	private ShortestPathRouter createSnapshot(Set<Connection> connections, Map<Connection, Path> paths) {
+		ShortestPathRouter snapshot = new ShortestPathRouter();
+		snapshot.setSpacing(algorithm.getSpacing());
+		figuresToBounds.values().forEach(bounds -> snapshot.addObstacle(bounds.getCopy()));
+		for (Connection conn : connections) {
+			Path path = new Path(conn);
+			updatePath(conn, path);
+			snapshot.addPath(path);
+			paths.put(conn, path);
+		}
+		return snapshot;
+	}
 
-				PointList points = path.getPoints().getCopy();
-				Point ref1 = new PrecisionPoint(points.getPoint(1));
-				Point ref2 = new PrecisionPoint(points.getPoint(points.size() - 2));
-				current.translateToAbsolute(ref1);
-				current.translateToAbsolute(ref2);
+	private void startBackgroundSolve() {
+		Display display = Display.getCurrent();
+		if (display != null) {
+			display.timerExec(-1, settleRunnable);
+		}
+		// A running solve is followed by another one when it ends
+		if (solving || !needsSolve) {
+			return;
+		}
+		needsSolve = false;
+		if (connectionToPaths == null) {
+			return;
+		}
 
-				Point start = current.getSourceAnchor().getLocation(ref1).getCopy();
-				Point end = current.getTargetAnchor().getLocation(ref2).getCopy();
+		Set<Connection> connections = new LinkedHashSet<>(connectionToPaths.keySet());
+		connections.addAll(staleConnections);
+		Map<Connection, Path> paths = new HashMap<>();
+		ShortestPathRouter snapshot = createSnapshot(connections, paths);
+		int snapshotGeneration = generation;
 
-				current.translateToRelative(start);
-				current.translateToRelative(end);
-				points.setPoint(start, 0);
-				points.setPoint(end, points.size() - 1);
+		if (display == null) {
+			snapshot.solve();
+			backgroundSolveEnded(snapshot, paths, snapshotGeneration, true);
+			return;
+		}
 
-				current.setPoints(points);
+		solving = true;
+		Thread thread = new Thread(() -> {
+			boolean solved = false;
+			try {
+				snapshot.solve();
+				solved = true;
+			} finally {
+				boolean result = solved;
+				if (!display.isDisposed()) {
+					display.asyncExec(() -> backgroundSolveEnded(snapshot, paths, snapshotGeneration, result));
+				}
 			}
+		}, "Connection Routing"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void backgroundSolveEnded(ShortestPathRouter snapshot, Map<Connection, Path> paths,
+			int snapshotGeneration, boolean solved) {
+		solving = false;
+		if (connectionToPaths == null) {
+			// All connections have been removed in the meantime
+			return;
+		}
+		if (!solved) {
+			// Fall back to routing on the UI thread, which reports the failure
+			Map<Connection, Path> newPaths = new HashMap<>();
+			Set<Connection> connections = new LinkedHashSet<>(connectionToPaths.keySet());
+			connections.addAll(staleConnections);
+			algorithm = createSnapshot(connections, newPaths);
+			connectionToPaths = newPaths;
+			staleConnections.clear();
+			needsSolve = false;
+			isDirty = true;
+			queueSomeRouting();
+			return;
+		}
+		if (snapshotGeneration != generation) {
+			// Outdated, solve again unless the interaction still goes on. A settle
+			// timer which ran out during the solve has been ignored, so it is re-armed.
+			if (!deferred) {
+				startBackgroundSolve();
+			} else if (needsSolve) {
+				Display display = Display.getCurrent();
+				if (display != null) {
+					display.timerExec(-1, settleRunnable);
+					display.timerExec(settleDelay, settleRunnable);
+				}
+			}
+			return;
+		}
+
+		algorithm = snapshot;
+		connectionToPaths = new HashMap<>(paths);
+		staleConnections.clear();
+		isDirty = false;
+		try {
+			ignoreInvalidate = true;
+			paths.values().forEach(ShortestPathConnectionRouter::applyPath);
+		} finally {
 			ignoreInvalidate = false;
 		}
 	}
@@ -298,7 +613,7 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 	 * @since 3.5
 	 */
 	public List<Path> getPathsAfterRouting() {
-		if (isDirty) {
+		if (isDirty && !isDeferring()) {
 			processStaleConnections();
 			isDirty = false;
 			return algorithm.solve();
@@ -318,6 +633,9 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 		staleConnections.add(connection);
 		constraintMap.put(connection, (List<Bendpoint>) constraint);
 		isDirty = true;
+		if (isDeferring()) {
+			markChanged();
+		}
 	}
 
 	/**
@@ -330,6 +648,9 @@ public final class ShortestPathConnectionRouter extends AbstractRouter {
 	 */
 	public void setSpacing(int spacing) {
 		algorithm.setSpacing(spacing);
+		if (isDeferring()) {
+			markChanged();
+		}
 	}
 
 	/**
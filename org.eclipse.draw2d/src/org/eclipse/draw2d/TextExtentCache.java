@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * A bounded, least-recently-used cache of text measurements done by
+ * {@link FigureUtilities}. Optionally, strings consisting only of printable
+ * ASCII characters are measured by summing up the advance widths of their
+ * characters, which are measured once per font.
+ * <P>
+ * Measurements are keyed by the description of the font rather than by the
+ * font itself, since the handle of a disposed font may be reused by a new font.
+ * This also keeps the cache from referencing disposed fonts.
+ * <P>
+ * Like the shared GC of {@link FigureUtilities}, this cache must only be
+ * accessed from the UI thread.
+ *
+ * @see TextUtilities#setExtentCacheSize(int)
+ */
+final class TextExtentCache {
+
+	static record FontKey(Device device, List<FontData> fontData) {
+	}
+
+	static record Key(FontKey font, String text, boolean expandTabs) {
+	}
+
+	static final int DEFAULT_SIZE = 1024;
+
+	private static final char FIRST_ASCII = 0x20;
+	private static final char LAST_ASCII = 0x7E;
+
+	/**
+	 * The advance tables are small and fonts are few, so a fixed bound suffices.
+	 */
+	private static final int MAX_ADVANCE_TABLES = 64;
+
+	private static int maxSize = DEFAULT_SIZE;
+	private static boolean asciiFastPath;
+	private static long hits;
+	private static long misses;
+	private static long asciiMeasurements;
+
+	/**
+	 * The key of the last font, since most texts are measured in the same font as
+	 * the text before. Fonts are compared by identity, since a font does not change
+	 * its description.
+	 */
+	private static Font lastFont;
+	private static FontKey lastFontKey;
+
+	private static final Map<Key, Point> EXTENTS = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Point> eldest) {
+			return size() > maxSize;
+		}
+	};
+
+	/**
+	 * Per font, the advance widths of the printable ASCII characters, followed by
+	 * the height of a line.
+	 */
+	private static final Map<FontKey, int[]> ADVANCES = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<FontKey, int[]> eldest) {
+			return size() > MAX_ADVANCE_TABLES;
+		}
+	};
+
+	private TextExtentCache() {
+	}
+
+	/**
+	 * Returns the extent of the given string, either from the cache or by
+	 * measuring it with the shared GC of {@link FigureUtilities}.
+	 *
+	 * @param s          the string
+	 * @param f          the font
+	 * @param expandTabs <code>true</code> for {@link org.eclipse.swt.graphics.GC#textExtent(String)}
+	 *                   semantics, <code>false</code> for
+	 *                   {@link org.eclipse.swt.graphics.GC#stringExtent(String)}
+	 * @return a new Point holding the extent
+	 */
+	static Point getExtent(String s, Font f, boolean expandTabs) {
+		if (asciiFastPath && isPrintableAscii(s)) {
+			// Neither a hit nor a miss, as the extent cache is not involved
+			asciiMeasurements++;
+			return getAsciiExtent(s, f);
+		}
+		if (maxSize == 0) {
+			return FigureUtilities.measure(s, f, expandTabs);
+		}
+		Key key = new Key(getFontKey(f), s, expandTabs);
+		Point extent = EXTENTS.get(key);
+		if (extent == null) {
+			misses++;
+			extent = FigureUtilities.measure(s, f, expandTabs);
+			EXTENTS.put(key, extent);
+		} else {
+			hits++;
+		}
+		return new Point(extent.x, extent.y);
+	}
+
+	private static FontKey getFontKey(Font f) {
+		if (f != lastFont) {
+			lastFontKey = new FontKey(f.getDevice(), List.of(f.getFontData()));
+			lastFont = f;
+		}
+		return lastFontKey;
+	}
+
+	private static boolean isPrintableAscii(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < FIRST_ASCII || c > LAST_ASCII) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Point getAsciiExtent(String s, Font f) {
+		FontKey fontKey = getFontKey(f);
+		int[] advances = ADVANCES.get(fontKey);
+		if (advances == null) {
+			advances = new int[LAST_ASCII - FIRST_ASCII + 2];
+			for (char c = FIRST_ASCII; c <= LAST_ASCII; c++) {
+				advances[c - FIRST_ASCII] = FigureUtilities.measure(String.valueOf(c), f, false).x;
+			}
+			advances[advances.length - 1] = FigureUtilities.measure(" ", f, false).y; //$NON-NLS-1$
+			ADVANCES.put(fontKey, advances);
+		}
+		int width = 0;
+		for (int i = 0; i < s.length(); i++) {
+			width += advances[s.charAt(i) - FIRST_ASCII];
+		}
+		return new Point(width, advances[advances.length - 1]);
+	}
+
+	static void setMaxSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Cache size must not be negative"); //$NON-NLS-1$
+		}
+		maxSize = size;
+		if (EXTENTS.size() > size) {
+			EXTENTS.clear();
+		}
+	}
+
+	static int getMaxSize() {
+		return maxSize;
+	}
+
+	static void setAsciiFastPathEnabled(boolean enabled) {
+		asciiFastPath = enabled;
+	}
+
+	static boolean isAsciiFastPathEnabled() {
+		return asciiFastPath;
+	}
+
+	static void clear() {
+		EXTENTS.clear();
+		ADVANCES.clear();
+		lastFont = null;
+		lastFontKey = null;
+		hits = 0;
+		misses = 0;
+		asciiMeasurements = 0;
+	}
+
+	static long getHits() {
+		return hits;
+	}
+
+	static long getMisses() {
+		return misses;
+	}
+
+	static long getAsciiMeasurements() {
+		return asciiMeasurements;
+	}
+
+}
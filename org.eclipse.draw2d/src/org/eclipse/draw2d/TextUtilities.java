@@ -32,6 +32,105 @@ public class TextUtilities {
 	 */
 	public static TextUtilities INSTANCE = new TextUtilities();
 
+	/**
+	 * Sets the maximum number of text measurements kept in the extent cache of
+	 * {@link FigureUtilities}. The least recently used measurements are evicted
+	 * first. A size of <code>0</code> disables the cache. The default size is
+	 * 1024.
+	 *
+	 * @param size the maximum number of cached measurements
+	 * @since 3.17
+	 */
+	public static void setExtentCacheSize(int size) {
+		TextExtentCache.setMaxSize(size);
+	}
+
+	/**
+	 * Returns the maximum number of text measurements kept in the extent cache.
+	 *
+	 * @return the maximum number of cached measurements
+	 * @since 3.17
+	 */
+	public static int getExtentCacheSize() {
+		return TextExtentCache.getMaxSize();
+	}
+
+	/**
+	 * Enables or disables measuring strings which only consist of printable ASCII
+	 * characters by adding up the advance widths of their characters. The advance
+	 * widths are measured once per font. This is considerably faster than
+	 * measuring each string, but ignores kerning: pairs such as "AV" or "To" are
+	 * measured wider than they are drawn by fonts which kern them. The result may
+	 * also be off by a few pixels for fonts with fractional advance widths. Only
+	 * enable the fast path if such differences are acceptable. It is disabled by
+	 * default.
+	 * <P>
+	 * Strings measured by the fast path bypass the extent cache, and are counted by
+	 * {@link #getAsciiFastPathMeasurements()} instead of its hits and misses.
+	 *
+	 * @param enabled <code>true</code> to enable the fast path
+	 * @since 3.17
+	 */
+	public static void setAsciiFastPathEnabled(boolean enabled) {
+		TextExtentCache.setAsciiFastPathEnabled(enabled);
+	}
+
+	/**
+	 * Returns whether printable ASCII strings are measured using per-font advance
+	 * widths.
+	 *
+	 * @return <code>true</code> if the fast path is enabled
+	 * @since 3.17
+	 */
+	public static boolean isAsciiFastPathEnabled() {
+		return TextExtentCache.isAsciiFastPathEnabled();
+	}
+
+	/**
+	 * Removes all measurements and advance widths from the extent cache and resets
+	 * its counters. Clients should call this method after changing
+	 * fonts globally, e.g. on a change of the font preferences.
+	 *
+	 * @since 3.17
+	 */
+	public static void clearExtentCache() {
+		TextExtentCache.clear();
+	}
+
+	/**
+	 * Returns the number of text measurements served from the extent cache since
+	 * the cache was last cleared.
+	 *
+	 * @return the number of cache hits
+	 * @since 3.17
+	 */
+	public static long getExtentCacheHits() {
+		return TextExtentCache.getHits();
+	}
+
+	/**
+	 * Returns the number of text measurements which were not found in the extent
+	 * cache since the cache was last cleared.
+	 *
+	 * @return the number of cache misses
+	 * @since 3.17
+	 */
+	public static long getExtentCacheMisses() {
+		return TextExtentCache.getMisses();
+	}
+
+	/**
+	 * Returns the number of text measurements done by the ASCII fast path since the
+	 * extent cache was last cleared.
+	 *
+	 * @return the number of measurements of the fast path
+	 * @see #setAsciiFastPathEnabled(boolean)
+	 * @since 3.17
+	 */
+	public static long getAsciiFastPathMeasurements() {
+		return TextExtentCache.getAsciiMeasurements();
+	}
+
 	/**
 	 * Returns the Dimensions of <i>s</i> in Font <i>f</i>.
 	 *
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.internal.PngWriter;
+
+/**
+ * Exports a figure to a PNG image which may be far larger than an image the
+ * native graphics system can allocate. Like the tiling of
+ * {@link PrintFigureOperation}, the figure is painted tile by tile into a
+ * single tile image, which is reused for all tiles. Each row of tiles is
+ * converted into a band of pixel rows, which is compressed and written to the
+ * stream before the next row of tiles is painted. Only the tile image and one
+ * band, which is as wide as the exported image and as high as a tile, are kept
+ * in memory.
+ * <P>
+ * Since figures and images of the display may only be accessed by the display
+ * thread, the tiles are always painted by the thread calling
+ * {@link #export(OutputStream)}. If {@link #setBackgroundEncoding(boolean)
+ * background encoding} is enabled, the bands are compressed by another thread,
+ * while the next row of tiles is painted. This requires memory for a second
+ * band.
+ *
+ * @since 3.17
+ */
+public class TiledImageExporter {
+
+	/**
+	 * The default width and height of a tile in pixels.
+	 */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	private final IFigure figure;
+	private double scale = 1.0;
+	private int tileSize = DEFAULT_TILE_SIZE;
+	private boolean backgroundEncoding;
+
+	/**
+	 * Creates an exporter of the given figure. The image shows the bounds of the
+	 * figure, which is expected to be valid.
+	 *
+	 * @param figure the figure to export
+	 */
+	public TiledImageExporter(IFigure figure) {
+		this.figure = figure;
+	}
+
+	/**
+	 * Sets the factor by which the figure is scaled in the image.
+	 *
+	 * @param scale the scale factor
+	 * @throws IllegalArgumentException if the scale is not positive
+	 */
+	public void setScale(double scale) {
+		if (!(scale > 0)) {
+			throw new IllegalArgumentException("Scale must be positive: " + scale); //$NON-NLS-1$
+		}
+		this.scale = scale;
+	}
+
+	/**
+	 * Returns the factor by which the figure is scaled in the image.
+	 *
+	 * @return the scale factor
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Sets the width and height of the tiles. Larger tiles reduce the number of
+	 * times the figure is painted, but increase the memory used by the tile image
+	 * and the bands.
+	 *
+	 * @param size the size of a tile in pixels
+	 * @throws IllegalArgumentException if the size is not positive
+	 */
+	public void setTileSize(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Tile size must be positive: " + size); //$NON-NLS-1$
+		}
+		tileSize = size;
+	}
+
+	/**
+	 * Returns the width and height of the tiles.
+	 *
+	 * @return the size of a tile in pixels
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Sets whether the rows of pixels are compressed by a background thread, in
+	 * parallel to the painting of the tiles.
+	 *
+	 * @param enabled <code>true</code> to compress in the background
+	 */
+	public void setBackgroundEncoding(boolean enabled) {
+		backgroundEncoding = enabled;
+	}
+
+	/**
+	 * Returns whether the rows of pixels are compressed by a background thread.
+	 *
+	 * @return <code>true</code> if the rows are compressed in the background
+	 */
+	public boolean isBackgroundEncoding() {
+		return backgroundEncoding;
+	}
+
+	/**
+	 * Returns the size of the exported image, which is the size of the figure
+	 * multiplied by the scale, rounded up.
+	 *
+	 * @return the size of the image in pixels
+	 */
+	public Dimension getImageSize() {
+		Rectangle bounds = figure.getBounds();
+		return new Dimension((int) Math.ceil(bounds.width * scale), (int) Math.ceil(bounds.height * scale));
+	}
+
+	/**
+	 * Paints the figure and writes it as a PNG image to the given stream. The
+	 * stream is not closed. This method must be called by the display thread.
+	 *
+	 * @param out the stream to write the image to
+	 * @throws IOException           if the image cannot be written
+	 * @throws IllegalStateException if not called by the display thread, or if the
+	 *                               figure is empty
+	 */
+	public void export(OutputStream out) throws IOException {
+		Display display = Display.getCurrent();
+		if (display == null) {
+			throw new IllegalStateException("Figures must be exported by the display thread"); //$NON-NLS-1$
+		}
+		Dimension size = getImageSize();
+		if (size.width <= 0 || size.height <= 0) {
+			throw new IllegalStateException("The figure is empty: " + figure.getBounds()); //$NON-NLS-1$
+		}
+		int tileWidth = Math.min(tileSize, size.width);
+		int tileHeight = Math.min(tileSize, size.height);
+
+		Image tile = new Image(display, tileWidth, tileHeight);
+		GC gc = new GC(tile);
+		SWTGraphics graphics = new SWTGraphics(gc);
+		try (PngWriter writer = new PngWriter(out, size.width, size.height)) {
+			writeImage(display, writer, graphics, tile, size);
+		} finally {
+			graphics.dispose();
+			gc.dispose();
+			tile.dispose();
+		}
+	}
+
+	private void writeImage(Display display, PngWriter writer, SWTGraphics graphics, Image tile, Dimension size)
+			throws IOException {
+		int tileWidth = tile.getBounds().width;
+		int tileHeight = tile.getBounds().height;
+		ExecutorService encoder = backgroundEncoding ? Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Draw2d PNG encoder"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+		try {
+			int bandSize = size.width * 3;
+			byte[][] bands = new byte[encoder == null ? 1 : 2][];
+			int[] pixels = new int[tileWidth];
+			Future<?> pending = null;
+			int current = 0;
+			for (int y = 0; y < size.height; y += tileHeight) {
+				int rows = Math.min(tileHeight, size.height - y);
+				if (bands[current] == null) {
+					bands[current] = new byte[tileHeight * bandSize];
+				}
+				byte[] band = bands[current];
+				for (int x = 0; x < size.width; x += tileWidth) {
+					paintTile(display, graphics, x, y, tileWidth, tileHeight);
+					copyPixels(tile.getImageData(), pixels, band, bandSize, x * 3,
+							Math.min(tileWidth, size.width - x), rows);
+				}
+				if (encoder == null) {
+					writeBand(writer, band, bandSize, rows);
+				} else {
+					// the other band is painted while this one is compressed
+					await(pending);
+					pending = encoder.submit(() -> {
+						writeBand(writer, band, bandSize, rows);
+						return null;
+					});
+					current = 1 - current;
+				}
+			}
+			await(pending);
+			writer.finish();
+		} finally {
+			if (encoder != null) {
+				// the writer must not be closed while a band is being compressed
+				shutdown(encoder);
+			}
+		}
+	}
+
+	private static void shutdown(ExecutorService encoder) {
+		encoder.shutdown();
+		boolean interrupted = false;
+		while (!encoder.isTerminated()) {
+			try {
+				encoder.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void paintTile(Display display, SWTGraphics graphics, int x, int y, int width, int height) {
+		Color background = figure.getBackgroundColor();
+		if (background == null) {
+			background = display.getSystemColor(SWT.COLOR_WHITE);
+		}
+		Font font = figure.getFont();
+		if (font == null) {
+			font = display.getSystemFont();
+		}
+
+		graphics.pushState();
+		graphics.setBackgroundColor(background);
+		graphics.fillRectangle(0, 0, width, height);
+		graphics.translate(-x, -y);
+		ScaledGraphics scaledGraphics = null;
+		Graphics g = graphics;
+		if (scale != 1.0) {
+			scaledGraphics = new ScaledGraphics(graphics);
+			scaledGraphics.scale(scale);
+			g = scaledGraphics;
+		}
+		try {
+			Rectangle bounds = figure.getBounds();
+			g.translate(-bounds.x, -bounds.y);
+			g.setFont(font);
+			g.setBackgroundColor(background);
+			if (figure.getForegroundColor() != null) {
+				g.setForegroundColor(figure.getForegroundColor());
+			}
+			g.pushState();
+			figure.paint(g);
+			g.popState();
+		} finally {
+			if (scaledGraphics != null) {
+				scaledGraphics.dispose();
+			}
+			graphics.popState();
+		}
+	}
+
+	/**
+	 * Copies the pixels of the given tile into the band, as red, green and blue
+	 * bytes.
+	 */
+	private static void copyPixels(ImageData tile, int[] pixels, byte[] band, int bandSize, int offset,
+			int columns, int rows) {
+		PaletteData palette = tile.palette;
+		for (int row = 0; row < rows; row++) {
+			tile.getPixels(0, row, columns, pixels, 0);
+			int index = row * bandSize + offset;
+			for (int column = 0; column < columns; column++) {
+				int pixel = pixels[column];
+				if (palette.isDirect) {
+					band[index++] = (byte) component(pixel, palette.redMask, palette.redShift);
+					band[index++] = (byte) component(pixel, palette.greenMask, palette.greenShift);
+					band[index++] = (byte) component(pixel, palette.blueMask, palette.blueShift);
+				} else {
+					RGB rgb = palette.getRGB(pixel);
+					band[index++] = (byte) rgb.red;
+					band[index++] = (byte) rgb.green;
+					band[index++] = (byte) rgb.blue;
+				}
+			}
+		}
+	}
+
+	private static int component(int pixel, int mask, int shift) {
+		int value = pixel & mask;
+		return shift < 0 ? value >>> -shift : value << shift;
+	}
+
+	private static void writeBand(PngWriter writer, byte[] band, int bandSize, int rows) throws IOException {
+		for (int row = 0; row < rows; row++) {
+			writer.writeRow(band, row * bandSize);
+		}
+	}
+
+	private static void await(Future<?> future) throws IOException {
+		if (future == null) {
+			return;
+		}
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while encoding the image"); //$NON-NLS-1$
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException io) {
+				throw io;
+			}
+			if (cause instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+}
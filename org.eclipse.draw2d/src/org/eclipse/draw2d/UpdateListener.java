@@ -40,6 +40,31 @@ public interface UpdateListener {
 	 */
 	void notifyValidating();
 
+	/**
+	 * Notifies the listener that the listened to object has painted. Reports the
+	 * number of rectangles which were painted separately, and the total area of
+	 * these rectangles, which allows to profile how much of the damage is actually
+	 * repainted. The default implementation does nothing.
+	 *
+	 * @param rectangleCount the number of rectangles painted
+	 * @param paintedArea    the sum of the areas of these rectangles in pixels
+	 * @since 3.17
+	 */
+	default void notifyPainted(int rectangleCount, long paintedArea) {
+	}
+
+	/**
+	 * Notifies the listener that the listened to object has completed an update
+	 * cycle. Only called if the recording of metrics is enabled. The default
+	 * implementation does nothing.
+	 *
+	 * @param metrics the metrics of the cycle
+	 * @see UpdateManager#setMetricsEnabled(boolean)
+	 * @since 3.17
+	 */
+	default void notifyUpdated(UpdateMetrics metrics) {
+	}
+
 	/**
 	 * An empty implementation of {@list UpdateListener} for convenience.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2023 IBM Corporation and others.
+ * Copyright (c) 2000, 2024 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which is available at
@@ -47,6 +47,7 @@ public abstract class UpdateManager {
 
 	private final List<UpdateListener> listeners = new ArrayList<>();
 	private boolean disposed;
+	private boolean metricsEnabled;
 
 	/**
 	 * Adds the dirty region defined by the coordinates on the IFigure
@@ -117,6 +118,29 @@ public abstract class UpdateManager {
 		listeners.forEach(localListener -> localListener.notifyPainting(damage, dirtyRegions));
 	}
 
+	/**
+	 * Notifies listeners that painting has occurred, passing them the number of
+	 * rectangles painted and their total area.
+	 *
+	 * @param rectangleCount the number of rectangles painted
+	 * @param paintedArea    the sum of the areas of these rectangles
+	 * @since 3.17
+	 */
+	protected void firePainted(int rectangleCount, long paintedArea) {
+		listeners.forEach(localListener -> localListener.notifyPainted(rectangleCount, paintedArea));
+	}
+
+	/**
+	 * Notifies listeners that an update cycle has been completed, passing them the
+	 * metrics recorded for the cycle.
+	 *
+	 * @param metrics the metrics of the cycle
+	 * @since 3.17
+	 */
+	protected void fireUpdated(UpdateMetrics metrics) {
+		listeners.forEach(localListener -> localListener.notifyUpdated(metrics));
+	}
+
 	/**
 	 * Notifies listeners that validation is about to occur.
 	 */
@@ -131,6 +155,26 @@ public abstract class UpdateManager {
 		return disposed;
 	}
 
+	/**
+	 * Returns whether {@link UpdateMetrics} are recorded for the update cycles.
+	 *
+	 * @return <code>true</code> if metrics are recorded
+	 * @see #setMetricsEnabled(boolean)
+	 * @since 3.17
+	 */
+	public boolean isMetricsEnabled() {
+		return metricsEnabled;
+	}
+
+	/**
+	 * Records the time spent routing a connection in the current update cycle. Does
+	 * nothing unless the update manager records metrics.
+	 *
+	 * @param time the routing time in nanoseconds
+	 */
+	void recordRouting(long time) {
+	}
+
 	/**
 	 * Forces an update to occur. Update managers will perform updates
 	 * automatically, but may do so asynchronously. Calling this method forces a
@@ -178,6 +222,20 @@ public abstract class UpdateManager {
 	 */
 	public abstract void setGraphicsSource(GraphicsSource gs);
 
+	/**
+	 * Enables or disables the recording of {@link UpdateMetrics}. When enabled, the
+	 * time spent validating, routing and repairing damage is measured for each
+	 * update cycle and reported to
+	 * {@link UpdateListener#notifyUpdated(UpdateMetrics)}. Recording is disabled by
+	 * default. Update managers which do not record metrics ignore this setting.
+	 *
+	 * @param enabled <code>true</code> to record metrics
+	 * @since 3.17
+	 */
+	public void setMetricsEnabled(boolean enabled) {
+		metricsEnabled = enabled;
+	}
+
 	/**
 	 * Sets the root figure.
 	 *
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d;
+
+/**
+ * The measurements of a single update cycle of an {@link UpdateManager}. A
+ * cycle is either a complete update, which validates the invalid figures and
+ * repairs the damage, or a validation performed on its own. All times are in
+ * nanoseconds. The routing time is part of the validation time, since
+ * connections are routed when they are validated.
+ * <P>
+ * Metrics are only recorded if {@link UpdateManager#setMetricsEnabled(boolean)
+ * enabled}, and are reported to
+ * {@link UpdateListener#notifyUpdated(UpdateMetrics)} once the cycle is
+ * complete. Instances are not modified after they have been reported.
+ *
+ * @since 3.17
+ */
+public final class UpdateMetrics {
+
+	final long start = System.nanoTime();
+	long totalTime;
+	long validationTime;
+	long routingTime;
+	int routeCount;
+	long repairTime;
+	int invalidFigureCount;
+	int dirtyRegionCount;
+	int paintedRectangleCount;
+	long paintedArea;
+
+	UpdateMetrics() {
+	}
+
+	/**
+	 * Returns the time spent in the whole update cycle, including the notification
+	 * of listeners and the runnables executed after the update.
+	 *
+	 * @return the duration of the cycle in nanoseconds
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Returns the time spent validating the invalid figures.
+	 *
+	 * @return the validation time in nanoseconds
+	 */
+	public long getValidationTime() {
+		return validationTime;
+	}
+
+	/**
+	 * Returns the time spent in {@link ConnectionRouter#route(Connection)} while
+	 * validating connections.
+	 *
+	 * @return the routing time in nanoseconds
+	 */
+	public long getRoutingTime() {
+		return routingTime;
+	}
+
+	/**
+	 * Returns the number of connections which have been routed.
+	 *
+	 * @return the number of calls to {@link ConnectionRouter#route(Connection)}
+	 */
+	public int getRouteCount() {
+		return routeCount;
+	}
+
+	/**
+	 * Returns the time spent repairing the damage, which is mostly painting.
+	 *
+	 * @return the repair time in nanoseconds
+	 */
+	public long getRepairTime() {
+		return repairTime;
+	}
+
+	/**
+	 * Returns the number of figures which have been validated, including the
+	 * figures invalidated during validation.
+	 *
+	 * @return the number of invalid figures
+	 */
+	public int getInvalidFigureCount() {
+		return invalidFigureCount;
+	}
+
+	/**
+	 * Returns the number of figures with a dirty region when the damage was
+	 * repaired.
+	 *
+	 * @return the number of dirty regions
+	 */
+	public int getDirtyRegionCount() {
+		return dirtyRegionCount;
+	}
+
+	/**
+	 * Returns the number of rectangles which have been painted separately.
+	 *
+	 * @return the number of painted rectangles
+	 * @see UpdateListener#notifyPainted(int, long)
+	 */
+	public int getPaintedRectangleCount() {
+		return paintedRectangleCount;
+	}
+
+	/**
+	 * Returns the sum of the areas of the painted rectangles.
+	 *
+	 * @return the painted area in pixels
+	 * @see UpdateListener#notifyPainted(int, long)
+	 */
+	public long getPaintedArea() {
+		return paintedArea;
+	}
+
+	@Override
+	public String toString() {
+		return "UpdateMetrics(total=" + totalTime + "ns, validation=" + validationTime + "ns, routing=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ routingTime + "ns, routes=" + routeCount + ", repair=" + repairTime + "ns, invalid=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ invalidFigureCount + ", dirty=" + dirtyRegionCount + ", painted=" + paintedRectangleCount + '/' //$NON-NLS-1$ //$NON-NLS-2$
+				+ paintedArea + "px)"; //$NON-NLS-1$
+	}
+
+}
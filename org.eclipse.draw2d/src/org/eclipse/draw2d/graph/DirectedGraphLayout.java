@@ -14,6 +14,7 @@ package org.eclipse.draw2d.graph;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Iterator;
 
 /**
  * Performs a graph layout of a <code>DirectedGraph</code>. The directed graph
@@ -66,13 +67,28 @@ import java.util.Deque;
  * </UL>
  * <P>
  * This class is not guaranteed to produce the same results for each invocation.
+ * <P>
+ * The layout only accesses the given graph, so it may be performed on a worker
+ * thread, provided that the graph is not accessed by other threads meanwhile. An
+ * instance must not perform several layouts at the same time. Layouts on a worker
+ * thread can report their progress and be cancelled via a {@link LayoutMonitor}.
  *
  * @author Randy Hudson
  * @since 2.1.2
  */
 public class DirectedGraphLayout {
 
+	/**
+	 * The default maximum number of iterations of the crossing reduction.
+	 *
+	 * @since 3.17
+	 */
+	public static final int DEFAULT_CROSSING_REDUCTION_ITERATIONS = MinCross.MAX;
+
 	Deque<GraphVisitor> steps = new ArrayDeque<>();
+	private int crossingReductionIterations = DEFAULT_CROSSING_REDUCTION_ITERATIONS;
+	private int crossingReductionConvergence;
+	private int networkSimplexSearchBudget;
 
 	/**
 	 * @since 3.1
@@ -95,17 +111,176 @@ public class DirectedGraphLayout {
 		steps.add(new HorizontalPlacement());
 	}
 
+	/**
+	 * Sets the maximum number of iterations of the crossing reduction, which
+	 * sweeps down and up the ranks reordering the nodes of each rank. The
+	 * crossing reduction stops early if there are no crossings left. The default
+	 * is {@link #DEFAULT_CROSSING_REDUCTION_ITERATIONS}.
+	 *
+	 * @param iterations the maximum number of iterations
+	 * @throws IllegalArgumentException if the number is less than 1
+	 * @since 3.17
+	 */
+	public void setCrossingReductionIterations(int iterations) {
+		if (iterations < 1) {
+			throw new IllegalArgumentException("At least one iteration is required"); //$NON-NLS-1$
+		}
+		crossingReductionIterations = iterations;
+	}
+
+	/**
+	 * @return the maximum number of iterations of the crossing reduction
+	 * @see #setCrossingReductionIterations(int)
+	 * @since 3.17
+	 */
+	public int getCrossingReductionIterations() {
+		return crossingReductionIterations;
+	}
+
+	/**
+	 * Sets the number of consecutive iterations without fewer crossings after
+	 * which the crossing reduction stops. In any case, the order of the nodes with
+	 * the fewest crossings found is kept. The default is <code>0</code>, which
+	 * runs all {@link #setCrossingReductionIterations(int) iterations} as long as
+	 * there are crossings.
+	 * <P>
+	 * As the sweeps of the later iterations take more of the neighboring ranks
+	 * into account, small values trade the quality of the layout for speed.
+	 *
+	 * @param iterations the number of iterations, or <code>0</code> to disable
+	 *                   early termination
+	 * @throws IllegalArgumentException if the number is negative
+	 * @since 3.17
+	 */
+	public void setCrossingReductionConvergence(int iterations) {
+		if (iterations < 0) {
+			throw new IllegalArgumentException("Number of iterations must not be negative"); //$NON-NLS-1$
+		}
+		crossingReductionConvergence = iterations;
+	}
+
+	/**
+	 * @return the number of iterations without improvement after which the
+	 *         crossing reduction stops, or <code>0</code>
+	 * @see #setCrossingReductionConvergence(int)
+	 * @since 3.17
+	 */
+	public int getCrossingReductionConvergence() {
+		return crossingReductionConvergence;
+	}
+
+	/**
+	 * Sets the number of candidates considered by each iteration of the network
+	 * simplex, which assigns the ranks of the nodes and, for the horizontal
+	 * placement, their x coordinates. Each iteration replaces an edge of a
+	 * spanning tree of the graph, and by default the best of all candidate edges
+	 * is chosen. The default is <code>0</code>, which considers all candidates.
+	 * <P>
+	 * Smaller budgets make each iteration faster for large graphs, but may take
+	 * more iterations, and as the number of iterations is limited, may lead to
+	 * less compact layouts.
+	 *
+	 * @param budget the number of candidates, or <code>0</code> to consider all
+	 *               of them
+	 * @throws IllegalArgumentException if the budget is negative
+	 * @since 3.17
+	 */
+	public void setNetworkSimplexSearchBudget(int budget) {
+		if (budget < 0) {
+			throw new IllegalArgumentException("Search budget must not be negative"); //$NON-NLS-1$
+		}
+		networkSimplexSearchBudget = budget;
+	}
+
+	/**
+	 * @return the number of candidates considered by each iteration of the
+	 *         network simplex, or <code>0</code>
+	 * @see #setNetworkSimplexSearchBudget(int)
+	 * @since 3.17
+	 */
+	public int getNetworkSimplexSearchBudget() {
+		return networkSimplexSearchBudget;
+	}
+
 	/**
 	 * Lays out the given graph
 	 *
 	 * @param graph the graph to layout
 	 */
 	public void visit(DirectedGraph graph) {
+		visit(graph, null);
+	}
+
+	/**
+	 * Lays out the given graph, reporting the progress and the time taken by each
+	 * step to the given monitor. The steps are the visits of the graph in the
+	 * order of the layout, followed by the revisits in reverse order, whose names
+	 * end with <code>"#revisit"</code>.
+	 * <P>
+	 * If the monitor is cancelled, the layout stops at the next check and leaves
+	 * the graph in an undefined state, so that it must be discarded.
+	 *
+	 * @param graph   the graph to layout
+	 * @param monitor the monitor, or <code>null</code>
+	 * @return <code>false</code> if the layout has been cancelled,
+	 *         <code>true</code> otherwise
+	 * @since 3.17
+	 */
+	public boolean visit(DirectedGraph graph, LayoutMonitor monitor) {
 		if (graph.nodes.isEmpty()) {
+			return true;
+		}
+		for (GraphVisitor step : steps) {
+			step.monitor = monitor;
+			if (step instanceof MinCross minCross) {
+				minCross.setMaxIterations(crossingReductionIterations);
+				minCross.setConvergenceIterations(crossingReductionConvergence);
+			} else if (step instanceof RankAssignmentSolver solver) {
+				solver.setSearchBudget(networkSimplexSearchBudget);
+			} else if (step instanceof HorizontalPlacement placement) {
+				placement.searchBudget = networkSimplexSearchBudget;
+			}
+		}
+		try {
+			int count = 2 * steps.size();
+			int index = 0;
+			for (GraphVisitor step : steps) {
+				runStep(step, false, graph, monitor, index++, count);
+			}
+			for (Iterator<GraphVisitor> it = steps.descendingIterator(); it.hasNext();) {
+				runStep(it.next(), true, graph, monitor, index++, count);
+			}
+		} catch (GraphVisitor.CanceledException e) {
+			return false;
+		} finally {
+			steps.forEach(step -> step.monitor = null);
+		}
+		return true;
+	}
+
+	private static void runStep(GraphVisitor step, boolean revisit, DirectedGraph graph, LayoutMonitor monitor,
+			int index, int count) {
+		if (monitor == null) {
+			if (revisit) {
+				step.revisit(graph);
+			} else {
+				step.visit(graph);
+			}
 			return;
 		}
-		steps.iterator().forEachRemaining(visitor -> visitor.visit(graph));
-		steps.descendingIterator().forEachRemaining(visitor -> visitor.revisit(graph));
+		step.checkCanceled();
+		String name = step.getClass().getSimpleName();
+		if (revisit) {
+			name += "#revisit"; //$NON-NLS-1$
+		}
+		monitor.stepStarted(name, index, count);
+		long start = System.nanoTime();
+		if (revisit) {
+			step.revisit(graph);
+		} else {
+			step.visit(graph);
+		}
+		monitor.stepEnded(name, index, count, System.nanoTime() - start);
 	}
 
 }
@@ -20,6 +20,19 @@ package org.eclipse.draw2d.graph;
  */
 abstract class GraphVisitor {
 
+	/**
+	 * Thrown to unwind a layout which has been cancelled.
+	 */
+	static final class CanceledException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		CanceledException() {
+			super(null, null, false, false);
+		}
+	}
+
+	LayoutMonitor monitor;
+
 	/**
 	 * Act on the given directed graph.
 	 *
@@ -37,4 +50,25 @@ abstract class GraphVisitor {
 	void revisit(DirectedGraph g) {
 	}
 
+	/**
+	 * Unwinds the layout if its monitor has been cancelled. Long running visitors
+	 * call this periodically.
+	 *
+	 * @throws CanceledException if the layout has been cancelled
+	 */
+	void checkCanceled() {
+		if (monitor != null && monitor.isCanceled()) {
+			throw new CanceledException();
+		}
+	}
+
+	/**
+	 * Visits the given graph with another visitor, which is cancelled along with
+	 * this one.
+	 */
+	void visitNested(GraphVisitor visitor, DirectedGraph g) {
+		visitor.monitor = monitor;
+		visitor.visit(g);
+	}
+
 }
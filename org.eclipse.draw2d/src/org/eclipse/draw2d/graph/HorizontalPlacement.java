@@ -128,7 +128,8 @@ class HorizontalPlacement extends SpanningTreeVisitor {
 		}
 	}
 
-	static int step;
+	int step;
+	int searchBudget;
 	private List<NodeCluster> allClusters;
 	private final Map<Node, NodeCluster> clusterMap = new HashMap<>();
 	ClusterSet clusterset = new ClusterSet();
@@ -200,6 +201,7 @@ class HorizontalPlacement extends SpanningTreeVisitor {
 		boolean somethingMoved = false;
 
 		for (int i = 0; i < allClusters.size();) {
+			checkCanceled();
 
 			NodeCluster c = allClusters.get(i);
 			int delta = c.getPull();
@@ -391,11 +393,11 @@ class HorizontalPlacement extends SpanningTreeVisitor {
 			prime.edges.add(new Edge(graphLeft, graphRight, g.tensorSize, g.tensorStrength));
 		}
 		buildGPrime();
-		new InitialRankSolver().visit(prime);
-		new TightSpanningTreeSolver().visit(prime);
-
+		visitNested(new InitialRankSolver(), prime);
+		visitNested(new TightSpanningTreeSolver(), prime);
 		RankAssignmentSolver solver = new RankAssignmentSolver();
-		solver.visit(prime);
+		solver.setSearchBudget(searchBudget);
+		visitNested(solver, prime);
 		graph.size.width = graphRight.rank;
 		balanceClusters();
 
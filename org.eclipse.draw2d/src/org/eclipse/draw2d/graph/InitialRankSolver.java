@@ -43,27 +43,30 @@ class InitialRankSolver extends GraphVisitor {
 		if (graph.nodes.isEmpty()) {
 			return;
 		}
-		NodeList unranked = new NodeList(graph.nodes);
-		NodeList rankMe = new NodeList();
-		while (!unranked.isEmpty()) {
-			rankMe.clear();
-			for (int i = 0; i < unranked.size();) {
-				Node node = unranked.get(i);
-				if (node.incoming.isCompletelyFlagged()) {
-					rankMe.add(node);
-					unranked.remove(i);
-				} else {
-					i++;
-				}
-			}
-			if (rankMe.isEmpty()) {
-				throw new RuntimeException("Cycle detected in graph"); //$NON-NLS-1$
+		// Ranks the nodes in topological order, counting the unranked sources of
+		// each node in its working ints
+		Deque<Node> rankMe = new ArrayDeque<>();
+		for (Node node : graph.nodes) {
+			node.workingInts[0] = node.incoming.size();
+			if (node.workingInts[0] == 0) {
+				rankMe.add(node);
 			}
-			for (Node node : rankMe) {
-				assignMinimumRank(node);
-				node.outgoing.setFlags(true);
+		}
+		int ranked = 0;
+		while (!rankMe.isEmpty()) {
+			Node node = rankMe.poll();
+			assignMinimumRank(node);
+			ranked++;
+			for (Edge e : node.outgoing) {
+				e.flag = true;
+				if (--e.target.workingInts[0] == 0) {
+					rankMe.add(e.target);
+				}
 			}
 		}
+		if (ranked < graph.nodes.size()) {
+			throw new RuntimeException("Cycle detected in graph"); //$NON-NLS-1$
+		}
 
 		connectForest();
 	}
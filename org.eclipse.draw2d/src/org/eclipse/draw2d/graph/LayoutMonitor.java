@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+/**
+ * Observes and cancels a layout performed by
+ * {@link DirectedGraphLayout#visit(DirectedGraph, LayoutMonitor)}. The layout
+ * consists of a sequence of steps, each of which visits the graph. The monitor
+ * is informed before and after each step, on the thread performing the layout.
+ * <P>
+ * A layout is cancelled cooperatively: it asks the monitor whether it has been
+ * cancelled between its steps and periodically within the long running steps,
+ * such as the crossing reduction and the horizontal placement. Implementations
+ * of {@link #isCanceled()} should therefore be cheap, and must be thread-safe if
+ * the layout is cancelled from another thread.
+ *
+ * @since 3.17
+ */
+public interface LayoutMonitor {
+
+	/**
+	 * Called before a step of the layout visits the graph.
+	 *
+	 * @param name  the name of the step
+	 * @param step  the index of the step, starting at <code>0</code>
+	 * @param steps the total number of steps of the layout
+	 */
+	default void stepStarted(String name, int step, int steps) {
+	}
+
+	/**
+	 * Called after a step of the layout has visited the graph. It is not called
+	 * for a step which has been cancelled.
+	 *
+	 * @param name  the name of the step
+	 * @param step  the index of the step, starting at <code>0</code>
+	 * @param steps the total number of steps of the layout
+	 * @param nanos the time taken by the step, in nanoseconds
+	 */
+	default void stepEnded(String name, int step, int steps, long nanos) {
+	}
+
+	/**
+	 * Returns whether the layout should stop as soon as possible.
+	 *
+	 * @return <code>true</code> if the layout has been cancelled
+	 */
+	default boolean isCanceled() {
+		return false;
+	}
+
+}
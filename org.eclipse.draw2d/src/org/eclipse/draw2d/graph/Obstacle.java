@@ -28,6 +28,11 @@ import org.eclipse.draw2d.geometry.Rectangle;
 class Obstacle extends Rectangle {
 
 	boolean exclude;
+	/**
+	 * The order in which this obstacle was added to the {@link ObstacleIndex}.
+	 */
+	int sequence;
+	int queryStamp;
 	Vertex topLeft;
 	Vertex topRight;
 	Vertex bottomLeft;
@@ -60,6 +65,16 @@ class Obstacle extends Rectangle {
 		return router.getSpacing();
 	}
 
+	/**
+	 * Returns the distance by which the vertices of this obstacle have been grown.
+	 *
+	 * @return the largest growth of the four vertices
+	 */
+	int getGrowth() {
+		return Math.max(Math.max(topLeft.getGrowth(), topRight.getGrowth()),
+				Math.max(bottomLeft.getGrowth(), bottomRight.getGrowth()));
+	}
+
 	private static void growVertex(Vertex vertex) {
 		if (vertex.totalCount > 0) {
 			vertex.grow();
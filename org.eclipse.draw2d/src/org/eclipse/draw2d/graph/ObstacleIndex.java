@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.internal.SpatialGrid;
+
+/**
+ * A {@link SpatialGrid} over the obstacles of a {@link ShortestPathRouter}. Queries
+ * return the obstacles near a region or a segment in no particular order.
+ * Callers which must find the first of several obstacles, as a linear scan over
+ * the router's obstacles would have, compare the obstacles'
+ * {@link Obstacle#sequence}, which reflects the order in which they were added.
+ * <P>
+ * This class is for internal use only.
+ */
+class ObstacleIndex {
+
+	/**
+	 * The width and height of a grid cell.
+	 */
+	static final int CELL_SIZE = 128;
+
+	private final SpatialGrid<Obstacle> grid = new SpatialGrid<>(CELL_SIZE);
+	private int nextSequence;
+	private int queryStamp;
+
+	/**
+	 * Adds the given obstacle to the index and assigns its sequence number.
+	 *
+	 * @param obs the obstacle
+	 */
+	void add(Obstacle obs) {
+		obs.sequence = nextSequence++;
+		grid.add(obs, left(obs), top(obs), right(obs), bottom(obs));
+	}
+
+	/**
+	 * Removes the given obstacle from the index.
+	 *
+	 * @param obs the obstacle
+	 */
+	void remove(Obstacle obs) {
+		grid.remove(obs, left(obs), top(obs), right(obs), bottom(obs));
+	}
+
+	/**
+	 * Returns the first obstacle which was added with the given bounds, or
+	 * <code>null</code>.
+	 *
+	 * @param rect the bounds
+	 * @return the obstacle or <code>null</code>
+	 */
+	Obstacle find(Rectangle rect) {
+		Obstacle result = null;
+		for (Obstacle obs : getObstacles(rect.x, rect.y, rect.x, rect.y)) {
+			if (obs.equals(rect) && (result == null || obs.sequence < result.sequence)) {
+				result = obs;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the obstacles whose bounds intersect the given region. Both the
+	 * region and the bounds of the obstacles are inclusive, i.e. an obstacle
+	 * covers the points from <code>x</code> to <code>right() - 1</code>.
+	 *
+	 * @param x1 the left edge of the region
+	 * @param y1 the top edge of the region
+	 * @param x2 the right edge of the region
+	 * @param y2 the bottom edge of the region
+	 * @return the obstacles
+	 */
+	List<Obstacle> getObstacles(int x1, int y1, int x2, int y2) {
+		List<Obstacle> result = new ArrayList<>();
+		grid.visit(x1, y1, x2, y2, collector(x1, y1, x2, y2, result));
+		return result;
+	}
+
+	/**
+	 * Returns the obstacles whose bounds may come within the given distance of the
+	 * segment between the given points. Only the cells along the segment are
+	 * visited, so the cost of the query grows with the length of the segment
+	 * rather than with the area of its bounding box.
+	 *
+	 * @param p1     the start of the segment
+	 * @param p2     the end of the segment
+	 * @param margin the distance, measured separately along each axis
+	 * @return the obstacles
+	 */
+	List<Obstacle> getObstacles(Point p1, Point p2, int margin) {
+		int minX = Math.min(p1.x, p2.x);
+		int minY = Math.min(p1.y, p2.y);
+		int maxX = Math.max(p1.x, p2.x);
+		int maxY = Math.max(p1.y, p2.y);
+		int x1 = minX - margin;
+		int y1 = minY - margin;
+		int x2 = maxX + margin;
+		int y2 = maxY + margin;
+		List<Obstacle> result = new ArrayList<>();
+		Consumer<Obstacle> collector = collector(x1, y1, x2, y2, result);
+		double slope = p1.x == p2.x ? 0 : (double) (p2.y - p1.y) / (p2.x - p1.x);
+		for (int cx = grid.cell(x1); cx <= grid.cell(x2); cx++) {
+			// The part of the segment within reach of this column of cells
+			int low = minY;
+			int high = maxY;
+			if (p1.x != p2.x) {
+				double yLeft = p1.y + slope * (Math.max(minX, cx * CELL_SIZE - margin) - p1.x);
+				double yRight = p1.y + slope * (Math.min(maxX, (cx + 1) * CELL_SIZE - 1 + margin) - p1.x);
+				low = (int) Math.floor(Math.min(yLeft, yRight));
+				high = (int) Math.ceil(Math.max(yLeft, yRight));
+			}
+			grid.visitCells(cx, grid.cell(low - margin), cx, grid.cell(high + margin), collector);
+		}
+		grid.visitOversized(collector);
+		return result;
+	}
+
+	/**
+	 * Returns a visitor adding the obstacles which intersect the given region to
+	 * the given list, each obstacle only once.
+	 */
+	private Consumer<Obstacle> collector(int x1, int y1, int x2, int y2, List<Obstacle> result) {
+		int stamp = ++queryStamp;
+		return obs -> {
+			if (obs.queryStamp != stamp && left(obs) <= x2 && right(obs) >= x1 && top(obs) <= y2
+					&& bottom(obs) >= y1) {
+				obs.queryStamp = stamp;
+				result.add(obs);
+			}
+		};
+	}
+
+	// The inclusive extent of an obstacle, which is also correct for empty ones
+	private static int left(Obstacle obs) {
+		return Math.min(obs.x, obs.right() - 1);
+	}
+
+	private static int top(Obstacle obs) {
+		return Math.min(obs.y, obs.bottom() - 1);
+	}
+
+	private static int right(Obstacle obs) {
+		return Math.max(obs.x, obs.right() - 1);
+	}
+
+	private static int bottom(Obstacle obs) {
+		return Math.max(obs.y, obs.bottom() - 1);
+	}
+
+}
@@ -263,28 +263,35 @@ public class Path {
 	 * @param segment      the segment
 	 * @param exclude1     an obstacle to exclude from the search
 	 * @param exclude2     another obstacle to exclude from the search
-	 * @param allObstacles the list of all obstacles
+	 * @param allObstacles the index of all obstacles
 	 */
-	private void addSegment(Segment segment, Obstacle exclude1, Obstacle exclude2, List<Obstacle> allObstacles) {
+	private void addSegment(Segment segment, Obstacle exclude1, Obstacle exclude2, ObstacleIndex allObstacles) {
 		if (threshold != 0 && (segment.end.getDistance(end) + segment.end.getDistance(start) > threshold
 				|| segment.start.getDistance(end) + segment.start.getDistance(start) > threshold)) {
 			return;
 		}
 
-		for (Obstacle obs : allObstacles) {
+		// The first blocking obstacle in the order of the router is added
+		Obstacle blocking = null;
+		for (Obstacle obs : allObstacles.getObstacles(segment.start, segment.end, 0)) {
 
-			if (obs == exclude1 || obs == exclude2 || obs.exclude) {
+			if (obs == exclude1 || obs == exclude2 || obs.exclude
+					|| (blocking != null && blocking.sequence < obs.sequence)) {
 				continue;
 			}
 
 			if (segment.intersects(obs.x, obs.y, obs.right() - 1, obs.bottom() - 1)
 					|| segment.intersects(obs.x, obs.bottom() - 1, obs.right() - 1, obs.y)
 					|| obs.containsProper(segment.start) || obs.containsProper(segment.end)) {
-				if (!visibleObstacles.contains(obs)) {
-					addObstacle(obs);
-				}
-				return;
+				blocking = obs;
+			}
+		}
+
+		if (blocking != null) {
+			if (!visibleObstacles.contains(blocking)) {
+				addObstacle(blocking);
 			}
+			return;
 		}
 
 		linkVertices(segment);
@@ -485,9 +492,9 @@ public class Path {
 	/**
 	 * Begins the creation of the visibility graph with the first segment
 	 *
-	 * @param allObstacles list of all obstacles
+	 * @param allObstacles the index of all obstacles
 	 */
-	private void createVisibilityGraph(List<Obstacle> allObstacles) {
+	private void createVisibilityGraph(ObstacleIndex allObstacles) {
 		stack.push(null);
 		stack.push(null);
 		stack.push(new Segment(start, end));
@@ -545,10 +552,10 @@ public class Path {
 	 * Creates the visibility graph and returns whether or not a shortest path could
 	 * be determined.
 	 *
-	 * @param allObstacles the list of all obstacles
+	 * @param allObstacles the index of all obstacles
 	 * @return true if a shortest path was found
 	 */
-	boolean generateShortestPath(List<Obstacle> allObstacles) {
+	boolean generateShortestPath(ObstacleIndex allObstacles) {
 		createVisibilityGraph(allObstacles);
 
 		if (visibleVertices.isEmpty()) {
@@ -741,40 +748,29 @@ public class Path {
 	}
 
 	/**
-	 * Refreshes the exclude field on the obstacles in the list. Excludes all
-	 * obstacles that contain the start or end point for this path.
+	 * Refreshes the exclude field on the obstacles in the index. Excludes all
+	 * obstacles that contain the start or end point for this path. The exclude
+	 * field of the obstacles excluded by other paths must have been cleared.
 	 *
-	 * @param allObstacles list of all obstacles
+	 * @param allObstacles the index of all obstacles
 	 */
-	void refreshExcludedObstacles(List<Obstacle> allObstacles) {
+	void refreshExcludedObstacles(ObstacleIndex allObstacles) {
 		excludedObstacles.clear();
-
-		for (Obstacle o : allObstacles) {
-			o.exclude = false;
-
-			if (o.contains(start)) {
-				if (o.containsProper(start)) {
-					o.exclude = true;
-				} else {
-					/*
-					 * $TODO Check for corners. If the path begins exactly at the corner of an
-					 * obstacle, the exclude should also be true.
-					 *
-					 * Or, change segment intersection so that two segments that share an endpoint
-					 * do not intersect.
-					 */
-				}
-			}
-
-			if (o.contains(end)) {
-				if (o.containsProper(end)) {
-					o.exclude = true;
-				} else {
-					// check for corners. See above statement.
-				}
-			}
-
-			if (o.exclude && !excludedObstacles.contains(o)) {
+		excludeObstaclesContaining(start, allObstacles);
+		excludeObstaclesContaining(end, allObstacles);
+	}
+
+	private void excludeObstaclesContaining(Point p, ObstacleIndex allObstacles) {
+		for (Obstacle o : allObstacles.getObstacles(p.x, p.y, p.x, p.y)) {
+			/*
+			 * $TODO Check for corners. If the path begins exactly at the corner of an
+			 * obstacle, the exclude should also be true.
+			 *
+			 * Or, change segment intersection so that two segments that share an endpoint
+			 * do not intersect.
+			 */
+			if (o.containsProper(p) && !o.exclude) {
+				o.exclude = true;
 				excludedObstacles.add(o);
 			}
 		}
@@ -13,7 +13,10 @@
 package org.eclipse.draw2d.graph;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
+import java.util.List;
 
 /**
  * Assigns the final rank assignment for a DirectedGraph with an initial
@@ -27,68 +30,134 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 	DirectedGraph graph;
 	EdgeList spanningTree;
 	boolean searchDirection;
+	private int searchBudget;
 
-	int depthFirstCutValue(Edge edge, int count) {
-		Node n = getTreeTail(edge);
-		setTreeMin(n, count);
-		int cutvalue = 0;
-		int multiplier = (edge.target == n) ? 1 : -1;
+	/**
+	 * The indices of the nodes by their postorder number in the spanning tree.
+	 * The nodes of a subtree are numbered consecutively, so that they can be
+	 * visited without testing all nodes of the graph. Indices rather than nodes
+	 * are stored, as the numbers are rewritten after every pivot.
+	 */
+	private int[] nodesByNumber;
 
-		for (Edge e : n.outgoing) {
-			if (e.tree && e != edge) {
-				count = depthFirstCutValue(e, count);
-				cutvalue += (e.cut - e.weight) * multiplier;
-			} else {
-				cutvalue -= e.weight * multiplier;
+	// The stack of updateMinMax(Node, int), as node indices
+	private int[] path = new int[16];
+	private int[] next = new int[16];
+
+	/**
+	 * Numbers the subtree below the given tree edge in postorder and computes the
+	 * cut values of its tree edges. The tree is traversed with an explicit stack,
+	 * as spanning trees of large graphs are too deep for recursion.
+	 *
+	 * @return the next number
+	 */
+	int depthFirstCutValue(Edge edge, int count) {
+		Deque<CutValueFrame> stack = new ArrayDeque<>();
+		stack.push(new CutValueFrame(edge, count));
+		while (true) {
+			CutValueFrame frame = stack.peek();
+			Edge child = frame.nextChild();
+			if (child != null) {
+				stack.push(new CutValueFrame(child, frame.count));
+				continue;
+			}
+			stack.pop();
+			frame.edge.cut = frame.cutvalue;
+			if (frame.cutvalue < 0) {
+				spanningTree.add(frame.edge);
 			}
+			setTreeMax(frame.node, frame.count);
+			nodesByNumber[frame.count] = getIndex(frame.node);
+			CutValueFrame parent = stack.peek();
+			if (parent == null) {
+				return frame.count + 1;
+			}
+			parent.childEnded(frame);
 		}
+	}
 
-		for (Edge e : n.incoming) {
-			if (e.tree && e != edge) {
-				count = depthFirstCutValue(e, count);
-				cutvalue -= (e.cut - e.weight) * multiplier;
-			} else {
-				cutvalue += e.weight * multiplier;
+	/**
+	 * The state of the computation of the cut value of a tree edge, whose tail is
+	 * the root of the subtree being traversed.
+	 */
+	private final class CutValueFrame {
+		final Edge edge;
+		final Node node;
+		final int multiplier;
+		int cutvalue;
+		int count;
+		private int next;
+		private Edge current;
+		private boolean currentIsOutgoing;
+
+		CutValueFrame(Edge edge, int count) {
+			this.edge = edge;
+			this.node = getTreeTail(edge);
+			this.multiplier = (edge.target == node) ? 1 : -1;
+			this.count = count;
+			setTreeMin(node, count);
+		}
+
+		/**
+		 * Accounts for the non-tree edges up to the next tree edge below this one,
+		 * and returns that tree edge, or <code>null</code> if there are none left.
+		 */
+		Edge nextChild() {
+			int outgoing = node.outgoing.size();
+			while (next < outgoing + node.incoming.size()) {
+				boolean isOutgoing = next < outgoing;
+				Edge e = isOutgoing ? node.outgoing.get(next) : node.incoming.get(next - outgoing);
+				next++;
+				if (e.tree && e != edge) {
+					current = e;
+					currentIsOutgoing = isOutgoing;
+					return e;
+				}
+				cutvalue += (isOutgoing ? -e.weight : e.weight) * multiplier;
 			}
+			return null;
 		}
 
-		edge.cut = cutvalue;
-		if (cutvalue < 0) {
-			spanningTree.add(edge);
+		void childEnded(CutValueFrame child) {
+			count = child.count + 1;
+			if (currentIsOutgoing) {
+				cutvalue += (current.cut - current.weight) * multiplier;
+			} else {
+				cutvalue -= (current.cut - current.weight) * multiplier;
+			}
 		}
-		setTreeMax(n, count);
-		return count + 1;
 	}
 
 	/**
-	 * returns the Edge which should be entered.
+	 * returns the Edge which should be entered. Only the nodes of the given subtree
+	 * are visited. The edge with the least slack is chosen, where ties are broken
+	 * in favor of the node which comes first in the search direction.
 	 *
 	 * @param branch
 	 * @return Edge
 	 */
 	Edge enter(Node branch) {
-		Node n;
 		Edge result = null;
+		int resultIndex = 0;
 		int minSlack = Integer.MAX_VALUE;
 		boolean incoming = getParentEdge(branch).target != branch;
-		// searchDirection = !searchDirection;
-		for (int i = 0; i < graph.nodes.size(); i++) {
-			if (searchDirection) {
-				n = graph.nodes.get(i);
+		for (int number = getTreeMin(branch); number <= getTreeMax(branch); number++) {
+			Node n = graph.nodes.get(nodesByNumber[number]);
+			int index = getIndex(n);
+			EdgeList edges;
+			if (incoming) {
+				edges = n.incoming;
 			} else {
-				n = graph.nodes.get(graph.nodes.size() - 1 - i);
+				edges = n.outgoing;
 			}
-			if (subtreeContains(branch, n)) {
-				EdgeList edges;
-				if (incoming) {
-					edges = n.incoming;
-				} else {
-					edges = n.outgoing;
-				}
-				for (Edge e : edges) {
-					if (!subtreeContains(branch, e.opposite(n)) && !e.tree && e.getSlack() < minSlack) {
+			for (Edge e : edges) {
+				if (!e.tree && !subtreeContains(branch, e.opposite(n))) {
+					int slack = e.getSlack();
+					if (slack < minSlack || (slack == minSlack && result != null
+							&& (searchDirection ? index < resultIndex : index > resultIndex))) {
 						result = e;
-						minSlack = e.getSlack();
+						resultIndex = index;
+						minSlack = slack;
 					}
 				}
 			}
@@ -96,6 +165,11 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 		return result;
 	}
 
+	@SuppressWarnings("static-method")
+	int getIndex(Node n) {
+		return n.workingInts[2];
+	}
+
 	@SuppressWarnings("static-method")
 	int getTreeMax(Node n) {
 		return n.workingInts[1];
@@ -109,6 +183,7 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 	void initCutValues() {
 		Node root = graph.nodes.get(0);
 		spanningTree = new EdgeList();
+		nodesByNumber = new int[graph.nodes.size() + 1];
 		setTreeMin(root, 1);
 		setTreeMax(root, 1);
 
@@ -124,13 +199,26 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 			}
 			setTreeMax(root, depthFirstCutValue(e, getTreeMax(root)));
 		}
+		nodesByNumber[getTreeMax(root)] = getIndex(root);
 	}
 
+	/**
+	 * returns the tree Edge with the most negative cut value, which should leave
+	 * the spanning tree. If a search budget is set, only that many of the tree
+	 * edges with negative cut values are considered.
+	 *
+	 * @return Edge
+	 */
 	Edge leave() {
 		Edge result = null;
 		int minCut = 0;
 		int weight = -1;
-		for (Edge e : spanningTree) {
+		int candidates = spanningTree.size();
+		if (searchBudget > 0) {
+			candidates = Math.min(candidates, searchBudget);
+		}
+		for (int i = 0; i < candidates; i++) {
+			Edge e = spanningTree.get(i);
 			if (e.cut < minCut) {
 				result = e;
 				minCut = result.cut;
@@ -147,6 +235,7 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 		Edge leave;
 		int count = 0;
 		while ((leave = leave()) != null && count < 900) {
+			checkCanceled();
 
 			count++;
 
@@ -223,6 +312,15 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 		}
 	}
 
+	/**
+	 * Sets the number of tree edges with negative cut values considered when
+	 * choosing the edge which leaves the spanning tree, or <code>0</code> to
+	 * consider all of them.
+	 */
+	void setSearchBudget(int searchBudget) {
+		this.searchBudget = searchBudget;
+	}
+
 	@SuppressWarnings("static-method")
 	void setTreeMax(Node n, int value) {
 		n.workingInts[1] = value;
@@ -244,38 +342,71 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 		if (tail == edge.target) {
 			delta = -delta;
 		}
-		for (Node n : graph.nodes) {
-			if (subtreeContains(tail, n)) {
-				n.rank += delta;
-			}
+		for (int number = getTreeMin(tail); number <= getTreeMax(tail); number++) {
+			graph.nodes.get(nodesByNumber[number]).rank += delta;
 		}
 	}
 
+	/**
+	 * Renumbers the subtree of the given node in postorder, starting at the given
+	 * number.
+	 *
+	 * @return the next number
+	 */
 	int updateMinMax(Node root, int count) {
+		int depth = 0;
+		path[0] = getIndex(root);
+		next[0] = 0;
 		setTreeMin(root, count);
-		for (Edge e : getSpanningTreeChildren(root)) {
-			count = updateMinMax(getTreeTail(e), count);
+		while (depth >= 0) {
+			Node node = graph.nodes.get(path[depth]);
+			EdgeList children = getSpanningTreeChildren(node);
+			if (next[depth] < children.size()) {
+				Node child = children.get(next[depth]++).opposite(node);
+				if (++depth == path.length) {
+					path = Arrays.copyOf(path, 2 * depth);
+					next = Arrays.copyOf(next, 2 * depth);
+				}
+				path[depth] = getIndex(child);
+				next[depth] = 0;
+				setTreeMin(child, count);
+			} else {
+				setTreeMax(node, count);
+				nodesByNumber[count++] = getIndex(node);
+				depth--;
+			}
 		}
-		setTreeMax(root, count);
-		return count + 1;
+		return count;
 	}
 
+	/**
+	 * Makes the given node the root of the spanning tree, by reversing the tree
+	 * edges on the path to the current root.
+	 */
 	void updateSubgraph(Node root) {
-		Edge flip = getParentEdge(root);
-		if (flip != null) {
-			Node rootParent = getTreeParent(root);
-			getSpanningTreeChildren(rootParent).remove(flip);
-			updateSubgraph(rootParent);
-			setParentEdge(root, null);
-			setParentEdge(rootParent, flip);
+		List<Node> path = new ArrayList<>();
+		for (Node node = root; getParentEdge(node) != null; node = getTreeParent(node)) {
+			getSpanningTreeChildren(getTreeParent(node)).remove(getParentEdge(node));
+			path.add(node);
+		}
+		// The edges are reversed starting at the current root
+		for (int i = path.size() - 1; i >= 0; i--) {
+			Node node = path.get(i);
+			Edge flip = getParentEdge(node);
+			Node parent = flip.opposite(node);
+			setParentEdge(node, null);
+			setParentEdge(parent, flip);
 			repairCutValues(flip);
-			getSpanningTreeChildren(root).add(flip);
+			getSpanningTreeChildren(node).add(flip);
 		}
 	}
 
 	@Override
 	public void visit(DirectedGraph graph) {
 		this.graph = graph;
+		for (int i = 0; i < graph.nodes.size(); i++) {
+			graph.nodes.get(i).workingInts[2] = i;
+		}
 		initCutValues();
 		networkSimplexLoop();
 		if (graph.forestRoot == null) {
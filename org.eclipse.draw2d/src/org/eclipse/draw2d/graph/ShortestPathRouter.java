@@ -36,7 +36,9 @@ import org.eclipse.draw2d.geometry.Rectangle;
  * <P>
  * The worst-case performance of this algorithm is p * s * n^2, where p is the
  * number of paths, n is the number of obstacles, and s is the average number of
- * segments in each path's final solution.
+ * segments in each path's final solution. Only the paths affected by a change
+ * to the obstacles are searched again, and the obstacles are kept in a spatial
+ * index, so that each segment is only tested against the obstacles near it.
  * <P>
  * This class is not intended to be subclassed.
  *
@@ -68,6 +70,11 @@ public class ShortestPathRouter {
 
 	private int spacing = 4;
 	private boolean growPassChangedObstacles;
+	/**
+	 * The largest distance by which the vertices of any obstacle are currently
+	 * grown.
+	 */
+	private int obstacleGrowth;
 	private List<Path> orderedPaths;
 	private final Map<Path, List<Path>> pathsToChildPaths;
 
@@ -75,6 +82,7 @@ public class ShortestPathRouter {
 	private List<Path> subPaths;
 
 	private final List<Obstacle> userObstacles;
+	private final ObstacleIndex obstacleIndex;
 	private final List<Path> userPaths;
 	private final List<Path> workingPaths;
 
@@ -86,6 +94,7 @@ public class ShortestPathRouter {
 		workingPaths = new ArrayList<>();
 		pathsToChildPaths = new HashMap<>();
 		userObstacles = new ArrayList<>();
+		obstacleIndex = new ObstacleIndex();
 	}
 
 	/**
@@ -161,7 +170,7 @@ public class ShortestPathRouter {
 
 		int xDist, yDist;
 
-		for (Obstacle obs : userObstacles) {
+		for (Obstacle obs : obstacleIndex.getObstacles(x, y, x + sideLength - 1, y + sideLength - 1)) {
 			if (obs != vertex.obs && r.intersects(obs)) {
 				int pos = obs.getPosition(vertex);
 				if (pos == 0) {
@@ -323,8 +332,10 @@ public class ShortestPathRouter {
 	 */
 	private void growObstaclesPass() {
 		// grow obstacles
+		obstacleGrowth = 0;
 		for (Obstacle userObstacle : userObstacles) {
 			userObstacle.growVertices();
+			obstacleGrowth = Math.max(obstacleGrowth, userObstacle.getGrowth());
 		}
 
 		// go through paths and test segments
@@ -356,6 +367,7 @@ public class ShortestPathRouter {
 		for (Obstacle userObstacle : userObstacles) {
 			userObstacle.shrinkVertices();
 		}
+		obstacleGrowth = 0;
 	}
 
 	/**
@@ -365,6 +377,7 @@ public class ShortestPathRouter {
 	 */
 	private boolean internalAddObstacle(Obstacle obs) {
 		userObstacles.add(obs);
+		obstacleIndex.add(obs);
 		return testAndDirtyPaths(obs);
 	}
 
@@ -375,17 +388,13 @@ public class ShortestPathRouter {
 	 * @return the obstacle removed
 	 */
 	private boolean internalRemoveObstacle(Rectangle rect) {
-		Obstacle obs = null;
-		int index = -1;
-		for (int i = 0; i < userObstacles.size(); i++) {
-			obs = userObstacles.get(i);
-			if (obs.equals(rect)) {
-				index = i;
-				break;
-			}
+		Obstacle obs = obstacleIndex.find(rect);
+		if (obs == null) {
+			return false;
 		}
 
-		userObstacles.remove(index);
+		userObstacles.remove(obs);
+		obstacleIndex.remove(obs);
 
 		boolean result = false;
 		result |= dirtyPathsOn(obs.bottomLeft);
@@ -622,15 +631,6 @@ public class ShortestPathRouter {
 		return true;
 	}
 
-	/**
-	 * Resets exclude field on all obstacles
-	 */
-	private void resetObstacleExclusions() {
-		for (Obstacle userObstacle : userObstacles) {
-			userObstacle.exclude = false;
-		}
-	}
-
 	/**
 	 * Resets all vertices found on paths and obstacles.
 	 */
@@ -645,6 +645,20 @@ public class ShortestPathRouter {
 		}
 	}
 
+	/**
+	 * Resets the vertices in the visibility graph of the given path, which are the
+	 * only vertices touched by its shortest path search.
+	 *
+	 * @param path the path
+	 */
+	private static void resetVertices(Path path) {
+		for (Vertex vertex : path.visibleVertices) {
+			vertex.fullReset();
+		}
+		path.start.fullReset();
+		path.end.fullReset();
+	}
+
 	/**
 	 * Sets the default spacing between paths. The spacing is the minimum distance
 	 * that path should be offset from other paths or obstacles. The default value
@@ -723,32 +737,30 @@ public class ShortestPathRouter {
 		}
 
 		for (Path path : workingPaths) {
-			path.refreshExcludedObstacles(userObstacles);
+			path.refreshExcludedObstacles(obstacleIndex);
 			if (!path.isDirty) {
 				path.resetPartial();
-				continue;
-			}
+			} else {
+				numSolved++;
+				path.fullReset();
 
-			numSolved++;
-			path.fullReset();
+				boolean pathFoundCheck = path.generateShortestPath(obstacleIndex);
+				if (!pathFoundCheck || path.end.cost > path.threshold) {
+					// path not found, or path found was too long
+					resetVertices(path);
+					path.fullReset();
+					path.threshold = 0;
+					pathFoundCheck = path.generateShortestPath(obstacleIndex);
+				}
 
-			boolean pathFoundCheck = path.generateShortestPath(userObstacles);
-			if (!pathFoundCheck || path.end.cost > path.threshold) {
-				// path not found, or path found was too long
-				resetVertices();
-				path.fullReset();
-				path.threshold = 0;
-				pathFoundCheck = path.generateShortestPath(userObstacles);
+				resetVertices(path);
+			}
+			for (Obstacle obs : path.excludedObstacles) {
+				obs.exclude = false;
 			}
-
-			resetVertices();
 		}
 
-		resetObstacleExclusions();
-
-		if (numSolved == 0) {
-			resetVertices();
-		}
+		resetVertices();
 
 		return numSolved;
 	}
@@ -815,6 +827,55 @@ public class ShortestPathRouter {
 		return children;
 	}
 
+	/**
+	 * Returns the vertex of the given obstacle around which the given offset
+	 * segment has to be bent, or <code>null</code> if the segment doesn't
+	 * intersect the obstacle.
+	 *
+	 * @param segment the segment
+	 * @param obs     the obstacle
+	 * @param offset  the spacing around the obstacle
+	 * @return the vertex or <code>null</code>
+	 */
+	private static Vertex getIntersectedVertex(Segment segment, Obstacle obs, int offset) {
+		Vertex vertex = null;
+
+		if (segment.getSlope() < 0) {
+			if (segment.intersects(obs.topLeft.x - offset, obs.topLeft.y - offset, obs.bottomRight.x + offset,
+					obs.bottomRight.y + offset)) {
+				vertex = getNearestVertex(obs.topLeft, obs.bottomRight, segment);
+			} else if (segment.intersects(obs.bottomLeft.x - offset, obs.bottomLeft.y + offset,
+					obs.topRight.x + offset, obs.topRight.y - offset)) {
+				vertex = getNearestVertex(obs.bottomLeft, obs.topRight, segment);
+			}
+		} else {
+			if (segment.intersects(obs.bottomLeft.x - offset, obs.bottomLeft.y + offset, obs.topRight.x + offset,
+					obs.topRight.y - offset)) {
+				vertex = getNearestVertex(obs.bottomLeft, obs.topRight, segment);
+			} else if (segment.intersects(obs.topLeft.x - offset, obs.topLeft.y - offset,
+					obs.bottomRight.x + offset, obs.bottomRight.y + offset)) {
+				vertex = getNearestVertex(obs.topLeft, obs.bottomRight, segment);
+			}
+		}
+
+		if (vertex != null) {
+			Rectangle vRect = vertex.getDeformedRectangle(offset);
+			if (segment.end.obs != null) {
+				Rectangle endRect = segment.end.getDeformedRectangle(offset);
+				if (vRect.intersects(endRect)) {
+					return null;
+				}
+			}
+			if (segment.start.obs != null) {
+				Rectangle startRect = segment.start.getDeformedRectangle(offset);
+				if (vRect.intersects(startRect)) {
+					return null;
+				}
+			}
+		}
+		return vertex;
+	}
+
 	/**
 	 * Tests a segment that has been offset for new intersections
 	 *
@@ -824,73 +885,51 @@ public class ShortestPathRouter {
 	 * @return 1 if new segments have been inserted
 	 */
 	private int testOffsetSegmentForIntersections(Segment segment, int index, Path path) {
-		for (Obstacle obs : userObstacles) {
-
-			if (segment.end.obs == obs || segment.start.obs == obs || obs.exclude) {
+		int offset = getSpacing();
+		// The segment is bent around the first intersected obstacle in the order of
+		// the router. The corners of the obstacles are grown, so the search area is
+		// extended.
+		Obstacle intersected = null;
+		Vertex vertex = null;
+		for (Obstacle obs : obstacleIndex.getObstacles(segment.start, segment.end, offset + obstacleGrowth)) {
+			if (segment.end.obs == obs || segment.start.obs == obs || obs.exclude
+					|| (intersected != null && intersected.sequence < obs.sequence)) {
 				continue;
 			}
-			Vertex vertex = null;
-
-			int offset = getSpacing();
-			if (segment.getSlope() < 0) {
-				if (segment.intersects(obs.topLeft.x - offset, obs.topLeft.y - offset, obs.bottomRight.x + offset,
-						obs.bottomRight.y + offset)) {
-					vertex = getNearestVertex(obs.topLeft, obs.bottomRight, segment);
-				} else if (segment.intersects(obs.bottomLeft.x - offset, obs.bottomLeft.y + offset,
-						obs.topRight.x + offset, obs.topRight.y - offset)) {
-					vertex = getNearestVertex(obs.bottomLeft, obs.topRight, segment);
-				}
-			} else {
-				if (segment.intersects(obs.bottomLeft.x - offset, obs.bottomLeft.y + offset, obs.topRight.x + offset,
-						obs.topRight.y - offset)) {
-					vertex = getNearestVertex(obs.bottomLeft, obs.topRight, segment);
-				} else if (segment.intersects(obs.topLeft.x - offset, obs.topLeft.y - offset,
-						obs.bottomRight.x + offset, obs.bottomRight.y + offset)) {
-					vertex = getNearestVertex(obs.topLeft, obs.bottomRight, segment);
-				}
+			Vertex candidate = getIntersectedVertex(segment, obs, offset);
+			if (candidate != null) {
+				intersected = obs;
+				vertex = candidate;
 			}
+		}
 
-			if (vertex != null) {
-				Rectangle vRect = vertex.getDeformedRectangle(offset);
-				if (segment.end.obs != null) {
-					Rectangle endRect = segment.end.getDeformedRectangle(offset);
-					if (vRect.intersects(endRect)) {
-						continue;
-					}
-				}
-				if (segment.start.obs != null) {
-					Rectangle startRect = segment.start.getDeformedRectangle(offset);
-					if (vRect.intersects(startRect)) {
-						continue;
-					}
-				}
-
-				Segment newSegmentStart = new Segment(segment.start, vertex);
-				Segment newSegmentEnd = new Segment(vertex, segment.end);
+		if (vertex != null) {
+			Segment newSegmentStart = new Segment(segment.start, vertex);
+			Segment newSegmentEnd = new Segment(vertex, segment.end);
 
-				vertex.totalCount++;
-				vertex.nearestObstacleChecked = false;
+			vertex.totalCount++;
+			vertex.nearestObstacleChecked = false;
 
-				vertex.shrink();
-				checkVertexForIntersections(vertex);
-				vertex.grow();
+			vertex.shrink();
+			checkVertexForIntersections(vertex);
+			vertex.grow();
+			obstacleGrowth = Math.max(obstacleGrowth, vertex.getGrowth());
 
-				if (vertex.nearestObstacle != 0) {
-					vertex.updateOffset();
-				}
+			if (vertex.nearestObstacle != 0) {
+				vertex.updateOffset();
+			}
 
-				growPassChangedObstacles = true;
+			growPassChangedObstacles = true;
 
-				if (index != -1) {
-					path.grownSegments.remove(segment);
-					path.grownSegments.add(index, newSegmentStart);
-					path.grownSegments.add(index + 1, newSegmentEnd);
-				} else {
-					path.grownSegments.add(newSegmentStart);
-					path.grownSegments.add(newSegmentEnd);
-				}
-				return 1;
+			if (index != -1) {
+				path.grownSegments.remove(segment);
+				path.grownSegments.add(index, newSegmentStart);
+				path.grownSegments.add(index + 1, newSegmentEnd);
+			} else {
+				path.grownSegments.add(newSegmentStart);
+				path.grownSegments.add(newSegmentEnd);
 			}
+			return 1;
 		}
 		if (index == -1) {
 			path.grownSegments.add(segment);
@@ -919,6 +958,9 @@ public class ShortestPathRouter {
 	 * @return <code>true</code> if the change the current results to become stale
 	 */
 	public boolean updateObstacle(Rectangle oldBounds, Rectangle newBounds) {
+		if (oldBounds.equals(newBounds)) {
+			return false;
+		}
 		boolean result = internalRemoveObstacle(oldBounds);
 		result |= addObstacle(newBounds);
 		return result;
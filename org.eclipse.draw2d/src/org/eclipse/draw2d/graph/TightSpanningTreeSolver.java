@@ -12,6 +12,10 @@
  *******************************************************************************/
 package org.eclipse.draw2d.graph;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Finds a tight spanning tree from the graphs edges which induce a valid rank
  * assignment. This process requires that the nodes be initially given a
@@ -25,41 +29,131 @@ class TightSpanningTreeSolver extends SpanningTreeVisitor {
 	protected DirectedGraph graph;
 	protected CandidateList candidates = new CandidateList();
 
+	/**
+	 * The edges leaving the tree, in which the edge with the least slack is found
+	 * in constant time. The slack of an edge changes with the offset of the ranks
+	 * of the members only, by which it increases if the source of the edge is a
+	 * member and decreases otherwise. The edges are therefore kept in two min
+	 * trees over their position, keyed by their slack at offset <code>0</code>. An
+	 * edge is removed by moving the last edge into its position.
+	 */
 	static final class CandidateList {
-		private Edge[] edges = new Edge[10];
+		private Edge[] edges = new Edge[16];
+		private int[] keys = new int[16];
+		private final Map<Edge, Integer> positions = new HashMap<>();
+		// The position of the minimum of each subtree, or -1, separately for the
+		// edges whose source and whose target is a member
+		private int[] sourceTree = newTree(16);
+		private int[] targetTree = newTree(16);
 		private int size;
 
-		public void add(Edge edge) {
-			if (size == edges.length - 1) {
-				Edge[] newEdges = new Edge[edges.length * 2];
-				System.arraycopy(edges, 0, newEdges, 0, edges.length);
-				edges = newEdges;
-			}
-			edges[size++] = edge;
+		private static int[] newTree(int capacity) {
+			int[] tree = new int[2 * capacity];
+			Arrays.fill(tree, -1);
+			return tree;
 		}
 
-		public Edge getEdge(int index) {
-			return edges[index];
+		/**
+		 * Adds an edge leaving the tree.
+		 *
+		 * @param edge           the edge
+		 * @param key            the slack of the edge at offset <code>0</code>
+		 * @param sourceIsMember whether the source of the edge is a member
+		 */
+		public void add(Edge edge, int key, boolean sourceIsMember) {
+			if (size == edges.length) {
+				grow();
+			}
+			positions.put(edge, Integer.valueOf(size));
+			set(size, edge, key, sourceIsMember);
+			size++;
 		}
 
 		public void remove(Edge edge) {
-			for (int i = 0; i < size; i++) {
-				if (edges[i] == edge) {
-					edges[i] = edges[size - 1];
-					size--;
-					return;
-				}
+			Integer position = positions.remove(edge);
+			if (position == null) {
+				throw new RuntimeException("Remove called on invalid Edge"); //$NON-NLS-1$
+			}
+			int i = position.intValue();
+			size--;
+			if (i < size) {
+				Edge last = edges[size];
+				set(i, last, keys[size], sourceTree[edges.length + size] == size);
+				positions.put(last, position);
+			}
+			edges[size] = null;
+			update(sourceTree, size, -1);
+			update(targetTree, size, -1);
+		}
+
+		/**
+		 * Returns the first edge with the least slack.
+		 *
+		 * @param offset the offset of the ranks of the members
+		 * @return the edge, or <code>null</code> if there are none
+		 */
+		public Edge getMinimum(int offset) {
+			int s = sourceTree[1];
+			int t = targetTree[1];
+			if (s < 0 || t < 0) {
+				return s < 0 ? (t < 0 ? null : edges[t]) : edges[s];
 			}
-			throw new RuntimeException("Remove called on invalid Edge"); //$NON-NLS-1$
+			long sourceSlack = (long) keys[s] - offset;
+			long targetSlack = (long) keys[t] + offset;
+			if (sourceSlack < targetSlack || (sourceSlack == targetSlack && s < t)) {
+				return edges[s];
+			}
+			return edges[t];
 		}
 
 		public int size() {
 			return size;
 		}
+
+		private void set(int i, Edge edge, int key, boolean sourceIsMember) {
+			edges[i] = edge;
+			keys[i] = key;
+			update(sourceTree, i, sourceIsMember ? i : -1);
+			update(targetTree, i, sourceIsMember ? -1 : i);
+		}
+
+		private void update(int[] tree, int i, int value) {
+			int node = edges.length + i;
+			tree[node] = value;
+			for (node /= 2; node > 0; node /= 2) {
+				int left = tree[2 * node];
+				int right = tree[2 * node + 1];
+				if (left < 0 || (right >= 0 && keys[right] < keys[left])) {
+					tree[node] = right;
+				} else {
+					tree[node] = left;
+				}
+			}
+		}
+
+		private void grow() {
+			int capacity = 2 * edges.length;
+			Edge[] oldEdges = edges;
+			int[] oldSourceTree = sourceTree;
+			edges = Arrays.copyOf(edges, capacity);
+			keys = Arrays.copyOf(keys, capacity);
+			sourceTree = newTree(capacity);
+			targetTree = newTree(capacity);
+			for (int i = 0; i < size; i++) {
+				set(i, edges[i], keys[i], oldSourceTree[oldEdges.length + i] == i);
+			}
+		}
 	}
 
 	protected NodeList members = new NodeList();
 
+	/**
+	 * The amount by which the ranks of all members have been adjusted. Instead of
+	 * adjusting the rank of every member each time an edge is added, the ranks of
+	 * the members are stored relative to this offset until the tree is complete.
+	 */
+	private int memberRankOffset;
+
 	@Override
 	public void visit(DirectedGraph graph) {
 		this.graph = graph;
@@ -68,7 +162,7 @@ class TightSpanningTreeSolver extends SpanningTreeVisitor {
 	}
 
 	Node addEdge(Edge edge) {
-		int delta = edge.getSlack();
+		int delta = getSlack(edge);
 		edge.tree = true;
 		Node node;
 		if (edge.target.flag) {
@@ -81,11 +175,23 @@ class TightSpanningTreeSolver extends SpanningTreeVisitor {
 			setParentEdge(node, edge);
 			getSpanningTreeChildren(edge.source).add(edge);
 		}
-		members.adjustRank(delta);
+		memberRankOffset += delta;
 		addNode(node);
 		return node;
 	}
 
+	private int getRank(Node node) {
+		return isNodeReachable(node) ? node.rank + memberRankOffset : node.rank;
+	}
+
+	/**
+	 * Returns the slack of the given edge, taking the offset of the members' ranks
+	 * into account.
+	 */
+	private int getSlack(Edge edge) {
+		return getRank(edge.target) - getRank(edge.source) - edge.getDelta();
+	}
+
 	private static boolean isNodeReachable(Node node) {
 		return node.flag;
 	}
@@ -103,13 +209,14 @@ class TightSpanningTreeSolver extends SpanningTreeVisitor {
 	}
 
 	void addNode(Node node) {
+		node.rank -= memberRankOffset;
 		setNodeReachable(node);
 
 		for (Edge e : node.incoming) {
 			if (!isNodeReachable(e.source)) {
 				if (!isCandidate(e)) {
 					setCandidate(e);
-					candidates.add(e);
+					candidates.add(e, node.rank - e.source.rank - e.getDelta(), false);
 				}
 			} else {
 				candidates.remove(e);
@@ -120,7 +227,7 @@ class TightSpanningTreeSolver extends SpanningTreeVisitor {
 			if (!isNodeReachable(e.target)) {
 				if (!isCandidate(e)) {
 					setCandidate(e);
-					candidates.add(e);
+					candidates.add(e, e.target.rank - node.rank - e.getDelta(), true);
 				}
 			} else {
 				candidates.remove(e);
@@ -135,6 +242,7 @@ class TightSpanningTreeSolver extends SpanningTreeVisitor {
 		for (Node node : graph.nodes) {
 			node.workingData[0] = new EdgeList();
 		}
+		memberRankOffset = 0;
 	}
 
 	protected void solve() {
@@ -145,18 +253,10 @@ class TightSpanningTreeSolver extends SpanningTreeVisitor {
 			if (candidates.size() == 0) {
 				throw new RuntimeException("graph is not fully connected");//$NON-NLS-1$
 			}
-			int minSlack = Integer.MAX_VALUE;
-			Edge minEdge = null;
-			for (int i = 0; i < candidates.size() && minSlack > 0; i++) {
-				Edge edge = candidates.getEdge(i);
-				int slack = edge.getSlack();
-				if (slack < minSlack) {
-					minSlack = slack;
-					minEdge = edge;
-				}
-			}
-			addEdge(minEdge);
+			addEdge(candidates.getMinimum(memberRankOffset));
 		}
+		members.adjustRank(memberRankOffset);
+		memberRankOffset = 0;
 		graph.nodes.normalizeRanks();
 	}
 
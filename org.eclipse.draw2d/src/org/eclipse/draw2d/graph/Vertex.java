@@ -182,6 +182,16 @@ class Vertex extends Point {
 		return obs.getSpacing();
 	}
 
+	/**
+	 * Returns the distance by which this vertex has been grown.
+	 *
+	 * @return the larger of the horizontal and vertical distance to the original
+	 *         position
+	 */
+	int getGrowth() {
+		return Math.max(Math.abs(x - origX), Math.abs(y - origY));
+	}
+
 	/**
 	 * Grows this vertex by its offset to its maximum size.
 	 */
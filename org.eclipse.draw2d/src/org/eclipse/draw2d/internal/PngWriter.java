@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an 8-bit RGB image in the PNG format row by row, so that the image
+ * never has to be kept in memory as a whole. The compressed rows are written to
+ * the stream in chunks of a fixed size.
+ * <P>
+ * The writer does not close the stream. {@link #close()} releases the
+ * compressor, whether or not the image has been {@link #finish() finished}.
+ */
+public final class PngWriter implements Closeable {
+
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	private static final int CHUNK_SIZE = 1 << 16;
+	private static final int COLOR_TYPE_RGB = 2;
+	private static final int FILTER_NONE = 0;
+
+	private final OutputStream out;
+	private final int width;
+	private final int height;
+	private final Deflater deflater = new Deflater();
+	private final DeflaterOutputStream data;
+	private final CRC32 crc = new CRC32();
+	private int rowCount;
+
+	/**
+	 * Writes the header of an image of the given size.
+	 *
+	 * @param out    the stream to write the image to
+	 * @param width  the width of the image in pixels
+	 * @param height the height of the image in pixels
+	 * @throws IOException if the header cannot be written
+	 */
+	public PngWriter(OutputStream out, int width, int height) throws IOException {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Invalid image size: " + width + 'x' + height); //$NON-NLS-1$
+		}
+		this.out = out;
+		this.width = width;
+		this.height = height;
+		out.write(SIGNATURE);
+		byte[] header = new byte[13];
+		putInt(header, 0, width);
+		putInt(header, 4, height);
+		header[8] = 8; // bits per sample
+		header[9] = COLOR_TYPE_RGB;
+		// compression, filter and interlace methods are 0
+		writeChunk("IHDR", header, header.length); //$NON-NLS-1$
+		data = new DeflaterOutputStream(new DataChunkStream(), deflater, CHUNK_SIZE);
+	}
+
+	/**
+	 * Writes the next row of the image.
+	 *
+	 * @param rgb    the red, green and blue bytes of the pixels of the row
+	 * @param offset the index of the first byte of the row
+	 * @throws IOException if the row cannot be written
+	 */
+	public void writeRow(byte[] rgb, int offset) throws IOException {
+		if (rowCount == height) {
+			throw new IllegalStateException("All rows have been written"); //$NON-NLS-1$
+		}
+		data.write(FILTER_NONE);
+		data.write(rgb, offset, width * 3);
+		rowCount++;
+	}
+
+	/**
+	 * Writes the remaining compressed data and the end of the image.
+	 *
+	 * @throws IOException if the data cannot be written
+	 */
+	public void finish() throws IOException {
+		if (rowCount != height) {
+			throw new IllegalStateException("Only " + rowCount + " of " + height + " rows have been written"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		data.close();
+		writeChunk("IEND", new byte[0], 0); //$NON-NLS-1$
+		out.flush();
+	}
+
+	/**
+	 * Releases the compressor.
+	 */
+	@Override
+	public void close() {
+		deflater.end();
+	}
+
+	private void writeChunk(String type, byte[] bytes, int length) throws IOException {
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		byte[] buffer = new byte[4];
+		putInt(buffer, 0, length);
+		out.write(buffer);
+		out.write(typeBytes);
+		out.write(bytes, 0, length);
+		crc.reset();
+		crc.update(typeBytes);
+		crc.update(bytes, 0, length);
+		putInt(buffer, 0, (int) crc.getValue());
+		out.write(buffer);
+	}
+
+	private static void putInt(byte[] bytes, int index, int value) {
+		bytes[index] = (byte) (value >>> 24);
+		bytes[index + 1] = (byte) (value >>> 16);
+		bytes[index + 2] = (byte) (value >>> 8);
+		bytes[index + 3] = (byte) value;
+	}
+
+	/**
+	 * Splits the compressed data into IDAT chunks.
+	 */
+	private class DataChunkStream extends OutputStream {
+		private final byte[] buffer = new byte[CHUNK_SIZE];
+		private int count;
+
+		@Override
+		public void write(int b) throws IOException {
+			buffer[count++] = (byte) b;
+			if (count == CHUNK_SIZE) {
+				flush();
+			}
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			while (length > 0) {
+				int n = Math.min(length, CHUNK_SIZE - count);
+				System.arraycopy(bytes, offset, buffer, count, n);
+				count += n;
+				offset += n;
+				length -= n;
+				if (count == CHUNK_SIZE) {
+					flush();
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (count > 0) {
+				writeChunk("IDAT", buffer, count); //$NON-NLS-1$
+				count = 0;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+
+}
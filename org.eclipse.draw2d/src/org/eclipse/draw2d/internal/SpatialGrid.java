@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A uniform grid of square cells, which stores each element in the cells
+ * covered by its extent. The extents are given as inclusive coordinates, i.e.
+ * an element covers the points from <code>x1</code> to <code>x2</code> and from
+ * <code>y1</code> to <code>y2</code>. Only occupied cells are allocated, so the
+ * grid is unbounded and supports negative coordinates.
+ * <P>
+ * Elements covering more than {@link #MAX_CELLS} cells are not stored in the
+ * cells, but visited by every query instead. The grid doesn't remember the
+ * extents of its elements, so an element must be removed with the extent it
+ * was added with. Elements are compared by identity.
+ * <P>
+ * Queries visit the elements of every cell they cover, so an element covering
+ * several of these cells is visited more than once. Callers are expected to
+ * filter the visited elements by their exact extent anyway.
+ *
+ * @param <T> the type of the elements
+ * @since 3.17
+ */
+public final class SpatialGrid<T> {
+
+	/**
+	 * Elements covering more cells than this are not stored in the cells, but
+	 * visited by every query instead.
+	 */
+	public static final int MAX_CELLS = 64;
+
+	private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+	private final int cellSize;
+	private final Map<Long, List<T>> cells = new HashMap<>();
+	private final List<T> oversized = new ArrayList<>();
+
+	/**
+	 * Creates an empty grid.
+	 *
+	 * @param cellSize the width and height of a cell
+	 * @throws IllegalArgumentException if the cell size is not positive
+	 */
+	public SpatialGrid(int cellSize) {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException("Cell size must be positive"); //$NON-NLS-1$
+		}
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Returns the width and height of a cell.
+	 *
+	 * @return the cell size
+	 */
+	public int getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Returns the index of the row or column of cells containing the given
+	 * coordinate.
+	 *
+	 * @param coordinate the x or y coordinate
+	 * @return the index of the cell
+	 */
+	public int cell(int coordinate) {
+		return Math.floorDiv(coordinate, cellSize);
+	}
+
+	/**
+	 * Adds the given element with the given extent.
+	 *
+	 * @param element the element
+	 * @param x1      the left edge of the element
+	 * @param y1      the top edge of the element
+	 * @param x2      the right edge of the element
+	 * @param y2      the bottom edge of the element
+	 */
+	public void add(T element, int x1, int y1, int x2, int y2) {
+		int cx1 = cell(x1);
+		int cy1 = cell(y1);
+		int cx2 = cell(x2);
+		int cy2 = cell(y2);
+		if ((long) (cx2 - cx1 + 1) * (cy2 - cy1 + 1) > MAX_CELLS) {
+			oversized.add(element);
+			return;
+		}
+		for (int cx = cx1; cx <= cx2; cx++) {
+			for (int cy = cy1; cy <= cy2; cy++) {
+				cells.computeIfAbsent(Long.valueOf(key(cx, cy)), k -> new ArrayList<>(4)).add(element);
+			}
+		}
+	}
+
+	/**
+	 * Removes the given element, which must have been added with the given
+	 * extent.
+	 *
+	 * @param element the element
+	 * @param x1      the left edge of the element
+	 * @param y1      the top edge of the element
+	 * @param x2      the right edge of the element
+	 * @param y2      the bottom edge of the element
+	 */
+	public void remove(T element, int x1, int y1, int x2, int y2) {
+		int cx1 = cell(x1);
+		int cy1 = cell(y1);
+		int cx2 = cell(x2);
+		int cy2 = cell(y2);
+		if ((long) (cx2 - cx1 + 1) * (cy2 - cy1 + 1) > MAX_CELLS) {
+			removeIdentical(oversized, element);
+			return;
+		}
+		for (int cx = cx1; cx <= cx2; cx++) {
+			for (int cy = cy1; cy <= cy2; cy++) {
+				Long key = Long.valueOf(key(cx, cy));
+				List<T> bucket = cells.get(key);
+				if (bucket != null) {
+					removeIdentical(bucket, element);
+					if (bucket.isEmpty()) {
+						cells.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all elements.
+	 */
+	public void clear() {
+		cells.clear();
+		oversized.clear();
+	}
+
+	/**
+	 * Visits the elements which may intersect the given region, i.e. the elements
+	 * of the cells covering the region and the oversized elements.
+	 *
+	 * @param x1      the left edge of the region
+	 * @param y1      the top edge of the region
+	 * @param x2      the right edge of the region
+	 * @param y2      the bottom edge of the region
+	 * @param visitor the visitor
+	 */
+	public void visit(int x1, int y1, int x2, int y2, Consumer<? super T> visitor) {
+		visitCells(cell(x1), cell(y1), cell(x2), cell(y2), visitor);
+		visitOversized(visitor);
+	}
+
+	/**
+	 * Visits the elements stored in the given range of cells, but not the
+	 * oversized elements. Queries along a path, which cover only some cells of
+	 * their bounding box, visit the cells of each row or column separately and
+	 * the oversized elements once.
+	 *
+	 * @param cx1     the first column
+	 * @param cy1     the first row
+	 * @param cx2     the last column
+	 * @param cy2     the last row
+	 * @param visitor the visitor
+	 * @see #visitOversized(Consumer)
+	 */
+	public void visitCells(int cx1, int cy1, int cx2, int cy2, Consumer<? super T> visitor) {
+		if ((long) (cx2 - cx1 + 1) * (cy2 - cy1 + 1) > cells.size()) {
+			// Cheaper to visit the occupied cells than to enumerate the area
+			cells.forEach((key, bucket) -> {
+				int cx = cellX(key.longValue());
+				int cy = cellY(key.longValue());
+				if (cx >= cx1 && cx <= cx2 && cy >= cy1 && cy <= cy2) {
+					bucket.forEach(visitor);
+				}
+			});
+		} else {
+			for (int cx = cx1; cx <= cx2; cx++) {
+				for (int cy = cy1; cy <= cy2; cy++) {
+					List<T> bucket = cells.get(Long.valueOf(key(cx, cy)));
+					if (bucket != null) {
+						bucket.forEach(visitor);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Visits the elements which are too large to be stored in the cells.
+	 *
+	 * @param visitor the visitor
+	 */
+	public void visitOversized(Consumer<? super T> visitor) {
+		oversized.forEach(visitor);
+	}
+
+	// Equal elements, e.g. rectangles, may be added more than once
+	private static <T> void removeIdentical(List<T> list, T element) {
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == element) {
+				list.remove(i);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the key of a cell. The row is scrambled by the column, as the hash
+	 * code of a {@link Long} combining both unchanged would be the same for all
+	 * cells on a diagonal.
+	 */
+	private static long key(int cx, int cy) {
+		return ((long) cx << 32) | ((cy ^ cx * HASH_MULTIPLIER) & 0xFFFFFFFFL);
+	}
+
+	private static int cellX(long key) {
+		return (int) (key >> 32);
+	}
+
+	private static int cellY(long key) {
+		return (int) key ^ cellX(key) * HASH_MULTIPLIER;
+	}
+
+}
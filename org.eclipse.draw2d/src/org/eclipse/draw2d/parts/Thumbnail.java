@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.draw2d.parts;
 
+import java.util.BitSet;
 import java.util.Map;
 
 import org.eclipse.swt.SWT;
@@ -26,12 +27,18 @@ import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.SWTGraphics;
 import org.eclipse.draw2d.UpdateListener;
 import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.Rectangle;
 
 /**
  * A Thumbnail is a Figure that displays an image of its source Figure at a
  * smaller size. The Thumbnail will maintain the aspect ratio of the source
  * Figure.
+ * <P>
+ * Once the thumbnail image has been rendered completely, changes to the source
+ * Figure are tracked as damaged regions. Only the tiles of the thumbnail image
+ * intersecting those regions are re-rendered, at most once per
+ * {@link #setUpdateInterval(int) update interval}.
  *
  * @author Eric Bordeau
  * @author Alexander Nyßen (anyssen)
@@ -174,6 +181,36 @@ public class Thumbnail extends Figure implements UpdateListener {
 			int sx1 = h * tileSize.width;
 			int sx2 = Math.min((h + 1) * tileSize.width, sourceSize.width);
 
+			paintTile(sx1, sy1, sx2, sy2);
+
+			if (getCurrentHTile() < (hTiles - 1)) {
+				setCurrentHTile(getCurrentHTile() + 1);
+			} else {
+				setCurrentHTile(0);
+				if (getCurrentVTile() < (vTiles - 1)) {
+					setCurrentVTile(getCurrentVTile() + 1);
+				} else {
+					setCurrentVTile(0);
+				}
+			}
+
+			if (getCurrentHTile() != 0 || getCurrentVTile() != 0) {
+				Display.getCurrent().asyncExec(this);
+			} else if (isDirty()) {
+				setDirty(false);
+				Display.getCurrent().asyncExec(this);
+				repaint();
+			} else {
+				stop();
+				repaint();
+			}
+		}
+
+		/**
+		 * Paints the given area of the thumbnail image. The coordinates are relative
+		 * to the thumbnail image.
+		 */
+		private void paintTile(int sx1, int sy1, int sx2, int sy2) {
 			// Mac fix - create new Tile Graphics instances
 			if (IS_MAC) {
 				createTileGraphics();
@@ -191,7 +228,7 @@ public class Thumbnail extends Figure implements UpdateListener {
 			// set its own clip inside paint(Graphics) and overwrite areas of
 			// tiles that have already been rendered. By providing an own tile
 			// image and copying from it into the thumbnail image, we are safe.
-			org.eclipse.draw2d.geometry.Point p = getSourceRectangle().getLocation();
+			Point p = getSourceRectangle().getLocation();
 			tileGraphics.translate(-p.x * getScaleX() - sx1, -p.y * getScaleY() - sy1);
 			tileGraphics.scale(getScaleX());
 			sourceFigure.paint(tileGraphics);
@@ -199,28 +236,35 @@ public class Thumbnail extends Figure implements UpdateListener {
 
 			// Copy the painted tile image into the thumbnail image.
 			thumbnailGC.drawImage(tileImage, 0, 0, sx2 - sx1, sy2 - sy1, sx1, sy1, sx2 - sx1, sy2 - sy1);
+		}
 
-			if (getCurrentHTile() < (hTiles - 1)) {
-				setCurrentHTile(getCurrentHTile() + 1);
-			} else {
-				setCurrentHTile(0);
-				if (getCurrentVTile() < (vTiles - 1)) {
-					setCurrentVTile(getCurrentVTile() + 1);
-				} else {
-					setCurrentVTile(0);
-				}
+		/**
+		 * Re-renders the given tiles of the thumbnail image. The tiles are numbered
+		 * row by row, with <i>columns</i> tiles of size {@link #DAMAGE_TILE_SIZE} per
+		 * row. This method does nothing if the updater is not active, is currently
+		 * running or if there is no thumbnail image yet.
+		 *
+		 * @param tiles   the indices of the tiles to re-render
+		 * @param columns the number of tiles per row
+		 */
+		void updateTiles(BitSet tiles, int columns) {
+			if (!isActive() || isRunning() || thumbnailImage == null || tiles.isEmpty()) {
+				return;
 			}
-
-			if (getCurrentHTile() != 0 || getCurrentVTile() != 0) {
-				Display.getCurrent().asyncExec(this);
-			} else if (isDirty()) {
-				setDirty(false);
-				Display.getCurrent().asyncExec(this);
-				repaint();
-			} else {
-				stop();
-				repaint();
+			isRunning = true;
+			tileSize = new Dimension(DAMAGE_TILE_SIZE, DAMAGE_TILE_SIZE);
+			if (!tileSize.equals(tileImageSize)) {
+				resetTileImage();
 			}
+			thumbnailGC = new GC(thumbnailImage, SWT.NONE);
+			createTileGraphics();
+			for (int i = tiles.nextSetBit(0); i >= 0; i = tiles.nextSetBit(i + 1)) {
+				int x = (i % columns) * DAMAGE_TILE_SIZE;
+				int y = (i / columns) * DAMAGE_TILE_SIZE;
+				paintTile(x, y, Math.min(x + DAMAGE_TILE_SIZE, thumbnailImageSize.width),
+						Math.min(y + DAMAGE_TILE_SIZE, thumbnailImageSize.height));
+			}
+			stop();
 		}
 
 		/**
@@ -262,8 +306,10 @@ public class Thumbnail extends Figure implements UpdateListener {
 
 			isRunning = true;
 			setDirty(false);
+			damageRepairer.clear();
 
 			resetTileValues();
+			renderedSourceRectangle = getSourceRectangle().getCopy();
 
 			if (!targetSize.equals(thumbnailImageSize)) {
 				resetThumbnailImage();
@@ -369,9 +415,100 @@ public class Thumbnail extends Figure implements UpdateListener {
 		}
 	}
 
+	/**
+	 * Re-renders the damaged tiles of the thumbnail image, at most once per update
+	 * interval.
+	 */
+	class DamageRepairer implements Runnable {
+		private final BitSet damagedTiles = new BitSet();
+		private int columns;
+		private boolean isQueued;
+		private long lastRun;
+
+		/**
+		 * Marks the tiles intersecting the given area of the thumbnail image as
+		 * damaged.
+		 *
+		 * @param area the damaged area, relative to the thumbnail image
+		 */
+		void addDamage(Rectangle area) {
+			int newColumns = (thumbnailImageSize.width + DAMAGE_TILE_SIZE - 1) / DAMAGE_TILE_SIZE;
+			if (newColumns != columns) {
+				damagedTiles.clear();
+				columns = newColumns;
+			}
+			area = area.getIntersection(new Rectangle(0, 0, thumbnailImageSize.width, thumbnailImageSize.height));
+			if (area.isEmpty()) {
+				return;
+			}
+			int x2 = (area.right() - 1) / DAMAGE_TILE_SIZE;
+			int y2 = (area.bottom() - 1) / DAMAGE_TILE_SIZE;
+			for (int y = area.y / DAMAGE_TILE_SIZE; y <= y2; y++) {
+				damagedTiles.set(y * columns + area.x / DAMAGE_TILE_SIZE, y * columns + x2 + 1);
+			}
+		}
+
+		/** Forgets all damaged tiles and cancels a queued repair. */
+		void clear() {
+			damagedTiles.clear();
+			if (isQueued) {
+				isQueued = false;
+				Display.getCurrent().timerExec(-1, this);
+			}
+		}
+
+		/**
+		 * Queues a repair, unless one is already queued. The repair is delayed until
+		 * the update interval has passed since the previous repair.
+		 */
+		void schedule() {
+			if (isQueued || damagedTiles.isEmpty()) {
+				return;
+			}
+			isQueued = true;
+			long elapsed = System.currentTimeMillis() - lastRun;
+			Display.getCurrent().timerExec((int) Math.max(0, updateInterval - elapsed), this);
+		}
+
+		@Override
+		public void run() {
+			if (!isQueued) {
+				return;
+			}
+			isQueued = false;
+			lastRun = System.currentTimeMillis();
+			if (!canRepairDamage()) {
+				damagedTiles.clear();
+				setDirty(true);
+				repaint();
+				return;
+			}
+			Rectangle repaintArea = null;
+			for (int i = damagedTiles.nextSetBit(0); i >= 0; i = damagedTiles.nextSetBit(i + 1)) {
+				Rectangle tile = new Rectangle((i % columns) * DAMAGE_TILE_SIZE, (i / columns) * DAMAGE_TILE_SIZE,
+						DAMAGE_TILE_SIZE, DAMAGE_TILE_SIZE);
+				repaintArea = repaintArea == null ? tile : repaintArea.union(tile);
+			}
+			updater.updateTiles(damagedTiles, columns);
+			damagedTiles.clear();
+			if (repaintArea != null) {
+				repaintArea.translate(getClientArea().getLocation());
+				repaint(repaintArea);
+			}
+		}
+	}
+
+	/**
+	 * The width and height of the tiles which are re-rendered when only parts of
+	 * the source figure have changed.
+	 */
+	private static final int DAMAGE_TILE_SIZE = 64;
+
 	private boolean isDirty;
 	private float scaleX;
 	private float scaleY;
+	private int updateInterval = 100;
+	private Rectangle renderedSourceRectangle;
 
 	private IFigure sourceFigure;
 	Dimension targetSize = new Dimension(0, 0);
@@ -379,6 +516,7 @@ public class Thumbnail extends Figure implements UpdateListener {
 
 	private Dimension thumbnailImageSize;
 	private final ThumbnailUpdater updater = new ThumbnailUpdater();
+	private final DamageRepairer damageRepairer = new DamageRepairer();
 
 	/**
 	 * Creates a new Thumbnail. The source Figure must be set separately if you use
@@ -418,9 +556,63 @@ public class Thumbnail extends Figure implements UpdateListener {
 	/** Deactivates this Thumbnail. */
 	public void deactivate() {
 		sourceFigure.getUpdateManager().removeUpdateListener(this);
+		damageRepairer.clear();
 		updater.deactivate();
 	}
 
+	/**
+	 * Returns <code>true</code> if the current thumbnail image can be updated by
+	 * re-rendering the damaged tiles only. This requires a completely rendered
+	 * image, which was rendered at the current size and for the current source
+	 * rectangle.
+	 */
+	private boolean canRepairDamage() {
+		return !isDirty() && !updater.isRunning() && thumbnailImage != null && targetSize.equals(thumbnailImageSize)
+				&& getSourceRectangle().equals(renderedSourceRectangle);
+	}
+
+	/**
+	 * Converts a dirty region of the given figure, as reported by the update
+	 * manager in absolute coordinates, into an area of the thumbnail image. The
+	 * update manager clips the region to the ancestors of the figure (e.g. a
+	 * viewport), but the thumbnail also shows the parts of the figure which are
+	 * clipped. If the figure is clipped by an ancestor, its whole bounds are
+	 * therefore damaged.
+	 */
+	private Rectangle getThumbnailDamage(IFigure figure, Rectangle dirtyRegion) {
+		Rectangle area = dirtyRegion.getCopy();
+		Rectangle bounds = figure.getBounds().getCopy();
+		figure.translateToAbsolute(bounds);
+		Rectangle visible = figure.getBounds().getCopy();
+		IFigure walker = figure.getParent();
+		while (walker != null && !visible.isEmpty()) {
+			walker.translateToParent(visible);
+			visible.intersect(walker.getBounds());
+			walker = walker.getParent();
+		}
+		if (!visible.equals(bounds)) {
+			area = bounds;
+		}
+		if (sourceFigure.getParent() != null) {
+			sourceFigure.getParent().translateToRelative(area);
+		}
+		area.translate(getSourceRectangle().getLocation().negate());
+		area.scale(getScaleX(), getScaleY());
+		// compensate for rounding and anti-aliasing
+		return area.expand(2, 2);
+	}
+
+	/**
+	 * Returns the minimum time between two incremental updates of the thumbnail
+	 * image.
+	 *
+	 * @return the update interval in milliseconds
+	 * @since 3.17
+	 */
+	public int getUpdateInterval() {
+		return updateInterval;
+	}
+
 	/**
 	 * Returns the preferred size of this Thumbnail. The preferred size will be
 	 * calculated in a way that maintains the source Figure's aspect ratio.
@@ -523,15 +715,29 @@ public class Thumbnail extends Figure implements UpdateListener {
 	 */
 	@Override
 	public void notifyPainting(Rectangle damage, Map<IFigure, Rectangle> dirtyRegions) {
-		for (IFigure current : dirtyRegions.keySet()) {
-			while (current != null) {
-				if (current == getSource()) {
-					setDirty(true);
-					repaint();
-					return;
-				}
+		if (isDirty()) {
+			return;
+		}
+		boolean damaged = false;
+		for (Map.Entry<IFigure, Rectangle> entry : dirtyRegions.entrySet()) {
+			IFigure current = entry.getKey();
+			while (current != null && current != getSource()) {
 				current = current.getParent();
 			}
+			if (current == null) {
+				continue;
+			}
+			if (!canRepairDamage()) {
+				damageRepairer.clear();
+				setDirty(true);
+				repaint();
+				return;
+			}
+			damageRepairer.addDamage(getThumbnailDamage(entry.getKey(), entry.getValue()));
+			damaged = true;
+		}
+		if (damaged) {
+			damageRepairer.schedule();
 		}
 	}
 
@@ -565,6 +771,18 @@ public class Thumbnail extends Figure implements UpdateListener {
 		isDirty = value;
 	}
 
+	/**
+	 * Sets the minimum time between two incremental updates of the thumbnail
+	 * image. While the source figure changes continuously, e.g. during a drag, the
+	 * damaged tiles are accumulated and re-rendered at most once per interval.
+	 *
+	 * @param millis the update interval in milliseconds
+	 * @since 3.17
+	 */
+	public void setUpdateInterval(int millis) {
+		updateInterval = Math.max(0, millis);
+	}
+
 	/**
 	 * Sets the X and Y scales for the Thumbnail. These scales represent the ratio
 	 * between the source figure and the Thumbnail.
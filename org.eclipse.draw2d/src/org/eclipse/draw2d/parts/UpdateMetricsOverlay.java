@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.parts;
+
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Color;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.LineBorder;
+import org.eclipse.draw2d.UpdateListener;
+import org.eclipse.draw2d.UpdateManager;
+import org.eclipse.draw2d.UpdateMetrics;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * A figure which shows the {@link UpdateMetrics} of the update manager it is
+ * displayed by. It shows the breakdown of the last update cycle and a histogram
+ * of the durations of the recent cycles. The overlay is typically added to the
+ * topmost layer of a canvas while profiling.
+ * <P>
+ * The recording of metrics is enabled while the overlay is showing. Cycles
+ * which only repaint the overlay itself are not taken into account.
+ *
+ * @since 3.17
+ */
+public class UpdateMetricsOverlay extends Figure implements UpdateListener {
+
+	/**
+	 * The upper bounds of the histogram buckets in milliseconds. The last bucket
+	 * holds all longer cycles.
+	 */
+	private static final int[] BUCKET_BOUNDS = { 1, 2, 4, 8, 16, 33, 66 };
+	private static final int SAMPLE_COUNT = 120;
+	private static final int PADDING = 4;
+
+	private final long[] samples = new long[SAMPLE_COUNT];
+	private int sampleCount;
+	private int nextSample;
+	private UpdateMetrics lastMetrics;
+	private boolean selfInduced;
+
+	private UpdateManager updateManager;
+	private boolean metricsWereEnabled;
+
+	/**
+	 * Creates a new overlay, which is painted in the colors of its parent.
+	 */
+	public UpdateMetricsOverlay() {
+		setOpaque(true);
+		setBorder(new LineBorder());
+		setPreferredSize(new Dimension(300, 140));
+	}
+
+	/**
+	 * Hooks the overlay to the update manager and enables the recording of
+	 * metrics.
+	 *
+	 * @see org.eclipse.draw2d.Figure#addNotify()
+	 */
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		updateManager = getUpdateManager();
+		metricsWereEnabled = updateManager.isMetricsEnabled();
+		updateManager.setMetricsEnabled(true);
+		updateManager.addUpdateListener(this);
+	}
+
+	/**
+	 * Unhooks the overlay and restores the recording of metrics.
+	 *
+	 * @see org.eclipse.draw2d.Figure#removeNotify()
+	 */
+	@Override
+	public void removeNotify() {
+		updateManager.removeUpdateListener(this);
+		updateManager.setMetricsEnabled(metricsWereEnabled);
+		updateManager = null;
+		super.removeNotify();
+	}
+
+	/**
+	 * Returns the number of recent cycles per bucket of the histogram. The buckets
+	 * hold the cycles which took less than 1, 2, 4, 8, 16, 33 and 66 milliseconds,
+	 * and the last bucket all longer cycles.
+	 *
+	 * @return the histogram of the durations of the recent cycles
+	 */
+	public int[] getHistogram() {
+		int[] histogram = new int[BUCKET_BOUNDS.length + 1];
+		for (int i = 0; i < sampleCount; i++) {
+			histogram[getBucket(samples[i])]++;
+		}
+		return histogram;
+	}
+
+	private static int getBucket(long time) {
+		int bucket = 0;
+		while (bucket < BUCKET_BOUNDS.length && time >= BUCKET_BOUNDS[bucket] * 1_000_000L) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	/**
+	 * Returns the metrics of the last cycle shown by the overlay.
+	 *
+	 * @return the last metrics or <code>null</code> if no cycle has been recorded
+	 */
+	public UpdateMetrics getLastMetrics() {
+		return lastMetrics;
+	}
+
+	/**
+	 * Discards the recorded cycles.
+	 */
+	public void reset() {
+		sampleCount = 0;
+		nextSample = 0;
+		lastMetrics = null;
+		repaint();
+	}
+
+	/**
+	 * @see UpdateListener#notifyPainting(Rectangle, Map)
+	 */
+	@Override
+	public void notifyPainting(Rectangle damage, Map<IFigure, Rectangle> dirtyRegions) {
+		selfInduced = dirtyRegions.size() == 1 && dirtyRegions.containsKey(this);
+	}
+
+	/**
+	 * @see UpdateListener#notifyValidating()
+	 */
+	@Override
+	public void notifyValidating() {
+		// metrics are only recorded when the cycle is complete
+	}
+
+	/**
+	 * Records the metrics, unless the cycle only repainted the overlay, and
+	 * repaints the overlay.
+	 *
+	 * @see UpdateListener#notifyUpdated(UpdateMetrics)
+	 */
+	@Override
+	public void notifyUpdated(UpdateMetrics metrics) {
+		if (selfInduced && metrics.getInvalidFigureCount() == 0) {
+			selfInduced = false;
+			return;
+		}
+		selfInduced = false;
+		lastMetrics = metrics;
+		samples[nextSample] = metrics.getTotalTime();
+		nextSample = (nextSample + 1) % SAMPLE_COUNT;
+		sampleCount = Math.min(sampleCount + 1, SAMPLE_COUNT);
+		repaint();
+	}
+
+	/**
+	 * @see org.eclipse.draw2d.Figure#paintFigure(Graphics)
+	 */
+	@Override
+	protected void paintFigure(Graphics graphics) {
+		super.paintFigure(graphics);
+		Rectangle area = getClientArea().shrink(PADDING, PADDING);
+		int lineHeight = graphics.getFontMetrics().getHeight();
+		int x = area.x;
+		int y = area.y;
+		if (lastMetrics != null) {
+			graphics.drawText(String.format("%.1f ms: validate %.1f, route %.1f (%d), repair %.1f", //$NON-NLS-1$
+					toMillis(lastMetrics.getTotalTime()), toMillis(lastMetrics.getValidationTime()),
+					toMillis(lastMetrics.getRoutingTime()), Integer.valueOf(lastMetrics.getRouteCount()),
+					toMillis(lastMetrics.getRepairTime())), x, y);
+			graphics.drawText(String.format("%d invalid, %d dirty, %d painted (%d px)", //$NON-NLS-1$
+					Integer.valueOf(lastMetrics.getInvalidFigureCount()),
+					Integer.valueOf(lastMetrics.getDirtyRegionCount()),
+					Integer.valueOf(lastMetrics.getPaintedRectangleCount()),
+					Long.valueOf(lastMetrics.getPaintedArea())), x, y + lineHeight);
+		}
+
+		int[] histogram = getHistogram();
+		int max = 1;
+		for (int count : histogram) {
+			max = Math.max(max, count);
+		}
+		int top = y + 2 * lineHeight + PADDING;
+		int bottom = area.bottom() - lineHeight;
+		int barWidth = area.width / histogram.length;
+		for (int i = 0; i < histogram.length; i++) {
+			int left = x + i * barWidth;
+			int height = (bottom - top) * histogram[i] / max;
+			graphics.setBackgroundColor(getBucketColor(i));
+			graphics.fillRectangle(left + 1, bottom - height, barWidth - 2, height);
+			String label = i < BUCKET_BOUNDS.length ? "<" + BUCKET_BOUNDS[i] //$NON-NLS-1$
+					: BUCKET_BOUNDS[i - 1] + "+"; //$NON-NLS-1$
+			graphics.drawText(label, left + 1, bottom);
+		}
+	}
+
+	private static Double toMillis(long time) {
+		return Double.valueOf(time / 1_000_000d);
+	}
+
+	private static Color getBucketColor(int bucket) {
+		// cycles up to 16ms allow 60 frames per second, up to 33ms 30 frames
+		if (bucket <= 4) {
+			return ColorConstants.darkGreen;
+		}
+		return bucket == 5 ? ColorConstants.orange : ColorConstants.red;
+	}
+
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Runs the benchmarks with the JMH command line. Unless another result format
+ * is given with <code>-rf</code>, the results are written as JSON to
+ * <code>jmh-result.json</code>, or to the file given with <code>-rff</code>,
+ * so that they can be collected by a build server to track trends.
+ */
+public final class BenchmarkMain {
+
+	private BenchmarkMain() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		List<String> arguments = new ArrayList<>(Arrays.asList(args));
+		if (!arguments.contains("-rf")) { //$NON-NLS-1$
+			arguments.addAll(0, List.of("-rf", "json")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		Main.main(arguments.toArray(new String[arguments.size()]));
+	}
+
+}
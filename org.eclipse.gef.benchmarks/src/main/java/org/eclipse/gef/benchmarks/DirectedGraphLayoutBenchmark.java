@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DirectedGraphLayout} of random connected graphs. A new graph
+ * and layout are created for each invocation, as the layout modifies the graph.
+ * Does not need a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DirectedGraphLayoutBenchmark {
+
+	@Param({ "100", "1000", "5000" })
+	public int nodes;
+
+	@Param({ "4", "45" })
+	public int crossingReductionIterations;
+
+	/**
+	 * The {@link DirectedGraphLayout#setNetworkSimplexSearchBudget(int) search
+	 * budget} of the network simplex, unlimited by default.
+	 */
+	@Param({ "0" })
+	public int networkSimplexSearchBudget;
+
+	private DirectedGraph graph;
+	private DirectedGraphLayout layout;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		graph = Models.createGraph(nodes);
+		layout = new DirectedGraphLayout();
+		layout.setCrossingReductionIterations(crossingReductionIterations);
+		layout.setNetworkSimplexSearchBudget(networkSimplexSearchBudget);
+	}
+
+	@Benchmark
+	public DirectedGraph layout() {
+		layout.visit(graph);
+		return graph;
+	}
+
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link IFigure#findFigureAt(int, int)} at random locations of a grid
+ * of figures, with and without the spatial index of the children. Does not
+ * need a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FindFigureBenchmark {
+
+	private static final int LOCATIONS = 1024;
+
+	@Param({ "100", "1000", "10000" })
+	public int children;
+
+	@Param({ "false", "true" })
+	public boolean spatialIndex;
+
+	private IFigure root;
+	private final int[] x = new int[LOCATIONS];
+	private final int[] y = new int[LOCATIONS];
+	private int next;
+
+	@Setup
+	public void setUp() {
+		root = Models.createFigureGrid(children);
+		((Figure) root).setSpatialIndexEnabled(spatialIndex);
+		Rectangle bounds = root.getBounds();
+		Random random = new Random(children);
+		for (int i = 0; i < LOCATIONS; i++) {
+			x[i] = bounds.x + random.nextInt(bounds.width);
+			y[i] = bounds.y + random.nextInt(bounds.height);
+		}
+	}
+
+	@Benchmark
+	public IFigure findFigureAt() {
+		int i = next++ & (LOCATIONS - 1);
+		return root.findFigureAt(x[i], y[i]);
+	}
+
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.RectangleFigure;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.Node;
+import org.eclipse.draw2d.graph.Path;
+
+import org.eclipse.zest.layouts.LayoutEntity;
+import org.eclipse.zest.layouts.LayoutRelationship;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Creates the synthetic models of the benchmarks. The size of each model is
+ * given by a single number, and models of the same size are always the same,
+ * so that the results of different runs can be compared.
+ */
+final class Models {
+
+	/** The size of a cell of the grids created by this class. */
+	static final int CELL = 40;
+
+	private Models() {
+	}
+
+	/**
+	 * Returns the number of columns of a square grid with the given number of
+	 * cells.
+	 */
+	static int columns(int cells) {
+		return (int) Math.ceil(Math.sqrt(cells));
+	}
+
+	/**
+	 * Creates a figure with the given number of rectangles as children, which
+	 * are arranged in a square grid.
+	 */
+	static IFigure createFigureGrid(int children) {
+		int columns = columns(children);
+		IFigure root = new Figure();
+		root.setOpaque(true);
+		root.setBounds(new Rectangle(0, 0, columns * CELL, columns * CELL));
+		for (int i = 0; i < children; i++) {
+			IFigure child = new RectangleFigure();
+			child.setBounds(new Rectangle(i % columns * CELL + 5, i / columns * CELL + 5, CELL - 10, CELL - 10));
+			root.add(child);
+		}
+		return root;
+	}
+
+	/**
+	 * Creates a connected, mostly layered graph, in which each node has an edge
+	 * from a node created shortly before it and sometimes a further edge from a
+	 * node created a little earlier.
+	 */
+	static DirectedGraph createGraph(int nodes) {
+		Random random = new Random(nodes);
+		DirectedGraph graph = new DirectedGraph();
+		for (int i = 0; i < nodes; i++) {
+			Node node = new Node(Integer.valueOf(i));
+			node.width = 20 + random.nextInt(60);
+			node.height = 20 + random.nextInt(20);
+			if (i > 0) {
+				graph.edges.add(new Edge(graph.nodes.get(Math.max(0, i - 1 - random.nextInt(20))), node));
+			}
+			if (i > 1 && random.nextInt(3) == 0) {
+				graph.edges.add(new Edge(graph.nodes.get(Math.max(0, i - 1 - random.nextInt(50))), node));
+			}
+			graph.nodes.add(node);
+		}
+		return graph;
+	}
+
+	/**
+	 * Creates the given number of obstacles, which are arranged in a square grid
+	 * with randomly sized gaps.
+	 */
+	static List<Rectangle> createObstacles(int obstacles) {
+		Random random = new Random(obstacles);
+		int columns = columns(obstacles);
+		List<Rectangle> result = new ArrayList<>(obstacles);
+		for (int i = 0; i < obstacles; i++) {
+			int width = CELL / 2 + random.nextInt(CELL / 4);
+			int height = CELL / 2 + random.nextInt(CELL / 4);
+			result.add(new Rectangle(i % columns * CELL, i / columns * CELL, width, height));
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the given number of paths between random points of the gaps of the
+	 * grid of {@link #createObstacles(int)}.
+	 */
+	static List<Path> createPaths(int obstacles, int paths) {
+		Random random = new Random(paths);
+		int columns = columns(obstacles);
+		List<Path> result = new ArrayList<>(paths);
+		for (int i = 0; i < paths; i++) {
+			result.add(new Path(gap(random, columns), gap(random, columns)));
+		}
+		return result;
+	}
+
+	private static Point gap(Random random, int columns) {
+		return new Point(random.nextInt(columns) * CELL - CELL / 8, random.nextInt(columns) * CELL - CELL / 8);
+	}
+
+	/**
+	 * Creates the given number of Zest layout entities.
+	 */
+	static LayoutEntity[] createEntities(int nodes) {
+		LayoutEntity[] entities = new LayoutEntity[nodes];
+		for (int i = 0; i < nodes; i++) {
+			entities[i] = new SimpleNode(Integer.valueOf(i), 0, 0, CELL, CELL / 2);
+		}
+		return entities;
+	}
+
+	/**
+	 * Creates the relationships of a tree over the given entities, in which each
+	 * entity is the child of an entity created shortly before it, and a few
+	 * further relationships from entities created a little earlier.
+	 */
+	static LayoutRelationship[] createRelationships(LayoutEntity[] entities) {
+		Random random = new Random(entities.length);
+		List<LayoutRelationship> result = new ArrayList<>();
+		for (int i = 1; i < entities.length; i++) {
+			result.add(new SimpleRelationship(entities[Math.max(0, i - 1 - random.nextInt(20))], entities[i], false));
+			if (random.nextInt(10) == 0) {
+				result.add(new SimpleRelationship(entities[Math.max(0, i - 1 - random.nextInt(50))], entities[i],
+						false));
+			}
+		}
+		return result.toArray(new LayoutRelationship[result.size()]);
+	}
+
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base class of the benchmarks which paint into an offscreen image. They need a
+ * display, which on Linux can be provided by Xvfb. As SWT must be accessed from
+ * the thread which created the display, subclasses must be states of
+ * {@link org.openjdk.jmh.annotations.Scope#Thread thread scope}.
+ */
+public abstract class OffscreenBenchmark {
+
+	/** The width and height of the offscreen image. */
+	static final int IMAGE_SIZE = 1024;
+
+	Display display;
+	Image image;
+	GC gc;
+
+	@Setup
+	public void createImage() {
+		display = Display.getDefault();
+		image = new Image(display, IMAGE_SIZE, IMAGE_SIZE);
+		gc = new GC(image);
+	}
+
+	@TearDown
+	public void disposeImage() {
+		gc.dispose();
+		image.dispose();
+		display.dispose();
+	}
+
+}
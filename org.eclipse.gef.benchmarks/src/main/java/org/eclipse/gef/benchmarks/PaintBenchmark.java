@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.SWTGraphics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link IFigure#paint(org.eclipse.draw2d.Graphics)} of a grid of
+ * figures into an offscreen image, which shows the top left part of the grid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PaintBenchmark extends OffscreenBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int children;
+
+	@Param({ "false", "true" })
+	public boolean spatialIndex;
+
+	private IFigure root;
+
+	@Setup
+	public void setUp() {
+		root = Models.createFigureGrid(children);
+		((Figure) root).setSpatialIndexEnabled(spatialIndex);
+	}
+
+	@Benchmark
+	public void paint() {
+		gc.setClipping(0, 0, IMAGE_SIZE, IMAGE_SIZE);
+		SWTGraphics graphics = new SWTGraphics(gc);
+		try {
+			root.paint(graphics);
+		} finally {
+			graphics.dispose();
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.XYLayout;
+
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link AbstractGraphicalEditPart#refreshChildren()} after changes of
+ * the model children of an edit part. The edit parts are not registered with a
+ * viewer, so that the benchmark does not need a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RefreshChildrenBenchmark {
+
+	private static class ChildEditPart extends AbstractGraphicalEditPart {
+		ChildEditPart(Object model) {
+			setModel(model);
+		}
+
+		@Override
+		protected IFigure createFigure() {
+			return new Figure();
+		}
+
+		@Override
+		protected void createEditPolicies() {
+		}
+
+		@Override
+		protected void register() {
+		}
+
+		@Override
+		protected void unregister() {
+		}
+	}
+
+	private static class ParentEditPart extends ChildEditPart {
+		private final List<Object> modelChildren = new ArrayList<>();
+
+		ParentEditPart() {
+			super("parent"); //$NON-NLS-1$
+		}
+
+		@Override
+		protected IFigure createFigure() {
+			IFigure figure = new Figure();
+			figure.setLayoutManager(new XYLayout());
+			return figure;
+		}
+
+		@Override
+		protected List<?> getModelChildren() {
+			return modelChildren;
+		}
+
+		@Override
+		protected ChildEditPart createChild(Object model) {
+			return new ChildEditPart(model);
+		}
+
+		@Override
+		public void refreshChildren() {
+			super.refreshChildren();
+		}
+	}
+
+	@Param({ "100", "1000", "10000" })
+	public int children;
+
+	private ParentEditPart parent;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		parent = new ParentEditPart();
+		for (int i = 0; i < children; i++) {
+			parent.modelChildren.add(Integer.valueOf(i));
+		}
+		parent.refreshChildren();
+	}
+
+	/**
+	 * Moves a single model child, as a reorder command does.
+	 */
+	@Benchmark
+	public void moveChild() {
+		List<Object> model = parent.modelChildren;
+		model.add(model.remove(next++ % model.size()));
+		parent.refreshChildren();
+	}
+
+	/**
+	 * Adds a model child and removes another one.
+	 */
+	@Benchmark
+	public void replaceChild() {
+		List<Object> model = parent.modelChildren;
+		model.remove(next % model.size());
+		model.add(Integer.valueOf(children + next++));
+		parent.refreshChildren();
+	}
+
+	/**
+	 * Reverses the order of all model children.
+	 */
+	@Benchmark
+	public void reverseChildren() {
+		Collections.reverse(parent.modelChildren);
+		parent.refreshChildren();
+	}
+
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.graph.Path;
+import org.eclipse.draw2d.graph.ShortestPathRouter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ShortestPathRouter#solve()} for paths through a grid of
+ * obstacles. {@link #solveAll()} adds the obstacles and paths to a new router
+ * and routes all paths, and {@link #solveAfterMove()} reroutes the paths
+ * affected by moving a single obstacle, as happens while dragging a figure.
+ * Does not need a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShortestPathRouterBenchmark {
+
+	@Param({ "100", "400", "1600" })
+	public int obstacles;
+
+	@Param({ "10", "100" })
+	public int paths;
+
+	private List<Rectangle> obstacleBounds;
+	private ShortestPathRouter solvedRouter;
+	private Rectangle moved;
+	private int offset = 1;
+
+	@Setup
+	public void setUp() {
+		obstacleBounds = Models.createObstacles(obstacles);
+		solvedRouter = createRouter();
+		solvedRouter.solve();
+		moved = obstacleBounds.get(obstacles / 2).getCopy();
+	}
+
+	private ShortestPathRouter createRouter() {
+		ShortestPathRouter result = new ShortestPathRouter();
+		obstacleBounds.forEach(bounds -> result.addObstacle(bounds.getCopy()));
+		Models.createPaths(obstacles, paths).forEach(result::addPath);
+		return result;
+	}
+
+	@Benchmark
+	public List<Path> solveAll() {
+		return createRouter().solve();
+	}
+
+	@Benchmark
+	public List<Path> solveAfterMove() {
+		Rectangle bounds = moved.getTranslated(offset, offset);
+		solvedRouter.updateObstacle(moved, bounds);
+		moved = bounds;
+		offset = -offset;
+		return solvedRouter.solve();
+	}
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.draw2d.DeferredUpdateManager;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.GraphicsSource;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.UpdateManager;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the update cycles of a {@link DeferredUpdateManager}, in which some
+ * figures of a grid are revalidated and repainted, and the manager validates
+ * them and repairs the damage in an offscreen image. The update requests are
+ * not posted to the display, but performed directly by the benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UpdateManagerBenchmark extends OffscreenBenchmark {
+
+	@Param({ "1000", "10000" })
+	public int children;
+
+	@Param({ "1", "10", "100" })
+	public int dirtyFigures;
+
+	@Param({ "false", "true" })
+	public boolean regionRepair;
+
+	private DeferredUpdateManager manager;
+	private List<? extends IFigure> figures;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		manager = new DeferredUpdateManager() {
+			@Override
+			protected void sendUpdateRequest() {
+				// performed by the benchmark
+			}
+		};
+		manager.setRegionRepairEnabled(regionRepair);
+		manager.setGraphicsSource(new GraphicsSource() {
+			@Override
+			public Graphics getGraphics(Rectangle region) {
+				gc.setClipping(region.x, region.y, region.width, region.height);
+				return new SWTGraphics(gc);
+			}
+
+			@Override
+			public void flushGraphics(Rectangle region) {
+			}
+		});
+		IFigure grid = Models.createFigureGrid(children);
+		IFigure root = new Figure() {
+			@Override
+			public UpdateManager getUpdateManager() {
+				return manager;
+			}
+		};
+		root.setBounds(grid.getBounds());
+		root.add(grid);
+		manager.setRoot(root);
+		figures = grid.getChildren();
+	}
+
+	@Benchmark
+	public void updateCycle() {
+		for (int i = 0; i < dirtyFigures; i++) {
+			IFigure figure = figures.get(next++ % figures.size());
+			figure.revalidate();
+			figure.repaint();
+		}
+		manager.performUpdate();
+	}
+
+}
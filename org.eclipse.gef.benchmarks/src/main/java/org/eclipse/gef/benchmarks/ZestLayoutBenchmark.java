@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
+import org.eclipse.zest.layouts.LayoutAlgorithm;
+import org.eclipse.zest.layouts.LayoutEntity;
+import org.eclipse.zest.layouts.LayoutRelationship;
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.DirectedGraphLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.GridLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.RadialLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.TreeLayoutAlgorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the synchronous layout of the Zest layout algorithms. The entities
+ * and the algorithm are created for each invocation, as the algorithms keep
+ * state between layouts and must be applied on the thread which created them.
+ * Does not need a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ZestLayoutBenchmark {
+
+	@Param({ "grid", "tree", "radial", "spring", "directed" })
+	public String algorithm;
+
+	@Param({ "100", "1000" })
+	public int nodes;
+
+	private LayoutAlgorithm layout;
+	private LayoutEntity[] entities;
+	private LayoutRelationship[] relationships;
+	private double size;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		int style = LayoutStyles.NO_LAYOUT_NODE_RESIZING;
+		layout = switch (algorithm) {
+		case "grid" -> new GridLayoutAlgorithm(style); //$NON-NLS-1$
+		case "tree" -> new TreeLayoutAlgorithm(style); //$NON-NLS-1$
+		case "radial" -> new RadialLayoutAlgorithm(style); //$NON-NLS-1$
+		case "spring" -> new SpringLayoutAlgorithm(style); //$NON-NLS-1$
+		case "directed" -> new DirectedGraphLayoutAlgorithm(style); //$NON-NLS-1$
+		default -> throw new IllegalArgumentException(algorithm);
+		};
+		entities = Models.createEntities(nodes);
+		relationships = Models.createRelationships(entities);
+		size = Models.columns(nodes) * Models.CELL;
+	}
+
+	@Benchmark
+	public LayoutEntity[] applyLayout() throws InvalidLayoutConfiguration {
+		layout.applyLayout(entities, relationships, 0, 0, size, size, false, false);
+		return entities;
+	}
+
+}
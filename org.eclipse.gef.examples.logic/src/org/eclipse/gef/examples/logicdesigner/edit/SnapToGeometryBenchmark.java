@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.examples.logicdesigner.edit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.PrecisionRectangle;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.RequestConstants;
+import org.eclipse.gef.SnapToGeometry;
+import org.eclipse.gef.SnapToHelper;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.gef.requests.ChangeBoundsRequest;
+
+/**
+ * Measures the number of snap queries per second of {@link SnapToGeometry},
+ * which are made on every mouse move while dragging, depending on the number of
+ * siblings which are snapped to. The indexed search is compared to a linear
+ * scan of the same locations. Runs headless, without a display.
+ */
+public class SnapToGeometryBenchmark {
+
+	static final int[] SIBLINGS = { 100, 1000, 10000, 100000 };
+	static final int QUERIES = 100000;
+	static final int SIZE = 10000;
+
+	private static class Part extends AbstractGraphicalEditPart {
+		private final List<GraphicalEditPart> partChildren = new ArrayList<>();
+
+		Part(Rectangle bounds) {
+			getFigure().setBounds(bounds);
+		}
+
+		@Override
+		protected IFigure createFigure() {
+			return new Figure();
+		}
+
+		@Override
+		protected void createEditPolicies() {
+		}
+
+		@Override
+		public List<GraphicalEditPart> getChildren() {
+			return partChildren;
+		}
+	}
+
+	/**
+	 * Snaps by scanning all locations, as passing a copy of the entries bypasses
+	 * the index.
+	 */
+	private static class LinearSnapToGeometry extends SnapToGeometry {
+		private Entry[] scannedRows;
+		private Entry[] scannedCols;
+
+		LinearSnapToGeometry(GraphicalEditPart container) {
+			super(container);
+		}
+
+		@Override
+		protected void populateRowsAndCols(List<? extends GraphicalEditPart> parts) {
+			super.populateRowsAndCols(parts);
+			scannedRows = rows.clone();
+			scannedCols = cols.clone();
+		}
+
+		@Override
+		protected double getCorrectionFor(Entry[] entries, @SuppressWarnings("rawtypes") Map extendedData, boolean vert,
+				double value, int side) {
+			return super.getCorrectionFor(entries == rows ? scannedRows : scannedCols, extendedData, vert, value,
+					side);
+		}
+	}
+
+	static Part createContainer(int siblings) {
+		Random random = new Random(siblings);
+		Part container = new Part(new Rectangle(0, 0, SIZE, SIZE));
+		for (int i = 0; i < siblings; i++) {
+			Part child = new Part(new Rectangle(random.nextInt(SIZE), random.nextInt(SIZE), 10 + random.nextInt(100),
+					10 + random.nextInt(100)));
+			container.getFigure().add(child.getFigure());
+			container.getChildren().add(child);
+		}
+		return container;
+	}
+
+	static double run(SnapToGeometry helper, int queries) {
+		Random random = new Random(0);
+		ChangeBoundsRequest request = new ChangeBoundsRequest(RequestConstants.REQ_MOVE);
+		request.setEditParts(new ArrayList<>());
+		PrecisionRectangle base = new PrecisionRectangle();
+		PrecisionRectangle result = new PrecisionRectangle();
+		long start = System.nanoTime();
+		for (int i = 0; i < queries; i++) {
+			base.setPreciseBounds(random.nextDouble() * SIZE, random.nextDouble() * SIZE, 50, 30);
+			result.setPreciseBounds(base.preciseX(), base.preciseY(), 50, 30);
+			helper.snapRectangle(request, SnapToHelper.HORIZONTAL | SnapToHelper.VERTICAL, base, result);
+		}
+		return queries / ((System.nanoTime() - start) / 1e9);
+	}
+
+	public static void main(String[] args) {
+		System.out.println("siblings\tindexed (queries/s)\tlinear (queries/s)\tspeedup"); //$NON-NLS-1$
+		for (int siblings : SIBLINGS) {
+			Part container = createContainer(siblings);
+			SnapToGeometry indexed = new SnapToGeometry(container);
+			SnapToGeometry linear = new LinearSnapToGeometry(container);
+			int linearQueries = Math.max(100, QUERIES * 100 / siblings);
+			// warm up
+			run(indexed, QUERIES);
+			run(linear, linearQueries);
+			double indexedRate = run(indexed, QUERIES);
+			double linearRate = run(linear, linearQueries);
+			System.out.println(String.format("%d\t%.0f\t%.0f\t%.1f", Integer.valueOf(siblings), //$NON-NLS-1$
+					Double.valueOf(indexedRate), Double.valueOf(linearRate), Double.valueOf(indexedRate / linearRate)));
+		}
+	}
+
+}
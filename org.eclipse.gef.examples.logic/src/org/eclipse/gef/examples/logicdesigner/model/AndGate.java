@@ -18,11 +18,14 @@ import org.eclipse.gef.examples.logicdesigner.LogicMessages;
 
 public class AndGate extends Gate {
 
-	private static final Image AND_ICON = createImage(AndGate.class, "icons/and16.gif"); //$NON-NLS-1$
+	private static Image AND_ICON;
 	static final long serialVersionUID = 1;
 
 	@Override
 	public Image getIconImage() {
+		if (AND_ICON == null) {
+			AND_ICON = createImage(AndGate.class, "icons/and16.gif"); //$NON-NLS-1$
+		}
 		return AND_ICON;
 	}
 
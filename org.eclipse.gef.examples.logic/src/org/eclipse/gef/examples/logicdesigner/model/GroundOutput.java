@@ -18,11 +18,14 @@ import org.eclipse.gef.examples.logicdesigner.LogicMessages;
 
 public class GroundOutput extends SimpleOutput {
 
-	private static final Image GROUND_ICON = createImage(GroundOutput.class, "icons/ground16.gif"); //$NON-NLS-1$
+	private static Image GROUND_ICON;
 	static final long serialVersionUID = 1;
 
 	@Override
 	public Image getIconImage() {
+		if (GROUND_ICON == null) {
+			GROUND_ICON = createImage(GroundOutput.class, "icons/ground16.gif"); //$NON-NLS-1$
+		}
 		return GROUND_ICON;
 	}
 
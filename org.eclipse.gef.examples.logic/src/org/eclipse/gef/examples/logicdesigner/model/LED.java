@@ -30,7 +30,7 @@ public class LED extends LogicSubpart {
 
 	private static final Dimension DEFAULT_SIZE = new Dimension(61, 47);
 
-	private static final Image LED_ICON = createImage(LED.class, "icons/ledicon16.gif"); //$NON-NLS-1$
+	private static Image LED_ICON;
 	private static int count;
 	public static final String P_VALUE = "value"; //$NON-NLS-1$
 	protected static IPropertyDescriptor[] newDescriptors = null;
@@ -69,6 +69,9 @@ public class LED extends LogicSubpart {
 
 	@Override
 	public Image getIconImage() {
+		if (LED_ICON == null) {
+			LED_ICON = createImage(LED.class, "icons/ledicon16.gif"); //$NON-NLS-1$
+		}
 		return LED_ICON;
 	}
 
@@ -164,8 +167,7 @@ public class LED extends LogicSubpart {
 			bits[1] = true;
 		}
 		bits[0] = val % 2 == 1;
-		firePropertyChange(P_VALUE, null, null);
-		update();
+		scheduleUpdate();
 	}
 
 	@Override
@@ -187,7 +189,7 @@ public class LED extends LogicSubpart {
 			outputBits = this.bits;
 		}
 
-		firePropertyChange(P_VALUE, null, null);
+		LogicSimulator.getDefault().valueChanged(this);
 
 		setOutput(TERMINAL_1_OUT, outputBits[0]);
 		setOutput(TERMINAL_2_OUT, outputBits[1]);
@@ -18,11 +18,14 @@ import org.eclipse.gef.examples.logicdesigner.LogicMessages;
 
 public class LiveOutput extends SimpleOutput {
 
-	private static final Image LIVE_ICON = createImage(LiveOutput.class, "icons/live16.gif"); //$NON-NLS-1$
+	private static Image LIVE_ICON;
 	static final long serialVersionUID = 1;
 
 	@Override
 	public Image getIconImage() {
+		if (LIVE_ICON == null) {
+			LIVE_ICON = createImage(LiveOutput.class, "icons/live16.gif"); //$NON-NLS-1$
+		}
 		return LIVE_ICON;
 	}
 
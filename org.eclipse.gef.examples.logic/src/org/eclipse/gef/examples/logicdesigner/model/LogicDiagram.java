@@ -32,7 +32,7 @@ public class LogicDiagram extends LogicSubpart {
 	public static final Integer ROUTER_MANHATTAN = 1;
 	public static final Integer ROUTER_SHORTEST_PATH = 2;
 	private static int count;
-	private static final Image LOGIC_ICON = createImage(LogicDiagram.class, "icons/circuit16.gif"); //$NON-NLS-1$
+	private static Image LOGIC_ICON;
 
 	private final List<LogicElement> children = new ArrayList<>();
 	private LogicRuler leftRuler;
@@ -82,6 +82,9 @@ public class LogicDiagram extends LogicSubpart {
 
 	@Override
 	public Image getIconImage() {
+		if (LOGIC_ICON == null) {
+			LOGIC_ICON = createImage(LogicDiagram.class, "icons/circuit16.gif"); //$NON-NLS-1$
+		}
 		return LOGIC_ICON;
 	}
 
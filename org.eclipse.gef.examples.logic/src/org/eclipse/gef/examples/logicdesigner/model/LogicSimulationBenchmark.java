@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.examples.logicdesigner.model;
+
+import java.util.Random;
+
+/**
+ * Measures the {@link LogicSimulator} on large circuits: a chain of gates,
+ * which is far deeper than a recursive evaluation could handle, and layered
+ * circuits of random gates with a high fan-out, in which the same gates are
+ * reached via many paths. Each toggle of the inputs is propagated through the
+ * whole circuit. Runs headless, without a display.
+ */
+public class LogicSimulationBenchmark {
+
+	static final int GATES = 100000;
+	static final int[] LAYER_WIDTHS = { 100, 1000, 10000 };
+	static final int TOGGLES = 20;
+
+	static void connect(LogicSubpart source, String sourceTerminal, LogicSubpart target, String targetTerminal) {
+		Wire wire = new Wire();
+		wire.setSource(source);
+		wire.setSourceTerminal(sourceTerminal);
+		wire.setTarget(target);
+		wire.setTargetTerminal(targetTerminal);
+		wire.attachSource();
+		wire.attachTarget();
+	}
+
+	static Gate createGate(Random random) {
+		switch (random.nextInt(3)) {
+		case 0:
+			return new AndGate();
+		case 1:
+			return new OrGate();
+		default:
+			return new XORGate();
+		}
+	}
+
+	/**
+	 * Creates a chain of OR gates, whose second inputs are left unconnected.
+	 */
+	static LED createChain() {
+		LED input = new LED();
+		LogicSubpart previous = input;
+		String terminal = LED.TERMINAL_1_OUT;
+		for (int i = 0; i < GATES; i++) {
+			Gate gate = new OrGate();
+			connect(previous, terminal, gate, Gate.TERMINAL_A);
+			previous = gate;
+			terminal = SimpleOutput.TERMINAL_OUT;
+		}
+		return input;
+	}
+
+	/**
+	 * Creates layers of random gates, whose inputs are connected to random gates
+	 * of the previous layer. The gates of the first layer pass on the bits of the
+	 * input.
+	 */
+	static LED createLayers(int width) {
+		Random random = new Random(width);
+		LED input = new LED();
+		String[] inputTerminals = { LED.TERMINAL_1_OUT, LED.TERMINAL_2_OUT, LED.TERMINAL_3_OUT, LED.TERMINAL_4_OUT };
+		Gate[] previous = new Gate[width];
+		for (int i = 0; i < width; i++) {
+			previous[i] = new OrGate();
+			connect(input, inputTerminals[i % 4], previous[i], Gate.TERMINAL_A);
+		}
+		for (int layer = 1; layer < GATES / width; layer++) {
+			Gate[] gates = new Gate[width];
+			for (int i = 0; i < width; i++) {
+				gates[i] = createGate(random);
+				connect(previous[random.nextInt(width)], SimpleOutput.TERMINAL_OUT, gates[i], Gate.TERMINAL_A);
+				connect(previous[random.nextInt(width)], SimpleOutput.TERMINAL_OUT, gates[i], Gate.TERMINAL_B);
+			}
+			previous = gates;
+		}
+		return input;
+	}
+
+	static void run(String name, LED input) {
+		LogicSimulator simulator = LogicSimulator.getDefault();
+		long evaluations = simulator.getEvaluations();
+		long start = System.nanoTime();
+		for (int i = 1; i <= TOGGLES; i++) {
+			input.setValue(i % 16);
+		}
+		double millis = (System.nanoTime() - start) / 1e6 / TOGGLES;
+		double perToggle = (double) (simulator.getEvaluations() - evaluations) / TOGGLES;
+		System.out.println(String.format("%s\t%.2f\t%.0f\t%.2f", name, Double.valueOf(millis), //$NON-NLS-1$
+				Double.valueOf(perToggle), Double.valueOf(perToggle / GATES)));
+	}
+
+	public static void main(String[] args) {
+		System.out.println("circuit\ttoggle (ms)\tevaluations per toggle\tevaluations per gate"); //$NON-NLS-1$
+		LED chain = createChain();
+		// warm up
+		run("chain", chain); //$NON-NLS-1$
+		run("chain", chain); //$NON-NLS-1$
+		for (int width : LAYER_WIDTHS) {
+			run("layers of " + width, createLayers(width)); //$NON-NLS-1$
+		}
+	}
+
+}
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.examples.logicdesigner.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An event-driven simulator for the logic model. Instead of evaluating a part
+ * recursively whenever one of its inputs changes, parts are scheduled into a
+ * queue, which is drained in ticks.
+ * <P>
+ * Within a tick, the scheduled parts are evaluated in the order of their level,
+ * which is the length of the longest path of wires leading to a part. A part is
+ * therefore evaluated after all of its scheduled predecessors, and at most once
+ * per tick. A part whose inputs change after it has been evaluated, which
+ * happens in circuits with feedback, is deferred to the next tick. Circuits
+ * which oscillate are stopped after {@link #MAX_TICKS} ticks.
+ * <P>
+ * The <code>"value"</code> property changes of wires and LEDs are recorded
+ * during a simulation and fired once per element when it has settled.
+ * <P>
+ * If the evaluation of a part throws an exception, the simulation is abandoned
+ * and the recorded changes are discarded, so that the next simulation starts
+ * from a clean queue.
+ * <P>
+ * Like the rest of the model, the simulator is not thread-safe.
+ */
+final class LogicSimulator {
+
+	/**
+	 * The maximum number of ticks of a single simulation.
+	 */
+	static final int MAX_TICKS = 1000;
+
+	private static final LogicSimulator INSTANCE = new LogicSimulator();
+
+	// The parts scheduled for the current tick, bucketed by level
+	private final List<List<LogicSubpart>> buckets = new ArrayList<>();
+	private final List<LogicSubpart> deferred = new ArrayList<>();
+	private final Set<LogicElement> changed = new LinkedHashSet<>();
+	private final ArrayDeque<LogicSubpart> levelNodes = new ArrayDeque<>();
+	private final ArrayDeque<Iterator<Wire>> levelInputs = new ArrayDeque<>();
+	private int minLevel;
+	private int size;
+	private int tick = 1;
+	private int structureStamp = 1;
+	private boolean running;
+	private long evaluations;
+
+	private LogicSimulator() {
+	}
+
+	static LogicSimulator getDefault() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Keeps the levels consistent with a wire which has been connected to its
+	 * target. The levels are only invalidated if the wire leads to a part whose
+	 * level is not above the level of the wire's source. Disconnecting a wire never
+	 * invalidates the levels, which merely may become higher than necessary.
+	 *
+	 * @param wire the wire
+	 */
+	void wireConnected(Wire wire) {
+		LogicSubpart source = wire.getSource();
+		LogicSubpart target = wire.getTarget();
+		if (source == null || target == null || target.levelStamp != structureStamp) {
+			// The level of the target is computed when it is needed
+			return;
+		}
+		if (source.levelStamp != structureStamp || source.level >= target.level) {
+			structureStamp++;
+		}
+	}
+
+	/**
+	 * Schedules the given part for evaluation. Unless a simulation is already in
+	 * progress, the part is evaluated, and the changes are propagated, before this
+	 * method returns.
+	 *
+	 * @param part the part
+	 */
+	void schedule(LogicSubpart part) {
+		if (running) {
+			enqueue(part);
+		} else {
+			simulate(part);
+		}
+	}
+
+	/**
+	 * Records that the value of the given element has changed. If the element is
+	 * a wire, its target is scheduled for evaluation.
+	 *
+	 * @param element the wire or LED
+	 */
+	void valueChanged(LogicElement element) {
+		changed.add(element);
+		LogicSubpart target = element instanceof Wire wire ? wire.getTarget() : null;
+		if (!running) {
+			simulate(target);
+		} else if (target != null) {
+			enqueue(target);
+		}
+	}
+
+	/**
+	 * @return the number of parts evaluated so far
+	 */
+	long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Runs a simulation starting with the given part, which may be
+	 * <code>null</code>. The part is only scheduled once the simulation has
+	 * started, so that a failure to compute its level is discarded like a failure
+	 * to evaluate it.
+	 */
+	private void simulate(LogicSubpart first) {
+		running = true;
+		boolean completed = false;
+		try {
+			if (first != null) {
+				enqueue(first);
+			}
+			int ticks = 0;
+			while (size > 0) {
+				while (size > 0) {
+					LogicSubpart part = poll();
+					part.simulationTick = tick;
+					evaluations++;
+					part.update();
+				}
+				tick++;
+				if (++ticks == MAX_TICKS) {
+					// Oscillating, leave the circuit in its current state
+					deferred.forEach(part -> part.deferred = false);
+					deferred.clear();
+				}
+				for (LogicSubpart part : deferred) {
+					part.deferred = false;
+					enqueue(part);
+				}
+				deferred.clear();
+			}
+			completed = true;
+		} finally {
+			running = false;
+			if (!completed) {
+				discard();
+			}
+		}
+		// Listeners may change the model again, which starts a new simulation
+		List<LogicElement> elements = new ArrayList<>(changed);
+		changed.clear();
+		for (LogicElement element : elements) {
+			element.firePropertyChange("value", null, null); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Empties the queue after a part has failed to evaluate, or its level has
+	 * failed to be computed. The tick is advanced, so that the parts evaluated so
+	 * far are not deferred by the next simulation. The structure stamp is advanced
+	 * as well, as parts left behind by an aborted computation of the levels would
+	 * otherwise be taken for members of a cycle.
+	 */
+	private void discard() {
+		for (List<LogicSubpart> bucket : buckets) {
+			bucket.forEach(part -> part.queued = false);
+			bucket.clear();
+		}
+		size = 0;
+		minLevel = 0;
+		deferred.forEach(part -> part.deferred = false);
+		deferred.clear();
+		changed.clear();
+		levelNodes.clear();
+		levelInputs.clear();
+		tick++;
+		structureStamp++;
+	}
+
+	private void enqueue(LogicSubpart part) {
+		if (part.simulationTick == tick) {
+			if (!part.deferred) {
+				part.deferred = true;
+				deferred.add(part);
+			}
+			return;
+		}
+		if (part.queued) {
+			return;
+		}
+		// Only marked once the level is known, as computing it may fail
+		int level = getLevel(part);
+		part.queued = true;
+		while (buckets.size() <= level) {
+			buckets.add(new ArrayList<>());
+		}
+		buckets.get(level).add(part);
+		if (size++ == 0 || level < minLevel) {
+			minLevel = level;
+		}
+	}
+
+	private LogicSubpart poll() {
+		List<LogicSubpart> bucket = buckets.get(minLevel);
+		while (bucket.isEmpty()) {
+			bucket = buckets.get(++minLevel);
+		}
+		LogicSubpart part = bucket.remove(bucket.size() - 1);
+		part.queued = false;
+		size--;
+		return part;
+	}
+
+	/**
+	 * Returns the level of the given part, computing the levels of it and its
+	 * predecessors if the structure has changed. Wires closing a cycle are
+	 * ignored. The traversal is iterative, as paths may be very long.
+	 */
+	private int getLevel(LogicSubpart part) {
+		if (part.levelStamp == structureStamp) {
+			return part.level;
+		}
+		visit(part);
+		while (!levelNodes.isEmpty()) {
+			LogicSubpart node = levelNodes.peek();
+			Iterator<Wire> inputs = levelInputs.peek();
+			if (inputs.hasNext()) {
+				LogicSubpart source = inputs.next().getSource();
+				if (source == null || source.levelStamp == -structureStamp) {
+					continue;
+				}
+				if (source.levelStamp != structureStamp) {
+					visit(source);
+				} else {
+					node.level = Math.max(node.level, source.level + 1);
+				}
+			} else {
+				node.levelStamp = structureStamp;
+				levelNodes.pop();
+				levelInputs.pop();
+				if (!levelNodes.isEmpty()) {
+					LogicSubpart successor = levelNodes.peek();
+					successor.level = Math.max(successor.level, node.level + 1);
+				}
+			}
+		}
+		return part.level;
+	}
+
+	private void visit(LogicSubpart part) {
+		part.levelStamp = -structureStamp;
+		part.level = 0;
+		levelNodes.push(part);
+		levelInputs.push(part.inputs.values().iterator());
+	}
+
+}
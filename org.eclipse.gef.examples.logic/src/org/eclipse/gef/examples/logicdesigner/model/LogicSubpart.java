@@ -40,6 +40,13 @@ public abstract class LogicSubpart extends LogicElement {
 	static final long serialVersionUID = 1;
 	protected Dimension size = new Dimension(-1, -1);
 
+	// The state of this part in the LogicSimulator
+	transient int level;
+	transient int levelStamp;
+	transient int simulationTick;
+	transient boolean queued;
+	transient boolean deferred;
+
 	protected static IPropertyDescriptor[] descriptors = null;
 	public static final String ID_SIZE = "size"; //$NON-NLS-1$
 	public static final String ID_LOCATION = "location"; //$NON-NLS-1$
@@ -66,25 +73,26 @@ public abstract class LogicSubpart extends LogicElement {
 
 	public void connectInput(Wire w) {
 		inputs.put(w.getTargetTerminal(), w);
-		update();
+		LogicSimulator.getDefault().wireConnected(w);
+		scheduleUpdate();
 		fireStructureChange(INPUTS, w);
 	}
 
 	public void connectOutput(Wire w) {
 		outputs.add(w);
-		update();
+		scheduleUpdate();
 		fireStructureChange(OUTPUTS, w);
 	}
 
 	public void disconnectInput(Wire w) {
 		inputs.remove(w.getTargetTerminal());
-		update();
+		scheduleUpdate();
 		fireStructureChange(INPUTS, w);
 	}
 
 	public void disconnectOutput(Wire w) {
 		outputs.remove(w);
-		update();
+		scheduleUpdate();
 		fireStructureChange(OUTPUTS, w);
 	}
 
@@ -204,6 +212,15 @@ public abstract class LogicSubpart extends LogicElement {
 		firePropertyChange("location", null, p); //$NON-NLS-1$
 	}
 
+	/**
+	 * Schedules this part for evaluation by the simulator. Unless a simulation is
+	 * in progress, the part is updated, and the changes are propagated through the
+	 * circuit, before this method returns.
+	 */
+	protected void scheduleUpdate() {
+		LogicSimulator.getDefault().schedule(this);
+	}
+
 	protected void setOutput(String terminal, boolean val) {
 		outputs.stream().filter(w -> (w.getSourceTerminal().equals(terminal) && this.equals(w.getSource())))
 				.forEach(w -> w.setValue(val));
@@ -18,11 +18,14 @@ import org.eclipse.gef.examples.logicdesigner.LogicMessages;
 
 public class OrGate extends Gate {
 
-	private static final Image OR_ICON = createImage(OrGate.class, "icons/or16.gif"); //$NON-NLS-1$
+	private static Image OR_ICON;
 	static final long serialVersionUID = 1;
 
 	@Override
 	public Image getIconImage() {
+		if (OR_ICON == null) {
+			OR_ICON = createImage(OrGate.class, "icons/or16.gif"); //$NON-NLS-1$
+		}
 		return OR_ICON;
 	}
 
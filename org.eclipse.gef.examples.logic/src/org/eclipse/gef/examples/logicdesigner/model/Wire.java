@@ -126,10 +126,7 @@ public class Wire extends LogicElement {
 			return;
 		}
 		this.value = value;
-		if (target != null) {
-			target.update();
-		}
-		firePropertyChange("value", null, null);//$NON-NLS-1$
+		LogicSimulator.getDefault().valueChanged(this);
 	}
 
 	@Override
@@ -19,10 +19,13 @@ import org.eclipse.gef.examples.logicdesigner.LogicMessages;
 public class XORGate extends Gate {
 
 	static final long serialVersionUID = 1;
-	private static final Image XOR_ICON = createImage(XORGate.class, "icons/xor16.gif"); //$NON-NLS-1$
+	private static Image XOR_ICON;
 
 	@Override
 	public Image getIconImage() {
+		if (XOR_ICON == null) {
+			XOR_ICON = createImage(XORGate.class, "icons/xor16.gif"); //$NON-NLS-1$
+		}
 		return XOR_ICON;
 	}
 
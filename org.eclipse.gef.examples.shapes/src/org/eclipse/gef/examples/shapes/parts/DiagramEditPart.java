@@ -30,6 +30,7 @@ import org.eclipse.gef.EditPolicy;
 import org.eclipse.gef.LayerConstants;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.gef.editparts.RefreshBatch;
 import org.eclipse.gef.editpolicies.RootComponentEditPolicy;
 import org.eclipse.gef.editpolicies.XYLayoutEditPolicy;
 import org.eclipse.gef.requests.ChangeBoundsRequest;
@@ -141,9 +142,11 @@ class DiagramEditPart extends AbstractGraphicalEditPart implements PropertyChang
 		String prop = evt.getPropertyName();
 		// these properties are fired when Shapes are added into or removed from
 		// the ShapeDiagram instance and must cause a call of refreshChildren()
-		// to update the diagram's contents.
+		// to update the diagram's contents. The refresh is deferred until the
+		// end of the command, so that a command adding or removing many shapes
+		// refreshes the diagram only once.
 		if (ShapesDiagram.CHILD_ADDED_PROP.equals(prop) || ShapesDiagram.CHILD_REMOVED_PROP.equals(prop)) {
-			refreshChildren();
+			requestRefresh(RefreshBatch.CHILDREN);
 		}
 	}
 
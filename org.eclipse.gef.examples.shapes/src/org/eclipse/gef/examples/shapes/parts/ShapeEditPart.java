@@ -32,6 +32,7 @@ import org.eclipse.gef.NodeEditPart;
 import org.eclipse.gef.Request;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.gef.editparts.RefreshBatch;
 import org.eclipse.gef.editpolicies.GraphicalNodeEditPolicy;
 import org.eclipse.gef.requests.CreateConnectionRequest;
 import org.eclipse.gef.requests.ReconnectRequest;
@@ -278,12 +279,13 @@ class ShapeEditPart extends AbstractGraphicalEditPart implements PropertyChangeL
 	@Override
 	public void propertyChange(PropertyChangeEvent evt) {
 		String prop = evt.getPropertyName();
+		// The refreshes are coalesced while a command is executed
 		if (Shape.SIZE_PROP.equals(prop) || Shape.LOCATION_PROP.equals(prop)) {
-			refreshVisuals();
+			requestRefresh(RefreshBatch.VISUALS);
 		} else if (Shape.SOURCE_CONNECTIONS_PROP.equals(prop)) {
-			refreshSourceConnections();
+			requestRefresh(RefreshBatch.SOURCE_CONNECTIONS);
 		} else if (Shape.TARGET_CONNECTIONS_PROP.equals(prop)) {
-			refreshTargetConnections();
+			requestRefresh(RefreshBatch.TARGET_CONNECTIONS);
 		}
 	}
 
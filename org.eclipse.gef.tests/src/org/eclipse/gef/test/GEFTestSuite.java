@@ -30,6 +30,11 @@ import org.junit.runners.Suite;
 	CommandStackTest.class,
 	RulerLayoutTests.class,
 	GraphicalViewerTest.class,
+	RefreshChildrenTest.class,
+	RefreshBatchTest.class,
+	SnapToGeometryTest.class,
+	MarqueeSelectionToolTest.class,
+	LogicSimulatorTest.class,
 	SWTBotTestSuite.class
 })
 public class GEFTestSuite {
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.test;
+
+import org.eclipse.gef.examples.logicdesigner.model.Gate;
+import org.eclipse.gef.examples.logicdesigner.model.LED;
+import org.eclipse.gef.examples.logicdesigner.model.LogicSubpart;
+import org.eclipse.gef.examples.logicdesigner.model.OrGate;
+import org.eclipse.gef.examples.logicdesigner.model.SimpleOutput;
+import org.eclipse.gef.examples.logicdesigner.model.Wire;
+import org.eclipse.gef.examples.logicdesigner.model.XORGate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the propagation of values through the circuits of the logic example.
+ * The model does not need a display.
+ */
+public class LogicSimulatorTest extends Assert {
+
+	private static class CountingOrGate extends OrGate {
+		private static final long serialVersionUID = 1;
+		private int updateCount;
+		private boolean fail;
+
+		@Override
+		public void update() {
+			updateCount++;
+			if (fail) {
+				throw new IllegalStateException("Failing gate"); //$NON-NLS-1$
+			}
+			super.update();
+		}
+	}
+
+	private static class CountingXORGate extends XORGate {
+		private static final long serialVersionUID = 1;
+		private int updateCount;
+
+		@Override
+		public void update() {
+			updateCount++;
+			super.update();
+		}
+	}
+
+	private static class FailingWire extends Wire {
+		private static final long serialVersionUID = 1;
+		private boolean fail;
+
+		@Override
+		public LogicSubpart getSource() {
+			if (fail) {
+				throw new IllegalStateException("Failing wire"); //$NON-NLS-1$
+			}
+			return super.getSource();
+		}
+	}
+
+	private static Wire connect(LogicSubpart source, String sourceTerminal, LogicSubpart target,
+			String targetTerminal) {
+		return connect(new Wire(), source, sourceTerminal, target, targetTerminal);
+	}
+
+	private static Wire connect(Wire wire, LogicSubpart source, String sourceTerminal, LogicSubpart target,
+			String targetTerminal) {
+		wire.setSource(source);
+		wire.setSourceTerminal(sourceTerminal);
+		wire.setTarget(target);
+		wire.setTargetTerminal(targetTerminal);
+		wire.attachSource();
+		wire.attachTarget();
+		return wire;
+	}
+
+	/**
+	 * A gate whose output is fed back into one of its inputs is evaluated again in
+	 * the next tick, which latches the value.
+	 */
+	@Test
+	public void testFeedbackIsDeferred() {
+		LED input = new LED();
+		CountingOrGate gate = new CountingOrGate();
+		LED output = new LED();
+		connect(input, LED.TERMINAL_1_OUT, gate, Gate.TERMINAL_A);
+		connect(gate, SimpleOutput.TERMINAL_OUT, gate, Gate.TERMINAL_B);
+		connect(gate, SimpleOutput.TERMINAL_OUT, output, LED.TERMINAL_1_IN);
+
+		gate.updateCount = 0;
+		input.setValue(1);
+		assertEquals(1, output.getValue());
+		assertEquals("Once for the input and once for the feedback", 2, gate.updateCount); //$NON-NLS-1$
+
+		gate.updateCount = 0;
+		input.setValue(0);
+		assertEquals("The gate should latch its output", 1, output.getValue()); //$NON-NLS-1$
+		assertEquals(1, gate.updateCount);
+	}
+
+	/**
+	 * An XOR gate whose output is fed back into one of its inputs oscillates, until
+	 * the simulation is stopped.
+	 */
+	@Test
+	public void testOscillationIsStopped() {
+		LED input = new LED();
+		CountingXORGate gate = new CountingXORGate();
+		connect(input, LED.TERMINAL_1_OUT, gate, Gate.TERMINAL_A);
+		connect(gate, SimpleOutput.TERMINAL_OUT, gate, Gate.TERMINAL_B);
+
+		gate.updateCount = 0;
+		input.setValue(1);
+		assertTrue("The gate should oscillate", gate.updateCount > 2); //$NON-NLS-1$
+		assertTrue("The gate should be evaluated at most once per tick", gate.updateCount <= 1000); //$NON-NLS-1$
+
+		// Nothing is left over for the next simulation
+		int count = gate.updateCount;
+		LED other = new LED();
+		LED otherOutput = new LED();
+		connect(other, LED.TERMINAL_1_OUT, otherOutput, LED.TERMINAL_1_IN);
+		other.setValue(1);
+		assertEquals(1, otherOutput.getValue());
+		assertEquals(count, gate.updateCount);
+	}
+
+	/**
+	 * Connecting a wire which makes a part depend on a part of a higher level
+	 * updates the levels, so that the part is still evaluated once.
+	 */
+	@Test
+	public void testLevelsUpdatedOnConnect() {
+		LED input = new LED();
+		OrGate first = new OrGate();
+		OrGate second = new OrGate();
+		CountingOrGate gate = new CountingOrGate();
+		connect(input, LED.TERMINAL_1_OUT, first, Gate.TERMINAL_A);
+		connect(first, SimpleOutput.TERMINAL_OUT, second, Gate.TERMINAL_A);
+		connect(input, LED.TERMINAL_1_OUT, gate, Gate.TERMINAL_A);
+		input.setValue(1);
+		input.setValue(0);
+
+		Wire wire = connect(second, SimpleOutput.TERMINAL_OUT, gate, Gate.TERMINAL_B);
+		gate.updateCount = 0;
+		input.setValue(1);
+		assertTrue(wire.getValue());
+		assertEquals("The gate should be evaluated after its inputs", 1, gate.updateCount); //$NON-NLS-1$
+	}
+
+	/**
+	 * Values are propagated iteratively through chains far longer than the stack
+	 * would allow for a recursive evaluation.
+	 */
+	@Test
+	public void testLongChain() {
+		LED input = new LED();
+		LogicSubpart previous = input;
+		String terminal = LED.TERMINAL_1_OUT;
+		for (int i = 0; i < 100000; i++) {
+			Gate gate = new OrGate();
+			connect(previous, terminal, gate, Gate.TERMINAL_A);
+			previous = gate;
+			terminal = SimpleOutput.TERMINAL_OUT;
+		}
+		LED output = new LED();
+		connect(previous, terminal, output, LED.TERMINAL_1_IN);
+
+		input.setValue(1);
+		assertEquals(1, output.getValue());
+		input.setValue(0);
+		assertEquals(0, output.getValue());
+	}
+
+	/**
+	 * A part failing to evaluate abandons the simulation without leaving parts or
+	 * changes behind for the next one.
+	 */
+	@Test
+	public void testFailingUpdateIsDiscarded() {
+		LED input = new LED();
+		CountingOrGate gate = new CountingOrGate();
+		LED output = new LED();
+		Wire wire = connect(input, LED.TERMINAL_1_OUT, gate, Gate.TERMINAL_A);
+		connect(gate, SimpleOutput.TERMINAL_OUT, output, LED.TERMINAL_1_IN);
+		int[] events = new int[1];
+		wire.addPropertyChangeListener(event -> events[0]++);
+
+		gate.fail = true;
+		assertThrows(IllegalStateException.class, () -> input.setValue(1));
+		assertEquals(0, events[0]);
+
+		// The changes of the failed simulation are not fired by the next one
+		LED other = new LED();
+		LED otherOutput = new LED();
+		connect(other, LED.TERMINAL_1_OUT, otherOutput, LED.TERMINAL_1_IN);
+		other.setValue(1);
+		assertEquals(1, otherOutput.getValue());
+		assertEquals(0, events[0]);
+
+		gate.fail = false;
+		gate.updateCount = 0;
+		input.setValue(0);
+		input.setValue(1);
+		assertEquals(1, output.getValue());
+		assertEquals(2, gate.updateCount);
+		assertEquals(2, events[0]);
+	}
+
+	/**
+	 * A computation of the levels which fails half-way must not leave the visited
+	 * parts behind as if they were members of a cycle.
+	 */
+	@Test
+	public void testFailingLevelComputationIsDiscarded() {
+		LED input = new LED();
+		OrGate first = new OrGate();
+		OrGate second = new OrGate();
+		CountingOrGate gate = new CountingOrGate();
+		LED output = new LED();
+		FailingWire wire = new FailingWire();
+		connect(input, LED.TERMINAL_1_OUT, first, Gate.TERMINAL_A);
+		connect(wire, first, SimpleOutput.TERMINAL_OUT, second, Gate.TERMINAL_A);
+		connect(input, LED.TERMINAL_1_OUT, gate, Gate.TERMINAL_A);
+		connect(gate, SimpleOutput.TERMINAL_OUT, output, LED.TERMINAL_1_IN);
+
+		// The new input of the gate has a higher level, so the levels are computed
+		// again when the gate is scheduled
+		wire.fail = true;
+		assertThrows(IllegalStateException.class,
+				() -> connect(second, SimpleOutput.TERMINAL_OUT, gate, Gate.TERMINAL_B));
+
+		wire.fail = false;
+		gate.updateCount = 0;
+		input.setValue(1);
+		assertEquals(1, output.getValue());
+		assertEquals("The gate should be evaluated after its inputs", 1, gate.updateCount); //$NON-NLS-1$
+	}
+
+}
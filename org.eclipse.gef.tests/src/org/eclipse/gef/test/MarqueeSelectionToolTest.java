@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.ui.PlatformUI;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.FigureUtilities;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.Viewport;
+import org.eclipse.draw2d.XYLayout;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.gef.Request;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.gef.editparts.EditPartSpatialIndex;
+import org.eclipse.gef.tools.MarqueeSelectionTool;
+import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MarqueeSelectionToolTest extends Assert {
+
+	private static class NodePart extends AbstractGraphicalEditPart {
+		private final List<Object> modelChildren = new ArrayList<>();
+		private final Rectangle bounds;
+		private int feedbackCount;
+
+		NodePart(Rectangle bounds) {
+			this.bounds = bounds;
+			setModel(this);
+		}
+
+		@Override
+		protected IFigure createFigure() {
+			Figure figure = new Figure();
+			figure.setLayoutManager(new XYLayout());
+			return figure;
+		}
+
+		@Override
+		protected void createEditPolicies() {
+		}
+
+		@Override
+		protected List<?> getModelChildren() {
+			return modelChildren;
+		}
+
+		@Override
+		protected EditPart createChild(Object model) {
+			return (EditPart) model;
+		}
+
+		@Override
+		protected void refreshVisuals() {
+			getFigure().setBounds(bounds);
+		}
+
+		@Override
+		public EditPart getTargetEditPart(Request request) {
+			return this;
+		}
+
+		@Override
+		public void showTargetFeedback(Request request) {
+			feedbackCount++;
+		}
+
+		@Override
+		public void eraseTargetFeedback(Request request) {
+			feedbackCount--;
+		}
+
+		void setLocation(int x, int y) {
+			bounds.setLocation(x, y);
+			refreshVisuals();
+		}
+	}
+
+	private static class TestMarqueeSelectionTool extends MarqueeSelectionTool {
+		private Rectangle marquee;
+
+		@Override
+		protected Rectangle getCurrentMarqueeSelectionRectangle() {
+			return marquee;
+		}
+
+		Set<GraphicalEditPart> select(Rectangle rect) {
+			marquee = rect;
+			return new HashSet<>(calculateMarqueeSelectedEditParts());
+		}
+	}
+
+	private GraphicalViewer viewer;
+	private NodePart contents;
+	private final List<NodePart> nodes = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		viewer = PlatformUI.getWorkbench().getDisplay().syncCall(GraphicalViewerImpl::new);
+		contents = new NodePart(new Rectangle(0, 0, 2000, 2000));
+		for (int x = 0; x < 20; x++) {
+			for (int y = 0; y < 20; y++) {
+				NodePart node = new NodePart(new Rectangle(x * 100, y * 100, 50, 50));
+				contents.modelChildren.add(node);
+				nodes.add(node);
+			}
+		}
+		viewer.setContents(contents);
+		IFigure root = ((GraphicalEditPart) viewer.getRootEditPart()).getFigure();
+		root.setBounds(new Rectangle(0, 0, 2000, 2000));
+		// the layers span the whole diagram, without requiring a layout
+		for (IFigure layer = contents.getFigure().getParent(); layer != root; layer = layer.getParent()) {
+			layer.setBounds(new Rectangle(0, 0, 2000, 2000));
+		}
+	}
+
+	private Set<NodePart> expected(Rectangle marquee) {
+		Set<NodePart> result = new HashSet<>();
+		for (NodePart node : nodes) {
+			if (marquee.contains(node.getFigure().getBounds())) {
+				result.add(node);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testIncrementalMarqueeSelection() {
+		TestMarqueeSelectionTool tool = new TestMarqueeSelectionTool();
+		tool.setViewer(viewer);
+		Rectangle marquee = new Rectangle(10, 10, 0, 0);
+		for (int i = 0; i < 40; i++) {
+			// grow and shrink the marquee while dragging
+			marquee.setSize(i * 53 % 1900, i * 31 % 1900);
+			assertEquals(expected(marquee), tool.select(marquee.getCopy()));
+		}
+
+		// moving an edit part invalidates the incremental selection
+		NodePart node = nodes.get(0);
+		marquee.setBounds(0, 0, 200, 200);
+		assertTrue(tool.select(marquee.getCopy()).contains(node));
+		node.setLocation(500, 500);
+		assertFalse(tool.select(marquee.getCopy()).contains(node));
+		assertEquals(expected(marquee), tool.select(marquee.getCopy()));
+	}
+
+	/**
+	 * Scrolling the viewport changes which edit parts are clipped, also within the
+	 * area covered by the marquee before and after scrolling.
+	 */
+	@Test
+	public void testScrolledMarqueeSelection() {
+		Viewport viewport = (Viewport) ((GraphicalEditPart) viewer.getRootEditPart()).getFigure();
+		viewport.setBounds(new Rectangle(0, 0, 500, 500));
+		viewport.getHorizontalRangeModel().setAll(0, 500, 2000);
+		viewport.getVerticalRangeModel().setAll(0, 500, 2000);
+
+		TestMarqueeSelectionTool tool = new TestMarqueeSelectionTool();
+		tool.setViewer(viewer);
+		Rectangle marquee = new Rectangle(0, 0, 1000, 1000);
+		Set<GraphicalEditPart> selection = tool.select(marquee.getCopy());
+		assertEquals(25, selection.size());
+		assertEquals(expectedVisible(marquee), selection);
+
+		viewport.setViewLocation(200, 200);
+		selection = tool.select(marquee.getCopy());
+		assertEquals(25, selection.size());
+		assertEquals(expectedVisible(marquee), selection);
+	}
+
+	private Set<NodePart> expectedVisible(Rectangle marquee) {
+		Set<NodePart> result = new HashSet<>();
+		for (NodePart node : nodes) {
+			Rectangle bounds = node.getFigure().getBounds().getCopy();
+			node.getFigure().translateToAbsolute(bounds);
+			if (marquee.contains(bounds) && FigureUtilities.isNotFullyClipped(node.getFigure())) {
+				result.add(node);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testSpatialIndex() {
+		EditPartSpatialIndex index = EditPartSpatialIndex.getSpatialIndex(viewer);
+		assertSame(index, EditPartSpatialIndex.getSpatialIndex(viewer));
+		Collection<GraphicalEditPart> result = new HashSet<>();
+		index.collectEditParts(new Rectangle(120, 120, 10, 10), result);
+		assertTrue(result.contains(nodes.get(21)));
+		assertTrue("The index should not return distant edit parts", result.size() < 10); //$NON-NLS-1$
+
+		// added and removed edit parts are tracked
+		long count = index.getModificationCount();
+		NodePart node = new NodePart(new Rectangle(1210, 1210, 10, 10));
+		contents.modelChildren.add(node);
+		contents.refresh();
+		assertNotEquals(count, index.getModificationCount());
+		result.clear();
+		index.collectEditParts(new Rectangle(1215, 1215, 1, 1), result);
+		assertTrue(result.contains(node));
+
+		contents.modelChildren.remove(node);
+		contents.refresh();
+		result.clear();
+		index.collectEditParts(new Rectangle(1215, 1215, 1, 1), result);
+		assertFalse(result.contains(node));
+
+		index.release();
+		assertNotSame(index, EditPartSpatialIndex.getSpatialIndex(viewer));
+	}
+
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+import org.eclipse.ui.PlatformUI;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+
+import org.eclipse.gef.EditDomain;
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.commands.CompoundCommand;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.gef.editparts.RefreshBatch;
+import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RefreshBatchTest extends Assert {
+
+	private static class CountingEditPart extends AbstractGraphicalEditPart {
+		private final List<Object> modelChildren = new ArrayList<>();
+		private int visualsCount;
+		private int childrenCount;
+
+		@Override
+		protected IFigure createFigure() {
+			return new Figure();
+		}
+
+		@Override
+		protected void createEditPolicies() {
+		}
+
+		@Override
+		protected List<?> getModelChildren() {
+			return modelChildren;
+		}
+
+		@Override
+		protected void refreshVisuals() {
+			visualsCount++;
+		}
+
+		@Override
+		protected void refreshChildren() {
+			childrenCount++;
+			super.refreshChildren();
+		}
+
+		void modelChanged() {
+			requestRefresh(RefreshBatch.VISUALS | RefreshBatch.CHILDREN);
+		}
+	}
+
+	private static class ChangeCommand extends Command {
+		private final CountingEditPart part;
+
+		ChangeCommand(CountingEditPart part) {
+			this.part = part;
+		}
+
+		@Override
+		public void execute() {
+			part.modelChanged();
+		}
+
+		@Override
+		public void undo() {
+			part.modelChanged();
+		}
+	}
+
+	private GraphicalViewer viewer;
+	private EditDomain domain;
+	private CountingEditPart part;
+
+	@Before
+	public void setUp() {
+		viewer = PlatformUI.getWorkbench().getDisplay().syncCall(GraphicalViewerImpl::new);
+		domain = new EditDomain();
+		viewer.setEditDomain(domain);
+		part = new CountingEditPart();
+		viewer.setContents(part);
+		part.visualsCount = 0;
+		part.childrenCount = 0;
+	}
+
+	@Test
+	public void testImmediateRefreshOutsideOfBatch() {
+		part.modelChanged();
+		part.modelChanged();
+		assertEquals(2, part.visualsCount);
+		assertEquals(2, part.childrenCount);
+	}
+
+	@Test
+	public void testCompoundCommandRefreshesOnce() {
+		CompoundCommand command = new CompoundCommand();
+		for (int i = 0; i < 100; i++) {
+			command.add(new ChangeCommand(part));
+		}
+		domain.getCommandStack().execute(command);
+		assertEquals(1, part.visualsCount);
+		assertEquals(1, part.childrenCount);
+		assertFalse(RefreshBatch.getRefreshBatch(viewer).isBatching());
+
+		domain.getCommandStack().undo();
+		assertEquals(2, part.visualsCount);
+		assertEquals(2, part.childrenCount);
+	}
+
+	@Test
+	public void testNestedBatches() {
+		RefreshBatch batch = RefreshBatch.getRefreshBatch(viewer);
+		batch.begin();
+		batch.run(part::modelChanged);
+		assertEquals("Refresh should wait for the outermost batch", 0, part.visualsCount); //$NON-NLS-1$
+		part.modelChanged();
+		batch.end();
+		assertEquals(1, part.visualsCount);
+		assertEquals(1, part.childrenCount);
+		assertThrows(IllegalStateException.class, batch::end);
+	}
+
+	@Test
+	public void testDeactivatedPartIsSkipped() {
+		RefreshBatch batch = RefreshBatch.getRefreshBatch(viewer);
+		batch.begin();
+		part.modelChanged();
+		part.deactivate();
+		batch.end();
+		assertEquals(0, part.visualsCount);
+	}
+
+	@Test
+	public void testCommandStackReleasedOnDispose() {
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		display.syncExec(() -> {
+			Shell shell = new Shell(display);
+			viewer.createControl(shell);
+			shell.dispose();
+		});
+		RefreshBatch batch = RefreshBatch.getRefreshBatch(viewer);
+		boolean[] batching = { true };
+		domain.getCommandStack().execute(new Command() {
+			@Override
+			public void execute() {
+				batching[0] = batch.isBatching();
+			}
+		});
+		assertFalse("The disposed viewer should not listen to the command stack", batching[0]); //$NON-NLS-1$
+	}
+
+}
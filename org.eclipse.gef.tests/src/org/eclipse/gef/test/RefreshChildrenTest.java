@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.XYLayout;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RefreshChildrenTest extends Assert {
+
+	private static class ChildEditPart extends AbstractGraphicalEditPart {
+		ChildEditPart(Object model) {
+			setModel(model);
+		}
+
+		@Override
+		protected IFigure createFigure() {
+			return new Figure();
+		}
+
+		@Override
+		protected void createEditPolicies() {
+		}
+
+		@Override
+		protected void register() {
+		}
+
+		@Override
+		protected void unregister() {
+		}
+	}
+
+	private static class ParentEditPart extends ChildEditPart {
+		private final List<Object> modelChildren = new ArrayList<>();
+		private final IFigure otherPane = new Figure();
+		private boolean useOtherPane;
+		private boolean reorderAtOnce;
+		private int reorderCount;
+		private int createCount;
+
+		ParentEditPart() {
+			super("parent"); //$NON-NLS-1$
+		}
+
+		@Override
+		protected IFigure createFigure() {
+			IFigure figure = new Figure();
+			figure.setLayoutManager(new XYLayout());
+			return figure;
+		}
+
+		@Override
+		protected List<?> getModelChildren() {
+			return modelChildren;
+		}
+
+		@Override
+		protected EditPart createChild(Object model) {
+			createCount++;
+			return new ChildEditPart(model);
+		}
+
+		@Override
+		protected void addChildVisual(EditPart childEditPart, int index) {
+			if (useOtherPane) {
+				otherPane.add(((GraphicalEditPart) childEditPart).getFigure(), index);
+			} else {
+				super.addChildVisual(childEditPart, index);
+			}
+		}
+
+		@Override
+		protected void removeChildVisual(EditPart childEditPart) {
+			IFigure child = ((GraphicalEditPart) childEditPart).getFigure();
+			child.getParent().remove(child);
+		}
+
+		@Override
+		protected void reorderChild(EditPart child, int index) {
+			reorderCount++;
+			super.reorderChild(child, index);
+		}
+
+		@Override
+		protected boolean canReorderChildFiguresAtOnce() {
+			// reorderChild() is overridden
+			return reorderAtOnce;
+		}
+
+		void setModelChildren(Object... models) {
+			modelChildren.clear();
+			modelChildren.addAll(Arrays.asList(models));
+			refreshChildren();
+		}
+
+		List<Object> getChildModels() {
+			List<Object> models = new ArrayList<>();
+			getChildren().forEach(child -> models.add(child.getModel()));
+			return models;
+		}
+
+		List<Object> getFigureModels() {
+			IFigure pane = useOtherPane ? otherPane : getFigure();
+			List<Object> models = new ArrayList<>();
+			for (IFigure child : pane.getChildren()) {
+				getChildren().stream().filter(ep -> ep.getFigure() == child).forEach(ep -> models.add(ep.getModel()));
+			}
+			return models;
+		}
+	}
+
+	private static Object[] range(int count) {
+		Object[] models = new Object[count];
+		for (int i = 0; i < count; i++) {
+			models[i] = "model" + i; //$NON-NLS-1$
+		}
+		return models;
+	}
+
+	@Test
+	public void testAddRemoveAndReorder() {
+		ParentEditPart parent = new ParentEditPart();
+		parent.setModelChildren("a", "b", "c", "d"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertEquals(4, parent.createCount);
+
+		List<Object> expected = Arrays.asList("e", "d", "b", "a"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		parent.setModelChildren(expected.toArray());
+		assertEquals(5, parent.createCount);
+		assertEquals(expected, parent.getChildModels());
+		assertEquals(expected, parent.getFigureModels());
+	}
+
+	@Test
+	public void testReorderKeepsFiguresAndConstraints() {
+		ParentEditPart parent = new ParentEditPart();
+		parent.reorderAtOnce = true;
+		Object[] models = range(100);
+		parent.setModelChildren(models);
+		List<IFigure> figures = new ArrayList<>();
+		for (int i = 0; i < models.length; i++) {
+			GraphicalEditPart child = (GraphicalEditPart) parent.getChildren().get(i);
+			parent.getFigure().setConstraint(child.getFigure(), new Rectangle(i, i, 10, 10));
+			figures.add(child.getFigure());
+		}
+
+		List<Object> reversed = new ArrayList<>(Arrays.asList(models));
+		Collections.reverse(reversed);
+		parent.setModelChildren(reversed.toArray());
+		assertEquals(reversed, parent.getChildModels());
+		assertEquals(reversed, parent.getFigureModels());
+		assertEquals("Figures should not be removed", 0, parent.reorderCount); //$NON-NLS-1$
+		for (int i = 0; i < models.length; i++) {
+			IFigure figure = figures.get(i);
+			assertSame(parent.getFigure(), figure.getParent());
+			assertEquals(new Rectangle(i, i, 10, 10), parent.getFigure().getLayoutManager().getConstraint(figure));
+		}
+	}
+
+	/**
+	 * Overrides of reorderChild() are called if the edit part doesn't allow the
+	 * figures to be reordered at once.
+	 */
+	@Test
+	public void testOverriddenReorderChild() {
+		ParentEditPart parent = new ParentEditPart();
+		Object[] models = range(10);
+		parent.setModelChildren(models);
+		for (int i = 0; i < models.length; i++) {
+			GraphicalEditPart child = (GraphicalEditPart) parent.getChildren().get(i);
+			parent.getFigure().setConstraint(child.getFigure(), new Rectangle(i, i, 10, 10));
+		}
+
+		List<Object> reversed = new ArrayList<>(Arrays.asList(models));
+		Collections.reverse(reversed);
+		parent.setModelChildren(reversed.toArray());
+		assertEquals(9, parent.reorderCount);
+		assertEquals(reversed, parent.getChildModels());
+		assertEquals(reversed, parent.getFigureModels());
+		for (EditPart child : parent.getChildren()) {
+			IFigure figure = ((GraphicalEditPart) child).getFigure();
+			int i = Arrays.asList(models).indexOf(child.getModel());
+			assertEquals(new Rectangle(i, i, 10, 10), parent.getFigure().getLayoutManager().getConstraint(figure));
+		}
+	}
+
+	@Test
+	public void testMinimalMoves() {
+		ParentEditPart parent = new ParentEditPart();
+		parent.useOtherPane = true;
+		Object[] models = range(1000);
+		parent.setModelChildren(models);
+
+		// Moving the last child to the front is a single move
+		List<Object> expected = new ArrayList<>(Arrays.asList(models));
+		expected.add(0, expected.remove(expected.size() - 1));
+		parent.setModelChildren(expected.toArray());
+		assertEquals(1, parent.reorderCount);
+		assertEquals(expected, parent.getChildModels());
+		assertEquals(expected, parent.getFigureModels());
+
+		// Removing the first child and inserting a new one at the front needs no
+		// moves at all
+		expected.remove(0);
+		expected.add(0, "new"); //$NON-NLS-1$
+		parent.reorderCount = 0;
+		parent.setModelChildren(expected.toArray());
+		assertEquals(0, parent.reorderCount);
+		assertEquals(expected, parent.getChildModels());
+		assertEquals(expected, parent.getFigureModels());
+
+		// Swapping two children moves only these two
+		Collections.swap(expected, 10, 500);
+		parent.reorderCount = 0;
+		parent.setModelChildren(expected.toArray());
+		assertEquals(2, parent.reorderCount);
+		assertEquals(expected, parent.getChildModels());
+		assertEquals(expected, parent.getFigureModels());
+	}
+
+}
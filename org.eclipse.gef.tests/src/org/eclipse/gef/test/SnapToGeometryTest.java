@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.PolylineConnection;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.PrecisionRectangle;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.eclipse.gef.ConnectionEditPart;
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.RequestConstants;
+import org.eclipse.gef.SnapToGeometry;
+import org.eclipse.gef.SnapToHelper;
+import org.eclipse.gef.editparts.AbstractConnectionEditPart;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.gef.requests.ChangeBoundsRequest;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SnapToGeometryTest extends Assert {
+
+	/**
+	 * A part whose children and connections are not managed by a viewer.
+	 */
+	private static class TestPart extends AbstractGraphicalEditPart {
+		private final List<GraphicalEditPart> partChildren = new ArrayList<>();
+		private final List<ConnectionEditPart> sourceConnections = new ArrayList<>();
+
+		private final boolean localCoordinates;
+
+		TestPart(Rectangle bounds) {
+			this(bounds, false);
+		}
+
+		TestPart(Rectangle bounds, boolean localCoordinates) {
+			this.localCoordinates = localCoordinates;
+			getFigure().setBounds(bounds);
+		}
+
+		@Override
+		protected IFigure createFigure() {
+			return new Figure() {
+				@Override
+				protected boolean useLocalCoordinates() {
+					return localCoordinates;
+				}
+			};
+		}
+
+		@Override
+		protected void createEditPolicies() {
+		}
+
+		@Override
+		public List<GraphicalEditPart> getChildren() {
+			return partChildren;
+		}
+
+		@Override
+		public List<ConnectionEditPart> getSourceConnections() {
+			return sourceConnections;
+		}
+
+		TestPart addChild(Rectangle bounds) {
+			return addChild(new TestPart(bounds));
+		}
+
+		TestPart addChild(TestPart child) {
+			getFigure().add(child.getFigure());
+			partChildren.add(child);
+			return child;
+		}
+	}
+
+	private static class TestConnectionPart extends AbstractConnectionEditPart {
+		@Override
+		protected IFigure createFigure() {
+			return new PolylineConnection();
+		}
+
+		@Override
+		protected void createEditPolicies() {
+		}
+	}
+
+	/**
+	 * Compares the indexed search to the linear scan of a copy of the entries.
+	 */
+	private static class ComparingSnapToGeometry extends SnapToGeometry {
+		ComparingSnapToGeometry(GraphicalEditPart container) {
+			super(container);
+		}
+
+		void compare(double value, int side) {
+			Map<Object, Object> indexed = new HashMap<>();
+			Map<Object, Object> scanned = new HashMap<>();
+			assertEquals(getCorrectionFor(cols.clone(), scanned, true, value, side),
+					getCorrectionFor(cols, indexed, true, value, side), 0);
+			assertEquals(scanned, indexed);
+		}
+	}
+
+	private final TestPart container = new TestPart(new Rectangle(0, 0, 1000, 1000));
+
+	private static PrecisionRectangle snap(SnapToGeometry helper, Rectangle rect, int orientation,
+			Map<Object, Object> extendedData) {
+		ChangeBoundsRequest request = new ChangeBoundsRequest(RequestConstants.REQ_MOVE);
+		request.setEditParts(new ArrayList<>());
+		PrecisionRectangle result = new PrecisionRectangle(rect);
+		helper.snapRectangle(request, orientation, new PrecisionRectangle(rect), result);
+		if (extendedData != null) {
+			Map<?, ?> requestData = request.getExtendedData();
+			extendedData.putAll(requestData);
+		}
+		return result;
+	}
+
+	@Test
+	public void testSnapToEdgesAndCenters() {
+		container.addChild(new Rectangle(0, 0, 100, 50));
+		container.addChild(new Rectangle(200, 300, 100, 50));
+		SnapToGeometry helper = new SnapToGeometry(container);
+
+		Map<Object, Object> extendedData = new HashMap<>();
+		PrecisionRectangle result = snap(helper, new Rectangle(203, 100, 50, 20), SnapToHelper.HORIZONTAL,
+				extendedData);
+		assertEquals(200, result.x);
+		assertEquals(Integer.valueOf(200), extendedData.get(SnapToGeometry.KEY_WEST_ANCHOR));
+
+		// The middle of 29..78 snaps to the center of the first part
+		result = snap(helper, new Rectangle(29, 100, 50, 20), SnapToHelper.HORIZONTAL, null);
+		assertEquals(25, result.x);
+
+		// The bottom snaps to the bottom of the second part
+		result = snap(helper, new Rectangle(500, 332, 50, 20), SnapToHelper.VERTICAL, null);
+		assertEquals(330, result.y);
+
+		// Nothing is within the threshold
+		result = snap(helper, new Rectangle(500, 500, 50, 20), SnapToHelper.HORIZONTAL | SnapToHelper.VERTICAL,
+				null);
+		assertEquals(new Rectangle(500, 500, 50, 20), result);
+	}
+
+	@Test
+	public void testIndexMatchesLinearScan() {
+		Random random = new Random(42);
+		for (int i = 0; i < 500; i++) {
+			container.addChild(new Rectangle(random.nextInt(1000), random.nextInt(1000), 1 + random.nextInt(100),
+					1 + random.nextInt(100)));
+		}
+		ComparingSnapToGeometry helper = new ComparingSnapToGeometry(container);
+		snap(helper, new Rectangle(0, 0, 10, 10), SnapToHelper.HORIZONTAL, null);
+		for (int i = 0; i < 1000; i++) {
+			helper.compare(random.nextDouble() * 1100 - 50, random.nextInt(3) - 1);
+		}
+	}
+
+	@Test
+	public void testNestedPartsAndBendpoints() {
+		TestPart parent = container.addChild(new Rectangle(0, 0, 400, 400));
+		parent.addChild(new Rectangle(100, 150, 50, 50));
+		TestConnectionPart connectionPart = new TestConnectionPart();
+		Connection connection = (Connection) connectionPart.getFigure();
+		connection.setPoints(new PointList(new int[] { 0, 0, 800, 600, 900, 900 }));
+		parent.getSourceConnections().add(connectionPart);
+
+		SnapToGeometry helper = new SnapToGeometry(container);
+		assertFalse(helper.isNestedPartsIncluded());
+		assertFalse(helper.isBendpointsIncluded());
+		Rectangle rect = new Rectangle(102, 597, 20, 20);
+		assertEquals(rect, snap(helper, rect, SnapToHelper.HORIZONTAL | SnapToHelper.VERTICAL, null));
+
+		helper.setNestedPartsIncluded(true);
+		PrecisionRectangle result = snap(helper, rect, SnapToHelper.HORIZONTAL | SnapToHelper.VERTICAL, null);
+		assertEquals(100, result.x);
+		assertEquals(597, result.y);
+
+		helper.setBendpointsIncluded(true);
+		result = snap(helper, rect, SnapToHelper.HORIZONTAL | SnapToHelper.VERTICAL, null);
+		assertEquals(100, result.x);
+		assertEquals("The top edge should snap to the bendpoint", 600, result.y); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testNestedPartsOfLocalCoordinatesParent() {
+		TestPart parent = container.addChild(new TestPart(new Rectangle(200, 0, 400, 400), true));
+		parent.addChild(new Rectangle(100, 150, 50, 50));
+
+		SnapToGeometry helper = new SnapToGeometry(container);
+		helper.setNestedPartsIncluded(true);
+		// The child is at 300 in the coordinates of the container
+		PrecisionRectangle result = snap(helper, new Rectangle(302, 597, 20, 20), SnapToHelper.HORIZONTAL, null);
+		assertEquals(300, result.x);
+		result = snap(helper, new Rectangle(102, 597, 20, 20), SnapToHelper.HORIZONTAL, null);
+		assertEquals(102, result.x);
+	}
+
+}
@@ -13,11 +13,16 @@
 package org.eclipse.gef;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.draw2d.Connection;
 import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.PointList;
 import org.eclipse.draw2d.geometry.PrecisionRectangle;
 import org.eclipse.draw2d.geometry.Rectangle;
 
@@ -39,6 +44,15 @@ import org.eclipse.gef.requests.GroupRequest;
  * the request is a Clone, then the figures for the parts being cloned will be
  * used as possible snap locations.
  * <P>
+ * Optionally, the children of the container's children and the bendpoints of
+ * their connections are snapped to as well, see
+ * {@link #setNestedPartsIncluded(boolean)} and
+ * {@link #setBendpointsIncluded(boolean)}.
+ * <P>
+ * The locations are indexed in sorted arrays, so that the nearest location is
+ * found by a binary search rather than by scanning all locations each time the
+ * mouse moves.
+ * <P>
  * This helper does not keep up with changes made to the container editpart.
  * Clients should instantiate a new helper each time one is requested and not
  * hold on to instances of the helper.
@@ -141,8 +155,18 @@ public class SnapToGeometry extends SnapToHelper {
 
 	private double threshold = THRESHOLD;
 
+	private boolean nestedPartsIncluded;
+
+	private boolean bendpointsIncluded;
+
 	boolean cachedCloneBool;
 
+	// The sorted locations of the rows and columns, indexed by the snap type + 1
+	private int[][] rowIndex;
+	private int[][] colIndex;
+	private Entry[] indexedRows;
+	private Entry[] indexedCols;
+
 	/**
 	 * The horizontal rows being snapped to.
 	 */
@@ -193,6 +217,57 @@ public class SnapToGeometry extends SnapToHelper {
 		this.threshold = newThreshold;
 	}
 
+	/**
+	 * Returns whether the descendants of the container's children are snapped to
+	 * in addition to its children.
+	 *
+	 * @return <code>true</code> if nested parts are snapped to
+	 * @since 3.19
+	 */
+	public boolean isNestedPartsIncluded() {
+		return nestedPartsIncluded;
+	}
+
+	/**
+	 * Sets whether the descendants of the container's children are snapped to in
+	 * addition to its children. The default is <code>false</code>.
+	 *
+	 * @param included <code>true</code> to snap to nested parts
+	 * @since 3.19
+	 */
+	public void setNestedPartsIncluded(boolean included) {
+		if (nestedPartsIncluded != included) {
+			nestedPartsIncluded = included;
+			rows = cols = null;
+		}
+	}
+
+	/**
+	 * Returns whether the bendpoints of the connections leaving the parts which are
+	 * snapped to are snapped to as well.
+	 *
+	 * @return <code>true</code> if bendpoints are snapped to
+	 * @since 3.19
+	 */
+	public boolean isBendpointsIncluded() {
+		return bendpointsIncluded;
+	}
+
+	/**
+	 * Sets whether the bendpoints of the connections leaving the parts which are
+	 * snapped to are snapped to as well. The edges and the centers of a rectangle
+	 * snap to a bendpoint. The default is <code>false</code>.
+	 *
+	 * @param included <code>true</code> to snap to bendpoints
+	 * @since 3.19
+	 */
+	public void setBendpointsIncluded(boolean included) {
+		if (bendpointsIncluded != included) {
+			bendpointsIncluded = included;
+			rows = cols = null;
+		}
+	}
+
 	/**
 	 * Generates a list of parts which should be snapped to. The list is the
 	 * original children, minus the given exclusions, minus and children whose
@@ -265,6 +340,17 @@ public class SnapToGeometry extends SnapToHelper {
 			property = vert ? KEY_EAST_ANCHOR : KEY_SOUTH_ANCHOR;
 		}
 
+		int[][] index = getIndex(entries);
+		if (index != null) {
+			int location = side == 0 ? findNearest(index[1], value, resultMag)
+					: findNearest(index[0], index[2], value, resultMag);
+			if (location != Integer.MIN_VALUE) {
+				result = location - value;
+				extendedData.put(property, Integer.valueOf(location));
+			}
+			return result;
+		}
+
 		for (Entry entry : entries) {
 			double magnitude;
 
@@ -294,6 +380,88 @@ public class SnapToGeometry extends SnapToHelper {
 		return result;
 	}
 
+	/**
+	 * Returns the sorted locations of the given entries, which are indexed the
+	 * first time they are snapped to.
+	 */
+	private int[][] getIndex(Entry[] entries) {
+		if (entries == null) {
+			return null;
+		}
+		if (entries == rows) {
+			if (indexedRows != rows) {
+				rowIndex = createIndex(rows);
+				indexedRows = rows;
+			}
+			return rowIndex;
+		}
+		if (entries == cols) {
+			if (indexedCols != cols) {
+				colIndex = createIndex(cols);
+				indexedCols = cols;
+			}
+			return colIndex;
+		}
+		return null;
+	}
+
+	private static int[][] createIndex(Entry[] entries) {
+		int[] counts = new int[3];
+		for (Entry entry : entries) {
+			counts[entry.type + 1]++;
+		}
+		int[][] index = { new int[counts[0]], new int[counts[1]], new int[counts[2]] };
+		Arrays.fill(counts, 0);
+		for (Entry entry : entries) {
+			index[entry.type + 1][counts[entry.type + 1]++] = entry.location;
+		}
+		for (int[] locations : index) {
+			Arrays.sort(locations);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the location in either array which is nearest to the given value,
+	 * or {@link Integer#MIN_VALUE} if no location is closer than the threshold.
+	 */
+	private static int findNearest(int[] near, int[] far, double value, double threshold) {
+		int result = findNearest(near, value, threshold);
+		if (result != Integer.MIN_VALUE) {
+			threshold = Math.abs(value - result);
+		}
+		int other = findNearest(far, value, threshold);
+		return other != Integer.MIN_VALUE ? other : result;
+	}
+
+	/**
+	 * Returns the location which is nearest to the given value, or
+	 * {@link Integer#MIN_VALUE} if no location is closer than the threshold. Of two
+	 * locations at the same distance, the lower one is returned.
+	 */
+	private static int findNearest(int[] locations, double value, double threshold) {
+		// the first location which is not below the value
+		int low = 0;
+		int high = locations.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (locations[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		int result = Integer.MIN_VALUE;
+		if (low > 0 && value - locations[low - 1] < threshold) {
+			result = locations[low - 1];
+			threshold = value - result;
+		}
+		if (low < locations.length && locations[low] - value < threshold) {
+			result = locations[low];
+		}
+		return result;
+	}
+
 	/**
 	 * Returns the rectangular contribution for the given editpart. This is the
 	 * rectangle with which snapping is performed.
@@ -314,6 +482,10 @@ public class SnapToGeometry extends SnapToHelper {
 	 * @param parts a List of EditParts
 	 */
 	protected void populateRowsAndCols(List<? extends GraphicalEditPart> parts) {
+		if (nestedPartsIncluded || bendpointsIncluded) {
+			populateRowsAndColsWithExtras(parts);
+			return;
+		}
 		rows = new Entry[parts.size() * 3];
 		cols = new Entry[parts.size() * 3];
 		for (int i = 0; i < parts.size(); i++) {
@@ -328,6 +500,58 @@ public class SnapToGeometry extends SnapToHelper {
 		}
 	}
 
+	private void populateRowsAndColsWithExtras(List<? extends GraphicalEditPart> parts) {
+		List<Entry> rowList = new ArrayList<>();
+		List<Entry> colList = new ArrayList<>();
+		IFigure contentPane = container.getContentPane();
+		List<GraphicalEditPart> snapParts = new ArrayList<>(parts);
+		for (int i = 0; i < snapParts.size(); i++) {
+			GraphicalEditPart part = snapParts.get(i);
+			Rectangle bounds = getFigureBounds(part);
+			if (i >= parts.size()) {
+				// nested parts are not in the coordinates of the content pane
+				bounds = bounds.getCopy();
+				part.getFigure().translateToAbsolute(bounds);
+				contentPane.translateToRelative(bounds);
+			}
+			colList.add(new Entry(-1, bounds.x));
+			rowList.add(new Entry(-1, bounds.y));
+			colList.add(new Entry(0, bounds.x + (bounds.width - 1) / 2));
+			rowList.add(new Entry(0, bounds.y + (bounds.height - 1) / 2));
+			colList.add(new Entry(1, bounds.right() - 1));
+			rowList.add(new Entry(1, bounds.bottom() - 1));
+			if (nestedPartsIncluded) {
+				for (EditPart child : part.getChildren()) {
+					if (child instanceof GraphicalEditPart gep && gep.getFigure().isVisible()) {
+						snapParts.add(gep);
+					}
+				}
+			}
+		}
+		if (bendpointsIncluded) {
+			Set<ConnectionEditPart> connections = new HashSet<>();
+			for (GraphicalEditPart part : snapParts) {
+				for (ConnectionEditPart connection : part.getSourceConnections()) {
+					if (connections.add(connection) && connection.getFigure() instanceof Connection conn
+							&& conn.isVisible()) {
+						PointList points = conn.getPoints().getCopy();
+						conn.translateToAbsolute(points);
+						contentPane.translateToRelative(points);
+						// the first and last points are the anchored end points
+						for (int i = 1; i < points.size() - 1; i++) {
+							colList.add(new Entry(-1, points.getPoint(i).x));
+							rowList.add(new Entry(-1, points.getPoint(i).y));
+							colList.add(new Entry(0, points.getPoint(i).x));
+							rowList.add(new Entry(0, points.getPoint(i).y));
+						}
+					}
+				}
+			}
+		}
+		rows = rowList.toArray(new Entry[rowList.size()]);
+		cols = colList.toArray(new Entry[colList.size()]);
+	}
+
 	/**
 	 * @see SnapToHelper#snapRectangle(Request, int, PrecisionRectangle,
 	 *      PrecisionRectangle)
@@ -15,9 +15,11 @@ package org.eclipse.gef.editparts;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IAdaptable;
@@ -750,54 +752,60 @@ public abstract class AbstractEditPart implements EditPart, RequestConstants, IA
 	 * <P>
 	 * The update is performed by comparing the existing EditParts with the set of
 	 * model children returned from {@link #getModelChildren()}. EditParts whose
-	 * models no longer exist are {@link #removeChild(EditPart) removed}. New models
-	 * have their EditParts {@link #createChild(Object) created}.
+	 * models no longer exist are {@link #removeChild(EditPart) removed}. The
+	 * remaining EditParts are brought into the order of their models by
+	 * {@link #reorderChildren(List)}. New models have their EditParts
+	 * {@link #createChild(Object) created}.
 	 * <P>
 	 * This method should <em>not</em> be overridden.
 	 *
 	 * @see #getModelChildren()
 	 */
 	protected void refreshChildren() {
+		List<? extends EditPart> curChildren = getChildren();
 		Map<Object, EditPart> modelToEditPart = Collections.emptyMap();
-		if (!getChildren().isEmpty()) {
-			modelToEditPart = new HashMap<>(getChildren().size());
-			for (EditPart ep : getChildren()) {
+		if (!curChildren.isEmpty()) {
+			modelToEditPart = new HashMap<>(curChildren.size());
+			for (EditPart ep : curChildren) {
 				modelToEditPart.put(ep.getModel(), ep);
 			}
 		}
 
+		// Look up the EditParts which are already around, in the order of the model
 		List modelObjects = getModelChildren();
-		List<? extends EditPart> curChildren = getChildren();
-		int i;
-		for (i = 0; i < modelObjects.size(); i++) {
-			Object curModel = modelObjects.get(i);
-
-			// Do a quick check to see if editPart[i] == model[i]
-			if (i < curChildren.size() && curChildren.get(i).getModel() == curModel) {
-				continue;
-			}
-
-			// Look to see if the EditPart is already around but in the wrong location
-			EditPart editPart = modelToEditPart.get(curModel);
-
+		EditPart[] editParts = new EditPart[modelObjects.size()];
+		List<EditPart> order = new ArrayList<>(Math.min(editParts.length, curChildren.size()));
+		for (int i = 0; i < editParts.length; i++) {
+			EditPart editPart = modelToEditPart.remove(modelObjects.get(i));
 			if (editPart != null) {
-				reorderChild(editPart, i);
-			} else {
-				// An EditPart for this model doesn't exist yet. Create and insert one.
-				editPart = createChild(curModel);
-				addChild(editPart, i);
+				editParts[i] = editPart;
+				order.add(editPart);
 			}
 		}
 
-		// remove the remaining EditParts
-		int size = curChildren.size();
-		if (i < size) {
-			List<EditPart> trash = new ArrayList<>(size - i);
-			for (; i < size; i++) {
-				trash.add(curChildren.get(i));
+		// Remove the EditParts whose models no longer exist
+		if (order.size() < curChildren.size()) {
+			Set<EditPart> kept = Collections.newSetFromMap(new IdentityHashMap<>(order.size()));
+			kept.addAll(order);
+			List<EditPart> trash = new ArrayList<>(curChildren.size() - order.size());
+			for (EditPart ep : curChildren) {
+				if (!kept.contains(ep)) {
+					trash.add(ep);
+				}
 			}
 			trash.forEach(this::removeChild);
 		}
+
+		if (!order.equals(curChildren)) {
+			reorderChildren(order);
+		}
+
+		// Create and insert the EditParts for the new models
+		for (int i = 0; i < editParts.length; i++) {
+			if (editParts[i] == null) {
+				addChild(createChild(modelObjects.get(i)), i);
+			}
+		}
 	}
 
 	/**
@@ -957,8 +965,8 @@ public abstract class AbstractEditPart implements EditPart, RequestConstants, IA
 	}
 
 	/**
-	 * Moves a child <code>EditPart</code> into a lower index than it currently
-	 * occupies. This method is called from {@link #refreshChildren()}.
+	 * Moves a child <code>EditPart</code> to a different index. This method is
+	 * called from {@link #reorderChildren(List)}.
 	 *
 	 * @param editpart the child being reordered
 	 * @param index    new index for the child
@@ -970,6 +978,107 @@ public abstract class AbstractEditPart implements EditPart, RequestConstants, IA
 		addChildVisual(editpart, index);
 	}
 
+	/**
+	 * Rearranges the children of this EditPart into the given order. This method
+	 * is called from {@link #refreshChildren()}. The longest sequence of children
+	 * which are already in the right order stays in place, and only the other
+	 * children are {@link #reorderChild(EditPart, int) reordered}. Moving a single
+	 * child therefore takes one call to <code>reorderChild()</code>, regardless of
+	 * the number of children.
+	 *
+	 * @param order all children of this EditPart in their new order
+	 * @since 3.19
+	 */
+	protected void reorderChildren(List<? extends EditPart> order) {
+		boolean[] inPlace = findChildrenInPlace(order);
+		List<? extends EditPart> curChildren = getChildren();
+		// Each child is moved in front of its successor, which is in place by now
+		for (int i = order.size() - 1; i >= 0; i--) {
+			if (inPlace[i]) {
+				continue;
+			}
+			EditPart editPart = order.get(i);
+			int index = curChildren.size() - 1;
+			if (i + 1 < order.size()) {
+				index = curChildren.indexOf(order.get(i + 1));
+				if (curChildren.indexOf(editPart) < index) {
+					index--;
+				}
+			}
+			reorderChild(editPart, index);
+		}
+	}
+
+	/**
+	 * Determines which children keep their place when the children are
+	 * rearranged into the given order. These form a longest subsequence of the
+	 * given order in which the children are in their current order.
+	 *
+	 * @param order all children of this EditPart in their new order
+	 * @return for every index of the given list whether the child stays in place
+	 */
+	private boolean[] findChildrenInPlace(List<? extends EditPart> order) {
+		Map<EditPart, Integer> currentIndex = new IdentityHashMap<>(order.size());
+		List<? extends EditPart> curChildren = getChildren();
+		for (int i = 0; i < curChildren.size(); i++) {
+			currentIndex.put(curChildren.get(i), Integer.valueOf(i));
+		}
+
+		// The longest increasing subsequence of the current indices, found by
+		// patience sorting in O(n log n)
+		int n = order.size();
+		int[] tails = new int[n];
+		int[] predecessor = new int[n];
+		int[] index = new int[n];
+		int length = 0;
+		for (int i = 0; i < n; i++) {
+			index[i] = currentIndex.get(order.get(i)).intValue();
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (index[tails[mid]] < index[i]) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			predecessor[i] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = i;
+			if (low == length) {
+				length++;
+			}
+		}
+
+		boolean[] inPlace = new boolean[n];
+		for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessor[i]) {
+			inPlace[i] = true;
+		}
+		return inPlace;
+	}
+
+	/**
+	 * Refreshes the given kinds of this EditPart via the {@link RefreshBatch} of
+	 * the viewer. If a batch is in progress, e.g. because a command is being
+	 * executed, the refresh is performed once at the end of the batch, no matter
+	 * how often it has been requested. Model listeners should call this method
+	 * rather than refreshing directly.
+	 *
+	 * @param kinds a combination of {@link RefreshBatch#VISUALS},
+	 *              {@link RefreshBatch#CHILDREN},
+	 *              {@link RefreshBatch#SOURCE_CONNECTIONS} and
+	 *              {@link RefreshBatch#TARGET_CONNECTIONS}
+	 * @since 3.19
+	 */
+	protected void requestRefresh(int kinds) {
+		EditPartViewer viewer = getViewer();
+		if (viewer == null) {
+			RefreshBatch.performRefresh(this, kinds);
+		} else {
+			RefreshBatch.getRefreshBatch(viewer).refresh(this, kinds);
+		}
+	}
+
 	/**
 	 * Sets the value of the specified flag. Flag values are declared as static
 	 * constants. Subclasses may define additional constants above
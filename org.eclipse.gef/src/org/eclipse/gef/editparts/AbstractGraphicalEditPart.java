@@ -23,6 +23,7 @@ import org.eclipse.swt.accessibility.AccessibleControlEvent;
 
 import org.eclipse.core.runtime.IAdaptable;
 
+import org.eclipse.draw2d.Figure;
 import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.LayoutManager;
 import org.eclipse.draw2d.geometry.Point;
@@ -225,6 +226,7 @@ public abstract class AbstractGraphicalEditPart extends AbstractEditPart impleme
 	@Override
 	public void addNotify() {
 		super.addNotify();
+		EditPartSpatialIndex.partAdded(this);
 		getSourceConnections().forEach(conn -> conn.setSource(this));
 		getTargetConnections().forEach(conn -> conn.setTarget(this));
 	}
@@ -766,6 +768,7 @@ public abstract class AbstractGraphicalEditPart extends AbstractEditPart impleme
 	public void removeNotify() {
 		getSourceConnections().stream().filter(conn -> conn.getSource() == this).forEach(conn -> conn.setSource(null));
 		getTargetConnections().stream().filter(conn -> conn.getTarget() == this).forEach(conn -> conn.setTarget(null));
+		EditPartSpatialIndex.partRemoved(this);
 		super.removeNotify();
 	}
 
@@ -822,6 +825,56 @@ public abstract class AbstractGraphicalEditPart extends AbstractEditPart impleme
 		setLayoutConstraint(child, childFigure, constraint);
 	}
 
+	/**
+	 * Returns whether the figures of the children may be rearranged with a single
+	 * {@link Figure#reorderChildren(List)} instead of calling
+	 * {@link #reorderChild(EditPart, int)} for every moved child. Returns
+	 * <code>true</code> by default.
+	 * <P>
+	 * Subclasses which override <code>reorderChild()</code> must override this
+	 * method to return <code>false</code>, unless their override does not need to
+	 * be called when several children are reordered at once.
+	 *
+	 * @return <code>true</code> if the figures may be reordered at once
+	 * @see #reorderChildren(List)
+	 * @since 3.19
+	 */
+	protected boolean canReorderChildFiguresAtOnce() {
+		return true;
+	}
+
+	/**
+	 * This method is extended to rearrange the figures of the children with a
+	 * single {@link Figure#reorderChildren(List)}, provided that they are all
+	 * children of the {@link #getContentPane() content pane} and that
+	 * {@link #canReorderChildFiguresAtOnce()} returns <code>true</code>.
+	 * Otherwise, the children are {@link #reorderChild(EditPart, int) reordered}
+	 * one by one.
+	 *
+	 * @see org.eclipse.gef.editparts.AbstractEditPart#reorderChildren(List)
+	 * @since 3.19
+	 */
+	@Override
+	protected void reorderChildren(List<? extends EditPart> order) {
+		IFigure contentPane = getContentPane();
+		if (!(contentPane instanceof Figure pane) || !canReorderChildFiguresAtOnce()) {
+			super.reorderChildren(order);
+			return;
+		}
+		List<IFigure> figures = new ArrayList<>(order.size());
+		for (EditPart child : order) {
+			IFigure childFigure = ((GraphicalEditPart) child).getFigure();
+			if (childFigure.getParent() != contentPane) {
+				super.reorderChildren(order);
+				return;
+			}
+			figures.add(childFigure);
+		}
+		children.clear();
+		children.addAll(order);
+		pane.reorderChildren(figures);
+	}
+
 	/**
 	 * Moves a source <code>ConnectionEditPart</code> into a lower index than it
 	 * currently occupies. This method is called from
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.editparts;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.FigureListener;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.internal.SpatialGrid;
+
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.EditPartViewer;
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.util.EditPartUtilities;
+
+/**
+ * A {@link SpatialGrid} over the figure bounds of the GraphicalEditParts and
+ * ConnectionEditParts of a viewer. It answers which EditParts may intersect a
+ * rectangle without visiting all EditParts, e.g. for marquee selection.
+ * <P>
+ * The index is created on demand and stored as a property of the viewer. It
+ * tracks EditParts derived from {@link AbstractGraphicalEditPart} as they are
+ * added to and removed from the viewer, and is kept up to date by listening to
+ * the {@link FigureListener#figureMoved(IFigure) moves} of their figures and the
+ * point changes of connections. A move of a figure also updates the EditParts
+ * nested within its EditPart. Updates are deferred until the next query.
+ * <P>
+ * Bounds are indexed in the coordinates of the content pane of the viewer's root
+ * EditPart, so that scrolling and zooming the viewer does not affect the index.
+ * Figures which are moved without notification, e.g. by scrolling a viewport
+ * nested within an EditPart, are only updated by {@link #invalidate()}.
+ *
+ * @since 3.19
+ */
+public final class EditPartSpatialIndex implements FigureListener, PropertyChangeListener {
+
+	private static final String PROPERTY = EditPartSpatialIndex.class.getName();
+
+	private static final int CELL_SIZE = 256;
+
+	private final EditPartViewer viewer;
+	private final SpatialGrid<GraphicalEditPart> grid = new SpatialGrid<>(CELL_SIZE);
+	private final Map<GraphicalEditPart, Rectangle> indexedBounds = new IdentityHashMap<>();
+	private final Map<IFigure, GraphicalEditPart> figureParts = new IdentityHashMap<>();
+	private final Set<GraphicalEditPart> dirty = new LinkedHashSet<>();
+	private long modificationCount;
+
+	private EditPartSpatialIndex(EditPartViewer viewer) {
+		this.viewer = viewer;
+		build();
+	}
+
+	/**
+	 * Returns the spatial index of the given viewer, which is created on demand
+	 * and stored as a property of the viewer. Returns <code>null</code> if the
+	 * viewer's root EditPart is not a GraphicalEditPart.
+	 *
+	 * @param viewer the viewer
+	 * @return the spatial index of the viewer or <code>null</code>
+	 */
+	public static EditPartSpatialIndex getSpatialIndex(EditPartViewer viewer) {
+		EditPartSpatialIndex index = (EditPartSpatialIndex) viewer.getProperty(PROPERTY);
+		if (index == null && viewer.getRootEditPart() instanceof GraphicalEditPart) {
+			index = new EditPartSpatialIndex(viewer);
+			viewer.setProperty(PROPERTY, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Starts tracking the given EditPart if its viewer has a spatial index.
+	 */
+	static void partAdded(GraphicalEditPart part) {
+		EditPartSpatialIndex index = getExistingIndex(part);
+		if (index != null && part != index.viewer.getRootEditPart()) {
+			index.hook(part);
+		}
+	}
+
+	/**
+	 * Stops tracking the given EditPart if its viewer has a spatial index.
+	 */
+	static void partRemoved(GraphicalEditPart part) {
+		EditPartSpatialIndex index = getExistingIndex(part);
+		if (index != null) {
+			index.unhook(part);
+		}
+	}
+
+	private static EditPartSpatialIndex getExistingIndex(EditPart part) {
+		EditPartViewer viewer = part.getViewer();
+		return viewer == null ? null : (EditPartSpatialIndex) viewer.getProperty(PROPERTY);
+	}
+
+	/**
+	 * Returns the given rectangle in the coordinates of this index.
+	 *
+	 * @param absolute a rectangle in absolute coordinates, e.g. of the viewer's
+	 *                 control
+	 * @return a new rectangle in the coordinates of this index
+	 */
+	public Rectangle toIndexCoordinates(Rectangle absolute) {
+		Rectangle result = absolute.getCopy();
+		getReferenceFigure().translateToRelative(result);
+		return result;
+	}
+
+	/**
+	 * Adds the EditParts whose figure bounds may intersect the given rectangle to
+	 * the given collection. Every EditPart which intersects the rectangle is added,
+	 * but EditParts near the rectangle may be added as well, as the rectangle is
+	 * expanded to account for rounding errors of the translation into the
+	 * coordinates of this index.
+	 *
+	 * @param query  the area to query, in the coordinates of this index
+	 * @param result the collection to add the EditParts to
+	 * @see #toIndexCoordinates(Rectangle)
+	 */
+	public void collectEditParts(Rectangle query, Collection<? super GraphicalEditPart> result) {
+		flush();
+		Dimension tolerance = new Dimension(2, 2);
+		getReferenceFigure().translateToRelative(tolerance);
+		Rectangle rect = query.getExpanded(tolerance.width + 1, tolerance.height + 1);
+		Set<GraphicalEditPart> found = new LinkedHashSet<>();
+		grid.visit(rect.x, rect.y, rect.right(), rect.bottom(), part -> {
+			if (!found.contains(part) && indexedBounds.get(part).intersects(rect)) {
+				found.add(part);
+			}
+		});
+		result.addAll(found);
+	}
+
+	/**
+	 * Returns a counter which is incremented whenever an EditPart is added,
+	 * removed or moved. Clients can compare it to find out whether the results of
+	 * previous queries are still valid.
+	 *
+	 * @return the modification count
+	 */
+	public long getModificationCount() {
+		flush();
+		return modificationCount;
+	}
+
+	/**
+	 * Rebuilds the index from the EditParts of the viewer.
+	 */
+	public void invalidate() {
+		dispose();
+		build();
+	}
+
+	/**
+	 * Removes all listeners and removes the index from the viewer. A new index is
+	 * created by the next call to {@link #getSpatialIndex(EditPartViewer)}.
+	 */
+	public void release() {
+		dispose();
+		if (viewer.getProperty(PROPERTY) == this) {
+			viewer.setProperty(PROPERTY, null);
+		}
+	}
+
+	@Override
+	public void figureMoved(IFigure source) {
+		GraphicalEditPart part = figureParts.get(source);
+		if (part != null) {
+			markDirty(part);
+		}
+	}
+
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+		figureMoved((IFigure) evt.getSource());
+	}
+
+	private void build() {
+		GraphicalEditPart root = (GraphicalEditPart) viewer.getRootEditPart();
+		EditPartUtilities.getAllChildren(root).forEach(this::hook);
+		EditPartUtilities.getAllNestedConnectionEditParts(root).forEach(this::hook);
+	}
+
+	private void dispose() {
+		new ArrayList<>(indexedBounds.keySet()).forEach(this::unhook);
+		grid.clear();
+		dirty.clear();
+		modificationCount++;
+	}
+
+	private IFigure getReferenceFigure() {
+		return ((GraphicalEditPart) viewer.getRootEditPart()).getContentPane();
+	}
+
+	private void hook(GraphicalEditPart part) {
+		if (indexedBounds.containsKey(part)) {
+			return;
+		}
+		IFigure figure = part.getFigure();
+		figureParts.put(figure, part);
+		figure.addFigureListener(this);
+		if (figure instanceof Connection) {
+			figure.addPropertyChangeListener(Connection.PROPERTY_POINTS, this);
+		}
+		indexedBounds.put(part, null);
+		dirty.add(part);
+		modificationCount++;
+	}
+
+	private void unhook(GraphicalEditPart part) {
+		if (!indexedBounds.containsKey(part)) {
+			return;
+		}
+		IFigure figure = part.getFigure();
+		figure.removeFigureListener(this);
+		if (figure instanceof Connection) {
+			figure.removePropertyChangeListener(Connection.PROPERTY_POINTS, this);
+		}
+		figureParts.remove(figure);
+		delete(part);
+		indexedBounds.remove(part);
+		dirty.remove(part);
+		modificationCount++;
+	}
+
+	private void markDirty(GraphicalEditPart part) {
+		modificationCount++;
+		List<GraphicalEditPart> parts = new ArrayList<>();
+		parts.add(part);
+		// the figures of nested EditParts may have moved along
+		for (int i = 0; i < parts.size(); i++) {
+			GraphicalEditPart current = parts.get(i);
+			if (indexedBounds.containsKey(current)) {
+				dirty.add(current);
+			}
+			parts.addAll(current.getChildren());
+		}
+	}
+
+	private void flush() {
+		if (dirty.isEmpty()) {
+			return;
+		}
+		for (GraphicalEditPart part : dirty) {
+			delete(part);
+			insert(part);
+		}
+		dirty.clear();
+	}
+
+	private void insert(GraphicalEditPart part) {
+		IFigure figure = part.getFigure();
+		Rectangle r = figure.getBounds().getCopy();
+		figure.translateToAbsolute(r);
+		getReferenceFigure().translateToRelative(r);
+		r.expand(1, 1);
+		indexedBounds.put(part, r);
+		grid.add(part, r.x, r.y, r.right(), r.bottom());
+	}
+
+	private void delete(GraphicalEditPart part) {
+		Rectangle r = indexedBounds.put(part, null);
+		if (r != null) {
+			grid.remove(part, r.x, r.y, r.right(), r.bottom());
+		}
+	}
+
+}
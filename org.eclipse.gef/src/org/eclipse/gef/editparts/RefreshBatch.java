@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.editparts;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.EditPartViewer;
+import org.eclipse.gef.commands.CommandStack;
+import org.eclipse.gef.commands.CommandStackEvent;
+import org.eclipse.gef.commands.CommandStackEventListener;
+
+/**
+ * Coalesces the refreshes of the EditParts of a viewer. While a batch is in
+ * progress, the refreshes requested via {@link #refresh(EditPart, int)} are
+ * recorded, and each EditPart is refreshed at most once when the outermost
+ * batch ends. Outside of a batch, refreshes are performed immediately.
+ * <P>
+ * Batches are begun and ended explicitly via {@link #begin()} and
+ * {@link #end()}, or via {@link #run(Runnable)}. In addition, every viewer
+ * derived from {@link org.eclipse.gef.ui.parts.AbstractEditPartViewer} runs each
+ * command executed, undone or redone on the {@link CommandStack} of its edit
+ * domain in a batch. A compound command which changes many model elements thus
+ * causes a single refresh of each affected EditPart.
+ * <P>
+ * EditParts take part in batching by calling
+ * {@link AbstractEditPart#requestRefresh(int)} from their model listeners instead
+ * of refreshing directly.
+ *
+ * @since 3.19
+ */
+public final class RefreshBatch implements CommandStackEventListener {
+
+	/**
+	 * Refresh kind for {@link AbstractEditPart#refreshVisuals()}.
+	 */
+	public static final int VISUALS = 1;
+
+	/**
+	 * Refresh kind for {@link AbstractEditPart#refreshChildren()}.
+	 */
+	public static final int CHILDREN = 2;
+
+	/**
+	 * Refresh kind for {@link AbstractGraphicalEditPart#refreshSourceConnections()}.
+	 */
+	public static final int SOURCE_CONNECTIONS = 4;
+
+	/**
+	 * Refresh kind for {@link AbstractGraphicalEditPart#refreshTargetConnections()}.
+	 */
+	public static final int TARGET_CONNECTIONS = 8;
+
+	/**
+	 * All refresh kinds, which is equivalent to {@link EditPart#refresh()}.
+	 */
+	public static final int ALL = VISUALS | CHILDREN | SOURCE_CONNECTIONS | TARGET_CONNECTIONS;
+
+	private static final String PROPERTY = RefreshBatch.class.getName();
+
+	private final Map<EditPart, Integer> pending = new LinkedHashMap<>();
+	private CommandStack commandStack;
+	private int depth;
+
+	private RefreshBatch() {
+	}
+
+	/**
+	 * Returns the refresh batch of the given viewer, which is created on demand
+	 * and stored as a property of the viewer.
+	 *
+	 * @param viewer the viewer
+	 * @return the refresh batch of the viewer
+	 */
+	public static RefreshBatch getRefreshBatch(EditPartViewer viewer) {
+		RefreshBatch batch = (RefreshBatch) viewer.getProperty(PROPERTY);
+		if (batch == null) {
+			batch = new RefreshBatch();
+			viewer.setProperty(PROPERTY, batch);
+		}
+		return batch;
+	}
+
+	/**
+	 * Begins a batch. Batches may be nested, the recorded refreshes are performed
+	 * when the outermost batch ends.
+	 */
+	public void begin() {
+		depth++;
+	}
+
+	/**
+	 * Ends a batch. If this ends the outermost batch, the recorded refreshes are
+	 * performed in the order in which the EditParts were first recorded. EditParts
+	 * which have been deactivated in the meantime are skipped.
+	 *
+	 * @throws IllegalStateException if no batch is in progress
+	 */
+	public void end() {
+		if (depth == 0) {
+			throw new IllegalStateException("No refresh batch in progress"); //$NON-NLS-1$
+		}
+		if (--depth > 0) {
+			return;
+		}
+		// Refreshes requested while flushing are performed immediately, since no
+		// batch is in progress anymore
+		List<Map.Entry<EditPart, Integer>> entries = new ArrayList<>(pending.entrySet());
+		pending.clear();
+		for (Map.Entry<EditPart, Integer> entry : entries) {
+			EditPart part = entry.getKey();
+			if (part.isActive()) {
+				performRefresh(part, entry.getValue().intValue());
+			}
+		}
+	}
+
+	/**
+	 * Runs the given runnable in a batch.
+	 *
+	 * @param runnable the runnable
+	 */
+	public void run(Runnable runnable) {
+		begin();
+		try {
+			runnable.run();
+		} finally {
+			end();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if a batch is in progress
+	 */
+	public boolean isBatching() {
+		return depth > 0;
+	}
+
+	/**
+	 * Refreshes the given kinds of the given EditPart, or records them if a batch
+	 * is in progress.
+	 *
+	 * @param part  the EditPart
+	 * @param kinds a combination of {@link #VISUALS}, {@link #CHILDREN},
+	 *              {@link #SOURCE_CONNECTIONS} and {@link #TARGET_CONNECTIONS}
+	 */
+	public void refresh(EditPart part, int kinds) {
+		if (depth == 0) {
+			performRefresh(part, kinds);
+		} else {
+			pending.merge(part, Integer.valueOf(kinds), (a, b) -> Integer.valueOf(a.intValue() | b.intValue()));
+		}
+	}
+
+	/**
+	 * Runs the commands executed, undone and redone on the given command stack in
+	 * a batch from now on. Replaces the command stack set before.
+	 *
+	 * @param stack the command stack or <code>null</code>
+	 */
+	public void setCommandStack(CommandStack stack) {
+		if (commandStack == stack) {
+			return;
+		}
+		if (commandStack != null) {
+			commandStack.removeCommandStackEventListener(this);
+		}
+		commandStack = stack;
+		if (commandStack != null) {
+			commandStack.addCommandStackEventListener(this);
+		}
+	}
+
+	/**
+	 * @see CommandStackEventListener#stackChanged(CommandStackEvent)
+	 */
+	@Override
+	public void stackChanged(CommandStackEvent event) {
+		int detail = event.getDetail();
+		if ((detail & (CommandStack.PRE_EXECUTE | CommandStack.PRE_UNDO | CommandStack.PRE_REDO)) != 0) {
+			begin();
+		} else if ((detail & (CommandStack.POST_EXECUTE | CommandStack.POST_UNDO | CommandStack.POST_REDO)) != 0
+				&& depth > 0) {
+			end();
+		}
+	}
+
+	static void performRefresh(EditPart part, int kinds) {
+		if (!(part instanceof AbstractEditPart editPart)) {
+			part.refresh();
+			return;
+		}
+		if ((kinds & VISUALS) != 0) {
+			editPart.refreshVisuals();
+		}
+		if ((kinds & CHILDREN) != 0) {
+			editPart.refreshChildren();
+		}
+		if (part instanceof AbstractGraphicalEditPart graphicalPart) {
+			if ((kinds & SOURCE_CONNECTIONS) != 0) {
+				graphicalPart.refreshSourceConnections();
+			}
+			if ((kinds & TARGET_CONNECTIONS) != 0) {
+				graphicalPart.refreshTargetConnections();
+			}
+		}
+	}
+
+}
@@ -157,6 +157,15 @@ public class PinnablePaletteStackEditPart extends PaletteEditPart implements IPa
 		}
 	}
 
+	/**
+	 * The figures must be reordered one by one, since their indexes depend on the
+	 * active figure, see {@link #reorderChild(EditPart, int)}.
+	 */
+	@Override
+	protected boolean canReorderChildFiguresAtOnce() {
+		return false;
+	}
+
 	private void reorderChildInChildrenList(PaletteEditPart childEP, int index) {
 		@SuppressWarnings("unchecked")
 		List<PaletteEditPart> children = (List<PaletteEditPart>) getChildren();
@@ -12,9 +12,14 @@
  *******************************************************************************/
 package org.eclipse.gef.tools;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.KeyEvent;
@@ -29,6 +34,8 @@ import org.eclipse.draw2d.Figure;
 import org.eclipse.draw2d.FigureUtilities;
 import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.Viewport;
+import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.Rectangle;
 
 import org.eclipse.gef.ConnectionEditPart;
@@ -39,6 +46,7 @@ import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.gef.KeyHandler;
 import org.eclipse.gef.Request;
 import org.eclipse.gef.RequestConstants;
+import org.eclipse.gef.editparts.EditPartSpatialIndex;
 import org.eclipse.gef.util.EditPartUtilities;
 
 /**
@@ -216,6 +224,15 @@ public class MarqueeSelectionTool extends AbstractTool {
 
 	private Request targetRequest;
 
+	// The marquee selection, which is updated incrementally while dragging
+	private EditPartSpatialIndex spatialIndex;
+	private long indexModificationCount;
+	private Rectangle indexedMarquee;
+	private Point indexedViewLocation;
+	private Set<GraphicalEditPart> primarySelection;
+	private Set<GraphicalEditPart> secondarySelection;
+	private Set<GraphicalEditPart> changedPrimarySelection;
+
 	/**
 	 * Creates a new MarqueeSelectionTool of default type
 	 * {@link #BEHAVIOR_NODES_CONTAINED}.
@@ -281,6 +298,14 @@ public class MarqueeSelectionTool extends AbstractTool {
 	 * {@link #isMarqueeSelectable(GraphicalEditPart)} and
 	 * {@link #isPrimaryMarqueeSelectedEditPart(GraphicalEditPart)} to decide
 	 * whether the candidate is to be included in the marquee selection.
+	 * <P>
+	 * The candidates are looked up in the {@link EditPartSpatialIndex} of the
+	 * viewer. While dragging, only the edit parts near the area by which the
+	 * marquee has changed since the previous calculation are reconsidered, unless
+	 * edit parts have been added, removed or moved, or the viewport of the root
+	 * edit part has been scrolled in the meantime. The results of
+	 * {@link #isMarqueeSelectable(GraphicalEditPart)} for the other edit parts are
+	 * assumed not to have changed.
 	 *
 	 * @return A {@link Collection} containing all {@link GraphicalEditPart}s that
 	 *         should be regarded as being directly affected by the current marquee
@@ -288,6 +313,64 @@ public class MarqueeSelectionTool extends AbstractTool {
 	 * @since 3.7
 	 */
 	private Collection<GraphicalEditPart> calculatePrimaryMarqueeSelectedEditParts() {
+		EditPartSpatialIndex index = EditPartSpatialIndex.getSpatialIndex(getCurrentViewer());
+		if (index == null) {
+			changedPrimarySelection = null;
+			return calculateAllPrimaryMarqueeSelectedEditParts();
+		}
+
+		Rectangle marquee = index.toIndexCoordinates(getCurrentMarqueeSelectionRectangle());
+		Point viewLocation = getViewLocation();
+		Collection<GraphicalEditPart> editPartsToProcess = new HashSet<>();
+		if (primarySelection == null || index != spatialIndex
+				|| index.getModificationCount() != indexModificationCount
+				|| !Objects.equals(viewLocation, indexedViewLocation)) {
+			// only edit parts intersecting the marquee can be affected by it
+			primarySelection = new HashSet<>();
+			changedPrimarySelection = null;
+			index.collectEditParts(marquee, editPartsToProcess);
+		} else {
+			// the state of edit parts which don't intersect the area by which the
+			// marquee has changed is unchanged
+			changedPrimarySelection = new HashSet<>();
+			List<Rectangle> changedAreas = new ArrayList<>();
+			addDifference(indexedMarquee, marquee, changedAreas);
+			addDifference(marquee, indexedMarquee, changedAreas);
+			changedAreas.forEach(area -> index.collectEditParts(area, editPartsToProcess));
+		}
+		spatialIndex = index;
+		indexModificationCount = index.getModificationCount();
+		indexedMarquee = marquee;
+		indexedViewLocation = viewLocation;
+
+		for (GraphicalEditPart editPart : editPartsToProcess) {
+			boolean included = isMarqueeCandidate(editPart) && isMarqueeSelectable(editPart)
+					&& isPrimaryMarqueeSelectedEditPart(editPart);
+			boolean changed = included ? primarySelection.add(editPart) : primarySelection.remove(editPart);
+			if (changed && changedPrimarySelection != null) {
+				changedPrimarySelection.add(editPart);
+			}
+		}
+		return primarySelection;
+	}
+
+	/**
+	 * Returns the view location of the viewport of the root edit part, or
+	 * <code>null</code> if the root edit part has no viewport.
+	 */
+	private Point getViewLocation() {
+		if (getCurrentViewer().getRootEditPart() instanceof GraphicalEditPart root
+				&& root.getFigure() instanceof Viewport viewport) {
+			return viewport.getViewLocation();
+		}
+		return null;
+	}
+
+	/**
+	 * Calculates the directly affected edit parts by processing all edit parts of
+	 * the viewer.
+	 */
+	private Collection<GraphicalEditPart> calculateAllPrimaryMarqueeSelectedEditParts() {
 		Collection<GraphicalEditPart> editPartsToProcess = new HashSet<>();
 		if (marqueeBehavior != BEHAVIOR_CONNECTIONS_CONTAINED && marqueeBehavior != BEHAVIOR_CONNECTIONS_TOUCHED) {
 			// process nodes
@@ -307,6 +390,51 @@ public class MarqueeSelectionTool extends AbstractTool {
 				.filter(this::isPrimaryMarqueeSelectedEditPart).toList();
 	}
 
+	/**
+	 * Returns whether the given edit part is of a kind which is processed for the
+	 * current marquee behavior, i.e. a node or a connection.
+	 */
+	private boolean isMarqueeCandidate(GraphicalEditPart editPart) {
+		if (editPart instanceof ConnectionEditPart) {
+			return marqueeBehavior != BEHAVIOR_NODES_CONTAINED && marqueeBehavior != BEHAVIOR_NODES_TOUCHED;
+		}
+		return marqueeBehavior != BEHAVIOR_CONNECTIONS_CONTAINED && marqueeBehavior != BEHAVIOR_CONNECTIONS_TOUCHED;
+	}
+
+	/**
+	 * Adds the rectangles covering the area of <code>a</code> which is not covered
+	 * by <code>b</code> to the given list.
+	 */
+	private static void addDifference(Rectangle a, Rectangle b, List<Rectangle> result) {
+		if (!a.intersects(b)) {
+			result.add(a);
+			return;
+		}
+		if (a.y < b.y) {
+			result.add(new Rectangle(a.x, a.y, a.width, b.y - a.y));
+		}
+		if (a.bottom() > b.bottom()) {
+			result.add(new Rectangle(a.x, b.bottom(), a.width, a.bottom() - b.bottom()));
+		}
+		int top = Math.max(a.y, b.y);
+		int height = Math.min(a.bottom(), b.bottom()) - top;
+		if (a.x < b.x) {
+			result.add(new Rectangle(a.x, top, b.x - a.x, height));
+		}
+		if (a.right() > b.right()) {
+			result.add(new Rectangle(b.right(), top, a.right() - b.right(), height));
+		}
+	}
+
+	private void resetMarqueeSelection() {
+		spatialIndex = null;
+		indexedMarquee = null;
+		indexedViewLocation = null;
+		primarySelection = null;
+		secondarySelection = null;
+		changedPrimarySelection = null;
+	}
+
 	/**
 	 * Responsible of calculating those edit parts that should be regarded as being
 	 * indirectly affected by the marquee selection. By default, the method
@@ -315,6 +443,10 @@ public class MarqueeSelectionTool extends AbstractTool {
 	 * {@link #isMarqueeSelectable(GraphicalEditPart)} and
 	 * {@link #isSecondaryMarqueeSelectedEditPart(Collection, EditPart)} to decide
 	 * whether the candidate is to be included in the marquee selection.
+	 * <P>
+	 * If the directly affected edit parts have been updated incrementally, only
+	 * the connections of those edit parts whose state has changed are
+	 * reconsidered.
 	 *
 	 * @param directlyMarqueeSelectedEditParts A collection containing those
 	 *                                         {@link GraphicalEditPart}s that were
@@ -327,16 +459,29 @@ public class MarqueeSelectionTool extends AbstractTool {
 	private Collection<GraphicalEditPart> calculateSecondaryMarqueeSelectedEditParts(
 			Collection<GraphicalEditPart> directlyMarqueeSelectedEditParts) {
 
+		Collection<GraphicalEditPart> changedEditParts = directlyMarqueeSelectedEditParts;
+		if (changedPrimarySelection != null && secondarySelection != null) {
+			changedEditParts = changedPrimarySelection;
+		} else {
+			secondarySelection = new HashSet<>();
+		}
+
 		Collection<GraphicalEditPart> editPartsToProcess = new HashSet<>();
-		for (GraphicalEditPart marqueeSelectedEditPart : directlyMarqueeSelectedEditParts) {
+		for (GraphicalEditPart marqueeSelectedEditPart : changedEditParts) {
 			editPartsToProcess.addAll(marqueeSelectedEditPart.getSourceConnections());
 			editPartsToProcess.addAll(marqueeSelectedEditPart.getTargetConnections());
 		}
 
 		// process all edit parts and decide, whether they are indirectly
 		// affected by marquee selection
-		return editPartsToProcess.stream()
-				.filter(gep -> isSecondaryMarqueeSelectedEditPart(directlyMarqueeSelectedEditParts, gep)).toList();
+		for (GraphicalEditPart editPart : editPartsToProcess) {
+			if (isSecondaryMarqueeSelectedEditPart(directlyMarqueeSelectedEditParts, editPart)) {
+				secondarySelection.add(editPart);
+			} else {
+				secondarySelection.remove(editPart);
+			}
+		}
+		return secondarySelection;
 	}
 
 	private static Request createTargetRequest() {
@@ -352,6 +497,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 			eraseMarqueeFeedback();
 			eraseTargetFeedback();
 		}
+		resetMarqueeSelection();
 		super.deactivate();
 		setState(STATE_TERMINAL);
 	}
@@ -370,6 +516,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 		for (EditPart editPart : selectedEditParts) {
 			editPart.eraseTargetFeedback(getTargetRequest());
 		}
+		selectedEditParts = null;
 	}
 
 	/**
@@ -449,6 +596,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 			handleInvalidInput();
 		}
 		if (stateTransition(STATE_INITIAL, STATE_DRAG_IN_PROGRESS)) {
+			resetMarqueeSelection();
 			if (getCurrentInput().isModKeyDown(SWT.MOD1)) {
 				setSelectionMode(TOGGLE_MODE);
 			} else if (getCurrentInput().isShiftKeyDown()) {
@@ -481,9 +629,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 	protected boolean handleDragInProgress() {
 		if (isInState(STATE_DRAG | STATE_DRAG_IN_PROGRESS)) {
 			showMarqueeFeedback();
-			eraseTargetFeedback();
-			selectedEditParts = calculateMarqueeSelectedEditParts();
-			showTargetFeedback();
+			updateTargetFeedback(calculateMarqueeSelectedEditParts());
 		}
 		return true;
 	}
@@ -534,6 +680,12 @@ public class MarqueeSelectionTool extends AbstractTool {
 	/**
 	 * Decides whether the given edit part may potentially be included in the
 	 * current marquee selection.
+	 * <P>
+	 * While dragging, this method is only called again for edit parts near the
+	 * area by which the marquee has changed. Overrides must therefore not depend
+	 * on state which changes during the drag, other than the bounds of the edit
+	 * parts and the view location of the viewer's viewport, e.g. on the scroll
+	 * position of nested viewports.
 	 *
 	 * @param editPart the {@link EditPart} of interest
 	 * @return <code>true</code> if the given edit part may be included into the
@@ -773,10 +925,29 @@ public class MarqueeSelectionTool extends AbstractTool {
 		marqueeFeedbackFigure.validate();
 	}
 
-	private void showTargetFeedback() {
-		for (EditPart editPart : selectedEditParts) {
-			editPart.showTargetFeedback(getTargetRequest());
+	/**
+	 * Erases the target feedback of the edit parts which are no longer affected by
+	 * the marquee selection, and shows it for the newly affected ones.
+	 */
+	private void updateTargetFeedback(Collection<? extends GraphicalEditPart> newSelectedEditParts) {
+		Collection<? extends EditPart> oldSelectedEditParts = Collections.emptySet();
+		if (selectedEditParts != null) {
+			oldSelectedEditParts = selectedEditParts instanceof Set ? selectedEditParts
+					: new HashSet<>(selectedEditParts);
+		}
+		Collection<? extends EditPart> newSelection = newSelectedEditParts instanceof Set ? newSelectedEditParts
+				: new HashSet<>(newSelectedEditParts);
+		for (EditPart editPart : oldSelectedEditParts) {
+			if (!newSelection.contains(editPart)) {
+				editPart.eraseTargetFeedback(getTargetRequest());
+			}
+		}
+		for (EditPart editPart : newSelectedEditParts) {
+			if (!oldSelectedEditParts.contains(editPart)) {
+				editPart.showTargetFeedback(getTargetRequest());
+			}
 		}
+		selectedEditParts = newSelectedEditParts;
 	}
 
 }
@@ -55,6 +55,7 @@ import org.eclipse.gef.GraphicalEditPart;
 import org.eclipse.gef.KeyHandler;
 import org.eclipse.gef.RootEditPart;
 import org.eclipse.gef.SelectionManager;
+import org.eclipse.gef.editparts.RefreshBatch;
 
 /**
  * The base implementation for EditPartViewer.
@@ -232,6 +233,8 @@ public abstract class AbstractEditPartViewer implements EditPartViewer {
 		if (resources != null) {
 			resources.dispose();
 		}
+		// the command stack may outlive the viewer
+		RefreshBatch.getRefreshBatch(this).setCommandStack(null);
 		setControl(null);
 	}
 
@@ -727,6 +730,7 @@ public abstract class AbstractEditPartViewer implements EditPartViewer {
 	@Override
 	public void setEditDomain(EditDomain editdomain) {
 		this.domain = editdomain;
+		RefreshBatch.getRefreshBatch(this).setCommandStack(editdomain == null ? null : editdomain.getCommandStack());
 	}
 
 	/**
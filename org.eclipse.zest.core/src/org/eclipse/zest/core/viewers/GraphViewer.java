@@ -199,6 +199,26 @@ public class GraphViewer extends AbstractStructuredGraphViewer implements ISelec
 		graph.applyLayout();
 	}
 
+	/**
+	 * Sets whether layouts of this viewer are computed on a background thread.
+	 *
+	 * @param asynchronous <code>true</code> to compute layouts in the background
+	 * @see Graph#setAsynchronousLayout(boolean)
+	 * @since 1.13
+	 */
+	public void setAsynchronousLayout(boolean asynchronous) {
+		graph.setAsynchronousLayout(asynchronous);
+	}
+
+	/**
+	 * @return <code>true</code> if layouts are computed on a background thread
+	 * @see Graph#isAsynchronousLayout()
+	 * @since 1.13
+	 */
+	public boolean isAsynchronousLayout() {
+		return graph.isAsynchronousLayout();
+	}
+
 	@Override
 	protected void setSelectionToWidget(@SuppressWarnings("rawtypes") List l, boolean reveal) {
 		GraphItem[] listOfItems = findItems(l);
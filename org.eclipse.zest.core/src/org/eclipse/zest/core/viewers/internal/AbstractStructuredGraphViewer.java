@@ -74,6 +74,8 @@ public abstract class AbstractStructuredGraphViewer extends AbstractZoomableView
 	 */
 	private final List<ConstraintAdapter> constraintAdapters = new ArrayList<>();
 
+	private boolean incrementalRefresh;
+
 	/**
 	 * A simple graph comparator that orders graph elements based on their type
 	 * (connection or node), and their unique object identification.
@@ -199,6 +201,30 @@ public abstract class AbstractStructuredGraphViewer extends AbstractZoomableView
 		return this.constraintAdapters;
 	}
 
+	/**
+	 * Sets whether a refresh of the input updates the graph incrementally. By
+	 * default, the graph is rebuilt from scratch and only the locations of the
+	 * nodes are carried over. An incremental refresh compares the elements of the
+	 * content provider with the existing nodes and connections, creates and
+	 * removes only those which have been added or removed, and restyles the
+	 * others, which keep their figures, locations and sizes.
+	 *
+	 * @param incremental <code>true</code> to refresh the graph incrementally
+	 * @since 1.13
+	 */
+	public void setIncrementalRefresh(boolean incremental) {
+		this.incrementalRefresh = incremental;
+	}
+
+	/**
+	 * @return <code>true</code> if a refresh of the input updates the graph
+	 *         incrementally
+	 * @since 1.13
+	 */
+	public boolean isIncrementalRefresh() {
+		return incrementalRefresh;
+	}
+
 	/**
 	 * Sets the layout algorithm for this viewer. Subclasses may place restrictions
 	 * on the algorithms that it accepts.
@@ -13,10 +13,13 @@
 package org.eclipse.zest.core.viewers.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.swt.SWT;
 
@@ -29,6 +32,7 @@ import org.eclipse.zest.core.viewers.INestedContentProvider;
 import org.eclipse.zest.core.widgets.ConstraintAdapter;
 import org.eclipse.zest.core.widgets.Graph;
 import org.eclipse.zest.core.widgets.GraphConnection;
+import org.eclipse.zest.core.widgets.GraphContainer;
 import org.eclipse.zest.core.widgets.GraphItem;
 import org.eclipse.zest.core.widgets.GraphNode;
 import org.eclipse.zest.core.widgets.IContainer;
@@ -48,6 +52,10 @@ public abstract class AbstractStylingModelFactory implements IStylingGraphModelF
 	private int connectionStyle;
 	private int nodeStyle;
 	private List<ConstraintAdapter> constraintAdapters = new ArrayList<>();
+	// The elements of the nodes and connections built by an incremental refresh
+	private Set<Object> builtNodes;
+	private Set<Object> builtConnections;
+	private Map<GraphNode, IContainer> oldParents;
 
 	/**
 	 *
@@ -176,39 +184,25 @@ public abstract class AbstractStylingModelFactory implements IStylingGraphModelF
 		GraphConnection oldConnection = viewer.getGraphModelConnection(element);
 		GraphNode sn = viewer.getGraphModelNode(source);
 		GraphNode dn = viewer.getGraphModelNode(dest);
+		if (builtNodes != null) {
+			// the nodes may still be left over from before the refresh
+			sn = builtNodes.contains(source) ? sn : createNode(graph, source);
+			dn = builtNodes.contains(dest) ? dn : createNode(graph, dest);
+		}
+		markConnectionBuilt(element);
 		if (oldConnection != null) {
 			if (sn != oldConnection.getSource() || dn != oldConnection.getDestination()) {
-				viewer.removeGraphModelConnection(oldConnection);
+				viewer.removeGraphModelConnection(element);
 			} else {
 				styleItem(oldConnection);
 				return oldConnection;
 			}
 		}
-		IFigureProvider figureProvider = null;
-		if (getLabelProvider() instanceof IFigureProvider) {
-			figureProvider = (IFigureProvider) getLabelProvider();
-		}
 		if (sn == null) {
-			IFigure figure = null;
-			if (figureProvider != null) {
-				figure = figureProvider.getFigure(source);
-			}
-			if (figure != null) {
-				sn = createNode(graph, source, figure);
-			} else {
-				sn = createNode(graph, source);
-			}
+			sn = createNode(graph, source);
 		}
 		if (dn == null) {
-			IFigure figure = null;
-			if (figureProvider != null) {
-				figure = figureProvider.getFigure(dest);
-			}
-			if (figure != null) {
-				dn = createNode(graph, dest, figure);
-			} else {
-				dn = createNode(graph, dest);
-			}
+			dn = createNode(graph, dest);
 		}
 		GraphConnection c = viewer.addGraphModelConnection(element, sn, dn);
 		styleItem(c);
@@ -226,7 +220,10 @@ public abstract class AbstractStylingModelFactory implements IStylingGraphModelF
 		GraphNode node = null;
 		if (getContentProvider() instanceof INestedContentProvider) {
 			boolean isContainer = ((INestedContentProvider) getContentProvider()).hasChildren(element);
+			removeIncompatibleNode(element, isContainer, graph);
+			markNodeBuilt(element);
 			if (isContainer) {
+				boolean changed = viewer.getGraphModelNode(element) == null;
 				node = viewer.addGraphModelContainer(element);
 				styleItem(node);
 				Object[] childNodes = ((INestedContentProvider) getContentProvider()).getChildren(element);
@@ -235,25 +232,73 @@ public abstract class AbstractStylingModelFactory implements IStylingGraphModelF
 					return node;
 				}
 				for (Object childNode2 : childNodes) {
+					removeIncompatibleNode(childNode2, false, (IContainer) node);
+					markNodeBuilt(childNode2);
+					changed |= viewer.getGraphModelNode(childNode2) == null;
 					GraphNode childNode = viewer.addGraphModelNode((IContainer) node, childNode2);
 					styleItem(childNode);
 				}
-				((IContainer) node).applyLayout();
+				if (changed) {
+					((IContainer) node).applyLayout();
+				}
 				return node;
 			}
 		}
-		node = viewer.addGraphModelNode(element, figure);
+		markNodeBuilt(element);
+		IFigure nodeFigure = figure;
+		if (nodeFigure == null && viewer.getGraphModelNode(element) == null
+				&& getLabelProvider() instanceof IFigureProvider figureProvider) {
+			nodeFigure = figureProvider.getFigure(element);
+		}
+		node = viewer.addGraphModelNode(element, nodeFigure);
 		styleItem(node);
 		return node;
 	}
 
 	@Override
 	public GraphNode createNode(Graph graph, Object element) {
-		IFigure nodeFigure = null;
-		if (getLabelProvider() instanceof IFigureProvider) {
-			nodeFigure = ((IFigureProvider) getLabelProvider()).getFigure(element);
+		// the figure is only requested if a new node is created
+		return this.createNode(graph, element, null);
+	}
+
+	private void markNodeBuilt(Object element) {
+		if (builtNodes != null) {
+			builtNodes.add(element);
+		}
+	}
+
+	private void markConnectionBuilt(Object element) {
+		if (builtConnections != null) {
+			builtConnections.add(element);
 		}
-		return this.createNode(graph, element, nodeFigure);
+	}
+
+	/**
+	 * Removes the node left over from before an incremental refresh for the given
+	 * element if it can't be reused, because the element has become a container,
+	 * has ceased to be one, or has moved to another parent.
+	 */
+	private void removeIncompatibleNode(Object element, boolean isContainer, IContainer parent) {
+		if (builtNodes == null || builtNodes.contains(element)) {
+			return;
+		}
+		GraphNode node = viewer.getGraphModelNode(element);
+		if (node != null && ((node instanceof GraphContainer) != isContainer || oldParents.get(node) != parent)) {
+			viewer.removeGraphModelNode(element);
+		}
+	}
+
+	/**
+	 * Returns whether the node of the given element has been built by the current
+	 * build of the graph. Nodes which are left over from before an incremental
+	 * refresh have not been built yet, and are removed once the build is complete
+	 * unless they are built by then.
+	 *
+	 * @param element the element of the node
+	 * @return <code>true</code> if the node has been built
+	 */
+	protected boolean isNodeBuilt(Object element) {
+		return builtNodes == null || builtNodes.contains(element);
 	}
 
 	@Override
@@ -314,6 +359,10 @@ public abstract class AbstractStylingModelFactory implements IStylingGraphModelF
 	 */
 	@Override
 	public void refreshGraph(Graph graph) {
+		if (viewer.isIncrementalRefresh()) {
+			refreshGraphIncrementally(graph);
+			return;
+		}
 		// with this kind of graph, it is just as easy and cost-effective to
 		// rebuild the whole thing.
 
@@ -352,6 +401,43 @@ public abstract class AbstractStylingModelFactory implements IStylingGraphModelF
 		}
 	}
 
+	/**
+	 * Builds the graph on top of the existing nodes and connections, which are kept
+	 * and restyled if their elements are still provided by the content provider.
+	 * Afterwards, the nodes and connections of the elements which are gone are
+	 * removed. The retained nodes keep their figures, locations and sizes.
+	 *
+	 * @param graph
+	 */
+	private void refreshGraphIncrementally(Graph graph) {
+		Set<Object> oldNodes = new HashSet<>(viewer.getNodesMap().keySet());
+		Set<Object> oldConnections = new HashSet<>(Arrays.asList(viewer.getConnectionElements()));
+		builtNodes = new HashSet<>();
+		builtConnections = new HashSet<>();
+		oldParents = new HashMap<>();
+		for (GraphNode node : graph.getNodes()) {
+			oldParents.put(node, graph);
+			if (node instanceof GraphContainer container) {
+				container.getNodes().forEach(child -> oldParents.put(child, container));
+			}
+		}
+		try {
+			doBuildGraph(graph);
+			oldConnections.removeAll(builtConnections);
+			oldNodes.removeAll(builtNodes);
+		} finally {
+			builtNodes = null;
+			builtConnections = null;
+			oldParents = null;
+		}
+		for (Object element : oldConnections) {
+			viewer.removeGraphModelConnection(element);
+		}
+		for (Object element : oldNodes) {
+			viewer.removeGraphModelNode(element);
+		}
+	}
+
 	/**
 	 * Convenience method for clearing all the elements in the graph.
 	 *
@@ -371,12 +457,17 @@ public abstract class AbstractStylingModelFactory implements IStylingGraphModelF
 
 	/**
 	 * Builds the graph model from the viewer's content provider. There is no
-	 * guarantee that the model will be cleared before this method is called.
+	 * guarantee that the model will be cleared before this method is called. The
+	 * model is not cleared during an incremental refresh, in which case the nodes
+	 * which have not been built yet are left over from before the refresh (see
+	 * {@link #isNodeBuilt(Object)}).
 	 *
 	 * @param model
 	 */
 	protected void doBuildGraph(Graph model) {
-		clearGraph(model);
+		if (builtNodes == null) {
+			clearGraph(model);
+		}
 		model.setConnectionStyle(getConnectionStyle());
 		model.setNodeStyle(getNodeStyle());
 		model.setConstraintAdapters(constraintAdapters);
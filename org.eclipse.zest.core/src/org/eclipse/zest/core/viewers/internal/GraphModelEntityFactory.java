@@ -18,7 +18,6 @@ import java.util.List;
 import java.util.Set;
 
 import org.eclipse.zest.core.viewers.EntityConnectionData;
-import org.eclipse.zest.core.viewers.IFigureProvider;
 import org.eclipse.zest.core.viewers.IGraphEntityContentProvider;
 import org.eclipse.zest.core.widgets.Graph;
 import org.eclipse.zest.core.widgets.GraphConnection;
@@ -65,16 +64,8 @@ public class GraphModelEntityFactory extends AbstractStylingModelFactory {
 			return;
 		}
 		for (Object data : entities) {
-			IFigureProvider figureProvider = null;
-			if (getLabelProvider() instanceof IFigureProvider) {
-				figureProvider = (IFigureProvider) getLabelProvider();
-			}
 			if (!filterElement(inputElement, data)) {
-				if (figureProvider != null) {
-					createNode(model, data, figureProvider.getFigure(data));
-				} else {
-					createNode(model, data);
-				}
+				createNode(model, data);
 			}
 		}
 
@@ -83,8 +74,9 @@ public class GraphModelEntityFactory extends AbstractStylingModelFactory {
 		entities = keySet.toArray();
 
 		for (Object data : entities) {
-			// If this element is filtered, continue to the next one.
-			if (filterElement(inputElement, data)) {
+			// If this element is filtered, or its node is left over from before an
+			// incremental refresh, continue to the next one.
+			if (filterElement(inputElement, data) || !isNodeBuilt(data)) {
 				continue;
 			}
 			Object[] related = ((IGraphEntityContentProvider) getContentProvider()).getConnectedTo(data);
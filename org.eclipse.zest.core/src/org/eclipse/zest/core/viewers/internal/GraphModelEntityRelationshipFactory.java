@@ -78,6 +78,11 @@ public class GraphModelEntityRelationshipFactory extends AbstractStylingModelFac
 
 		for (int i = 0; i < listOfNodes.size(); i++) {
 			GraphNode node = listOfNodes.get(i);
+			if (!isNodeBuilt(node.getData())) {
+				// left over from before an incremental refresh
+				listOfNodes.remove(i--);
+				continue;
+			}
 			if (node instanceof GraphContainer container) {
 				List<GraphNode> childNodes = container.getNodes();
 				listOfNodes.addAll(childNodes);
@@ -12,7 +12,6 @@
  ******************************************************************************/
 package org.eclipse.zest.core.viewers.internal;
 
-import org.eclipse.zest.core.viewers.IFigureProvider;
 import org.eclipse.zest.core.viewers.IGraphContentProvider;
 import org.eclipse.zest.core.widgets.Graph;
 import org.eclipse.zest.core.widgets.GraphConnection;
@@ -56,11 +55,6 @@ public class GraphModelFactory extends AbstractStylingModelFactory {
 		// make the model have the same styles as the viewer
 		Object rels[] = getContentProvider().getElements(getViewer().getInput());
 		if (rels != null) {
-			IFigureProvider figureProvider = null;
-			if (getLabelProvider() instanceof IFigureProvider) {
-				figureProvider = (IFigureProvider) getLabelProvider();
-			}
-
 			// If rels returns null then just continue
 			// @tag zest(bug(134928(fix))) : An empty graph causes an NPE
 			for (Object rel : rels) {
@@ -75,21 +69,13 @@ public class GraphModelFactory extends AbstractStylingModelFactory {
 				if (source == null) {
 					// just create the node for the destination
 					if (dest != null) {
-						if (figureProvider != null) {
-							createNode(model, dest, figureProvider.getFigure(dest));
-						} else {
-							createNode(model, dest);
-						}
+						createNode(model, dest);
 					}
 					continue;
 				} else if (dest == null) {
 					// just create the node for the source
 					if (source != null) {
-						if (figureProvider != null) {
-							createNode(model, source, figureProvider.getFigure(source));
-						} else {
-							createNode(model, source);
-						}
+						createNode(model, source);
 					}
 					continue;
 				}
@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.core.widgets;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Item;
+
+import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
+import org.eclipse.zest.layouts.LayoutBendPoint;
+import org.eclipse.zest.layouts.LayoutEntity;
+import org.eclipse.zest.layouts.LayoutRelationship;
+import org.eclipse.zest.layouts.algorithms.AbstractLayoutAlgorithm;
+import org.eclipse.zest.layouts.constraints.BasicEdgeConstraints;
+import org.eclipse.zest.layouts.constraints.BasicEntityConstraint;
+import org.eclipse.zest.layouts.constraints.LayoutConstraint;
+import org.eclipse.zest.layouts.progress.ProgressEvent;
+import org.eclipse.zest.layouts.progress.ProgressListener;
+
+import org.eclipse.draw2d.Animation;
+
+/**
+ * Runs a layout algorithm on a background thread. The geometry and the layout
+ * constraints of the entities and relationships are copied on the UI thread
+ * before the layout starts, so that the algorithm never touches widgets or
+ * figures. Once the algorithm has ended, the computed locations, sizes and bend
+ * points are applied to the graph on the UI thread, optionally animated.
+ * <P>
+ * Only {@link BasicEntityConstraint} and {@link BasicEdgeConstraints} are
+ * copied, which are the only constraints queried by the algorithms of Zest.
+ */
+class BackgroundLayout implements ProgressListener {
+
+	private final Graph graph;
+	private final Display display;
+	private final AbstractLayoutAlgorithm algorithm;
+	private final EntitySnapshot[] entities;
+	private final RelationshipSnapshot[] relationships;
+	private final boolean animate;
+	private final AtomicReference<ProgressEvent> pendingUpdate = new AtomicReference<>();
+	private volatile boolean cancelled;
+	private volatile RuntimeException failure;
+
+	BackgroundLayout(Graph graph, AbstractLayoutAlgorithm algorithm, LayoutEntity[] entitiesToLayout,
+			LayoutRelationship[] relationshipsToConsider, boolean animate) {
+		this.graph = graph;
+		this.display = graph.getDisplay();
+		this.algorithm = algorithm;
+		this.animate = animate;
+		Map<LayoutEntity, EntitySnapshot> snapshots = new IdentityHashMap<>();
+		entities = new EntitySnapshot[entitiesToLayout.length];
+		for (int i = 0; i < entitiesToLayout.length; i++) {
+			entities[i] = new EntitySnapshot(entitiesToLayout[i]);
+			snapshots.put(entitiesToLayout[i], entities[i]);
+		}
+		relationships = new RelationshipSnapshot[relationshipsToConsider.length];
+		for (int i = 0; i < relationshipsToConsider.length; i++) {
+			LayoutRelationship relationship = relationshipsToConsider[i];
+			EntitySnapshot source = snapshots.computeIfAbsent(relationship.getSourceInLayout(), EntitySnapshot::new);
+			EntitySnapshot destination = snapshots.computeIfAbsent(relationship.getDestinationInLayout(),
+					EntitySnapshot::new);
+			relationships[i] = new RelationshipSnapshot(relationship, source, destination);
+		}
+	}
+
+	/**
+	 * Starts the layout algorithm on a background thread.
+	 *
+	 * @param width  the width of the layout area
+	 * @param height the height of the layout area
+	 * @throws InvalidLayoutConfiguration if the algorithm can't be run
+	 *                                    asynchronously
+	 */
+	void start(double width, double height) throws InvalidLayoutConfiguration {
+		algorithm.addProgressListener(this);
+		try {
+			algorithm.applyLayout(entities, relationships, 0, 0, width, height, true, false);
+		} catch (InvalidLayoutConfiguration | RuntimeException e) {
+			algorithm.removeProgressListener(this);
+			throw e;
+		}
+	}
+
+	/**
+	 * Requests the algorithm to stop and discards its results. Must be called on
+	 * the UI thread. The algorithm only notices the request between two of its
+	 * iterations, and cleans up on the background thread.
+	 */
+	void cancel() {
+		if (cancelled) {
+			return;
+		}
+		cancelled = true;
+		algorithm.stop();
+	}
+
+	boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Returns the exception thrown by the algorithm on the background thread, if
+	 * any. Only valid once the algorithm has ended.
+	 */
+	RuntimeException getFailure() {
+		return failure;
+	}
+
+	@Override
+	public void progressStarted(ProgressEvent e) {
+		asyncExec(() -> graph.fireLayoutProgressStarted(e));
+	}
+
+	@Override
+	public void progressUpdated(ProgressEvent e) {
+		// Coalesce the updates of a fast algorithm into a single UI runnable
+		if (pendingUpdate.getAndSet(e) == null) {
+			asyncExec(() -> graph.fireLayoutProgressUpdated(pendingUpdate.getAndSet(null)));
+		}
+	}
+
+	@Override
+	public void progressEnded(ProgressEvent e) {
+		// Stopping the algorithm from the UI thread after it ended notifies the
+		// listeners again, but only the background thread knows when it really ended.
+		if (Thread.currentThread() == display.getThread()) {
+			return;
+		}
+		failure = algorithm.getLayoutException();
+		algorithm.removeProgressListener(this);
+		asyncExec(() -> graph.backgroundLayoutEnded(this, e));
+	}
+
+	private void asyncExec(Runnable runnable) {
+		if (!display.isDisposed()) {
+			display.asyncExec(() -> {
+				if (!graph.isDisposed()) {
+					runnable.run();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Applies the results of the layout to the graph. Must be called on the UI
+	 * thread.
+	 */
+	void apply() {
+		if (animate) {
+			Animation.markBegin();
+		}
+		for (EntitySnapshot entity : entities) {
+			entity.apply();
+		}
+		for (RelationshipSnapshot relationship : relationships) {
+			relationship.apply();
+		}
+		if (animate) {
+			Animation.run(Graph.ANIMATION_TIME);
+		}
+		graph.getLightweightSystem().getUpdateManager().performUpdate();
+	}
+
+	private static boolean isDisposed(Object graphData) {
+		return graphData instanceof Item item && item.isDisposed();
+	}
+
+	/**
+	 * A copy of a layout entity, which can be accessed from any thread.
+	 */
+	private static final class EntitySnapshot implements LayoutEntity {
+		private final LayoutEntity entity;
+		private final Object graphData;
+		/** Computed on the UI thread, since the entity is compared by its label */
+		private final String label;
+		private final BasicEntityConstraint constraint = new BasicEntityConstraint();
+		private Object layoutInformation;
+		private double x;
+		private double y;
+		private double width;
+		private double height;
+		private boolean moved;
+		private boolean resized;
+
+		EntitySnapshot(LayoutEntity entity) {
+			this.entity = entity;
+			this.graphData = entity.getGraphData();
+			this.label = entity.toString();
+			this.x = entity.getXInLayout();
+			this.y = entity.getYInLayout();
+			this.width = entity.getWidthInLayout();
+			this.height = entity.getHeightInLayout();
+			entity.populateLayoutConstraint(constraint);
+		}
+
+		void apply() {
+			if (isDisposed(graphData)) {
+				return;
+			}
+			if (moved) {
+				entity.setLocationInLayout(x, y);
+			}
+			if (resized) {
+				entity.setSizeInLayout(width, height);
+			}
+		}
+
+		@Override
+		public void setLocationInLayout(double x, double y) {
+			this.x = x;
+			this.y = y;
+			moved = true;
+		}
+
+		@Override
+		public void setSizeInLayout(double width, double height) {
+			this.width = width;
+			this.height = height;
+			resized = true;
+		}
+
+		@Override
+		public double getXInLayout() {
+			return x;
+		}
+
+		@Override
+		public double getYInLayout() {
+			return y;
+		}
+
+		@Override
+		public double getWidthInLayout() {
+			return width;
+		}
+
+		@Override
+		public double getHeightInLayout() {
+			return height;
+		}
+
+		@Override
+		public Object getLayoutInformation() {
+			return layoutInformation;
+		}
+
+		@Override
+		public void setLayoutInformation(Object internalEntity) {
+			this.layoutInformation = internalEntity;
+		}
+
+		@Override
+		public void populateLayoutConstraint(LayoutConstraint layoutConstraint) {
+			if (layoutConstraint instanceof BasicEntityConstraint basic) {
+				basic.hasPreferredLocation = constraint.hasPreferredLocation;
+				basic.preferredX = constraint.preferredX;
+				basic.preferredY = constraint.preferredY;
+				basic.hasPreferredSize = constraint.hasPreferredSize;
+				basic.preferredWidth = constraint.preferredWidth;
+				basic.preferredHeight = constraint.preferredHeight;
+			}
+		}
+
+		/**
+		 * Compares the labels of the entities, like the entities of the nodes of a
+		 * graph do. The entities themselves must not be accessed by the background
+		 * thread.
+		 */
+		@Override
+		public int compareTo(Object other) {
+			return other instanceof EntitySnapshot snapshot ? label.compareTo(snapshot.label) : 0;
+		}
+
+		@Override
+		public Object getGraphData() {
+			return graphData;
+		}
+
+		@Override
+		public void setGraphData(Object o) {
+		}
+
+		@Override
+		public String toString() {
+			return label;
+		}
+	}
+
+	/**
+	 * A copy of a layout relationship, which can be accessed from any thread.
+	 */
+	private static final class RelationshipSnapshot implements LayoutRelationship {
+		private final LayoutRelationship relationship;
+		private final Object graphData;
+		private final EntitySnapshot source;
+		private final EntitySnapshot destination;
+		private final BasicEdgeConstraints constraint = new BasicEdgeConstraints();
+		private Object layoutInformation;
+		private boolean cleared;
+		private LayoutBendPoint[] bendPoints;
+
+		RelationshipSnapshot(LayoutRelationship relationship, EntitySnapshot source, EntitySnapshot destination) {
+			this.relationship = relationship;
+			this.graphData = relationship.getGraphData();
+			this.source = source;
+			this.destination = destination;
+			relationship.populateLayoutConstraint(constraint);
+		}
+
+		void apply() {
+			if (isDisposed(graphData)) {
+				return;
+			}
+			if (cleared) {
+				relationship.clearBendPoints();
+			}
+			if (bendPoints != null) {
+				relationship.setBendPoints(bendPoints);
+			}
+		}
+
+		@Override
+		public LayoutEntity getSourceInLayout() {
+			return source;
+		}
+
+		@Override
+		public LayoutEntity getDestinationInLayout() {
+			return destination;
+		}
+
+		@Override
+		public Object getLayoutInformation() {
+			return layoutInformation;
+		}
+
+		@Override
+		public void setLayoutInformation(Object layoutInformation) {
+			this.layoutInformation = layoutInformation;
+		}
+
+		@Override
+		public void setBendPoints(LayoutBendPoint[] bendPoints) {
+			this.bendPoints = bendPoints;
+		}
+
+		@Override
+		public void clearBendPoints() {
+			cleared = true;
+			bendPoints = null;
+		}
+
+		@Override
+		public void populateLayoutConstraint(LayoutConstraint layoutConstraint) {
+			if (layoutConstraint instanceof BasicEdgeConstraints basic) {
+				basic.isBiDirectional = constraint.isBiDirectional;
+				basic.weight = constraint.weight;
+			}
+		}
+
+		@Override
+		public Object getGraphData() {
+			return graphData;
+		}
+
+		@Override
+		public void setGraphData(Object o) {
+		}
+	}
+
+}
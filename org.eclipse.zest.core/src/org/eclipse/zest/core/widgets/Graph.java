@@ -37,8 +37,11 @@ import org.eclipse.zest.layouts.LayoutAlgorithm;
 import org.eclipse.zest.layouts.LayoutEntity;
 import org.eclipse.zest.layouts.LayoutRelationship;
 import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.AbstractLayoutAlgorithm;
 import org.eclipse.zest.layouts.algorithms.TreeLayoutAlgorithm;
 import org.eclipse.zest.layouts.constraints.LayoutConstraint;
+import org.eclipse.zest.layouts.progress.ProgressEvent;
+import org.eclipse.zest.layouts.progress.ProgressListener;
 
 import org.eclipse.draw2d.Animation;
 import org.eclipse.draw2d.Button;
@@ -117,6 +120,11 @@ public class Graph extends FigureCanvas implements IContainer {
 	private boolean hasPendingLayoutRequest;
 	private boolean enableHideNodes;
 
+	private boolean asynchronousLayout;
+	private BackgroundLayout backgroundLayout;
+	private boolean hasPendingBackgroundLayout;
+	private final List<ProgressListener> layoutProgressListeners = new ArrayList<>(1);
+
 	/**
 	 * Constructor for a Graph. This widget represents the root of the graph, and
 	 * can contain graph items such as graph nodes and graph connections.
@@ -415,6 +423,113 @@ public class Graph extends FigureCanvas implements IContainer {
 		return this.layoutAlgorithm;
 	}
 
+	/**
+	 * Sets whether layouts are computed on a background thread. If enabled, the
+	 * locations and sizes of the nodes are copied before the layout algorithm
+	 * runs, and the results are applied on the UI thread once the algorithm has
+	 * ended, so that the UI remains responsive while large graphs are laid out.
+	 * Requesting a layout while another one is running cancels the running layout.
+	 * <P>
+	 * Layout algorithms which don't extend {@link AbstractLayoutAlgorithm} or
+	 * can't be run asynchronously are always run on the UI thread.
+	 *
+	 * @param asynchronous <code>true</code> to compute layouts in the background
+	 * @since 1.13
+	 */
+	public void setAsynchronousLayout(boolean asynchronous) {
+		this.asynchronousLayout = asynchronous;
+	}
+
+	/**
+	 * @return <code>true</code> if layouts are computed on a background thread
+	 * @see #setAsynchronousLayout(boolean)
+	 * @since 1.13
+	 */
+	public boolean isAsynchronousLayout() {
+		return asynchronousLayout;
+	}
+
+	/**
+	 * Returns whether a layout is currently being computed on a background thread.
+	 *
+	 * @return <code>true</code> if a background layout is running
+	 * @see #setAsynchronousLayout(boolean)
+	 * @since 1.13
+	 */
+	public boolean isLayoutRunning() {
+		return backgroundLayout != null && !backgroundLayout.isCancelled();
+	}
+
+	/**
+	 * Stops the layout running on a background thread, if any. The results of a
+	 * cancelled layout are discarded.
+	 *
+	 * @see #setAsynchronousLayout(boolean)
+	 * @since 1.13
+	 */
+	public void cancelLayout() {
+		hasPendingBackgroundLayout = false;
+		if (backgroundLayout != null) {
+			backgroundLayout.cancel();
+		}
+	}
+
+	/**
+	 * Adds a listener that is informed about the progress of layouts running on a
+	 * background thread. The listener is always notified on the UI thread.
+	 *
+	 * @param listener the listener to add
+	 * @see #setAsynchronousLayout(boolean)
+	 * @since 1.13
+	 */
+	public void addLayoutProgressListener(ProgressListener listener) {
+		if (!layoutProgressListeners.contains(listener)) {
+			layoutProgressListeners.add(listener);
+		}
+	}
+
+	/**
+	 * Removes the given layout progress listener.
+	 *
+	 * @param listener the listener to remove
+	 * @since 1.13
+	 */
+	public void removeLayoutProgressListener(ProgressListener listener) {
+		layoutProgressListeners.remove(listener);
+	}
+
+	void fireLayoutProgressStarted(ProgressEvent event) {
+		List.copyOf(layoutProgressListeners).forEach(listener -> listener.progressStarted(event));
+	}
+
+	void fireLayoutProgressUpdated(ProgressEvent event) {
+		List.copyOf(layoutProgressListeners).forEach(listener -> listener.progressUpdated(event));
+	}
+
+	/**
+	 * Called on the UI thread once the algorithm of a background layout has ended.
+	 * If the algorithm failed, its results are discarded and its exception is
+	 * rethrown on the UI thread, once the listeners have been notified.
+	 */
+	void backgroundLayoutEnded(BackgroundLayout layout, ProgressEvent event) {
+		if (layout != backgroundLayout) {
+			return;
+		}
+		backgroundLayout = null;
+		RuntimeException failure = layout.getFailure();
+		if (!layout.isCancelled() && failure == null) {
+			layout.apply();
+		}
+		List.copyOf(layoutProgressListeners).forEach(listener -> listener.progressEnded(event));
+		if (hasPendingBackgroundLayout) {
+			hasPendingBackgroundLayout = false;
+			applyLayoutInternal();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
 	/**
 	 * Finds a figure at the location X, Y in the graph
 	 *
@@ -853,6 +968,7 @@ public class Graph extends FigureCanvas implements IContainer {
 	}
 
 	private void release() {
+		cancelLayout();
 		while (!nodes.isEmpty()) {
 			GraphNode node = nodes.get(0);
 			if (node != null) {
@@ -1190,6 +1306,13 @@ public class Graph extends FigureCanvas implements IContainer {
 			return;
 		}
 
+		if (backgroundLayout != null) {
+			// The algorithm can't be reused before it has ended
+			backgroundLayout.cancel();
+			hasPendingBackgroundLayout = true;
+			return;
+		}
+
 		int layoutStyle = 0;
 
 		if ((nodeStyle & ZestStyles.NODES_NO_LAYOUT_RESIZE) > 0) {
@@ -1220,6 +1343,18 @@ public class Graph extends FigureCanvas implements IContainer {
 		LayoutRelationship[] connectionsToLayout = getConnectionsToLayout(nodes);
 		LayoutEntity[] nodesToLayout = getNodesToLayout(getNodes());
 
+		if (asynchronousLayout && layoutAlgorithm instanceof AbstractLayoutAlgorithm algorithm) {
+			BackgroundLayout layout = new BackgroundLayout(this, algorithm, nodesToLayout, connectionsToLayout,
+					(nodeStyle & ZestStyles.NODES_NO_LAYOUT_ANIMATION) == 0);
+			try {
+				layout.start(d.width, d.height);
+				backgroundLayout = layout;
+				return;
+			} catch (InvalidLayoutConfiguration e) {
+				// The algorithm doesn't support being run asynchronously
+			}
+		}
+
 		try {
 			if ((nodeStyle & ZestStyles.NODES_NO_LAYOUT_ANIMATION) == 0) {
 				Animation.markBegin();
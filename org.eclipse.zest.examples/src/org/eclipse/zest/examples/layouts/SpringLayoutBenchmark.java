@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.examples.layouts;
+
+import java.util.Random;
+
+import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
+import org.eclipse.zest.layouts.LayoutEntity;
+import org.eclipse.zest.layouts.LayoutRelationship;
+import org.eclipse.zest.layouts.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.zest.layouts.dataStructures.InternalNode;
+import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Compares the iterations per second of the {@link SpringLayoutAlgorithm} when
+ * run serially and in parallel, with and without the Barnes-Hut approximation.
+ * The exact computation is skipped for graphs whose relation matrices don't fit
+ * into a reasonably sized heap. Runs headless, without a display.
+ */
+public class SpringLayoutBenchmark {
+
+	static final int[] NODE_COUNTS = { 1000, 5000, 20000 };
+	static final int MAX_EXACT_NODES = 5000;
+	static final int ITERATIONS = 20;
+	static final int RUNS = 3;
+
+	static LayoutEntity[] nodes;
+	static LayoutRelationship[] relationships;
+
+	static void createGraph(int n) {
+		Random random = new Random(n);
+		nodes = new LayoutEntity[n];
+		for (int i = 0; i < n; i++) {
+			nodes[i] = new SimpleNode(Integer.valueOf(i), 1000 * random.nextDouble(), 1000 * random.nextDouble(), 10,
+					10);
+		}
+		// a random tree with some additional edges
+		relationships = new LayoutRelationship[n - 1 + n / 2];
+		for (int i = 1; i < n; i++) {
+			relationships[i - 1] = new SimpleRelationship(nodes[i], nodes[random.nextInt(i)], false);
+		}
+		for (int i = n - 1; i < relationships.length; i++) {
+			relationships[i] = new SimpleRelationship(nodes[random.nextInt(n)], nodes[random.nextInt(n)], false);
+		}
+	}
+
+	/**
+	 * Measures the time spent in the iterations, excluding the time to set up
+	 * the layout.
+	 */
+	static class TimedSpringLayoutAlgorithm extends SpringLayoutAlgorithm {
+		long iterationTime;
+
+		@Override
+		protected void computeOneIteration(InternalNode[] entitiesToLayout,
+				InternalRelationship[] relationshipsToConsider, double x, double y, double width, double height) {
+			long start = System.nanoTime();
+			super.computeOneIteration(entitiesToLayout, relationshipsToConsider, x, y, width, height);
+			iterationTime += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Returns the best iterations per second of a few runs.
+	 */
+	static double iterationsPerSecond(int n, boolean barnesHut, int parallelism) throws InvalidLayoutConfiguration {
+		double best = 0;
+		for (int i = 0; i < RUNS; i++) {
+			best = Math.max(best, run(n, barnesHut, parallelism));
+		}
+		return best;
+	}
+
+	static double run(int n, boolean barnesHut, int parallelism) throws InvalidLayoutConfiguration {
+		// the layout starts from the locations of the nodes, so each run needs a
+		// new graph
+		createGraph(n);
+		TimedSpringLayoutAlgorithm algorithm = new TimedSpringLayoutAlgorithm();
+		algorithm.setBarnesHutEnabled(barnesHut);
+		algorithm.setParallelism(parallelism);
+		algorithm.setRandom(false);
+		algorithm.setIterations(ITERATIONS);
+		algorithm.applyLayout(nodes, relationships, 0, 0, 1000, 1000, false, false);
+		return ITERATIONS / (algorithm.iterationTime / 1e9);
+	}
+
+	public static void main(String[] args) throws InvalidLayoutConfiguration {
+		int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		System.out.println("nodes\texact serial\texact parallel\tBarnes-Hut serial\tBarnes-Hut parallel (it/s, " //$NON-NLS-1$
+				+ parallelism + " threads)"); //$NON-NLS-1$
+		for (int n : NODE_COUNTS) {
+			String exactSerial = "-"; //$NON-NLS-1$
+			String exactParallel = "-"; //$NON-NLS-1$
+			if (n <= MAX_EXACT_NODES) {
+				exactSerial = String.format("%.1f", Double.valueOf(iterationsPerSecond(n, false, 1))); //$NON-NLS-1$
+				exactParallel = String.format("%.1f", Double.valueOf(iterationsPerSecond(n, false, parallelism))); //$NON-NLS-1$
+			}
+			System.out.println(String.format("%d\t%s\t%s\t%.1f\t%.1f", Integer.valueOf(n), exactSerial, exactParallel, //$NON-NLS-1$
+					Double.valueOf(iterationsPerSecond(n, true, 1)), Double.valueOf(iterationsPerSecond(n, true, parallelism))));
+		}
+		// restore the settings shared by all instances
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setRandom(SpringLayoutAlgorithm.DEFAULT_SPRING_RANDOM);
+		algorithm.setIterations(SpringLayoutAlgorithm.DEFAULT_SPRING_ITERATIONS);
+	}
+
+}
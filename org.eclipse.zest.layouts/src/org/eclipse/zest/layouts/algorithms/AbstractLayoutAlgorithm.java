@@ -19,6 +19,7 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.zest.layouts.Filter;
 import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
@@ -63,7 +64,7 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	private Thread creationThread = null;
 	protected Comparator comparator;
 	protected Filter filter;
-	private final List<ProgressListener> progressListeners = new ArrayList<>();
+	private final List<ProgressListener> progressListeners = new CopyOnWriteArrayList<>();
 	private Calendar lastProgressEventFired;
 	private double widthToHeightRatio;
 
@@ -107,7 +108,13 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	/** A list of LayoutRelationship objects to be added. */
 	private final List<LayoutRelationship> relationshipsToAdd = new ArrayList<>();
 
-	protected boolean layoutStopped = true;
+	protected volatile boolean layoutStopped = true;
+
+	/** The thread running an asynchronous layout, if any */
+	private volatile Thread layoutThread;
+
+	/** The exception thrown by the last asynchronous layout, if any */
+	private volatile RuntimeException layoutException;
 
 	protected int layout_styles = 0;
 
@@ -351,14 +358,62 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	/**
 	 * Stops the current layout from running. All layout algorithms should
 	 * constantly check isLayoutRunning
+	 * <p>
+	 * If an asynchronous layout is stopped from another thread, the layout is only
+	 * requested to stop. The thread running the layout cleans up and notifies the
+	 * listeners once the algorithm has noticed the request, since the algorithm
+	 * may still be using its data.
 	 */
 	@Override
-	public synchronized void stop() {
+	public void stop() {
 		layoutStopped = true;
+		Thread thread = layoutThread;
+		if (thread != null && thread != Thread.currentThread()) {
+			return;
+		}
+		endLayout();
+	}
+
+	private synchronized void endLayout() {
 		postLayoutAlgorithm(internalNodes, internalRelationships);
 		fireProgressEnded(getTotalNumberOfLayoutSteps());
 	}
 
+	/**
+	 * Cleans up after an asynchronous layout, which may have failed, and notifies
+	 * the listeners. A failure of the cleanup is recorded like a failure of the
+	 * layout, since nobody could catch it on the layout thread.
+	 *
+	 * @param prepared whether the layout got far enough to need the cleanup
+	 */
+	private synchronized void endAsynchronousLayout(boolean prepared) {
+		try {
+			if (prepared) {
+				postLayoutAlgorithm(internalNodes, internalRelationships);
+			}
+		} catch (RuntimeException e) {
+			if (layoutException == null) {
+				layoutException = e;
+			}
+		} finally {
+			fireProgressEnded(getTotalNumberOfLayoutSteps());
+		}
+	}
+
+	/**
+	 * Returns the exception thrown by the last asynchronous layout. Since the
+	 * exception can't be thrown to the caller of
+	 * {@link #applyLayout(LayoutEntity[], LayoutRelationship[], double, double, double, double, boolean, boolean)
+	 * applyLayout}, listeners should check it once the progress has ended.
+	 *
+	 * @return the exception thrown by the last asynchronous layout, or
+	 *         <code>null</code> if it didn't fail
+	 * @since 1.6
+	 */
+	public RuntimeException getLayoutException() {
+		return layoutException;
+	}
+
 	private void setupLayout(LayoutEntity[] entitiesToLayout, LayoutRelationship[] relationshipsToConsider, double x,
 			double y, double width, double height) {
 		internalX = x;
@@ -421,22 +476,39 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 		clearBendPoints(relationshipsToConsider);
 
 		this.layoutStopped = false;
+		this.layoutException = null;
 
 		// when an algorithm starts, reset the progress event
 		lastProgressEventFired = Calendar.getInstance();
 		if (asynchronous) {
 
 			Thread thread = new Thread(() -> {
-				setupLayout(entitiesToLayout, relationshipsToConsider, x, y, width, height);
-				preLayoutAlgorithm(internalNodes, internalRelationships, internalX, internalY, internalWidth,
-						internalHeight);
-				fireProgressStarted(getTotalNumberOfLayoutSteps());
-
-				applyLayoutInternal(internalNodes, internalRelationships, internalX, internalY, internalWidth,
-						internalHeight);
-				stop();
+				boolean prepared = false;
+				try {
+					setupLayout(entitiesToLayout, relationshipsToConsider, x, y, width, height);
+					prepared = true;
+					preLayoutAlgorithm(internalNodes, internalRelationships, internalX, internalY, internalWidth,
+							internalHeight);
+					fireProgressStarted(getTotalNumberOfLayoutSteps());
+
+					applyLayoutInternal(internalNodes, internalRelationships, internalX, internalY, internalWidth,
+							internalHeight);
+				} catch (RuntimeException e) {
+					// Handed to the listeners, since nobody catches it on this thread
+					layoutException = e;
+				} finally {
+					// Listeners waiting for the end of the layout must be notified
+					// even if it failed
+					layoutStopped = true;
+					try {
+						endAsynchronousLayout(prepared);
+					} finally {
+						layoutThread = null;
+					}
+				}
 			});
 			thread.setPriority(Thread.MIN_PRIORITY);
+			layoutThread = thread;
 			thread.start();
 		} else {
 
@@ -868,21 +940,38 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 		DisplayIndependentDimension horAndVertdistance = new DisplayIndependentDimension(Double.MAX_VALUE,
 				Double.MAX_VALUE);
 		double minDistance = Double.MAX_VALUE; // the minimum distance between all the nodes
-		// TODO: Very Slow!
-		for (int i = 0; i < entitiesToLayout.length; i++) {
-			InternalNode layoutEntity1 = entitiesToLayout[i];
-			double x1 = layoutEntity1.getInternalX();
-			double y1 = layoutEntity1.getInternalY();
-			for (int j = i + 1; j < entitiesToLayout.length; j++) {
-				InternalNode layoutEntity2 = entitiesToLayout[j];
-				double x2 = layoutEntity2.getInternalX();
-				double y2 = layoutEntity2.getInternalY();
-				double distanceX = Math.abs(x1 - x2);
-				double distanceY = Math.abs(y1 - y2);
+		int n = entitiesToLayout.length;
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = entitiesToLayout[i].getInternalX();
+			ys[i] = entitiesToLayout[i].getInternalY();
+		}
+		// Sweep over the nodes sorted by x, only comparing nodes whose horizontal
+		// distance doesn't exceed the smallest distance found so far. Of several
+		// pairs with the same distance, the one first in the order of the entities
+		// is taken.
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = Integer.valueOf(i);
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(xs[a.intValue()], xs[b.intValue()]));
+		int bestFirst = -1;
+		int bestSecond = -1;
+		for (int k = 0; k < n; k++) {
+			int i = order[k].intValue();
+			for (int l = k + 1; l < n && xs[order[l].intValue()] - xs[i] <= minDistance; l++) {
+				int j = order[l].intValue();
+				double distanceX = Math.abs(xs[i] - xs[j]);
+				double distanceY = Math.abs(ys[i] - ys[j]);
 				double distance = Math.sqrt(Math.pow(distanceX, 2) + Math.pow(distanceY, 2));
-
-				if (distance < minDistance) {
+				int first = Math.min(i, j);
+				int second = Math.max(i, j);
+				if (distance < minDistance || (distance == minDistance
+						&& (first < bestFirst || (first == bestFirst && second < bestSecond)))) {
 					minDistance = distance;
+					bestFirst = first;
+					bestSecond = second;
 					horAndVertdistance.width = distanceX;
 					horAndVertdistance.height = distanceY;
 				}
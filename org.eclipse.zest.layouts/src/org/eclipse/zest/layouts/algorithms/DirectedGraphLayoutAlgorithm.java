@@ -25,6 +25,7 @@ import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.graph.DirectedGraph;
 import org.eclipse.draw2d.graph.DirectedGraphLayout;
 import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.LayoutMonitor;
 import org.eclipse.draw2d.graph.Node;
 
 public class DirectedGraphLayoutAlgorithm extends AbstractLayoutAlgorithm {
@@ -32,7 +33,7 @@ public class DirectedGraphLayoutAlgorithm extends AbstractLayoutAlgorithm {
 	class ExtendedDirectedGraphLayout extends DirectedGraphLayout {
 
 		@Override
-		public void visit(DirectedGraph graph) {
+		public boolean visit(DirectedGraph graph, LayoutMonitor monitor) {
 			Field field;
 			try {
 				field = DirectedGraphLayout.class.getDeclaredField("steps");
@@ -44,14 +45,18 @@ public class DirectedGraphLayoutAlgorithm extends AbstractLayoutAlgorithm {
 				steps.remove(8);
 				steps.remove(2);
 				field.setAccessible(false);
-				super.visit(graph);
+				return super.visit(graph, monitor);
 			} catch (SecurityException | ReflectiveOperationException | IllegalArgumentException e) {
 				e.printStackTrace();
 			}
+			return true;
 		}
 
 	}
 
+	private volatile int currentStep;
+	private volatile int totalSteps;
+
 	public DirectedGraphLayoutAlgorithm(int styles) {
 		super(styles);
 	}
@@ -74,7 +79,23 @@ public class DirectedGraphLayoutAlgorithm extends AbstractLayoutAlgorithm {
 			graph.edges.add(edge);
 		}
 		DirectedGraphLayout directedGraphLayout = new ExtendedDirectedGraphLayout();
-		directedGraphLayout.visit(graph);
+		boolean completed = directedGraphLayout.visit(graph, new LayoutMonitor() {
+			@Override
+			public void stepEnded(String name, int step, int steps, long nanos) {
+				currentStep = step + 1;
+				totalSteps = steps;
+				fireProgressEvent(currentStep, totalSteps);
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return !isRunning();
+			}
+		});
+		if (!completed) {
+			// Stopped, the graph is left in an undefined state
+			return;
+		}
 
 		for (Object node2 : graph.nodes) {
 			Node node = (Node) node2;
@@ -91,14 +112,12 @@ public class DirectedGraphLayoutAlgorithm extends AbstractLayoutAlgorithm {
 
 	@Override
 	protected int getCurrentLayoutStep() {
-		// TODO Auto-generated method stub
-		return 0;
+		return currentStep;
 	}
 
 	@Override
 	protected int getTotalNumberOfLayoutSteps() {
-		// TODO Auto-generated method stub
-		return 0;
+		return totalSteps;
 	}
 
 	@Override
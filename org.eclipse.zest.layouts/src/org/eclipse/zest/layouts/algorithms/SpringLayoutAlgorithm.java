@@ -14,9 +14,13 @@ package org.eclipse.zest.layouts.algorithms;
 
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.internal.BarnesHutTree;
 import org.eclipse.zest.layouts.dataStructures.DisplayIndependentRectangle;
 import org.eclipse.zest.layouts.dataStructures.InternalNode;
 import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
@@ -88,6 +92,26 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 	 */
 	public static final double DEFAULT_SPRING_GRAVITATION = 1.0f;
 
+	/**
+	 * The default ratio of cell size to distance below which the repulsion of a
+	 * group of nodes is approximated, if the Barnes-Hut approximation is enabled.
+	 *
+	 * @since 1.6
+	 */
+	public static final double DEFAULT_BARNES_HUT_THETA = 0.8;
+
+	/**
+	 * The number of nodes whose forces are computed by a single task in parallel
+	 * mode.
+	 */
+	private static final int FORCES_GRAIN = 64;
+
+	/**
+	 * The number of nodes whose positions are computed by a single task in
+	 * parallel mode.
+	 */
+	private static final int POSITIONS_GRAIN = 4096;
+
 	/**
 	 * The variable can be customized to set the number of iterations used.
 	 */
@@ -174,6 +198,30 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 
 	private boolean[] anchors;
 
+	private boolean barnesHut;
+
+	private double barnesHutTheta = DEFAULT_BARNES_HUT_THETA;
+
+	/**
+	 * The neighbours of node i are stored in adjacency[adjacencyStart[i]] to
+	 * adjacency[adjacencyStart[i + 1] - 1].
+	 */
+	private int[] adjacencyStart;
+
+	private int[] adjacency;
+
+	/**
+	 * The number of relations times their average weight, for each entry in
+	 * adjacency.
+	 */
+	private double[] adjacencyWeights;
+
+	private BarnesHutTree tree;
+
+	private int parallelism = 1;
+
+	private ForkJoinPool pool;
+
 	private DisplayIndependentRectangle bounds = null;
 
 	Date date = null;
@@ -331,6 +379,94 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		return sprRandom;
 	}
 
+	/**
+	 * Sets whether the forces are computed with the Barnes-Hut approximation. If
+	 * enabled, the repulsion between unrelated nodes is approximated with a
+	 * quadtree and the attraction between related nodes is computed from a sparse
+	 * adjacency list, so that an iteration takes O(n log n) time and the
+	 * algorithm requires O(n + e) memory, rather than O(n²). The strain, length
+	 * and gravitation controls have the same meaning in both modes. This should
+	 * be enabled for graphs with more than a few hundred nodes.
+	 *
+	 * @param enabled <code>true</code> to approximate the forces
+	 * @since 1.6
+	 */
+	public void setBarnesHutEnabled(boolean enabled) {
+		barnesHut = enabled;
+	}
+
+	/**
+	 * Returns whether the forces are computed with the Barnes-Hut approximation.
+	 *
+	 * @return <code>true</code> if the forces are approximated
+	 * @since 1.6
+	 */
+	public boolean isBarnesHutEnabled() {
+		return barnesHut;
+	}
+
+	/**
+	 * Sets the accuracy of the Barnes-Hut approximation. The repulsion of a group
+	 * of nodes is approximated by the repulsion of their center of mass if the
+	 * ratio of the size of the group to its distance is smaller than theta. 0
+	 * computes the exact repulsion, larger values are faster but less accurate.
+	 *
+	 * @param theta the accuracy of the approximation
+	 * @see #DEFAULT_BARNES_HUT_THETA
+	 * @since 1.6
+	 */
+	public void setBarnesHutTheta(double theta) {
+		if (theta < 0) {
+			throw new IllegalArgumentException("Theta must not be negative"); //$NON-NLS-1$
+		}
+		barnesHutTheta = theta;
+	}
+
+	/**
+	 * Returns the accuracy of the Barnes-Hut approximation.
+	 *
+	 * @return the accuracy of the approximation
+	 * @since 1.6
+	 */
+	public double getBarnesHutTheta() {
+		return barnesHutTheta;
+	}
+
+	/**
+	 * Sets the number of threads used to compute the forces and positions of the
+	 * nodes. With a parallelism of 1, the default, all computations are done by
+	 * the thread running the layout.
+	 * <p>
+	 * In parallel mode, the force on each node is computed as the sum of the
+	 * forces of all other nodes on it, independently of the other nodes. The
+	 * results are therefore reproducible and do not depend on the parallelism
+	 * level. They differ slightly from the serial exact computation, which
+	 * propagates the accumulated forces from node to node in the order of the
+	 * entities. With the Barnes-Hut approximation, the serial and the parallel
+	 * results are identical.
+	 *
+	 * @param parallelism the number of threads, at least 1
+	 * @see #setBarnesHutEnabled(boolean)
+	 * @since 1.6
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1"); //$NON-NLS-1$
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the number of threads used to compute the forces and positions of
+	 * the nodes.
+	 *
+	 * @return the parallelism level
+	 * @since 1.6
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
 	public void setWeight(String relType, double weight) {
 		relTypeToWeightMap.put(relType, Double.valueOf(weight));
 	}
@@ -362,6 +498,16 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		forcesX = null;
 		forcesY = null;
 		anchors = null;
+		srcDestToNumRels = null;
+		srcDestToRelsAvgWeight = null;
+		adjacencyStart = null;
+		adjacency = null;
+		adjacencyWeights = null;
+		tree = null;
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
 		setDefaultConditions();
 		srcDestToNumRelsMap = new HashMap<>();
 		srcDestToRelsAvgWeightMap = new HashMap<>();
@@ -388,8 +534,16 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		for (int i = 0; i < entitiesToLayout.length; i++) {
 			anchors[i] = DEFAULT_ANCHOR;
 		}
-		for (InternalRelationship layoutRelationship : relationshipsToConsider) {
-			addRelation(layoutRelationship);
+		if (barnesHut) {
+			computeAdjacency(entitiesToLayout, relationshipsToConsider);
+		} else {
+			for (InternalRelationship layoutRelationship : relationshipsToConsider) {
+				addRelation(layoutRelationship);
+			}
+		}
+
+		if (parallelism > 1) {
+			pool = new ForkJoinPool(parallelism);
 		}
 
 		// do the calculations
@@ -436,19 +590,78 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		}
 	}
 
-	private void preCompute(InternalNode[] entitiesToLayout) {
-		// count number of relationships between all nodes and the average
-		// weight between them
-		srcDestToNumRels = new int[entitiesToLayout.length][entitiesToLayout.length];
-		srcDestToRelsAvgWeight = new double[entitiesToLayout.length][entitiesToLayout.length];
+	/**
+	 * Builds the sparse adjacency list used by the Barnes-Hut approximation. The
+	 * weight of a pair of nodes is the same as the product of the number of
+	 * relations and their average weight used by the exact computation.
+	 */
+	private void computeAdjacency(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider) {
+		Map<InternalNode, Integer> indices = new IdentityHashMap<>(entitiesToLayout.length);
+		for (int i = 0; i < entitiesToLayout.length; i++) {
+			indices.put(entitiesToLayout[i], Integer.valueOf(i));
+		}
+		// Sum up the weights of all relations between each pair of nodes
+		Map<Long, Double> pairWeights = new HashMap<>();
+		int[] degrees = new int[entitiesToLayout.length];
+		for (InternalRelationship relationship : relationshipsToConsider) {
+			Integer source = indices.get(relationship.getSource());
+			Integer destination = indices.get(relationship.getDestination());
+			if (source == null || destination == null || source.equals(destination)) {
+				continue;
+			}
+			int i = Math.min(source.intValue(), destination.intValue());
+			int j = Math.max(source.intValue(), destination.intValue());
+			double weight = relationship.getWeight();
+			weight = (weight <= 0 ? 0.1 : weight);
+			// Each relation is counted in both directions by the exact computation
+			Double previous = pairWeights.put(Long.valueOf(((long) i << 32) | j), Double.valueOf(2 * weight));
+			if (previous != null) {
+				pairWeights.put(Long.valueOf(((long) i << 32) | j), Double.valueOf(previous.doubleValue() + 2 * weight));
+			} else {
+				degrees[i]++;
+				degrees[j]++;
+			}
+		}
 
-		for (int i = 0; i < entitiesToLayout.length - 1; i++) {
-			InternalNode layoutEntity1 = entitiesToLayout[i];
-			for (int j = i + 1; j < entitiesToLayout.length; j++) {
-				InternalNode layoutEntity2 = entitiesToLayout[j];
-				srcDestToNumRels[i][j] = numRelations(layoutEntity1, layoutEntity2);
-				srcDestToNumRels[i][j] += numRelations(layoutEntity2, layoutEntity1);
-				srcDestToRelsAvgWeight[i][j] = avgWeight(layoutEntity1, layoutEntity2);
+		adjacencyStart = new int[entitiesToLayout.length + 1];
+		for (int i = 0; i < entitiesToLayout.length; i++) {
+			adjacencyStart[i + 1] = adjacencyStart[i] + degrees[i];
+		}
+		adjacency = new int[adjacencyStart[entitiesToLayout.length]];
+		adjacencyWeights = new double[adjacency.length];
+		int[] next = new int[entitiesToLayout.length];
+		System.arraycopy(adjacencyStart, 0, next, 0, entitiesToLayout.length);
+		pairWeights.forEach((key, weight) -> {
+			int i = (int) (key.longValue() >>> 32);
+			int j = (int) key.longValue();
+			adjacency[next[i]] = j;
+			adjacencyWeights[next[i]++] = weight.doubleValue();
+			adjacency[next[j]] = i;
+			adjacencyWeights[next[j]++] = weight.doubleValue();
+		});
+		tree = new BarnesHutTree(entitiesToLayout.length);
+	}
+
+	private void preCompute(InternalNode[] entitiesToLayout) {
+		if (!barnesHut) {
+			// count number of relationships between all nodes and the average
+			// weight between them
+			srcDestToNumRels = new int[entitiesToLayout.length][entitiesToLayout.length];
+			srcDestToRelsAvgWeight = new double[entitiesToLayout.length][entitiesToLayout.length];
+
+			for (int i = 0; i < entitiesToLayout.length - 1; i++) {
+				InternalNode layoutEntity1 = entitiesToLayout[i];
+				for (int j = i + 1; j < entitiesToLayout.length; j++) {
+					InternalNode layoutEntity2 = entitiesToLayout[j];
+					srcDestToNumRels[i][j] = numRelations(layoutEntity1, layoutEntity2);
+					srcDestToNumRels[i][j] += numRelations(layoutEntity2, layoutEntity1);
+					srcDestToRelsAvgWeight[i][j] = avgWeight(layoutEntity1, layoutEntity2);
+					if (pool != null) {
+						// the parallel computation reads whole rows
+						srcDestToNumRels[j][i] = srcDestToNumRels[i][j];
+						srcDestToRelsAvgWeight[j][i] = srcDestToRelsAvgWeight[i][j];
+					}
+				}
 			}
 		}
 
@@ -618,6 +831,21 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 	 * force will be stored in the data repository
 	 */
 	protected void computeForces(InternalNode[] entitiesToLayout) {
+		if (barnesHut) {
+			tree.build(tempLocationsX, tempLocationsY, entitiesToLayout.length);
+			forEachRange(entitiesToLayout.length, FORCES_GRAIN, (from, to) -> {
+				computeApproximateForces(from, to);
+				return 0;
+			});
+			return;
+		}
+		if (pool != null) {
+			forEachRange(entitiesToLayout.length, FORCES_GRAIN, (from, to) -> {
+				computeExactForces(from, to);
+				return 0;
+			});
+			return;
+		}
 
 		// initialize all forces to zero
 		for (int i = 0; i < entitiesToLayout.length; i++) {
@@ -692,13 +920,138 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * Computes the forces with the Barnes-Hut approximation. All nodes repel each
+	 * other, except for related nodes, which attract each other instead.
+	 */
+	private void computeApproximateForces(int from, int to) {
+		int[] stack = new int[tree.getStackSize()];
+		double[] force = new double[2];
+		for (int i = from; i < to; i++) {
+			tree.computeRepulsion(i, barnesHutTheta, sprGravitation, MIN_DISTANCE, stack, force);
+			double fx = force[0];
+			double fy = force[1];
+			double srcLocationX = tempLocationsX[i];
+			double srcLocationY = tempLocationsY[i];
+			for (int k = adjacencyStart[i]; k < adjacencyStart[i + 1]; k++) {
+				int j = adjacency[k];
+				double dx = srcLocationX - tempLocationsX[j];
+				double dy = srcLocationY - tempLocationsY[j];
+				double distance = Math.max(MIN_DISTANCE, Math.sqrt(dx * dx + dy * dy));
+				// related nodes are pulled towards each other instead of being
+				// repelled, so take back the repulsion included above
+				double f = sprStrain * Math.log(distance / sprLength) * adjacencyWeights[k]
+						+ sprGravitation / (distance * distance);
+				fx = fx - (f * dx / distance);
+				fy = fy - (f * dy / distance);
+			}
+			forcesX[i] = fx;
+			forcesY[i] = fy;
+		}
+	}
+
+	/**
+	 * Computes the force on the nodes from index <code>from</code> (inclusive) to
+	 * <code>to</code> (exclusive) as the sum of the forces of all other nodes on
+	 * it.
+	 */
+	private void computeExactForces(int from, int to) {
+		int n = forcesX.length;
+		for (int i = from; i < to; i++) {
+			double srcLocationX = tempLocationsX[i];
+			double srcLocationY = tempLocationsY[i];
+			int[] numRelsRow = srcDestToNumRels[i];
+			double[] avgWeightRow = srcDestToRelsAvgWeight[i];
+			double fx = 0.0;
+			double fy = 0.0;
+			for (int j = 0; j < n; j++) {
+				if (j == i) {
+					continue;
+				}
+				double dx = srcLocationX - tempLocationsX[j];
+				double dy = srcLocationY - tempLocationsY[j];
+				// unlike the serial computation, coincident nodes must not
+				// produce infinite forces
+				double distance = Math.max(MIN_DISTANCE, Math.sqrt(dx * dx + dy * dy));
+				double distance_sq = distance * distance;
+				int numRels = numRelsRow[j];
+				double f;
+				if (numRels > 0) {
+					f = -sprStrain * Math.log(distance / sprLength) * numRels * avgWeightRow[j];
+				} else {
+					f = sprGravitation / distance_sq;
+				}
+				fx = fx + (f * dx / distance);
+				fy = fy + (f * dy / distance);
+			}
+			forcesX[i] = fx;
+			forcesY[i] = fy;
+		}
+	}
+
+	/**
+	 * Runs the given action on consecutive ranges of the indices from 0 to n,
+	 * either on the calling thread or in parallel, and returns the largest of
+	 * the results. The ranges don't depend on the parallelism level.
+	 */
+	private double forEachRange(int n, int grain, RangeAction action) {
+		if (pool == null || n <= grain) {
+			return action.run(0, n);
+		}
+		return pool.invoke(new RangeTask(action, 0, n, grain)).doubleValue();
+	}
+
+	@FunctionalInterface
+	private interface RangeAction {
+		double run(int from, int to);
+	}
+
+	private static final class RangeTask extends RecursiveTask<Double> {
+		private static final long serialVersionUID = 1L;
+		private final transient RangeAction action;
+		private final int from;
+		private final int to;
+		private final int grain;
+
+		RangeTask(RangeAction action, int from, int to, int grain) {
+			this.action = action;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		@Override
+		protected Double compute() {
+			if (to - from <= grain) {
+				return Double.valueOf(action.run(from, to));
+			}
+			int middle = (from + to) >>> 1;
+			RangeTask left = new RangeTask(action, from, middle, grain);
+			left.fork();
+			double right = new RangeTask(action, middle, to, grain).compute().doubleValue();
+			return Double.valueOf(Math.max(left.join().doubleValue(), right));
+		}
+	}
+
 	/**
 	 * Computes the position for each node in this SpringLayoutAlgorithm. The
 	 * computed position will be stored in the data repository. position = position
 	 * + sprMove * force
 	 */
 	protected void computePositions(InternalNode[] entitiesToLayout) {
-		for (int i = 0; i < entitiesToLayout.length; i++) {
+		double movement = forEachRange(entitiesToLayout.length, POSITIONS_GRAIN,
+				(from, to) -> computePositions(entitiesToLayout, from, to));
+		largestMovement = Math.max(largestMovement, movement);
+	}
+
+	/**
+	 * Computes the positions of the nodes from index <code>from</code>
+	 * (inclusive) to <code>to</code> (exclusive) and returns their largest
+	 * movement.
+	 */
+	private double computePositions(InternalNode[] entitiesToLayout, int from, int to) {
+		double movement = 0;
+		for (int i = from; i < to; i++) {
 			if (!anchors[i] || entitiesToLayout[i].hasPreferredLocation()) {
 				double oldX = tempLocationsX[i];
 				double oldY = tempLocationsY[i];
@@ -718,8 +1071,8 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 					deltaY = Math.max(deltaY, -maxMovement);
 				}
 
-				largestMovement = Math.max(largestMovement, Math.abs(deltaX));
-				largestMovement = Math.max(largestMovement, Math.abs(deltaY));
+				movement = Math.max(movement, Math.abs(deltaX));
+				movement = Math.max(movement, Math.abs(deltaY));
 
 				double newX = oldX + deltaX;
 				double newY = oldY + deltaY;
@@ -728,7 +1081,7 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 			}
 
 		}
-
+		return movement;
 	}
 
 	/**
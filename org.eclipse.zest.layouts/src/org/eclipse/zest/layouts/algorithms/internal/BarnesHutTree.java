@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.zest.layouts.algorithms.internal;
+
+import java.util.Arrays;
+
+/**
+ * A quadtree over a set of points, used to approximate the repulsive forces
+ * between all pairs of points in O(n log n) as described by Barnes and Hut. The
+ * repulsion between a point and the points of a distant cell is replaced by the
+ * repulsion between the point and the center of mass of the cell.
+ * <p>
+ * The tree is stored in primitive arrays, which are reused when the tree is
+ * rebuilt for the next iteration of a layout. Once built, the tree may be
+ * queried concurrently.
+ *
+ * @since 1.6
+ */
+public class BarnesHutTree {
+
+	private static final int EMPTY = -1;
+	private static final int AGGREGATE = -2;
+	private static final int INTERNAL = -3;
+
+	/**
+	 * Points closer than the smallest cell at this depth are merged into a single
+	 * leaf.
+	 */
+	private static final int MAX_DEPTH = 40;
+
+	private double[] xs;
+	private double[] ys;
+
+	private int cellCount;
+	private double[] centerX;
+	private double[] centerY;
+	private double[] halfSize;
+	private double[] sumX;
+	private double[] sumY;
+	private int[] mass;
+	private int[] body;
+	private int[] children;
+
+	/**
+	 * Creates an empty tree.
+	 *
+	 * @param capacity the expected number of points
+	 */
+	public BarnesHutTree(int capacity) {
+		allocate(Math.max(16, 2 * capacity));
+	}
+
+	private void allocate(int cells) {
+		centerX = new double[cells];
+		centerY = new double[cells];
+		halfSize = new double[cells];
+		sumX = new double[cells];
+		sumY = new double[cells];
+		mass = new int[cells];
+		body = new int[cells];
+		children = new int[4 * cells];
+	}
+
+	private void grow() {
+		int cells = centerX.length * 2;
+		centerX = Arrays.copyOf(centerX, cells);
+		centerY = Arrays.copyOf(centerY, cells);
+		halfSize = Arrays.copyOf(halfSize, cells);
+		sumX = Arrays.copyOf(sumX, cells);
+		sumY = Arrays.copyOf(sumY, cells);
+		mass = Arrays.copyOf(mass, cells);
+		body = Arrays.copyOf(body, cells);
+		children = Arrays.copyOf(children, 4 * cells);
+	}
+
+	/**
+	 * Rebuilds the tree for the given points. The arrays are not copied and must
+	 * not be modified until the tree is rebuilt.
+	 *
+	 * @param x     the x coordinates of the points
+	 * @param y     the y coordinates of the points
+	 * @param count the number of points
+	 */
+	public void build(double[] x, double[] y, int count) {
+		this.xs = x;
+		this.ys = y;
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		cellCount = 0;
+		if (count == 0) {
+			return;
+		}
+		double half = Math.max(maxX - minX, maxY - minY) / 2 + 1e-9;
+		newCell((minX + maxX) / 2, (minY + maxY) / 2, half);
+		for (int i = 0; i < count; i++) {
+			insert(i);
+		}
+	}
+
+	private int newCell(double cx, double cy, double half) {
+		if (cellCount == centerX.length) {
+			grow();
+		}
+		int cell = cellCount++;
+		centerX[cell] = cx;
+		centerY[cell] = cy;
+		halfSize[cell] = half;
+		sumX[cell] = 0;
+		sumY[cell] = 0;
+		mass[cell] = 0;
+		body[cell] = EMPTY;
+		Arrays.fill(children, 4 * cell, 4 * cell + 4, EMPTY);
+		return cell;
+	}
+
+	private int quadrant(int cell, double x, double y) {
+		return (x >= centerX[cell] ? 1 : 0) | (y >= centerY[cell] ? 2 : 0);
+	}
+
+	private int getOrCreateChild(int cell, int quadrant) {
+		int child = children[4 * cell + quadrant];
+		if (child == EMPTY) {
+			double half = halfSize[cell] / 2;
+			double cx = centerX[cell] + ((quadrant & 1) != 0 ? half : -half);
+			double cy = centerY[cell] + ((quadrant & 2) != 0 ? half : -half);
+			child = newCell(cx, cy, half);
+			children[4 * cell + quadrant] = child;
+		}
+		return child;
+	}
+
+	private void insert(int i) {
+		double x = xs[i];
+		double y = ys[i];
+		int cell = 0;
+		for (int depth = 0;; depth++) {
+			mass[cell]++;
+			sumX[cell] += x;
+			sumY[cell] += y;
+			int occupant = body[cell];
+			if (occupant == EMPTY) {
+				body[cell] = i;
+				return;
+			}
+			if (occupant == AGGREGATE) {
+				return;
+			}
+			if (occupant >= 0) {
+				if (depth >= MAX_DEPTH) {
+					body[cell] = AGGREGATE;
+					return;
+				}
+				// Push the occupant down into a new child
+				body[cell] = INTERNAL;
+				int child = getOrCreateChild(cell, quadrant(cell, xs[occupant], ys[occupant]));
+				mass[child] = 1;
+				sumX[child] = xs[occupant];
+				sumY[child] = ys[occupant];
+				body[child] = occupant;
+			}
+			cell = getOrCreateChild(cell, quadrant(cell, x, y));
+		}
+	}
+
+	private boolean contains(int cell, double x, double y) {
+		double half = halfSize[cell];
+		return Math.abs(x - centerX[cell]) <= half && Math.abs(y - centerY[cell]) <= half;
+	}
+
+	/**
+	 * Computes the repulsion of all other points on the given point. The magnitude
+	 * of the repulsion between two points is <code>gravitation / distance²</code>.
+	 *
+	 * @param i           the index of the point
+	 * @param theta       the ratio of cell size to distance below which a cell is
+	 *                    approximated by its center of mass, 0 for the exact
+	 *                    result
+	 * @param gravitation the strength of the repulsion
+	 * @param minDistance the smallest distance considered between two points
+	 * @param stack       an array of at least {@link #getStackSize()} elements
+	 *                    used for the traversal of the tree
+	 * @param force       receives the x and y component of the force
+	 */
+	public void computeRepulsion(int i, double theta, double gravitation, double minDistance, int[] stack,
+			double[] force) {
+		double x = xs[i];
+		double y = ys[i];
+		double fx = 0;
+		double fy = 0;
+		int top = 0;
+		if (cellCount > 0) {
+			stack[top++] = 0;
+		}
+		while (top > 0) {
+			int cell = stack[--top];
+			int occupant = body[cell];
+			double m = mass[cell];
+			double comX = sumX[cell];
+			double comY = sumY[cell];
+			if (occupant == i) {
+				continue;
+			}
+			boolean approximate = occupant >= 0;
+			if (occupant == AGGREGATE || occupant == INTERNAL) {
+				boolean containsSelf = contains(cell, x, y);
+				if (occupant == AGGREGATE) {
+					if (containsSelf) {
+						m--;
+						comX -= x;
+						comY -= y;
+					}
+					approximate = m > 0;
+				} else if (!containsSelf) {
+					double dx = x - comX / m;
+					double dy = y - comY / m;
+					double size = 2 * halfSize[cell];
+					approximate = size * size < theta * theta * (dx * dx + dy * dy);
+				}
+				if (!approximate && occupant == INTERNAL) {
+					for (int q = 0; q < 4; q++) {
+						int child = children[4 * cell + q];
+						if (child != EMPTY) {
+							stack[top++] = child;
+						}
+					}
+				}
+			}
+			if (approximate) {
+				double dx = x - comX / m;
+				double dy = y - comY / m;
+				double distance = Math.max(minDistance, Math.sqrt(dx * dx + dy * dy));
+				double f = gravitation * m / (distance * distance * distance);
+				fx += f * dx;
+				fy += f * dy;
+			}
+		}
+		force[0] = fx;
+		force[1] = fy;
+	}
+
+	/**
+	 * @return the size of the stack required by
+	 *         {@link #computeRepulsion(int, double, double, double, int[], double[])}
+	 */
+	public int getStackSize() {
+		return 4 * (MAX_DEPTH + 2);
+	}
+
+}
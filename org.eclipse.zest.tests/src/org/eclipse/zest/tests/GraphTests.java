@@ -8,18 +8,30 @@
  *******************************************************************************/
 package org.eclipse.zest.tests;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 
 import org.eclipse.zest.core.widgets.Graph;
 import org.eclipse.zest.core.widgets.GraphConnection;
 import org.eclipse.zest.core.widgets.GraphItem;
 import org.eclipse.zest.core.widgets.GraphNode;
+import org.eclipse.zest.core.widgets.ZestStyles;
 import org.eclipse.zest.core.widgets.internal.ZestRootLayer;
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.GridLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.zest.layouts.progress.ProgressEvent;
+import org.eclipse.zest.layouts.progress.ProgressListener;
 
 import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.geometry.Point;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -137,4 +149,96 @@ public class GraphTests extends Assert {
 
 	}
 
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		Display display = Display.getCurrent();
+		long end = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean()) {
+			assertTrue("Timed out", System.currentTimeMillis() < end); //$NON-NLS-1$
+			if (!display.readAndDispatch()) {
+				Thread.sleep(5);
+			}
+		}
+	}
+
+	private ProgressListener openForAsynchronousLayout(List<String> events) {
+		shell.setLayout(new FillLayout());
+		shell.setSize(500, 500);
+		shell.open();
+		graph.setNodeStyle(ZestStyles.NODES_NO_LAYOUT_ANIMATION);
+		graph.setAsynchronousLayout(true);
+		ProgressListener listener = new ProgressListener.Stub() {
+			@Override
+			public void progressStarted(ProgressEvent e) {
+				events.add("started"); //$NON-NLS-1$
+			}
+
+			@Override
+			public void progressEnded(ProgressEvent e) {
+				events.add("ended"); //$NON-NLS-1$
+			}
+		};
+		graph.addLayoutProgressListener(listener);
+		return listener;
+	}
+
+	/**
+	 * The results of a layout computed on a background thread are applied to the
+	 * graph on the UI thread.
+	 */
+	@Test
+	public void testAsynchronousLayout() throws InterruptedException {
+		List<String> events = new ArrayList<>();
+		openForAsynchronousLayout(events);
+		try {
+			nodes[0].setLocation(0, 0);
+			nodes[1].setLocation(0, 0);
+			graph.setLayoutAlgorithm(new GridLayoutAlgorithm(LayoutStyles.NO_LAYOUT_NODE_RESIZING), true);
+			waitFor(() -> events.contains("ended")); //$NON-NLS-1$
+			assertEquals(List.of("started", "ended"), events); //$NON-NLS-1$ //$NON-NLS-2$
+			assertFalse(graph.isLayoutRunning());
+			assertNotEquals("The nodes should have been laid out", nodes[0].getLocation(), nodes[1].getLocation()); //$NON-NLS-1$
+		} finally {
+			shell.dispose();
+		}
+	}
+
+	/**
+	 * Cancelling a background layout discards its results, and must not break
+	 * the algorithm while it is still running.
+	 */
+	@Test
+	public void testCancelAsynchronousLayout() throws InterruptedException {
+		for (int i = 0; i < 300; i++) {
+			GraphNode node = new GraphNode(graph, STYLE);
+			new GraphConnection(graph, STYLE, node, nodes[i % 2]);
+		}
+		List<String> events = new ArrayList<>();
+		openForAsynchronousLayout(events);
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm(LayoutStyles.NO_LAYOUT_NODE_RESIZING);
+		algorithm.setParallelism(4);
+		algorithm.setIterations(1_000_000);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler((thread, e) -> failure.set(e));
+		try {
+			List<Point> locations = new ArrayList<>();
+			graph.getNodes().forEach(node -> locations.add(node.getLocation()));
+			graph.setLayoutAlgorithm(algorithm, true);
+			waitFor(() -> events.contains("started")); //$NON-NLS-1$
+			assertTrue(graph.isLayoutRunning());
+
+			graph.cancelLayout();
+			assertFalse(graph.isLayoutRunning());
+			waitFor(() -> events.contains("ended")); //$NON-NLS-1$
+			assertNull(failure.get());
+			for (int i = 0; i < locations.size(); i++) {
+				assertEquals(locations.get(i), graph.getNodes().get(i).getLocation());
+			}
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(handler);
+			algorithm.setIterations(SpringLayoutAlgorithm.DEFAULT_SPRING_ITERATIONS);
+			shell.dispose();
+		}
+	}
+
 }
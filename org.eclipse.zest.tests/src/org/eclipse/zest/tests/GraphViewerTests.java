@@ -9,7 +9,9 @@
 package org.eclipse.zest.tests;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.dnd.DND;
@@ -20,9 +22,12 @@ import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Shell;
 
 import org.eclipse.jface.util.DelegatingDragAdapter;
+import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.zest.core.viewers.EntityConnectionData;
 import org.eclipse.zest.core.viewers.GraphViewer;
+import org.eclipse.zest.core.viewers.IGraphEntityContentProvider;
 import org.eclipse.zest.core.widgets.Graph;
 import org.eclipse.zest.core.widgets.GraphConnection;
 import org.eclipse.zest.core.widgets.GraphItem;
@@ -106,4 +111,55 @@ public class GraphViewerTests extends Assert {
 		viewer.getControl().notifyListeners(SWT.Selection, new Event());
 		assertFalse("Post selection listeners should be notified", selected.isEmpty()); //$NON-NLS-1$
 	}
+
+	/**
+	 * Assert that an incremental refresh only adds and removes the changed nodes
+	 * and connections, and keeps the others along with their locations.
+	 */
+	@Test
+	public void testIncrementalRefresh() {
+		Map<String, List<String>> model = new LinkedHashMap<>();
+		model.put("1", new ArrayList<>(List.of("2"))); //$NON-NLS-1$ //$NON-NLS-2$
+		model.put("2", new ArrayList<>(List.of("3"))); //$NON-NLS-1$ //$NON-NLS-2$
+		model.put("3", new ArrayList<>()); //$NON-NLS-1$
+		viewer.setContentProvider(new IGraphEntityContentProvider() {
+			@Override
+			public Object[] getElements(Object input) {
+				return model.keySet().toArray();
+			}
+
+			@Override
+			public Object[] getConnectedTo(Object entity) {
+				return model.get(entity).toArray();
+			}
+		});
+		viewer.setLabelProvider(new LabelProvider());
+		viewer.setIncrementalRefresh(true);
+		assertTrue(viewer.isIncrementalRefresh());
+		viewer.setInput(model);
+		Graph graph = viewer.getGraphControl();
+		assertEquals(3, graph.getNodes().size());
+		assertEquals(2, graph.getConnections().size());
+
+		GraphNode node1 = (GraphNode) viewer.findGraphItem("1"); //$NON-NLS-1$
+		GraphNode node3 = (GraphNode) viewer.findGraphItem("3"); //$NON-NLS-1$
+		GraphConnection connection = (GraphConnection) viewer.findGraphItem(new EntityConnectionData("1", "2")); //$NON-NLS-1$ //$NON-NLS-2$
+		node1.setLocation(100, 200);
+
+		model.remove("2"); //$NON-NLS-1$
+		model.get("1").add("3"); //$NON-NLS-1$ //$NON-NLS-2$
+		model.put("4", new ArrayList<>(List.of("1"))); //$NON-NLS-1$ //$NON-NLS-2$
+		viewer.refresh();
+
+		assertEquals(3, graph.getNodes().size());
+		assertEquals(2, graph.getConnections().size());
+		assertSame("Unchanged nodes should be kept", node1, viewer.findGraphItem("1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSame(node3, viewer.findGraphItem("3")); //$NON-NLS-1$
+		assertEquals(100, node1.getLocation().x);
+		assertEquals(200, node1.getLocation().y);
+		assertNull(viewer.findGraphItem("2")); //$NON-NLS-1$
+		assertTrue(connection.isDisposed());
+		assertNotNull(viewer.findGraphItem(new EntityConnectionData("1", "3"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull(viewer.findGraphItem(new EntityConnectionData("4", "1"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
 }
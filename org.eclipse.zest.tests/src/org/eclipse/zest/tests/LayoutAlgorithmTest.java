@@ -14,16 +14,29 @@
 package org.eclipse.zest.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
 import org.eclipse.zest.layouts.LayoutAlgorithm;
 import org.eclipse.zest.layouts.LayoutEntity;
 import org.eclipse.zest.layouts.LayoutRelationship;
+import org.eclipse.zest.layouts.algorithms.AbstractLayoutAlgorithm;
 import org.eclipse.zest.layouts.algorithms.GridLayoutAlgorithm;
+import org.eclipse.zest.layouts.dataStructures.InternalNode;
+import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
 import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
 import org.eclipse.zest.layouts.progress.ProgressEvent;
 import org.eclipse.zest.layouts.progress.ProgressListener;
 
@@ -83,6 +96,100 @@ public class LayoutAlgorithmTest {
 		});
 	}
 
+	@Test
+	public void testAsynchronousLayout() throws Exception {
+		SimpleNode node = new SimpleNode(new Object(), 50, 50, 10, 10);
+		Thread[] layoutThread = new Thread[1];
+		CountDownLatch ended = new CountDownLatch(1);
+		layoutAlgorithm.addProgressListener(new ProgressListener.Stub() {
+			@Override
+			public void progressEnded(ProgressEvent e) {
+				layoutThread[0] = Thread.currentThread();
+				ended.countDown();
+			}
+		});
+
+		layoutAlgorithm.applyLayout(new LayoutEntity[] { node }, new LayoutRelationship[0], 0, 0, 100, 100, true,
+				false);
+		assertTrue(ended.await(10, TimeUnit.SECONDS));
+		assertNotSame(Thread.currentThread(), layoutThread[0]);
+	}
+
+	/**
+	 * Listeners waiting for the end of an asynchronous layout must be notified
+	 * even if the layout fails, and the failure must be handed to them instead of
+	 * being thrown on the layout thread.
+	 */
+	@Test
+	public void testAsynchronousLayoutWithInvalidInput() throws Exception {
+		LayoutEntity[] nodes = { new SimpleNode(new Object()) };
+		LayoutRelationship[] relationships = {
+				new SimpleRelationship(new SimpleNode(new Object()), new SimpleNode(new Object()), false) };
+		AtomicReference<RuntimeException> exception = new AtomicReference<>();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		CountDownLatch ended = new CountDownLatch(1);
+		layoutAlgorithm.addProgressListener(new ProgressListener.Stub() {
+			@Override
+			public void progressEnded(ProgressEvent e) {
+				exception.set(((AbstractLayoutAlgorithm) layoutAlgorithm).getLayoutException());
+				ended.countDown();
+			}
+		});
+		Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler((thread, e) -> failure.set(e));
+		try {
+			layoutAlgorithm.applyLayout(nodes, relationships, 0, 0, 100, 100, true, false);
+			assertTrue(ended.await(10, TimeUnit.SECONDS));
+			assertNotNull(exception.get());
+			Thread.sleep(100);
+			assertNull(failure.get());
+			assertFalse(layoutAlgorithm.isRunning());
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(handler);
+		}
+	}
+
+	/**
+	 * An asynchronous layout which fails must still clean up, so that resources
+	 * such as the thread pool of the spring layout are released.
+	 */
+	@Test
+	public void testFailingAsynchronousLayout() throws Exception {
+		RuntimeException thrown = new IllegalStateException();
+		CountDownLatch cleanedUp = new CountDownLatch(1);
+		layoutAlgorithm = new GridLayoutAlgorithm() {
+			@Override
+			protected synchronized void applyLayoutInternal(InternalNode[] entitiesToLayout,
+					InternalRelationship[] relationshipsToConsider, double boundsX, double boundsY,
+					double boundsWidth, double boundsHeight) {
+				throw thrown;
+			}
+
+			@Override
+			protected void postLayoutAlgorithm(InternalNode[] entitiesToLayout,
+					InternalRelationship[] relationshipsToConsider) {
+				super.postLayoutAlgorithm(entitiesToLayout, relationshipsToConsider);
+				cleanedUp.countDown();
+			}
+		};
+		AtomicReference<RuntimeException> exception = new AtomicReference<>();
+		CountDownLatch ended = new CountDownLatch(1);
+		layoutAlgorithm.addProgressListener(new ProgressListener.Stub() {
+			@Override
+			public void progressEnded(ProgressEvent e) {
+				exception.set(((AbstractLayoutAlgorithm) layoutAlgorithm).getLayoutException());
+				ended.countDown();
+			}
+		});
+
+		SimpleNode node = new SimpleNode(new Object(), 50, 50, 10, 10);
+		layoutAlgorithm.applyLayout(new LayoutEntity[] { node }, new LayoutRelationship[0], 0, 0, 100, 100, true,
+				false);
+		assertTrue(ended.await(10, TimeUnit.SECONDS));
+		assertEquals(0, cleanedUp.getCount());
+		assertSame(thrown, exception.get());
+	}
+
 	private void testWith(ProgressListener progressListener) throws InvalidLayoutConfiguration {
 		LayoutEntity[] nodes = { new SimpleNode(new Object()) };
 		layoutAlgorithm.addProgressListener(progressListener);
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2024 IBM Corporation and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
+import org.eclipse.zest.layouts.LayoutEntity;
+import org.eclipse.zest.layouts.LayoutRelationship;
+import org.eclipse.zest.layouts.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.internal.BarnesHutTree;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+import org.eclipse.zest.layouts.progress.ProgressEvent;
+import org.eclipse.zest.layouts.progress.ProgressListener;
+
+import org.junit.Test;
+
+public class SpringLayoutAlgorithmTest {
+
+	@Test
+	public void testExactRepulsion() {
+		int n = 500;
+		Random random = new Random(7);
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = random.nextDouble();
+			ys[i] = random.nextDouble();
+		}
+		// Coincident points must not break the tree
+		xs[1] = xs[0];
+		ys[1] = ys[0];
+
+		BarnesHutTree tree = new BarnesHutTree(n);
+		tree.build(xs, ys, n);
+		int[] stack = new int[tree.getStackSize()];
+		double[] force = new double[2];
+		for (int i = 0; i < n; i++) {
+			double fx = 0;
+			double fy = 0;
+			for (int j = 0; j < n; j++) {
+				if (i != j) {
+					double dx = xs[i] - xs[j];
+					double dy = ys[i] - ys[j];
+					double distance = Math.max(0.001, Math.sqrt(dx * dx + dy * dy));
+					fx += dx / (distance * distance * distance);
+					fy += dy / (distance * distance * distance);
+				}
+			}
+			tree.computeRepulsion(i, 0, 1, 0.001, stack, force);
+			assertEquals(fx, force[0], 1e-6 * Math.max(1, Math.abs(fx)));
+			assertEquals(fy, force[1], 1e-6 * Math.max(1, Math.abs(fy)));
+		}
+	}
+
+	private static LayoutEntity[] layout(int n, boolean barnesHut, int parallelism) throws InvalidLayoutConfiguration {
+		Random random = new Random(5);
+		LayoutEntity[] nodes = new LayoutEntity[n];
+		for (int i = 0; i < n; i++) {
+			nodes[i] = new SimpleNode(Integer.valueOf(i), 1000 * random.nextDouble(), 1000 * random.nextDouble(), 10,
+					10);
+		}
+		LayoutRelationship[] relationships = new LayoutRelationship[n - 1];
+		for (int i = 1; i < n; i++) {
+			relationships[i - 1] = new SimpleRelationship(nodes[i], nodes[random.nextInt(i)], false);
+		}
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setBarnesHutEnabled(barnesHut);
+		algorithm.setParallelism(parallelism);
+		algorithm.setRandom(false);
+		algorithm.setIterations(20);
+		try {
+			algorithm.applyLayout(nodes, relationships, 0, 0, 1000, 1000, false, false);
+		} finally {
+			// These settings are shared by all instances
+			algorithm.setRandom(SpringLayoutAlgorithm.DEFAULT_SPRING_RANDOM);
+			algorithm.setIterations(SpringLayoutAlgorithm.DEFAULT_SPRING_ITERATIONS);
+		}
+		return nodes;
+	}
+
+	private static void assertSameLayout(LayoutEntity[] expected, LayoutEntity[] actual) {
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].getXInLayout(), actual[i].getXInLayout(), 0);
+			assertEquals(expected[i].getYInLayout(), actual[i].getYInLayout(), 0);
+		}
+	}
+
+	@Test
+	public void testParallelLayoutIsReproducible() throws InvalidLayoutConfiguration {
+		assertSameLayout(layout(700, false, 2), layout(700, false, 4));
+		assertSameLayout(layout(700, true, 1), layout(700, true, 3));
+	}
+
+	@Test
+	public void testBarnesHutLayout() throws InvalidLayoutConfiguration {
+		int n = 2000;
+		Random random = new Random(3);
+		LayoutEntity[] nodes = new LayoutEntity[n];
+		for (int i = 0; i < n; i++) {
+			nodes[i] = new SimpleNode(Integer.valueOf(i), 1000 * random.nextDouble(), 1000 * random.nextDouble(), 10,
+					10);
+		}
+		LayoutRelationship[] relationships = new LayoutRelationship[n - 1];
+		for (int i = 1; i < n; i++) {
+			relationships[i - 1] = new SimpleRelationship(nodes[i], nodes[random.nextInt(i)], false);
+		}
+
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setBarnesHutEnabled(true);
+		algorithm.setIterations(50);
+		try {
+			algorithm.applyLayout(nodes, relationships, 0, 0, 1000, 1000, false, false);
+		} finally {
+			// The number of iterations is shared by all instances
+			algorithm.setIterations(SpringLayoutAlgorithm.DEFAULT_SPRING_ITERATIONS);
+		}
+
+		assertTrue(algorithm.isBarnesHutEnabled());
+		assertFalse(algorithm.isRunning());
+		for (LayoutEntity node : nodes) {
+			assertTrue(node.getXInLayout() >= 0 && node.getXInLayout() <= 1000);
+			assertTrue(node.getYInLayout() >= 0 && node.getYInLayout() <= 1000);
+		}
+	}
+
+	/**
+	 * Stopping an asynchronous layout from another thread must not release the
+	 * data of the algorithm while the layout thread is still using it.
+	 */
+	@Test
+	public void testStopAsynchronousLayout() throws Exception {
+		int n = 1000;
+		Random random = new Random(11);
+		LayoutEntity[] nodes = new LayoutEntity[n];
+		for (int i = 0; i < n; i++) {
+			nodes[i] = new SimpleNode(Integer.valueOf(i), 1000 * random.nextDouble(), 1000 * random.nextDouble(), 10,
+					10);
+		}
+		LayoutRelationship[] relationships = new LayoutRelationship[n - 1];
+		for (int i = 1; i < n; i++) {
+			relationships[i - 1] = new SimpleRelationship(nodes[i], nodes[random.nextInt(i)], false);
+		}
+
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setParallelism(4);
+		algorithm.setIterations(1_000_000);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		AtomicReference<Thread> endThread = new AtomicReference<>();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch ended = new CountDownLatch(1);
+		algorithm.addProgressListener(new ProgressListener.Stub() {
+			@Override
+			public void progressStarted(ProgressEvent e) {
+				started.countDown();
+			}
+
+			@Override
+			public void progressEnded(ProgressEvent e) {
+				endThread.set(Thread.currentThread());
+				ended.countDown();
+			}
+		});
+		Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler((thread, e) -> failure.set(e));
+		try {
+			algorithm.applyLayout(nodes, relationships, 0, 0, 1000, 1000, true, false);
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			Thread.sleep(100);
+			algorithm.stop();
+			assertTrue("The layout should stop between two iterations", ended.await(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+			// The layout thread cleans up, not the thread requesting the stop
+			assertNotSame(Thread.currentThread(), endThread.get());
+			Thread.sleep(100);
+			assertNull(failure.get());
+			assertFalse(algorithm.isRunning());
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(handler);
+			algorithm.setIterations(SpringLayoutAlgorithm.DEFAULT_SPRING_ITERATIONS);
+		}
+	}
+}
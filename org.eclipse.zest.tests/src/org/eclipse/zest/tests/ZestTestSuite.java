@@ -30,6 +30,7 @@ import org.junit.runners.Suite;
 	GraphSelectionTests.class,
 	GraphViewerTests.class,
 	LayoutAlgorithmTest.class,
+	SpringLayoutAlgorithmTest.class,
 	GraphJFaceTests.class,
 	GraphSWTTests.class,
 	GraphUMLTests.class